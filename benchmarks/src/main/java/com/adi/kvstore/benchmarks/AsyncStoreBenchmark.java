@@ -0,0 +1,107 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.impl.AsyncKVStore;
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the sync API against AsyncKVStore (future joined) under
+ * contention, on an EvictingKVStore that is over capacity, so every
+ * put of a new key triggers eviction.
+ *
+ * - sync: get / put on the caller thread, eviction inline
+ * - async: operations on the default executor, eviction on a
+ *   maintenance thread (BackgroundScheduler)
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=AsyncStoreBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncStoreBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    EvictingKVStore kv;
+    AsyncKVStore async;
+    BackgroundScheduler maintenance;
+    String[] keys;
+    int[] sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        sequence = KeyDistribution.ZIPFIAN.indexes(keyCount, SEQUENCE_LENGTH, 42);
+
+        // Half of the key space fits: puts keep evicting
+        if (mode.equals("async")) {
+            maintenance = new BackgroundScheduler(MaintenanceBenchmark.MAINTENANCE_INTERVAL_MILLIS);
+            kv = StoreFactory.evicting("bufferedLru", keyCount / 2, maintenance);
+            async = new AsyncKVStore(kv);
+        } else {
+            kv = (EvictingKVStore) StoreFactory.evicting("bufferedLru", keyCount / 2);
+        }
+        for (String key : keys) {
+            kv.put(key, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (async != null) {
+            async.close();
+            maintenance.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+
+        String next(AsyncStoreBenchmark benchmark) {
+            return benchmark.keys[benchmark.sequence[position++ & (SEQUENCE_LENGTH - 1)]];
+        }
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        String key = cursor.next(this);
+        return (async == null) ? kv.get(key) : async.getAsync(key).join();
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        String key = cursor.next(this);
+        if (async == null) {
+            kv.put(key, key);
+        } else {
+            async.putAsync(key, key).join();
+        }
+    }
+}
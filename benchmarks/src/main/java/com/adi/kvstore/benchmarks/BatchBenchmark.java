@@ -0,0 +1,106 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch calls (getAll / putAll) against the same work done as a loop
+ * of single-key calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final int BATCHES = 64;
+
+    @Param({"concurrent", "evicting", "segmented"})
+    public String store;
+
+    @Param({"50", "500"})
+    public int batchSize;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    KeyValueStore kv;
+    List<List<String>> keyBatches;
+    List<Map<String, String>> entryBatches;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] keys = KeyDistribution.keys(keyCount);
+        kv = StoreFactory.create(store, keyCount);
+        for (String key : keys) {
+            kv.put(key, key);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        keyBatches = new ArrayList<>(BATCHES);
+        entryBatches = new ArrayList<>(BATCHES);
+        for (int b = 0; b < BATCHES; b++) {
+            List<String> batch = new ArrayList<>(batchSize);
+            Map<String, String> entries = new HashMap<>();
+            for (int i = 0; i < batchSize; i++) {
+                String key = keys[random.nextInt(keyCount)];
+                batch.add(key);
+                entries.put(key, key);
+            }
+            keyBatches.add(batch);
+            entryBatches.add(entries);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StoreFactory.shutdown(kv);
+    }
+
+    @Benchmark
+    public Map<String, String> getAll() {
+        return kv.getAll(keyBatches.get(position++ & (BATCHES - 1)));
+    }
+
+    @Benchmark
+    public void loopGet(Blackhole blackhole) {
+        for (String key : keyBatches.get(position++ & (BATCHES - 1))) {
+            blackhole.consume(kv.get(key));
+        }
+    }
+
+    @Benchmark
+    public void putAll() {
+        kv.putAll(entryBatches.get(position++ & (BATCHES - 1)));
+    }
+
+    @Benchmark
+    public void loopPut() {
+        for (Map.Entry<String, String> entry : entryBatches.get(position++ & (BATCHES - 1)).entrySet()) {
+            kv.put(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.cluster.ConsistentHashRing;
+import com.adi.kvstore.cluster.PartitionedKVStore;
+import com.adi.kvstore.server.RemoteKVStore;
+import com.adi.kvstore.server.RespServer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loopback load test for PartitionedKVStore.
+ *
+ * For 1, 2, 4 ... maxNodes RespServer nodes, client threads run a
+ * 90/10 read/write mix through one PartitionedKVStore and the achieved
+ * throughput is printed; reads are getAll batches fanned out per node.
+ * Then, on in-JVM ordered nodes, each join is measured: keys moved
+ * compared with the ideal 1/N, and the spread of ring ownership.
+ *
+ * Throughput only scales with the node count when nodes get their own
+ * cores (or hosts); on one core every node competes for the same CPU.
+ *
+ * Usage: ClusterLoad [maxNodes] [clientThreads] [seconds] [batchSize]
+ *   gradle :benchmarks:cluster -Pargs="8 16 5 16"
+ */
+public final class ClusterLoad {
+
+    private static final int KEY_COUNT = 100_000;
+
+    private ClusterLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxNodes = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+        int batchSize = (args.length > 3) ? Integer.parseInt(args[3]) : 16;
+
+        String[] keys = KeyDistribution.keys(KEY_COUNT);
+        for (int nodes = 1; nodes <= maxNodes; nodes *= 2) {
+            throughput(nodes, clients, seconds, batchSize, keys);
+        }
+        rebalance(maxNodes, keys);
+    }
+
+    private static void throughput(int nodeCount, int clients, int seconds, int batchSize, String[] keys) throws Exception {
+        List<KeyValueStore> stores = new ArrayList<>();
+        List<RespServer> servers = new ArrayList<>();
+        List<RemoteKVStore> remotes = new ArrayList<>();
+
+        try (PartitionedKVStore cluster = new PartitionedKVStore()) {
+            // Remote nodes cannot be scanned: they join all at once
+            Map<String, KeyValueStore> nodes = new LinkedHashMap<>();
+            for (int n = 0; n < nodeCount; n++) {
+                KeyValueStore store = StoreFactory.create("concurrent", KEY_COUNT);
+                RespServer server = new RespServer(store, new InetSocketAddress("127.0.0.1", 0), 1);
+                server.start();
+                RemoteKVStore remote = new RemoteKVStore("127.0.0.1", server.getPort(), clients * 2);
+                nodes.put("node-" + n, remote);
+                stores.add(store);
+                servers.add(server);
+                remotes.add(remote);
+            }
+            cluster.addNodes(nodes);
+
+            Map<String, String> preload = new HashMap<>();
+            for (String key : keys) {
+                preload.put(key, key);
+                if (preload.size() == 1000) {
+                    cluster.putAll(preload);
+                    preload.clear();
+                }
+            }
+            cluster.putAll(preload);
+
+            AtomicLong completed = new AtomicLong();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Thread> threads = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                Thread client = new Thread(() -> runClient(cluster, keys, batchSize, deadline, seed, completed));
+                threads.add(client);
+                client.start();
+            }
+            for (Thread client : threads) {
+                client.join();
+            }
+
+            System.out.printf(Locale.ROOT, "nodes=%d clients=%d batch=%d: %,.0f keys/s%n",
+                    nodeCount, clients, batchSize, completed.get() / (double) seconds);
+        } finally {
+            for (RemoteKVStore remote : remotes) {
+                remote.close();
+            }
+            for (RespServer server : servers) {
+                server.close();
+            }
+            for (KeyValueStore store : stores) {
+                StoreFactory.shutdown(store);
+            }
+        }
+    }
+
+    private static void runClient(KeyValueStore cluster, String[] keys, int batchSize, long deadline, long seed, AtomicLong completed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> batch = new ArrayList<>(batchSize);
+        while (System.nanoTime() < deadline) {
+            if (random.nextInt(10) == 0) {
+                String key = keys[random.nextInt(keys.length)];
+                cluster.put(key, key);
+                completed.incrementAndGet();
+                continue;
+            }
+
+            batch.clear();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(keys[random.nextInt(keys.length)]);
+            }
+            cluster.getAll(batch);
+            completed.addAndGet(batchSize);
+        }
+    }
+
+    /**
+     * Grows an in-JVM cluster one node at a time and reports how many
+     * keys each join moved.
+     */
+    private static void rebalance(int maxNodes, String[] keys) {
+        List<KeyValueStore> stores = new ArrayList<>();
+        try (PartitionedKVStore cluster = new PartitionedKVStore()) {
+            for (int n = 1; n <= maxNodes; n++) {
+                KeyValueStore store = StoreFactory.create("ordered", KEY_COUNT);
+                stores.add(store);
+                long moved = cluster.addNode("node-" + n, store);
+                if (n == 1) {
+                    for (String key : keys) {
+                        cluster.put(key, key);
+                    }
+                    continue;
+                }
+
+                ConsistentHashRing ring = cluster.ring();
+                double min = Collections.min(ring.ownership().values());
+                double max = Collections.max(ring.ownership().values());
+                System.out.printf(Locale.ROOT, "join node %d: moved %,d keys (%.1f%%, ideal %.1f%%), ownership %.1f%%..%.1f%%%n",
+                        n, moved, 100.0 * moved / keys.length, 100.0 / n, 100 * min, 100 * max);
+            }
+        } finally {
+            for (KeyValueStore store : stores) {
+                StoreFactory.shutdown(store);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating one field of a map stored under one key:
+ * - serialized: the map is a string value ("f=v;f=v..."), decoded,
+ *   changed and re-encoded inside compute, as before collection values
+ * - hash: HSET on a HashValue, updated in place
+ *
+ * Watch gc.alloc.rate.norm as well as the time: the serialized update
+ * allocates the whole map on every write.
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=CollectionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionBenchmark {
+
+    private static final String SERIALIZED = "serialized";
+    private static final String HASH = "hash";
+
+    @Param({"10", "1000"})
+    public int fields;
+
+    EvictingKVStore kv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kv = (EvictingKVStore) StoreFactory.evicting("bufferedLru", 1000);
+
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < fields; i++) {
+            map.put("field" + i, "value" + i);
+            kv.hset(HASH, "field" + i, "value" + i);
+        }
+        kv.put(SERIALIZED, encode(map));
+    }
+
+    @Benchmark
+    public String serialized() {
+        String field = "field" + ThreadLocalRandom.current().nextInt(fields);
+        return kv.compute(SERIALIZED, (key, value) -> {
+            Map<String, String> map = decode(value);
+            map.put(field, "updated");
+            return encode(map);
+        });
+    }
+
+    @Benchmark
+    public boolean hash() {
+        String field = "field" + ThreadLocalRandom.current().nextInt(fields);
+        return kv.hset(HASH, field, "updated");
+    }
+
+    private static String encode(Map<String, String> map) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            sb.append(e.getKey()).append('=').append(e.getValue()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> decode(String value) {
+        Map<String, String> map = new LinkedHashMap<>();
+        int start = 0;
+        while (start < value.length()) {
+            int equals = value.indexOf('=', start);
+            int end = value.indexOf(';', equals);
+            map.put(value.substring(start, equals), value.substring(equals + 1, end));
+            start = end + 1;
+        }
+        return map;
+    }
+}
@@ -0,0 +1,58 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.compact.CompactStorageEngine;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.concurrency.OrderedStorageEngine;
+import com.adi.kvstore.core.Entry;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Walks each storage engine's object graph with JOL and prints the
+ * retained bytes per entry, for small entries ("key:" + i mapped to a
+ * 16-character value, half of them with a TTL).
+ *
+ * Unlike HeapFootprint this is exact (no GC noise) and also prints the
+ * object-count breakdown, which is where the per-key overhead shows.
+ *
+ * Run with: gradle :benchmarks:engineFootprint -Pargs="1000000"
+ */
+public final class EngineFootprint {
+
+    private static final String VALUE = "v".repeat(16);
+    private static final String LARGE_VALUE = "{\"field\":\"value\",\"n\":1}".repeat(20);
+
+    private EngineFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int entries = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.printf(Locale.ROOT, "%-28s %10s %12s %14s%n", "engine", "entries", "objects", "bytes/entry");
+        report("concurrent", entries, VALUE, ConcurrentStorageEngine::new);
+        report("compact", entries, VALUE, CompactStorageEngine::new);
+        report("ordered", entries, VALUE, OrderedStorageEngine::new);
+
+        // Large, compressible values (about 460 bytes), fewer keys
+        int largeEntries = Math.max(1, entries / 10);
+        report("concurrent (large values)", largeEntries, LARGE_VALUE, ConcurrentStorageEngine::new);
+        report("compact (large values)", largeEntries, LARGE_VALUE, CompactStorageEngine::new);
+        report("compact+deflate (large)", largeEntries, LARGE_VALUE, () -> new CompactStorageEngine(16, 128));
+    }
+
+    private static void report(String name, int entries, String value, Supplier<ConcurrentStorage> engines) {
+        ConcurrentStorage engine = engines.get();
+        for (int i = 0; i < entries; i++) {
+            String key = "key:" + i;
+            // Copy the chars: new String(String) would share the backing array
+            engine.put(key, new Entry(key, new String(value.toCharArray()), (i % 2 == 0) ? -1 : Long.MAX_VALUE));
+        }
+
+        GraphLayout layout = GraphLayout.parseInstance(engine);
+        System.out.printf(Locale.ROOT, "%-28s %10d %12d %14.1f%n",
+                name, entries, layout.totalCount(), (double) layout.totalSize() / entries);
+    }
+}
@@ -0,0 +1,87 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eviction under memory pressure: a cache-aside loop (get, put on miss)
+ * over a key space ten times larger than the store's capacity.
+ *
+ * Hits and misses are reported as auxiliary counters, so the run shows
+ * both the throughput and the hit rate of each policy.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvictionBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+
+    @Param({"bufferedLru", "wTinyLfu"})
+    public String policy;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    @Param({"1000000"})
+    public int keyCount;
+
+    KeyValueStore kv;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        kv = StoreFactory.evicting(policy, keyCount / 10);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int[] indexes;
+        int position;
+
+        @Setup(Level.Trial)
+        public void setUp(EvictionBenchmark benchmark, ThreadParams threadParams) {
+            indexes = benchmark.distribution.indexes(benchmark.keyCount, SEQUENCE_LENGTH, threadParams.getThreadIndex());
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HitCounters {
+        public long hits;
+        public long misses;
+    }
+
+    @Benchmark
+    public String cacheAside(ThreadState state, HitCounters counters) {
+        String key = keys[state.indexes[state.position++ & SEQUENCE_MASK]];
+        String value = kv.get(key);
+        if (value == null) {
+            counters.misses++;
+            kv.put(key, key);
+        } else {
+            counters.hits++;
+        }
+        return value;
+    }
+}
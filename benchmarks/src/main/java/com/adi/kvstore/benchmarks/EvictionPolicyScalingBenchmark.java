@@ -0,0 +1,64 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.eviction.EvictionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording an access as the number of tracked keys grows.
+ *
+ * The buffered policies should stay flat from 10K to 10M keys. The
+ * original LRUEvictionPolicy scans its deque on every access, so it is
+ * left out of the default parameters; compare it at small sizes with
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=EvictionPolicyScalingBenchmark -Pjmh.args="-p policy=lru -p keyCount=10000,100000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class EvictionPolicyScalingBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+
+    @Param({"bufferedLru", "wTinyLfu"})
+    public String policy;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int keyCount;
+
+    EvictionPolicy evictionPolicy;
+    String[] keys;
+    int[] indexes;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        indexes = KeyDistribution.UNIFORM.indexes(keyCount, SEQUENCE_LENGTH, 42);
+        evictionPolicy = StoreFactory.policy(policy, keyCount);
+        for (String key : keys) {
+            evictionPolicy.onAdmit(key);
+        }
+    }
+
+    @Benchmark
+    public void onAccess() {
+        evictionPolicy.onAccess(keys[indexes[position++ & SEQUENCE_MASK]]);
+    }
+}
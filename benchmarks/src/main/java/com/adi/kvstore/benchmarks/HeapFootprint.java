@@ -0,0 +1,85 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.primitive.BinaryKVStore;
+import com.adi.kvstore.primitive.LongKVStore;
+import com.adi.kvstore.time.SystemClock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Prints the retained heap per entry of each store variant.
+ *
+ * Every variant holds the same logical data: N keys ("key:" + i, or i
+ * itself for the long-keyed store) mapped to 16-byte values. The heap
+ * is measured after a full GC before and after filling the store, so
+ * keys, values and every structure the store keeps per entry count.
+ *
+ * Run with: gradle :benchmarks:footprint -Pargs="1000000"
+ */
+public final class HeapFootprint {
+
+    private static final int VALUE_LENGTH = 16;
+    private static final String VALUE = "v".repeat(VALUE_LENGTH);
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int entries = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.printf(Locale.ROOT, "%-12s %12s %14s%n", "store", "entries", "bytes/entry");
+        report("concurrent", entries, n -> fill(StoreFactory.create("concurrent", n), n));
+        report("compact", entries, n -> fill(StoreFactory.create("compact", n), n));
+        report("evicting", entries, n -> fill(StoreFactory.create("evicting", n), n));
+        report("binary", entries, n -> {
+            BinaryKVStore store = new BinaryKVStore(n, new SystemClock());
+            for (int i = 0; i < n; i++) {
+                store.put(("key:" + i).getBytes(StandardCharsets.UTF_8), new byte[VALUE_LENGTH]);
+            }
+            return store;
+        });
+        report("long", entries, n -> {
+            LongKVStore store = new LongKVStore(n, new SystemClock());
+            for (int i = 0; i < n; i++) {
+                store.put(i, new byte[VALUE_LENGTH]);
+            }
+            return store;
+        });
+    }
+
+    private static KeyValueStore fill(KeyValueStore store, int entries) {
+        for (int i = 0; i < entries; i++) {
+            // Copy the chars: new String(String) would share the backing array
+            store.put("key:" + i, new String(VALUE.toCharArray()));
+        }
+        return store;
+    }
+
+    private static void report(String name, int entries, IntFunction<Object> builder) {
+        long before = usedHeapAfterGc();
+        Object store = builder.apply(entries);
+        long after = usedHeapAfterGc();
+
+        System.out.printf(Locale.ROOT, "%-12s %12d %14.1f%n", name, entries, (double) (after - before) / entries);
+
+        if (store instanceof KeyValueStore) {
+            StoreFactory.shutdown((KeyValueStore) store);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // Several rounds: a single System.gc() may leave floating garbage
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,92 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+
+import java.util.Locale;
+
+/**
+ * Replays synthetic access traces through EvictingKVStore and prints the
+ * hit rate of each eviction policy (cache-aside: get, put on miss).
+ *
+ * Traces:
+ * - zipf: skewed popularity, the common case for caches
+ * - zipf+scan: the same, interleaved with bursts of one-hit keys
+ * - loop: cyclic access slightly larger than the cache (LRU worst case)
+ *
+ * Run with: gradle :benchmarks:hitRate
+ */
+public final class HitRateSimulation {
+
+    private static final int KEY_COUNT = 50_000;
+    private static final int TRACE_LENGTH = 500_000;
+    private static final int[] CACHE_SIZES = {500, 2_500, 5_000};
+    private static final String[] POLICIES = {"lru", "bufferedLru", "wTinyLfu"};
+
+    private static final int SCAN_EVERY = 5_000;
+    private static final int SCAN_LENGTH = 2_000;
+
+    private HitRateSimulation() {
+    }
+
+    public static void main(String[] args) {
+        String[] keys = KeyDistribution.keys(KEY_COUNT);
+
+        System.out.printf(Locale.ROOT, "%-10s %8s %12s %12s %12s%n", "trace", "cache", POLICIES[0], POLICIES[1], POLICIES[2]);
+        for (String trace : new String[] {"zipf", "zipf+scan", "loop"}) {
+            for (int cacheSize : CACHE_SIZES) {
+                String[] accesses = trace(trace, keys, cacheSize);
+
+                StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-10s %8d", trace, cacheSize));
+                for (String policy : POLICIES) {
+                    row.append(String.format(Locale.ROOT, " %11.2f%%", 100 * hitRate(policy, cacheSize, accesses)));
+                }
+                System.out.println(row);
+            }
+        }
+    }
+
+    private static double hitRate(String policy, int cacheSize, String[] accesses) {
+        KeyValueStore store = StoreFactory.evicting(policy, cacheSize);
+        long hits = 0;
+        for (String key : accesses) {
+            if (store.get(key) != null) {
+                hits++;
+            } else {
+                store.put(key, key);
+            }
+        }
+        return (double) hits / accesses.length;
+    }
+
+    private static String[] trace(String name, String[] keys, int cacheSize) {
+        String[] accesses = new String[TRACE_LENGTH];
+        switch (name) {
+            case "zipf": {
+                int[] indexes = KeyDistribution.ZIPFIAN.indexes(keys.length, TRACE_LENGTH, 1);
+                for (int i = 0; i < TRACE_LENGTH; i++) {
+                    accesses[i] = keys[indexes[i]];
+                }
+                return accesses;
+            }
+            case "zipf+scan": {
+                int[] indexes = KeyDistribution.ZIPFIAN.indexes(keys.length, TRACE_LENGTH, 1);
+                int scanned = 0;
+                for (int i = 0; i < TRACE_LENGTH; i++) {
+                    // Scan keys are outside the Zipf key space and never repeat
+                    boolean inScan = (i % SCAN_EVERY) >= SCAN_EVERY - SCAN_LENGTH;
+                    accesses[i] = inScan ? "scan:" + scanned++ : keys[indexes[i]];
+                }
+                return accesses;
+            }
+            case "loop": {
+                int loopLength = cacheSize + cacheSize / 4;
+                for (int i = 0; i < TRACE_LENGTH; i++) {
+                    accesses[i] = keys[i % loopLength];
+                }
+                return accesses;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown trace: " + name);
+        }
+    }
+}
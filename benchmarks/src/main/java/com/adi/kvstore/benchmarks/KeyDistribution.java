@@ -0,0 +1,106 @@
+package com.adi.kvstore.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pre-generated key index sequences for benchmarks.
+ *
+ * Sequences are generated up front so the benchmark loop measures the
+ * store, not the random generator.
+ */
+public enum KeyDistribution {
+
+    /**
+     * Every key is equally likely.
+     */
+    UNIFORM {
+        @Override
+        int[] indexes(int keyCount, int length, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] indexes = new int[length];
+            for (int i = 0; i < length; i++) {
+                indexes[i] = random.nextInt(keyCount);
+            }
+            return indexes;
+        }
+    },
+
+    /**
+     * Skewed popularity (YCSB Zipfian, theta 0.99), with hot keys
+     * scattered over the key space instead of clustered at index 0.
+     */
+    ZIPFIAN {
+        @Override
+        int[] indexes(int keyCount, int length, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            ZipfianGenerator zipfian = new ZipfianGenerator(keyCount, 0.99);
+            int[] indexes = new int[length];
+            for (int i = 0; i < length; i++) {
+                long rank = zipfian.next(random.nextDouble());
+                indexes[i] = (int) Math.floorMod(scramble(rank), (long) keyCount);
+            }
+            return indexes;
+        }
+    };
+
+    /**
+     * @return a sequence of key indexes in [0, keyCount)
+     */
+    abstract int[] indexes(int keyCount, int length, long seed);
+
+    /**
+     * @return key names "key:0" .. "key:(count-1)"
+     */
+    static String[] keys(int keyCount) {
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "key:" + i;
+        }
+        return keys;
+    }
+
+    private static long scramble(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Zipfian rank generator from Gray et al., "Quickly Generating
+     * Billion-Record Synthetic Databases" (as used by YCSB).
+     */
+    static final class ZipfianGenerator {
+        private final long items;
+        private final double theta;
+        private final double alpha;
+        private final double zetaN;
+        private final double eta;
+
+        ZipfianGenerator(long items, double theta) {
+            this.items = items;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetaN = zeta(items, theta);
+            double zeta2 = zeta(2, theta);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+        }
+
+        long next(double u) {
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return (long) (items * Math.pow(eta * u - eta + 1, alpha));
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.cdc.KeyspaceEventStream;
+import com.adi.kvstore.cdc.KeyspaceEventType;
+import com.adi.kvstore.cdc.OverflowPolicy;
+import com.adi.kvstore.cdc.Subscription;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.impl.EvictingKVStore;
+import com.adi.kvstore.time.SystemClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-path cost of publishing keyspace events from an EvictingKVStore.
+ *
+ * - listener: an empty MutationListener (baseline: the store already
+ *   notifies inside the key's atomic section)
+ * - stream: a KeyspaceEventStream without subscribers
+ * - drop / block: one subscriber of every event, with that overflow policy
+ *
+ * With -prof gc, gc.alloc.rate.norm should match the baseline: the
+ * stream fills preallocated slots and allocates nothing per event.
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=KeyspaceEventBenchmark -Pjmh.args="-t 4"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyspaceEventBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int RING_CAPACITY = 1 << 16;
+
+    @Param({"listener", "stream", "drop", "block"})
+    public String mode;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    EvictingKVStore kv;
+    KeyspaceEventStream events;
+    Subscription subscription;
+    String[] keys;
+    String[] values;
+    int[] sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        values = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            values[i] = "value-" + keys[i];
+        }
+        sequence = KeyDistribution.ZIPFIAN.indexes(keyCount, SEQUENCE_LENGTH, 42);
+
+        kv = (EvictingKVStore) StoreFactory.evicting("bufferedLru", keyCount);
+        if (mode.equals("listener")) {
+            kv.addMutationListener(new MutationListener() {
+                @Override
+                public void onPut(Entry entry) {
+                }
+
+                @Override
+                public void onRemove(String key) {
+                }
+            });
+            return;
+        }
+
+        events = new KeyspaceEventStream(RING_CAPACITY, new SystemClock());
+        kv.addMutationListener(events);
+        if (!mode.equals("stream")) {
+            Blackhole sink = new Blackhole("Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.");
+            OverflowPolicy policy = mode.equals("block") ? OverflowPolicy.BLOCK : OverflowPolicy.DROP;
+            subscription = events.subscribe(event -> sink.consume(event.getKey()), "",
+                    EnumSet.allOf(KeyspaceEventType.class), policy);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (events != null) {
+            events.close();
+        }
+        if (subscription != null) {
+            System.out.printf("%n%s subscriber: delivered=%d dropped=%d%n",
+                    mode, subscription.delivered(), subscription.dropped());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        int index = sequence[cursor.position++ & (SEQUENCE_LENGTH - 1)];
+        kv.put(keys[index], values[index]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-path latency of an over-capacity EvictingKVStore, with policy
+ * bookkeeping and eviction on the caller thread or on a maintenance
+ * thread. Compare the tail percentiles of put.
+ *
+ * - inline: onAdmit / onAccess / eviction while writing
+ * - background: writers only offer the key to a buffer
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=MaintenanceBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaintenanceBenchmark {
+
+    static final long MAINTENANCE_INTERVAL_MILLIS = 10;
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"inline", "background"})
+    public String mode;
+
+    @Param({"bufferedLru", "wTinyLfu"})
+    public String policy;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    EvictingKVStore kv;
+    BackgroundScheduler maintenance;
+    String[] keys;
+    int[] sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        sequence = KeyDistribution.ZIPFIAN.indexes(keyCount, SEQUENCE_LENGTH, 42);
+
+        // Half of the key space fits: puts keep evicting
+        if (mode.equals("background")) {
+            maintenance = new BackgroundScheduler(MAINTENANCE_INTERVAL_MILLIS);
+            kv = StoreFactory.evicting(policy, keyCount / 2, maintenance);
+        } else {
+            kv = (EvictingKVStore) StoreFactory.evicting(policy, keyCount / 2);
+        }
+        for (String key : keys) {
+            kv.put(key, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (maintenance != null) {
+            maintenance.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+
+        String next(MaintenanceBenchmark benchmark) {
+            return benchmark.keys[benchmark.sequence[position++ & (SEQUENCE_LENGTH - 1)]];
+        }
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        return kv.get(cursor.next(this));
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        String key = cursor.next(this);
+        kv.put(key, key);
+    }
+}
@@ -0,0 +1,139 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.replication.ReplicationPrimary;
+import com.adi.kvstore.replication.ReplicationReplica;
+import com.adi.kvstore.time.Clock;
+import com.adi.kvstore.time.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Loopback load test for replication: writer threads hammer an
+ * in-process primary while replicas follow it over TCP. Prints write
+ * throughput, replication throughput, lag and the compression ratio
+ * of the stream.
+ *
+ * One replica joins late, after the backlog has wrapped, so it has to
+ * catch up with a full sync first.
+ *
+ * Usage: ReplicationLoad [replicas] [writers] [seconds] [backlogSize]
+ *   gradle :benchmarks:replication -Pargs="2 4 10 1048576"
+ */
+public final class ReplicationLoad {
+
+    private static final int KEY_COUNT = 100_000;
+
+    private ReplicationLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int replicaCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2;
+        int writers = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+        int backlogSize = (args.length > 3) ? Integer.parseInt(args[3]) : 1 << 20;
+
+        Clock clock = new SystemClock();
+        ConcurrentStorageEngine primaryStorage = new ConcurrentStorageEngine();
+        ConcurrentKVStore primaryStore = new ConcurrentKVStore(primaryStorage, new DefaultExpirationPolicy(), clock);
+        String[] keys = KeyDistribution.keys(KEY_COUNT);
+        for (String key : keys) {
+            primaryStore.put(key, "value-" + key);
+        }
+
+        try (ReplicationPrimary primary = new ReplicationPrimary(primaryStorage, new DefaultExpirationPolicy(), clock, 0, backlogSize)) {
+            primaryStore.addMutationListener(primary);
+            primary.start();
+
+            List<ReplicationReplica> replicas = new ArrayList<>();
+            List<ConcurrentStorageEngine> replicaStorages = new ArrayList<>();
+            for (int r = 0; r < replicaCount; r++) {
+                ConcurrentStorageEngine storage = new ConcurrentStorageEngine();
+                ConcurrentKVStore store = new ConcurrentKVStore(storage, new DefaultExpirationPolicy(), clock);
+                replicas.add(new ReplicationReplica(store, storage, clock, "127.0.0.1", primary.getPort()));
+                replicaStorages.add(storage);
+            }
+            // All but the last replica follow from the start; the last one joins halfway
+            for (int r = 0; r < replicaCount - 1; r++) {
+                replicas.get(r).start();
+            }
+
+            long start = System.nanoTime();
+            long deadline = start + seconds * 1_000_000_000L;
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                long seed = w;
+                Thread writer = new Thread(() -> write(primaryStore, keys, deadline, seed));
+                threads.add(writer);
+                writer.start();
+            }
+
+            long maxLagRecords = 0;
+            long maxLagMillis = 0;
+            boolean lateJoined = replicaCount == 0;
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(100);
+                if (!lateJoined && System.nanoTime() - start > (deadline - start) / 2) {
+                    replicas.get(replicaCount - 1).start();
+                    lateJoined = true;
+                }
+                for (int r = 0; r < replicaCount - 1; r++) {
+                    maxLagRecords = Math.max(maxLagRecords, replicas.get(r).lagRecords());
+                    maxLagMillis = Math.max(maxLagMillis, replicas.get(r).lagMillis());
+                }
+            }
+            for (Thread writer : threads) {
+                writer.join();
+            }
+            long writeNanos = System.nanoTime() - start;
+            long head = primary.headSequence();
+
+            // Drain: time until every replica has applied the last write
+            long drainStart = System.nanoTime();
+            for (ReplicationReplica replica : replicas) {
+                while (replica.lastAppliedSequence() < head) {
+                    Thread.sleep(1);
+                }
+            }
+            long drainMillis = (System.nanoTime() - drainStart) / 1_000_000;
+
+            System.out.printf(Locale.ROOT, "writers=%d replicas=%d backlog=%d: %,.0f writes/s on the primary%n",
+                    writers, replicaCount, backlogSize, head / (writeNanos / 1e9));
+            System.out.printf(Locale.ROOT, "max lag while writing: %,d records, %d ms; drained %d ms after the last write%n",
+                    maxLagRecords, maxLagMillis, drainMillis);
+            for (int r = 0; r < replicaCount; r++) {
+                ReplicationReplica replica = replicas.get(r);
+                System.out.printf(Locale.ROOT, "replica %d: applied=%,d records=%,d fullSyncs=%d received=%,d bytes entries=%,d%n",
+                        r, replica.lastAppliedSequence(), replica.recordsApplied(), replica.fullSyncs(),
+                        replica.bytesReceived(), replicaStorages.get(r).entrySet().size());
+            }
+            for (ReplicationPrimary.ReplicaStatus status : primary.replicaStatus()) {
+                System.out.printf(Locale.ROOT, "%s compression=%.2fx%n",
+                        status, status.getUncompressedBytes() / (double) Math.max(1, status.getBytesSent()));
+            }
+            System.out.printf(Locale.ROOT, "primary entries=%,d%n", primaryStorage.entrySet().size());
+
+            for (ReplicationReplica replica : replicas) {
+                replica.close();
+            }
+        }
+    }
+
+    private static void write(ConcurrentKVStore store, String[] keys, long deadline, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long i = 0;
+        while (System.nanoTime() < deadline) {
+            String key = keys[random.nextInt(keys.length)];
+            if (random.nextInt(10) == 0) {
+                store.remove(key);
+            } else {
+                store.put(key, "value-" + key + "-" + (i++));
+            }
+        }
+    }
+}
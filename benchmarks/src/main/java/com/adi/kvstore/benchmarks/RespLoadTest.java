@@ -0,0 +1,85 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.server.RespClient;
+import com.adi.kvstore.server.RespServer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loopback load test for RespServer: several pipelining clients send
+ * a 90/10 GET/SET mix against an in-process server and the achieved
+ * throughput is printed.
+ *
+ * Usage: RespLoadTest [connections] [pipelineDepth] [seconds] [eventLoops]
+ *   gradle :benchmarks:respLoad -Pargs="8 64 10 2"
+ */
+public final class RespLoadTest {
+
+    private static final int KEY_COUNT = 100_000;
+
+    private RespLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 64;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+        int eventLoops = (args.length > 3) ? Integer.parseInt(args[3]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        KeyValueStore store = StoreFactory.create("segmented", KEY_COUNT);
+        String[] keys = KeyDistribution.keys(KEY_COUNT);
+        for (String key : keys) {
+            store.put(key, key);
+        }
+
+        try (RespServer server = new RespServer(store, new InetSocketAddress("127.0.0.1", 0), eventLoops)) {
+            server.start();
+
+            AtomicLong completed = new AtomicLong();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Thread> clients = new ArrayList<>();
+
+            for (int c = 0; c < connections; c++) {
+                long seed = c;
+                Thread client = new Thread(() -> runClient(server.getPort(), keys, depth, deadline, seed, completed));
+                clients.add(client);
+                client.start();
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+
+            System.out.printf(Locale.ROOT, "connections=%d depth=%d loops=%d: %,.0f ops/s%n",
+                    connections, depth, eventLoops, completed.get() / (double) seconds);
+        }
+    }
+
+    private static void runClient(int port, String[] keys, int depth, long deadline, long seed, AtomicLong completed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (RespClient client = new RespClient("127.0.0.1", port)) {
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < depth; i++) {
+                    String key = keys[random.nextInt(keys.length)];
+                    if (random.nextInt(10) == 0) {
+                        client.send("SET", key, key);
+                    } else {
+                        client.send("GET", key);
+                    }
+                }
+                client.flush();
+                for (int i = 0; i < depth; i++) {
+                    client.read();
+                }
+                completed.addAndGet(depth);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Client failed", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.concurrency.OrderedStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.impl.OrderedKVStore;
+import com.adi.kvstore.time.SystemClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and benefit of the sorted key index (OrderedStorageEngine).
+ *
+ * Keys look like "user:<id>:<field>" (FIELDS fields per user).
+ * - scanPrefix: all fields of one user. "ordered" pages through the
+ *   index; "concurrent" has no index and must filter entrySet()
+ * - putNew: insert then delete of a fresh key, both of which update
+ *   the index (overwrites are covered by StoreBenchmark, store=ordered)
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=ScanBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+    private static final int FIELDS = 10;
+
+    @Param({"concurrent", "ordered"})
+    public String engine;
+
+    @Param({"100000"})
+    public int users;
+
+    ConcurrentStorage storage;
+    ConcurrentKVStore kv;
+    OrderedKVStore ordered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (engine.equals("ordered")) {
+            OrderedStorageEngine orderedStorage = new OrderedStorageEngine();
+            ordered = new OrderedKVStore(orderedStorage, new DefaultExpirationPolicy(), new SystemClock());
+            storage = orderedStorage;
+            kv = ordered;
+        } else {
+            storage = new ConcurrentStorageEngine();
+            kv = new ConcurrentKVStore(storage, new DefaultExpirationPolicy(), new SystemClock());
+        }
+
+        for (int user = 0; user < users; user++) {
+            for (int field = 0; field < FIELDS; field++) {
+                kv.put("user:" + user + ":" + field, "value");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        kv.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, String> scanPrefix() {
+        String prefix = "user:" + ThreadLocalRandom.current().nextInt(users) + ":";
+        if (ordered != null) {
+            return ordered.scan(prefix, null, FIELDS).entries();
+        }
+
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<String, Entry> e : storage.entrySet()) {
+            if (e.getKey().startsWith(prefix)) {
+                result.put(e.getKey(), e.getValue().getValue());
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void putNew() {
+        String key = "new:" + ThreadLocalRandom.current().nextLong();
+        kv.put(key, "value");
+        kv.remove(key);
+    }
+}
@@ -0,0 +1,86 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.persistence.Snapshot;
+import com.adi.kvstore.time.SystemClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write a snapshot and to restore it into an empty store,
+ * by key count and restore thread count.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int keyCount;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    ConcurrentStorageEngine storage;
+    ConcurrentKVStore source;
+    Path file;
+    ConcurrentKVStore target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storage = new ConcurrentStorageEngine();
+        source = new ConcurrentKVStore(storage, new DefaultExpirationPolicy(), new SystemClock());
+        for (String key : KeyDistribution.keys(keyCount)) {
+            source.put(key, key);
+        }
+        file = Files.createTempFile("kv-snapshot", ".bin");
+        Snapshot.write(storage, new DefaultExpirationPolicy(), new SystemClock(), file);
+    }
+
+    @Setup(Level.Iteration)
+    public void newTarget() {
+        target = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropTarget() {
+        target.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        source.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return Snapshot.write(storage, new DefaultExpirationPolicy(), new SystemClock(), file);
+    }
+
+    @Benchmark
+    public long restore() throws IOException {
+        return Snapshot.restore(file, target, new SystemClock(), threads);
+    }
+}
@@ -0,0 +1,88 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.impl.EvictingKVStore;
+import com.adi.kvstore.metrics.ConcurrentStatsCounter;
+import com.adi.kvstore.metrics.StatsCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of statistics on the get path of the default (v3) store.
+ *
+ * - off: the default disabled() counter
+ * - counters: hit/miss/put/eviction LongAdders
+ * - latency: counters plus get/put latency histograms
+ *
+ * Each mode runs in its own fork, so "off" never sees the other
+ * counter class and its calls inline away.
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=StatsOverheadBenchmark -Pjmh.args="-t 4"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsOverheadBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"off", "counters", "latency"})
+    public String stats;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    EvictingKVStore kv;
+    String[] keys;
+    int[] sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        sequence = KeyDistribution.ZIPFIAN.indexes(keyCount, SEQUENCE_LENGTH, 42);
+
+        kv = (EvictingKVStore) StoreFactory.evicting("bufferedLru", keyCount);
+        for (String key : keys) {
+            kv.put(key, key);
+        }
+
+        switch (stats) {
+            case "off":
+                kv.recordStats(StatsCounter.disabled());
+                break;
+            case "counters":
+                kv.recordStats(new ConcurrentStatsCounter(false));
+                break;
+            case "latency":
+                kv.recordStats(new ConcurrentStatsCounter(true));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown stats mode: " + stats);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        int index = sequence[cursor.position++ & (SEQUENCE_LENGTH - 1)];
+        return kv.get(keys[index]);
+    }
+}
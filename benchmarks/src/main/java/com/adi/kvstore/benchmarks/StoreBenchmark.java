@@ -0,0 +1,117 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point operations on every KeyValueStore implementation.
+ *
+ * Covers get, put and mixed read/write ratios over uniform and Zipfian
+ * keys. The store holds every key, so no eviction happens here (see
+ * EvictionBenchmark). Thread counts are chosen on the command line:
+ *
+ *   gradle :benchmarks:jmh -Pjmh.includes=StoreBenchmark -Pjmh.args="-t 64 -p store=concurrent,segmented"
+ *
+ * The "simple" store is single-threaded and only valid with -t 1.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+
+    @Param({"simple", "concurrent", "compact", "ordered", "evicting", "segmented"})
+    public String store;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    @Param({"100", "90", "50"})
+    public int readPercent;
+
+    KeyValueStore kv;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        kv = StoreFactory.create(store, keyCount);
+        for (String key : keys) {
+            kv.put(key, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StoreFactory.shutdown(kv);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int[] indexes;
+        boolean[] reads;
+        int position;
+
+        @Setup(Level.Trial)
+        public void setUp(StoreBenchmark benchmark, ThreadParams threadParams) {
+            long seed = threadParams.getThreadIndex();
+            indexes = benchmark.distribution.indexes(benchmark.keyCount, SEQUENCE_LENGTH, seed);
+
+            SplittableRandom random = new SplittableRandom(seed);
+            reads = new boolean[SEQUENCE_LENGTH];
+            for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                reads[i] = random.nextInt(100) < benchmark.readPercent;
+            }
+        }
+
+        int next() {
+            return position++ & SEQUENCE_MASK;
+        }
+    }
+
+    @Benchmark
+    public String get(ThreadState state) {
+        return kv.get(keys[state.indexes[state.next()]]);
+    }
+
+    @Benchmark
+    public void put(ThreadState state) {
+        String key = keys[state.indexes[state.next()]];
+        kv.put(key, key);
+    }
+
+    @Benchmark
+    public String mixed(ThreadState state) {
+        int i = state.next();
+        String key = keys[state.indexes[i]];
+        if (state.reads[i]) {
+            return kv.get(key);
+        }
+        kv.put(key, key);
+        return key;
+    }
+}
@@ -0,0 +1,91 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.compact.CompactStorageEngine;
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.concurrency.OrderedStorageEngine;
+import com.adi.kvstore.core.InMemoryStorageEngine;
+import com.adi.kvstore.eviction.BufferedLRUEvictionPolicy;
+import com.adi.kvstore.eviction.EvictionPolicy;
+import com.adi.kvstore.eviction.LRUEvictionPolicy;
+import com.adi.kvstore.eviction.SimpleMemoryTracker;
+import com.adi.kvstore.eviction.WindowTinyLfuEvictionPolicy;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.impl.EvictingKVStore;
+import com.adi.kvstore.impl.OrderedKVStore;
+import com.adi.kvstore.impl.SegmentedKVStore;
+import com.adi.kvstore.impl.SimpleKVStore;
+import com.adi.kvstore.time.SystemClock;
+
+/**
+ * Builds the store and policy variants compared by the benchmarks.
+ */
+final class StoreFactory {
+
+    private static final int SEGMENTS = 16;
+
+    private StoreFactory() {
+    }
+
+    /**
+     * @param type simple | concurrent | compact | ordered | evicting | segmented
+     * @param capacity entry limit for evicting variants
+     */
+    static KeyValueStore create(String type, int capacity) {
+        switch (type) {
+            case "simple":
+                // Single-threaded: only meaningful with -t 1
+                return new SimpleKVStore(new InMemoryStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
+            case "concurrent":
+                return new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
+            case "compact":
+                return new ConcurrentKVStore(new CompactStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
+            case "ordered":
+                return new OrderedKVStore(new OrderedStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
+            case "evicting":
+                return evicting("bufferedLru", capacity);
+            case "segmented":
+                return new SegmentedKVStore(SEGMENTS, () -> evicting("bufferedLru", Math.max(1, capacity / SEGMENTS)));
+            default:
+                throw new IllegalArgumentException("Unknown store: " + type);
+        }
+    }
+
+    static KeyValueStore evicting(String policy, int capacity) {
+        return new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                policy(policy, capacity), new SimpleMemoryTracker(capacity), new SystemClock());
+    }
+
+    /**
+     * Evicting store in maintenance mode: bookkeeping and eviction run
+     * on the scheduler's thread.
+     */
+    static EvictingKVStore evicting(String policy, int capacity, BackgroundScheduler maintenance) {
+        return new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                policy(policy, capacity), new SimpleMemoryTracker(capacity), new SystemClock(), maintenance);
+    }
+
+    /**
+     * @param name lru | bufferedLru | wTinyLfu
+     */
+    static EvictionPolicy policy(String name, int capacity) {
+        switch (name) {
+            case "lru":
+                return new LRUEvictionPolicy();
+            case "bufferedLru":
+                return new BufferedLRUEvictionPolicy();
+            case "wTinyLfu":
+                return new WindowTinyLfuEvictionPolicy(capacity);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    static void shutdown(KeyValueStore store) {
+        if (store instanceof ConcurrentKVStore) {
+            ((ConcurrentKVStore) store).shutdown();
+        }
+    }
+}
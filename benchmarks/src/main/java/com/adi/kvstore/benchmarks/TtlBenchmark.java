@@ -0,0 +1,111 @@
+package com.adi.kvstore.benchmarks;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.expiration.ExpirationIndex;
+import com.adi.kvstore.expiration.SampledExpirationIndex;
+import com.adi.kvstore.expiration.TimingWheel;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.time.SystemClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TTL-heavy workload: every write carries a short TTL, so the cleaner
+ * is busy while the benchmark runs.
+ *
+ * Compares the cleanup strategies of ConcurrentKVStore:
+ * - scan: full-map scan every 5 seconds (v2 default)
+ * - wheel: hierarchical timing wheel, 10 ms cleanup interval
+ * - sampled: Redis-style sampling with adaptive interval
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TtlBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+    private static final long CLEANUP_INTERVAL_MILLIS = 10;
+
+    @Param({"scan", "wheel", "sampled"})
+    public String expiration;
+
+    @Param({"1000000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public long ttlMillis;
+
+    ConcurrentKVStore kv;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.keys(keyCount);
+        SystemClock clock = new SystemClock();
+
+        if (expiration.equals("scan")) {
+            kv = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), clock);
+        } else {
+            ExpirationIndex index = expiration.equals("wheel")
+                    ? new TimingWheel(CLEANUP_INTERVAL_MILLIS, clock.now())
+                    : new SampledExpirationIndex();
+            kv = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), clock,
+                    index, CLEANUP_INTERVAL_MILLIS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        kv.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int[] indexes;
+        int position;
+
+        @Setup(Level.Trial)
+        public void setUp(TtlBenchmark benchmark, ThreadParams threadParams) {
+            indexes = KeyDistribution.UNIFORM.indexes(benchmark.keyCount, SEQUENCE_LENGTH, threadParams.getThreadIndex());
+        }
+
+        String nextKey(String[] keys) {
+            return keys[indexes[position++ & SEQUENCE_MASK]];
+        }
+    }
+
+    @Benchmark
+    public void putWithTtl(ThreadState state) {
+        String key = state.nextKey(keys);
+        kv.put(key, key, ttlMillis);
+    }
+
+    @Benchmark
+    public String getOrPutWithTtl(ThreadState state) {
+        String key = state.nextKey(keys);
+        String value = kv.get(key);
+        if (value == null) {
+            kv.put(key, key, ttlMillis);
+        }
+        return value;
+    }
+}
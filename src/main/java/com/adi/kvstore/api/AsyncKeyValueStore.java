@@ -0,0 +1,38 @@
+package com.adi.kvstore.api;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of KeyValueStore.
+ *
+ * Every method returns immediately; the future completes when the
+ * operation is applied (and, for writes, committed by the store's
+ * listeners, e.g. made durable by a write-ahead log). A failed
+ * operation completes its future exceptionally.
+ *
+ * Futures may complete on a store-owned thread: callers should not run
+ * blocking work in non-async continuations (thenApply, thenAccept...).
+ */
+public interface AsyncKeyValueStore {
+
+    /**
+     * @return future of the value if present and not expired, otherwise of null
+     */
+    CompletableFuture<String> getAsync(String key);
+
+    /**
+     * @return future of the live keys mapped to their values
+     */
+    CompletableFuture<Map<String, String>> getAllAsync(Collection<String> keys);
+
+    CompletableFuture<Void> putAsync(String key, String value);
+
+    CompletableFuture<Void> putAsync(String key, String value, long ttlMillis);
+
+    /**
+     * @return future of true if a live value was removed
+     */
+    CompletableFuture<Boolean> removeAsync(String key);
+}
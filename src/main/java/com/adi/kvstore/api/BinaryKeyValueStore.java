@@ -0,0 +1,60 @@
+package com.adi.kvstore.api;
+
+import java.nio.ByteBuffer;
+
+/*
+* Key-value store for binary keys and values.
+*
+* Arrays are stored and returned as-is (no defensive copies): callers
+* hand ownership of keys and values to the store and must not modify
+* them afterwards, nor modify values returned by get().
+*/
+
+public interface BinaryKeyValueStore {
+
+    /*
+    * Store a key-value pair without expiration.
+    */
+    void put(byte[] key, byte[] value);
+
+    /*
+    * Store a key-value pair with a TTL in milliseconds.
+    */
+    void put(byte[] key, byte[] value, long ttlMillis);
+
+    /*
+    * @return value if present and not expired, otherwise null
+    */
+    byte[] get(byte[] key);
+
+    /*
+    * @return true if a live (not expired) value was removed
+    */
+    boolean remove(byte[] key);
+
+    /*
+    * @return number of stored entries (expired ones included until reclaimed)
+    */
+    int size();
+
+    /*
+    * Store the remaining bytes of the buffers (copied; positions unchanged).
+    */
+    default void put(ByteBuffer key, ByteBuffer value) {
+        put(toArray(key), toArray(value));
+    }
+
+    /*
+    * @return the live value wrapped in a read-only buffer, or null
+    */
+    default ByteBuffer get(ByteBuffer key) {
+        byte[] value = get(toArray(key));
+        return (value == null) ? null : ByteBuffer.wrap(value).asReadOnlyBuffer();
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
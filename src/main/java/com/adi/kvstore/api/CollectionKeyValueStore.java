@@ -0,0 +1,143 @@
+package com.adi.kvstore.api;
+
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.core.ValueType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KeyValueStore whose keys may also hold a hash, a list or a sorted set.
+ *
+ * Each command updates the collection in place, atomically for its key,
+ * instead of rewriting a serialized value:
+ * - A write to an absent key creates the collection, with no TTL
+ * - Removing the last element removes the key
+ * - TTL (expire / ttl / remove) and eviction apply to the whole value
+ * - A command on a key holding another kind of value throws
+ *   WrongTypeException (as do string reads on a collection key)
+ */
+public interface CollectionKeyValueStore extends KeyValueStore {
+
+    /**
+     * Stores composed of other stores (or over a string-only storage
+     * engine) may implement this interface without being able to hold
+     * collections; callers such as the RESP server check this first.
+     *
+     * @return false if every collection write would be rejected
+     */
+    default boolean supportsCollections() {
+        return true;
+    }
+
+    /**
+     * @return the kind of value held by the key, or null if absent or expired
+     */
+    ValueType type(String key);
+
+    /**
+     * HSET: sets a field of the hash.
+     *
+     * @return true if the field is new
+     */
+    boolean hset(String key, String field, String value);
+
+    /**
+     * HGET
+     *
+     * @return the field's value, or null if the key or field is absent
+     */
+    String hget(String key, String field);
+
+    /**
+     * HDEL
+     *
+     * @return true if the field was removed
+     */
+    boolean hdel(String key, String field);
+
+    /**
+     * HGETALL
+     *
+     * @return a copy of the hash (empty if the key is absent)
+     */
+    Map<String, String> hgetAll(String key);
+
+    /**
+     * HLEN
+     */
+    int hlen(String key);
+
+    /**
+     * LPUSH: inserts the values at the head, in order (the last one ends
+     * up first).
+     *
+     * @return the length of the list after the push
+     */
+    int lpush(String key, String... values);
+
+    /**
+     * RPUSH: appends the values at the tail, in order.
+     *
+     * @return the length of the list after the push
+     */
+    int rpush(String key, String... values);
+
+    /**
+     * LPOP
+     *
+     * @return the removed head, or null if the key is absent
+     */
+    String lpop(String key);
+
+    /**
+     * RPOP
+     *
+     * @return the removed tail, or null if the key is absent
+     */
+    String rpop(String key);
+
+    /**
+     * LRANGE: items from start to stop, both inclusive; negative indexes
+     * count from the tail (-1 is the last item).
+     */
+    List<String> lrange(String key, long start, long stop);
+
+    /**
+     * LLEN
+     */
+    int llen(String key);
+
+    /**
+     * ZADD: adds the member or updates its score.
+     *
+     * @return true if the member is new
+     * @throws IllegalArgumentException if the score is NaN
+     */
+    boolean zadd(String key, double score, String member);
+
+    /**
+     * ZSCORE
+     *
+     * @return the member's score, or null if the key or member is absent
+     */
+    Double zscore(String key, String member);
+
+    /**
+     * ZREM
+     *
+     * @return true if the member was removed
+     */
+    boolean zrem(String key, String member);
+
+    /**
+     * ZRANGEBYSCORE ... LIMIT 0 limit: members with min <= score <= max,
+     * by ascending score.
+     */
+    List<ScoredMember> zrangeByScore(String key, double min, double max, int limit);
+
+    /**
+     * ZCARD
+     */
+    int zcard(String key);
+}
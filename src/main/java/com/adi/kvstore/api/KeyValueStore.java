@@ -1,5 +1,9 @@
 package com.adi.kvstore.api;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiFunction;
+
 /*
 * Public API for the key-value store.
 */
@@ -22,4 +26,122 @@ public interface KeyValueStore {
     * @return value if present and not ecpired, otherwise null
     */
     String get(String key);
-}
\ No newline at end of file
+
+    /*
+    * Batch operations.
+    *
+    * A batch reads the clock once and amortizes policy bookkeeping,
+    * but each key is still stored or read individually (no batch atomicity).
+    */
+
+    /*
+    * Retrieve the values of several keys.
+    *
+    * @return live (present and not expired) keys mapped to their values
+    */
+    Map<String, String> getAll(Collection<String> keys);
+
+    /*
+    * Store several key-value pairs without expiration.
+    */
+    void putAll(Map<String, String> entries);
+
+    /*
+    * Store several key-value pairs sharing one TTL in milliseconds.
+    */
+    void putAll(Map<String, String> entries, long ttlMillis);
+
+    /*
+    * Atomic operations.
+    *
+    * Each of these is a single atomic read-modify-write on the key:
+    * - Expired entries are treated as absent
+    * - Updating an existing key keeps its TTL
+    * - Creating a key through compute/merge/incrementBy sets no TTL
+    */
+
+    /*
+    * Remove the value for a key.
+    *
+    * @return true if a live (not expired) value was removed
+    */
+    boolean remove(String key);
+
+    /*
+    * Remove the key only if its live value equals the expected value.
+    * Any other value is left untouched (not written back).
+    *
+    * @return true if the value was removed
+    */
+    boolean remove(String key, String expectedValue);
+
+    /*
+    * Store the value only if the key has no live value.
+    *
+    * @return the current value if present, otherwise null (value was stored)
+    */
+    String putIfAbsent(String key, String value);
+
+    /*
+    * Store the value with a TTL only if the key has no live value.
+    *
+    * @return the current value if present, otherwise null (value was stored)
+    */
+    String putIfAbsent(String key, String value, long ttlMillis);
+
+    /*
+    * Replace the value only if it currently equals the expected value.
+    *
+    * @return true if the value was replaced
+    */
+    boolean replace(String key, String expectedValue, String newValue);
+
+    /*
+    * Replace the value and its TTL only if the value currently equals
+    * the expected value, in one atomic step.
+    *
+    * @return true if the value was replaced
+    */
+    boolean replace(String key, String expectedValue, String newValue, long ttlMillis);
+
+    /*
+    * Compute a new value from the current one (null if absent).
+    * Returning null removes the key.
+    *
+    * @return the new value, or null if the key was removed
+    */
+    String compute(String key, BiFunction<String, String, String> remappingFunction);
+
+    /*
+    * Store the value if absent, otherwise combine it with the current one.
+    * Returning null from the function removes the key.
+    *
+    * @return the new value, or null if the key was removed
+    */
+    String merge(String key, String value, BiFunction<String, String, String> remappingFunction);
+
+    /*
+    * Add delta to the numeric value of the key (absent counts as 0).
+    *
+    * @return the value after the increment
+    * @throws IllegalArgumentException if the value is not a number or would overflow
+    */
+    long incrementBy(String key, long delta);
+
+    /*
+    * Set a TTL in milliseconds on a live key, replacing any previous one.
+    * A non-positive TTL expires the key immediately.
+    *
+    * @return true if the key was live (not expired) and got the new TTL
+    */
+    boolean expire(String key, long ttlMillis);
+
+    /*
+    * Remaining time to live of a key. A read: it takes no lock and
+    * changes nothing (an expired key is reported as absent).
+    *
+    * @return remaining milliseconds, -1 if the key has no TTL,
+    *         -2 if the key is absent or expired
+    */
+    long ttl(String key);
+}
@@ -0,0 +1,36 @@
+package com.adi.kvstore.api;
+
+/*
+* Key-value store specialized for primitive long keys and binary values.
+*
+* Keys are never boxed. Value arrays are stored and returned as-is
+* (no defensive copies), see BinaryKeyValueStore.
+*/
+
+public interface LongKeyValueStore {
+
+    /*
+    * Store a key-value pair without expiration.
+    */
+    void put(long key, byte[] value);
+
+    /*
+    * Store a key-value pair with a TTL in milliseconds.
+    */
+    void put(long key, byte[] value, long ttlMillis);
+
+    /*
+    * @return value if present and not expired, otherwise null
+    */
+    byte[] get(long key);
+
+    /*
+    * @return true if a live (not expired) value was removed
+    */
+    boolean remove(long key);
+
+    /*
+    * @return number of stored entries (expired ones included until reclaimed)
+    */
+    int size();
+}
@@ -0,0 +1,57 @@
+package com.adi.kvstore.api;
+
+import com.adi.kvstore.core.Entry;
+
+/**
+ * Observer of the writes applied to a store.
+ *
+ * onPut / onRemove are called inside the key's atomic section, so
+ * per-key events arrive in the same order as the writes were applied.
+ * They must be fast and must never call back into the store.
+ *
+ * onCommit is called by the writing thread after it left the atomic
+ * section (once per operation or batch, and after every removal by a
+ * read, the cleaner or eviction); it may block, e.g. to wait until the
+ * write is durable.
+ *
+ * Removals of expired entries (by the cleaner, by a read or by a write
+ * that found the entry expired) are reported through onExpire. An entry
+ * carries its absolute expiry time, so observers that replay writes
+ * (write-ahead log, replication) can ignore them.
+ *
+ * Only string values are reported. Collection values (hash, list,
+ * sorted set) are mutated in place, so a store with listeners rejects
+ * collection writes instead of storing values nobody observed.
+ */
+public interface MutationListener {
+
+    /**
+     * A new value was stored for entry.getKey().
+     */
+    void onPut(Entry entry);
+
+    /**
+     * A live key was removed by a write (not by expiration).
+     */
+    void onRemove(String key);
+
+    /**
+     * A live entry was evicted to respect the memory limit.
+     * Called inside the key's atomic section, like onPut.
+     */
+    default void onEvict(Entry entry) {
+    }
+
+    /**
+     * An expired entry was removed from the store.
+     * Called inside the key's atomic section, like onPut.
+     */
+    default void onExpire(Entry entry) {
+    }
+
+    /**
+     * The calling thread finished its current write operation.
+     */
+    default void onCommit() {
+    }
+}
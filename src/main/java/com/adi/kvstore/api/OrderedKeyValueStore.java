@@ -0,0 +1,34 @@
+package com.adi.kvstore.api;
+
+/**
+ * KeyValueStore that can also scan keys in ascending order.
+ *
+ * Scans are paged and incremental:
+ * - Each call examines a bounded number of keys, whatever the store size
+ * - The cursor of a page is passed back to continue after it; null
+ *   starts a new scan
+ * - Expired entries are skipped
+ * - Scans never block writers; keys written during a scan may or may
+ *   not be returned, but no live key present for the whole scan is missed
+ */
+public interface OrderedKeyValueStore extends KeyValueStore {
+
+    /**
+     * Scans live keys starting with the prefix ("" scans everything).
+     *
+     * @param cursor cursor of the previous page, or null for the first page
+     * @param limit  maximum number of entries in the page
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    ScanPage scan(String prefix, String cursor, int limit);
+
+    /**
+     * Scans live keys in [fromKey, toKey).
+     *
+     * @param toKey  exclusive upper bound, or null for no bound
+     * @param cursor cursor of the previous page, or null for the first page
+     * @param limit  maximum number of entries in the page
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    ScanPage range(String fromKey, String toKey, String cursor, int limit);
+}
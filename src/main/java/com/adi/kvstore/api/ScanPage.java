@@ -0,0 +1,45 @@
+package com.adi.kvstore.api;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * One page of an ordered scan (OrderedKeyValueStore).
+ *
+ * Pass cursor() back to get the next page. A null cursor means the scan
+ * is complete. A page may hold fewer entries than requested (even none)
+ * while the cursor is not null: expired keys count towards the work
+ * done for a page.
+ */
+public final class ScanPage {
+
+    private final Map<String, String> entries;
+    private final String cursor;
+
+    /**
+     * @param entries live entries in ascending key order
+     * @param cursor  last key examined, or null if the scan is complete
+     */
+    public ScanPage(Map<String, String> entries, String cursor) {
+        this.entries = Collections.unmodifiableMap(entries);
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return live keys mapped to their values, in ascending key order
+     */
+    public Map<String, String> entries() {
+        return entries;
+    }
+
+    /**
+     * @return the cursor for the next page, or null if the scan is complete
+     */
+    public String cursor() {
+        return cursor;
+    }
+
+    public boolean isComplete() {
+        return cursor == null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.adi.kvstore.api;
+
+/**
+ * Source of values for keys missing from a store (e.g. a database).
+ *
+ * Used by LoadingKVStore; may be called from any thread, including
+ * background refresh threads.
+ */
+@FunctionalInterface
+public interface ValueLoader {
+
+    /**
+     * @return the value for the key, or null if there is none
+     * @throws Exception if the value cannot be loaded
+     */
+    String load(String key) throws Exception;
+}
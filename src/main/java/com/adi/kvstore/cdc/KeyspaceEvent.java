@@ -0,0 +1,72 @@
+package com.adi.kvstore.cdc;
+
+/**
+ * One keyspace event.
+ *
+ * Instances are preallocated and reused: the ring holds one per slot
+ * and each subscription one to deliver copies. Fields are only valid
+ * during KeyspaceEventListener.onEvent.
+ */
+public final class KeyspaceEvent {
+
+    long sequence;
+    KeyspaceEventType type;
+    String key;
+    String value;
+    long expiryTime;
+    long timestamp;
+
+    KeyspaceEvent() {
+    }
+
+    /**
+     * @return position of the event in the stream; a gap means events were dropped
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public KeyspaceEventType getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the stored value (PUT), the value that expired or was
+     *         evicted (EXPIRE, EVICT), or null (REMOVE)
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return absolute expiry time of the entry, -1 if none or REMOVE
+     */
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    /**
+     * @return store clock time at which the event was published
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    void copyFrom(KeyspaceEvent other) {
+        sequence = other.sequence;
+        type = other.type;
+        key = other.key;
+        value = other.value;
+        expiryTime = other.expiryTime;
+        timestamp = other.timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + type + " " + key;
+    }
+}
@@ -0,0 +1,14 @@
+package com.adi.kvstore.cdc;
+
+/**
+ * Receives the events of one subscription, in sequence order, on the
+ * subscription's own thread.
+ */
+@FunctionalInterface
+public interface KeyspaceEventListener {
+
+    /**
+     * @param event reused for the next event: copy what must be kept
+     */
+    void onEvent(KeyspaceEvent event);
+}
@@ -0,0 +1,386 @@
+package com.adi.kvstore.cdc;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.time.Clock;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Change-data-capture stream of keyspace events (put, remove, expire,
+ * evict), in the style of the LMAX Disruptor.
+ *
+ * Registered as a MutationListener, it publishes every event of the
+ * store into a preallocated ring of KeyspaceEvent slots:
+ * - A writer claims a sequence number (one atomic increment), fills the
+ *   slot in place and publishes the sequence number; nothing is
+ *   allocated per event
+ * - Stores have many writer threads, so slots are claimed like the
+ *   Disruptor's multi-producer sequencer; a per-slot published
+ *   sequence (a seqlock) lets readers detect a slot being rewritten
+ * - With no subscriber, publishing returns immediately
+ *
+ * Each subscription reads the ring on its own thread, filters by key
+ * prefix and event type, and calls its listener in sequence order.
+ * A subscriber that falls a ring behind either drops the overwritten
+ * events (OverflowPolicy.DROP) or makes writers wait (BLOCK).
+ *
+ * Events of one key arrive in the order the writes were applied: the
+ * sequence number is claimed inside the key's atomic section. Writers
+ * never wait there; when a BLOCK subscriber still holds the slot, the
+ * event is kept by the writing thread and published in onCommit, after
+ * the atomic section (readers wait for it like for any slot being
+ * written). A BLOCK subscriber must not write to the store it listens
+ * to: it would wait for itself, so its writes are rejected.
+ *
+ * Usage:
+ *   KeyspaceEventStream events = new KeyspaceEventStream(1 << 16, clock);
+ *   store.addMutationListener(events);
+ *   events.subscribe(e -> index.update(e.getKey(), e.getValue()),
+ *           "user:", EnumSet.of(KeyspaceEventType.PUT, KeyspaceEventType.REMOVE), OverflowPolicy.DROP);
+ *
+ * An event is also held when the previous lap of its slot is still
+ * being written by another thread, whatever the overflow policy.
+ * Held events are copied into a per-thread pool of event objects that
+ * is reused by later operations: it is allocated once per thread and
+ * only grows when one operation holds more events than ever before
+ * (it shrinks back to MAX_POOLED_EVENTS when the operation commits).
+ *
+ * Trade-off:
+ * - Subscribers poll the ring (spin, yield, then short parks) instead
+ *   of being signalled, so an idle subscriber wakes up every PARK_NANOS
+ * - The ring keeps references to the last capacity keys and values
+ * - Once a thread holds an event, its later events of the operation
+ *   are held too, and readers wait until onCommit publishes them
+ */
+public class KeyspaceEventStream implements MutationListener, AutoCloseable {
+
+    static final long PARK_NANOS = 100_000;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final int INITIAL_POOLED_EVENTS = 4;
+    private static final int MAX_POOLED_EVENTS = 64;
+
+    static final int READ = 0;
+    static final int NOT_PUBLISHED = 1;
+    static final int OVERWRITTEN = 2;
+
+    private static final Subscription[] NONE = new Subscription[0];
+
+    private final KeyspaceEvent[] slots;
+    // Per slot: sequence held, or -(sequence + 2) while it is written; -1 before first use
+    private final AtomicLongArray published;
+    private final int mask;
+    private final Clock clock;
+
+    // Next sequence number to claim
+    private final AtomicLong cursor = new AtomicLong();
+
+    private volatile Subscription[] subscriptions = NONE;
+    private volatile Subscription[] blocking = NONE;
+
+    // Events of the current operation waiting for a BLOCK subscriber, in sequence order
+    private final ThreadLocal<HeldEvents> pending = ThreadLocal.withInitial(HeldEvents::new);
+
+    /**
+     * @param capacity number of slots, a power of two
+     * @param clock    timestamps the events
+     */
+    public KeyspaceEventStream(int capacity, Clock clock) {
+        if (capacity <= 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two greater than 1");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+
+        this.slots = new KeyspaceEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new KeyspaceEvent();
+        }
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.clock = clock;
+    }
+
+    /**
+     * Subscribes to every event, dropping events if the listener falls behind.
+     */
+    public Subscription subscribe(KeyspaceEventListener listener) {
+        return subscribe(listener, "", EnumSet.allOf(KeyspaceEventType.class), OverflowPolicy.DROP);
+    }
+
+    /**
+     * Subscribes to the events published from now on.
+     *
+     * @param keyPrefix only keys starting with it ("" for all)
+     * @param types     event types to deliver, not empty
+     * @return a started subscription; close it to stop
+     */
+    public synchronized Subscription subscribe(KeyspaceEventListener listener, String keyPrefix,
+                                               Set<KeyspaceEventType> types, OverflowPolicy overflowPolicy) {
+        if (listener == null || keyPrefix == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("listener, keyPrefix and overflowPolicy must not be null");
+        }
+        if (types == null || types.isEmpty()) {
+            throw new IllegalArgumentException("types must not be empty");
+        }
+
+        Subscription subscription = new Subscription(this, listener, keyPrefix, EnumSet.copyOf(types), overflowPolicy, cursor.get());
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            blocking = append(blocking, subscription);
+        }
+        subscriptions = append(subscriptions, subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    @Override
+    public void onPut(Entry entry) {
+        publish(KeyspaceEventType.PUT, entry.getKey(), entry.getValue(), entry.getExpiryTime());
+    }
+
+    @Override
+    public void onRemove(String key) {
+        publish(KeyspaceEventType.REMOVE, key, null, -1);
+    }
+
+    @Override
+    public void onExpire(Entry entry) {
+        publish(KeyspaceEventType.EXPIRE, entry.getKey(), entry.getValue(), entry.getExpiryTime());
+    }
+
+    @Override
+    public void onEvict(Entry entry) {
+        publish(KeyspaceEventType.EVICT, entry.getKey(), entry.getValue(), entry.getExpiryTime());
+    }
+
+    /**
+     * Publishes the events this thread held back for a BLOCK subscriber,
+     * waiting for it to read far enough.
+     */
+    @Override
+    public void onCommit() {
+        HeldEvents held = pending.get();
+        for (int i = 0; i < held.size; i++) {
+            KeyspaceEvent event = held.events[i];
+            awaitBlockingSubscribers(event.sequence - slots.length);
+            write(event.sequence, event.type, event.key, event.value, event.expiryTime, event.timestamp);
+        }
+        held.clear();
+    }
+
+    /**
+     * @return number of events published so far (next sequence number)
+     */
+    public long publishedCount() {
+        return cursor.get();
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Closes every subscription.
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private void publish(KeyspaceEventType type, String key, String value, long expiryTime) {
+        if (subscriptions.length == 0) {
+            return;
+        }
+
+        Subscription[] gates = blocking;
+        if (gates.length > 0) {
+            rejectBlockingSubscriberThread(gates);
+        }
+
+        long sequence = cursor.getAndIncrement();
+        long wrapPoint = sequence - slots.length;
+        // Later events of this thread queue behind the held ones (never wait for ourselves)
+        HeldEvents held = pending.get();
+        if (held.size > 0
+                || (gates.length > 0 && minBlockingSequence() <= wrapPoint)
+                || published.get((int) (sequence & mask)) != Math.max(wrapPoint, -1)) {
+            // Slot still unread by a BLOCK subscriber, or its previous lap not
+            // written yet: publish after the atomic section
+            KeyspaceEvent event = held.add();
+            event.sequence = sequence;
+            event.type = type;
+            event.key = key;
+            event.value = value;
+            event.expiryTime = expiryTime;
+            event.timestamp = clock.now();
+            return;
+        }
+        write(sequence, type, key, value, expiryTime, clock.now());
+    }
+
+    private void write(long sequence, KeyspaceEventType type, String key, String value, long expiryTime, long timestamp) {
+        // Wait for the writer of the previous lap of this slot; it may be
+        // descheduled, so back off instead of spinning through our timeslice
+        int index = (int) (sequence & mask);
+        long wrapPoint = sequence - slots.length;
+        long previous = (wrapPoint < 0) ? -1 : wrapPoint;
+        int idle = 0;
+        while (!published.compareAndSet(index, previous, -(sequence + 2))) {
+            idle = idle(idle);
+        }
+
+        KeyspaceEvent slot = slots[index];
+        slot.sequence = sequence;
+        slot.type = type;
+        slot.key = key;
+        slot.value = value;
+        slot.expiryTime = expiryTime;
+        slot.timestamp = timestamp;
+        published.set(index, sequence);
+    }
+
+    // Called before a sequence is claimed, so a rejected write leaves no gap
+    private static void rejectBlockingSubscriberThread(Subscription[] gates) {
+        Thread current = Thread.currentThread();
+        for (Subscription subscription : gates) {
+            if (subscription.isSubscriberThread(current)) {
+                throw new IllegalStateException("A BLOCK subscriber must not write to the store it listens to");
+            }
+        }
+    }
+
+    private void awaitBlockingSubscribers(long wrapPoint) {
+        int idle = 0;
+        while (minBlockingSequence() <= wrapPoint) {
+            idle = idle(idle);
+        }
+    }
+
+    private long minBlockingSequence() {
+        long min = Long.MAX_VALUE;
+        for (Subscription subscription : blocking) {
+            min = Math.min(min, subscription.nextSequence());
+        }
+        return min;
+    }
+
+    /**
+     * Copies the event with this sequence number.
+     *
+     * @return READ, NOT_PUBLISHED (yet) or OVERWRITTEN (by a later lap)
+     */
+    int read(long sequence, KeyspaceEvent into) {
+        int index = (int) (sequence & mask);
+        long state = published.get(index);
+        long held = (state <= -2) ? -state - 2 : state;
+
+        if (held < sequence || (state <= -2 && held == sequence)) {
+            return NOT_PUBLISHED;
+        }
+        if (held > sequence) {
+            return OVERWRITTEN;
+        }
+
+        into.copyFrom(slots[index]);
+        // The copy must complete before the slot is checked again
+        VarHandle.loadLoadFence();
+        return (published.get(index) == sequence) ? READ : OVERWRITTEN;
+    }
+
+    /**
+     * @return oldest sequence number a subscriber that lost sequence can still read
+     */
+    long resumeSequence(long lost) {
+        return Math.max(lost + 1, cursor.get() - slots.length);
+    }
+
+    /**
+     * Spin, then yield, then park briefly.
+     *
+     * @return the next idle count
+     */
+    static int idle(int count) {
+        if (count < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (count < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return count + 1;
+    }
+
+    synchronized void unsubscribe(Subscription subscription) {
+        subscriptions = without(subscriptions, subscription);
+        blocking = without(blocking, subscription);
+    }
+
+    /**
+     * Events of one thread's current operation held back until onCommit,
+     * in sequence order. The event objects are reused by later operations.
+     */
+    private static final class HeldEvents {
+        KeyspaceEvent[] events = preallocate(new KeyspaceEvent[INITIAL_POOLED_EVENTS], 0);
+        int size;
+
+        KeyspaceEvent add() {
+            if (size == events.length) {
+                events = preallocate(Arrays.copyOf(events, size * 2), size);
+            }
+            return events[size++];
+        }
+
+        void clear() {
+            // Do not keep keys and values reachable from the thread
+            for (int i = 0; i < size; i++) {
+                events[i].key = null;
+                events[i].value = null;
+            }
+            size = 0;
+            if (events.length > MAX_POOLED_EVENTS) {
+                events = Arrays.copyOf(events, MAX_POOLED_EVENTS);
+            }
+        }
+
+        private static KeyspaceEvent[] preallocate(KeyspaceEvent[] events, int from) {
+            for (int i = from; i < events.length; i++) {
+                events[i] = new KeyspaceEvent();
+            }
+            return events;
+        }
+    }
+
+    private static Subscription[] append(Subscription[] current, Subscription subscription) {
+        Subscription[] grown = new Subscription[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = subscription;
+        return grown;
+    }
+
+    private static Subscription[] without(Subscription[] current, Subscription subscription) {
+        int count = 0;
+        Subscription[] shrunk = new Subscription[current.length];
+        for (Subscription s : current) {
+            if (s != subscription) {
+                shrunk[count++] = s;
+            }
+        }
+        if (count == current.length) {
+            return current;
+        }
+        return (count == 0) ? NONE : Arrays.copyOf(shrunk, count);
+    }
+}
@@ -0,0 +1,19 @@
+package com.adi.kvstore.cdc;
+
+/**
+ * Kinds of keyspace events published by a KeyspaceEventStream.
+ */
+public enum KeyspaceEventType {
+
+    /** A value was stored (put, putIfAbsent, compute, expire...). */
+    PUT,
+
+    /** A live key was removed by a write. */
+    REMOVE,
+
+    /** An expired entry was removed (cleaner, read or write). */
+    EXPIRE,
+
+    /** A live entry was evicted to respect the memory limit. */
+    EVICT
+}
@@ -0,0 +1,21 @@
+package com.adi.kvstore.cdc;
+
+/**
+ * What happens when a subscriber falls a whole ring behind.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Writers overwrite events the subscriber has not read; it skips
+     * ahead and counts them as dropped. Writers never wait.
+     */
+    DROP,
+
+    /**
+     * Writers wait until the subscriber has read the slot they need.
+     * They wait after leaving the key's atomic section (in onCommit), so
+     * writes to other keys are not held up. The subscriber must never
+     * write to the store it listens to: such writes are rejected.
+     */
+    BLOCK
+}
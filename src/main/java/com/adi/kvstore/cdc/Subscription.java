@@ -0,0 +1,146 @@
+package com.adi.kvstore.cdc;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One subscriber of a KeyspaceEventStream.
+ *
+ * A daemon thread reads the ring from the sequence number at which the
+ * subscription was created, skips events outside the key prefix or
+ * event types, and hands the others to the listener. Listener
+ * exceptions are counted and do not stop the subscription.
+ */
+public final class Subscription implements AutoCloseable {
+
+    private final KeyspaceEventStream stream;
+    private final KeyspaceEventListener listener;
+    private final String keyPrefix;
+    private final Set<KeyspaceEventType> types;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread thread;
+
+    // Next sequence number to read; BLOCK writers gate on it
+    private final AtomicLong next;
+    private volatile boolean running = true;
+
+    // Written by the subscription thread only
+    private volatile long delivered;
+    private volatile long dropped;
+    private volatile long failures;
+
+    Subscription(KeyspaceEventStream stream, KeyspaceEventListener listener, String keyPrefix,
+                 Set<KeyspaceEventType> types, OverflowPolicy overflowPolicy, long firstSequence) {
+        this.stream = stream;
+        this.listener = listener;
+        this.keyPrefix = keyPrefix;
+        this.types = types;
+        this.overflowPolicy = overflowPolicy;
+        this.next = new AtomicLong(firstSequence);
+        this.thread = new Thread(this::run, "kv-cdc-" + (keyPrefix.isEmpty() ? "all" : keyPrefix));
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean isSubscriberThread(Thread candidate) {
+        return candidate == thread;
+    }
+
+    long nextSequence() {
+        return next.get();
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return events handed to the listener
+     */
+    public long delivered() {
+        return delivered;
+    }
+
+    /**
+     * @return events overwritten before this subscriber read them (DROP only)
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    /**
+     * @return listener calls that threw
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * @return events published but not read yet
+     */
+    public long lag() {
+        return Math.max(0, stream.publishedCount() - next.get());
+    }
+
+    /**
+     * Stops the subscription; blocked writers are released. Waits for
+     * the listener to return unless called from the listener itself.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stream.unsubscribe(this);
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        KeyspaceEvent event = new KeyspaceEvent();
+        int idle = 0;
+
+        while (running) {
+            long sequence = next.get();
+            int result = stream.read(sequence, event);
+
+            if (result == KeyspaceEventStream.READ) {
+                idle = 0;
+                if (matches(event)) {
+                    deliver(event);
+                }
+                next.lazySet(sequence + 1);
+            } else if (result == KeyspaceEventStream.OVERWRITTEN) {
+                long resume = stream.resumeSequence(sequence);
+                dropped += resume - sequence;
+                next.lazySet(resume);
+            } else {
+                idle = KeyspaceEventStream.idle(idle);
+            }
+        }
+    }
+
+    private boolean matches(KeyspaceEvent event) {
+        return types.contains(event.type) && event.key.startsWith(keyPrefix);
+    }
+
+    private void deliver(KeyspaceEvent event) {
+        try {
+            listener.onEvent(event);
+            delivered++;
+        } catch (RuntimeException e) {
+            failures++;
+        }
+    }
+}
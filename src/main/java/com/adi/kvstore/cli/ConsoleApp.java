@@ -3,12 +3,13 @@ package com.adi.kvstore.cli;
 import com.adi.kvstore.api.KeyValueStore;
 import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
 import com.adi.kvstore.core.InMemoryStorageEngine;
-import com.adi.kvstore.eviction.LRUEvictionPolicy;
+import com.adi.kvstore.eviction.BufferedLRUEvictionPolicy;
 import com.adi.kvstore.eviction.SimpleMemoryTracker;
 import com.adi.kvstore.expiration.DefaultExpirationPolicy;
 import com.adi.kvstore.impl.ConcurrentKVStore;
 import com.adi.kvstore.impl.EvictingKVStore;
 import com.adi.kvstore.impl.SimpleKVStore;
+import com.adi.kvstore.metrics.ConcurrentStatsCounter;
 import com.adi.kvstore.time.SystemClock;
 
 import java.util.Scanner;
@@ -28,11 +29,16 @@ public class ConsoleApp {
         // ConcurrentKVStore store = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new SystemClock());
         
         // v3: Evicitng Key-Value Store with LRU
-        KeyValueStore store = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new LRUEvictionPolicy(), new SimpleMemoryTracker(3), new SystemClock());
+        EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new BufferedLRUEvictionPolicy(), new SimpleMemoryTracker(3), new SystemClock());
+
+        // Statistics: STATS command and JMX (com.adi.kvstore:type=StoreStats,name="console")
+        ConcurrentStatsCounter stats = new ConcurrentStatsCounter(true);
+        store.recordStats(stats);
+        stats.registerMBean("console");
 
         Scanner scanner = new Scanner(System.in);
         System.out.println("In-Memory Key-Value Store started.");
-        System.out.println("Available commands: PUT, GET, EXIT");
+        System.out.println("Available commands: PUT, GET, STATS, EXIT");
 
         while (true) {
             System.out.print("> ");
@@ -55,6 +61,10 @@ public class ConsoleApp {
                         handleGet(tokens, store);
                         break;
                     
+                    case "STATS":
+                        handleStats(tokens, stats);
+                        break;
+
                     case "EXIT":
                         System.out.println("Exiting...");
                         return;
@@ -93,6 +103,28 @@ public class ConsoleApp {
         System.out.println("OK");
     }
 
+    private static void handleStats(String[] tokens, ConcurrentStatsCounter stats) {
+        if (tokens.length == 1) {
+            System.out.println(stats.snapshot());
+            return;
+        }
+        if (tokens.length != 2) {
+            throw new IllegalArgumentException("Usage: STATS [ON|OFF]");
+        }
+
+        switch (tokens[1].toUpperCase()) {
+            case "ON":
+                stats.setEnabled(true);
+                break;
+            case "OFF":
+                stats.setEnabled(false);
+                break;
+            default:
+                throw new IllegalArgumentException("Usage: STATS [ON|OFF]");
+        }
+        System.out.println("OK");
+    }
+
     private static void handleGet(String[] tokens, KeyValueStore store){
         if (tokens.length != 2) {
             throw new IllegalArgumentException("Usage: GET key");
@@ -0,0 +1,63 @@
+package com.adi.kvstore.cli;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.eviction.BufferedLRUEvictionPolicy;
+import com.adi.kvstore.eviction.SimpleMemoryTracker;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.EvictingKVStore;
+import com.adi.kvstore.impl.SegmentedKVStore;
+import com.adi.kvstore.metrics.ConcurrentStatsCounter;
+import com.adi.kvstore.server.RespServer;
+import com.adi.kvstore.time.SystemClock;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Network entry point: serves the v3 store over RESP.
+ *
+ * Usage: ServerApp [port] [maxEntries]   (defaults: 6379, 1000000)
+ *
+ * Any Redis client works for the supported commands, e.g.
+ *   redis-cli -p 6379 SET greeting hello PX 5000
+ *
+ * Statistics are exposed over JMX as com.adi.kvstore:type=StoreStats,name="server".
+ */
+public class ServerApp {
+
+    private static final int SEGMENTS = 16;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 6379;
+        int maxEntries = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+
+        SystemClock clock = new SystemClock();
+        ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+        stats.registerMBean("server");
+
+        // All segments report to one counter
+        KeyValueStore store = new SegmentedKVStore(SEGMENTS, () -> {
+            EvictingKVStore segment = new EvictingKVStore(
+                    new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), new BufferedLRUEvictionPolicy(),
+                    new SimpleMemoryTracker(Math.max(1, maxEntries / SEGMENTS)), clock);
+            segment.recordStats(stats);
+            return segment;
+        });
+
+        RespServer server = new RespServer(store, port);
+        server.start();
+        System.out.println("RESP server listening on port " + server.getPort());
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.out.println("Error while stopping: " + e.getMessage());
+            }
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+}
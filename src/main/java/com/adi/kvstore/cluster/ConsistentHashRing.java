@@ -0,0 +1,166 @@
+package com.adi.kvstore.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable consistent-hash ring with virtual nodes.
+ *
+ * Each node is hashed to virtualNodes points on a 64-bit ring; a key
+ * belongs to the first point at or after its own hash (wrapping
+ * around). Adding or removing a node therefore only moves the keys of
+ * the arcs it gains or loses, about 1/N of them, and virtual nodes
+ * keep the arcs of each node balanced.
+ *
+ * The points are kept in a sorted long[] (binary search, no boxing);
+ * withNode / withoutNode build a new ring, so lookups need no lock.
+ */
+public final class ConsistentHashRing {
+
+    private final int virtualNodes;
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners; // index into nodes, parallel to points
+
+    public ConsistentHashRing(int virtualNodes) {
+        this(virtualNodes, Collections.emptyList());
+    }
+
+    private ConsistentHashRing(int virtualNodes, List<String> nodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+        this.nodes = Collections.unmodifiableList(nodes);
+
+        int count = nodes.size() * virtualNodes;
+        long[] hashes = new long[count];
+        int[] indexes = new int[count];
+        int i = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = hash(nodes.get(n) + "#" + v);
+                indexes[i] = n;
+                i++;
+            }
+        }
+        sortByHash(hashes, indexes);
+        this.points = hashes;
+        this.owners = indexes;
+    }
+
+    /**
+     * @return a ring that also holds the node
+     * @throws IllegalArgumentException if the node is already on the ring
+     */
+    public ConsistentHashRing withNode(String nodeId) {
+        if (nodeId == null || nodes.contains(nodeId)) {
+            throw new IllegalArgumentException("Node is null or already on the ring: " + nodeId);
+        }
+        List<String> grown = new ArrayList<>(nodes);
+        grown.add(nodeId);
+        return new ConsistentHashRing(virtualNodes, grown);
+    }
+
+    /**
+     * @return a ring without the node
+     * @throws IllegalArgumentException if the node is not on the ring
+     */
+    public ConsistentHashRing withoutNode(String nodeId) {
+        if (!nodes.contains(nodeId)) {
+            throw new IllegalArgumentException("Node is not on the ring: " + nodeId);
+        }
+        List<String> shrunk = new ArrayList<>(nodes);
+        shrunk.remove(nodeId);
+        return new ConsistentHashRing(virtualNodes, shrunk);
+    }
+
+    /**
+     * @return id of the node owning the key
+     * @throws IllegalStateException if the ring is empty
+     */
+    public String nodeFor(String key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("No nodes on the ring");
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        }
+        return nodes.get(owners[index]);
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean contains(String nodeId) {
+        return nodes.contains(nodeId);
+    }
+
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * @return fraction of the hash space owned by each node
+     */
+    public Map<String, Double> ownership() {
+        Map<String, Double> shares = new LinkedHashMap<>();
+        for (String node : nodes) {
+            shares.put(node, 0.0);
+        }
+        for (int i = 0; i < points.length; i++) {
+            // Point i owns the arc (previous point, point i]
+            long previous = (i == 0) ? points[points.length - 1] : points[i - 1];
+            double arc = (double) (points[i] - previous) / 0x1p64;
+            if (arc < 0 || points.length == 1) {
+                arc += 1;
+            }
+            shares.merge(nodes.get(owners[i]), arc, Double::sum);
+        }
+        return shares;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3
+     * mixer: every client computes the same placement, and similar keys
+     * (user:1, user:2...) are spread over the whole ring.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static void sortByHash(long[] hashes, int[] indexes) {
+        Integer[] order = new Integer[hashes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        long[] sortedHashes = hashes.clone();
+        int[] sortedIndexes = indexes.clone();
+        for (int i = 0; i < order.length; i++) {
+            hashes[i] = sortedHashes[order[i]];
+            indexes[i] = sortedIndexes[order[i]];
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.adi.kvstore.cluster;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.api.OrderedKeyValueStore;
+import com.adi.kvstore.api.ScanPage;
+import com.adi.kvstore.concurrency.AsyncExecutors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * KeyValueStore that partitions keys over several store nodes with a
+ * consistent-hash ring (ConsistentHashRing).
+ *
+ * A node is any KeyValueStore: a local store in the same JVM or a
+ * RemoteKVStore talking to a RespServer. Single-key operations go to
+ * the owning node; getAll / putAll are split per node and the batches
+ * run in parallel, the caller thread taking one of them.
+ *
+ * Rebalancing (addNodes / addNode / removeNode):
+ * - The new ring is published first, so writes go to the new owner
+ *   right away; only about 1/N of the keys change owner
+ * - Keys that moved are then copied from their previous owner, with
+ *   their remaining TTL (OrderedKeyValueStore scans), and removed
+ *   from it; putIfAbsent keeps any newer write on the new owner, and
+ *   the source copy is only removed while it still holds the copied
+ *   value
+ * - Until the copy is done, a miss on the new owner falls back to the
+ *   previous owner, removals are applied to both, and operations that
+ *   read before they write (putIfAbsent, compute, incrementBy, ttl...)
+ *   first move the key from its previous owner
+ *
+ * Nodes that cannot be enumerated (e.g. RemoteKVStore) would keep the
+ * copies of keys moving away from them, served again if the key ever
+ * came back. Adding nodes next to them is therefore refused: start the
+ * cluster with all of them at once (addNodes).
+ *
+ * Usage:
+ *   PartitionedKVStore cluster = new PartitionedKVStore();
+ *   Map<String, KeyValueStore> nodes = new LinkedHashMap<>();
+ *   nodes.put("a", new RemoteKVStore("10.0.0.1", 6379, 8));
+ *   nodes.put("b", new RemoteKVStore("10.0.0.2", 6379, 8));
+ *   cluster.addNodes(nodes);
+ *   cluster.put("user:42", "...");
+ *
+ * Trade-off:
+ * - Operations spanning keys (getAll / putAll) are not atomic across nodes
+ * - A removed node that cannot be enumerated loses its keys (they read
+ *   as misses, like a memcached client)
+ * - Rebalances are serialized; concurrent operations keep running
+ */
+public class PartitionedKVStore implements KeyValueStore, AutoCloseable {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+    static final int MIGRATION_PAGE_SIZE = 1024;
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Object rebalanceLock = new Object();
+    private volatile Topology topology;
+
+    public PartitionedKVStore() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Uses the default executor for fan-out, shut down by close().
+     */
+    public PartitionedKVStore(int virtualNodes) {
+        this.topology = new Topology(new ConsistentHashRing(virtualNodes), Collections.emptyMap(), null);
+        this.ownedExecutor = AsyncExecutors.newDefaultExecutor("kv-cluster");
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * @param executor runs the per-node batches of getAll / putAll; owned by the caller
+     */
+    public PartitionedKVStore(int virtualNodes, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.topology = new Topology(new ConsistentHashRing(virtualNodes), Collections.emptyMap(), null);
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * Adds a node and moves to it the keys it now owns.
+     *
+     * @return number of keys copied to the new node
+     * @throws IllegalArgumentException if the id is already used
+     * @throws IllegalStateException if a current node cannot be enumerated
+     */
+    public long addNode(String nodeId, KeyValueStore node) {
+        return addNodes(Collections.singletonMap(nodeId, node));
+    }
+
+    /**
+     * Adds several nodes with one ring change, and moves to them the
+     * keys they now own. On an empty cluster nothing moves, so any
+     * kind of node may be added.
+     *
+     * @return number of keys copied to the new nodes
+     * @throws IllegalArgumentException if an id is already used
+     * @throws IllegalStateException if a current node cannot be enumerated
+     */
+    public long addNodes(Map<String, ? extends KeyValueStore> added) {
+        if (added.isEmpty()) {
+            return 0;
+        }
+        for (Map.Entry<String, ? extends KeyValueStore> e : added.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) {
+                throw new IllegalArgumentException("node id and node must not be null");
+            }
+        }
+
+        synchronized (rebalanceLock) {
+            Topology current = topology;
+            for (Map.Entry<String, KeyValueStore> source : current.nodes.entrySet()) {
+                if (!(source.getValue() instanceof OrderedKeyValueStore)) {
+                    throw new IllegalStateException("Node " + source.getKey()
+                            + " cannot be enumerated: keys moving away from it would be left behind");
+                }
+            }
+
+            ConsistentHashRing ring = current.ring;
+            Map<String, KeyValueStore> nodes = new HashMap<>(current.nodes);
+            for (Map.Entry<String, ? extends KeyValueStore> e : added.entrySet()) {
+                ring = ring.withNode(e.getKey());
+                nodes.put(e.getKey(), e.getValue());
+            }
+            Topology next = new Topology(ring, nodes, current);
+            topology = next;
+
+            long moved = 0;
+            for (KeyValueStore source : current.nodes.values()) {
+                moved += migrate(source, next, added::containsKey);
+            }
+
+            topology = next.settled();
+            return moved;
+        }
+    }
+
+    /**
+     * Removes a node, after moving its keys to their new owners.
+     * The node itself is not closed.
+     *
+     * @return number of keys copied to other nodes
+     * @throws IllegalArgumentException if no node has this id
+     */
+    public long removeNode(String nodeId) {
+        synchronized (rebalanceLock) {
+            Topology current = topology;
+            KeyValueStore leaving = current.nodes.get(nodeId);
+            if (leaving == null) {
+                throw new IllegalArgumentException("Unknown node: " + nodeId);
+            }
+
+            Map<String, KeyValueStore> nodes = new HashMap<>(current.nodes);
+            nodes.remove(nodeId);
+            Topology next = new Topology(current.ring.withoutNode(nodeId), nodes, current);
+            topology = next;
+
+            long moved = next.nodes.isEmpty() ? 0 : migrate(leaving, next, owner -> true);
+
+            topology = next.settled();
+            return moved;
+        }
+    }
+
+    /**
+     * @return ids of the current nodes
+     */
+    public List<String> nodeIds() {
+        return topology.ring.nodes();
+    }
+
+    /**
+     * @return id of the node owning the key
+     */
+    public String nodeFor(String key) {
+        return topology.ring.nodeFor(key);
+    }
+
+    /**
+     * @return the current ring (e.g. to inspect ownership())
+     */
+    public ConsistentHashRing ring() {
+        return topology.ring;
+    }
+
+    @Override
+    public void put(String key, String value) {
+        topology.nodeFor(key).put(key, value);
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        topology.nodeFor(key).put(key, value, ttlMillis);
+    }
+
+    @Override
+    public String get(String key) {
+        Topology t = topology;
+        KeyValueStore owner = t.nodeFor(key);
+        String value = owner.get(key);
+        if (value == null && t.previous != null) {
+            KeyValueStore previousOwner = t.previous.nodeFor(key);
+            if (previousOwner != owner) {
+                value = previousOwner.get(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Splits the batch per node and reads the nodes in parallel.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Topology t = topology;
+        Map<String, String> result = new HashMap<>();
+        for (Map<String, String> part : fanOut(t.splitKeys(keys), KeyValueStore::getAll)) {
+            result.putAll(part);
+        }
+
+        if (t.previous != null && result.size() < keys.size()) {
+            List<String> missing = new ArrayList<>();
+            for (String key : keys) {
+                if (!result.containsKey(key) && t.previous.nodeFor(key) != t.nodeFor(key)) {
+                    missing.add(key);
+                }
+            }
+            for (Map<String, String> part : fanOut(t.previous.splitKeys(missing), KeyValueStore::getAll)) {
+                result.putAll(part);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        fanOut(topology.splitEntries(entries), (node, batch) -> {
+            node.putAll(batch);
+            return null;
+        });
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        fanOut(topology.splitEntries(entries), (node, batch) -> {
+            node.putAll(batch, ttlMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean remove(String key) {
+        Topology t = topology;
+        KeyValueStore owner = t.nodeFor(key);
+        boolean removed = owner.remove(key);
+        if (t.previous != null) {
+            // The key may not have been copied yet: drop the old copy too
+            KeyValueStore previousOwner = t.previous.nodeFor(key);
+            if (previousOwner != owner) {
+                removed |= previousOwner.remove(key);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        return ownerWithKey(key).remove(key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        return ownerWithKey(key).putIfAbsent(key, value);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        return ownerWithKey(key).putIfAbsent(key, value, ttlMillis);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        return ownerWithKey(key).replace(key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        return ownerWithKey(key).replace(key, expectedValue, newValue, ttlMillis);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        return ownerWithKey(key).compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        return ownerWithKey(key).merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        return ownerWithKey(key).incrementBy(key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        return ownerWithKey(key).expire(key, ttlMillis);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return ownerWithKey(key).ttl(key);
+    }
+
+    /**
+     * Owner of the key for an operation that reads before it writes.
+     * While a rebalance copies keys, the key is first moved from its
+     * previous owner, so the operation starts from its current value.
+     */
+    private KeyValueStore ownerWithKey(String key) {
+        Topology t = topology;
+        KeyValueStore owner = t.nodeFor(key);
+        if (t.previous != null) {
+            KeyValueStore previousOwner = t.previous.nodeFor(key);
+            if (previousOwner != owner) {
+                String value = previousOwner.get(key);
+                if (value != null) {
+                    moveKey(previousOwner, owner, key, value);
+                }
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Shuts down the default executor. Nodes are left open, and a
+     * caller-supplied executor is left alone.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Runs one call per node, all but the first on the executor.
+     */
+    private <B, R> List<R> fanOut(Map<KeyValueStore, B> batches, BiFunction<KeyValueStore, B, R> call) {
+        if (batches.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(batches.size() - 1);
+        KeyValueStore firstNode = null;
+        B firstBatch = null;
+        for (Map.Entry<KeyValueStore, B> batch : batches.entrySet()) {
+            if (firstNode == null) {
+                firstNode = batch.getKey();
+                firstBatch = batch.getValue();
+            } else {
+                KeyValueStore node = batch.getKey();
+                B nodeBatch = batch.getValue();
+                futures.add(CompletableFuture.supplyAsync(() -> call.apply(node, nodeBatch), executor));
+            }
+        }
+
+        List<R> results = new ArrayList<>(batches.size());
+        results.add(call.apply(firstNode, firstBatch));
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Copies the keys of source that belong to a selected owner in the
+     * next topology, then removes them from source.
+     */
+    private static long migrate(KeyValueStore source, Topology next, Predicate<String> ownerSelected) {
+        if (!(source instanceof OrderedKeyValueStore)) {
+            return 0;
+        }
+        OrderedKeyValueStore ordered = (OrderedKeyValueStore) source;
+
+        long moved = 0;
+        String cursor = null;
+        do {
+            ScanPage page = ordered.scan("", cursor, MIGRATION_PAGE_SIZE);
+            for (Map.Entry<String, String> e : page.entries().entrySet()) {
+                String key = e.getKey();
+                String ownerId = next.ring.nodeFor(key);
+                KeyValueStore owner = next.nodes.get(ownerId);
+                if (owner == source || !ownerSelected.test(ownerId)) {
+                    continue;
+                }
+
+                if (moveKey(source, owner, key, e.getValue())) {
+                    moved++;
+                }
+            }
+            cursor = page.cursor();
+        } while (cursor != null);
+        return moved;
+    }
+
+    /**
+     * Copies one key with its remaining TTL, keeping any newer write
+     * on the owner, then removes it from the source unless a write
+     * landed there meanwhile (e.g. from a thread still routing with the
+     * previous topology).
+     *
+     * @return false if the key expired or was removed meanwhile
+     */
+    private static boolean moveKey(KeyValueStore source, KeyValueStore owner, String key, String value) {
+        // -2: expired or removed since the value was read
+        long ttl = source.ttl(key);
+        boolean copied = false;
+        if (ttl == -1) {
+            owner.putIfAbsent(key, value);
+            copied = true;
+        } else if (ttl > 0) {
+            owner.putIfAbsent(key, value, ttl);
+            copied = true;
+        }
+        source.remove(key, value);
+        return copied;
+    }
+
+    /**
+     * Ring and nodes published together. previous is the topology being
+     * left while a rebalance copies keys, null otherwise.
+     */
+    private static final class Topology {
+        final ConsistentHashRing ring;
+        final Map<String, KeyValueStore> nodes;
+        final Topology previous;
+
+        Topology(ConsistentHashRing ring, Map<String, KeyValueStore> nodes, Topology previous) {
+            this.ring = ring;
+            this.nodes = Collections.unmodifiableMap(new HashMap<>(nodes));
+            this.previous = (previous == null || previous.nodes.isEmpty()) ? null : previous.settled();
+        }
+
+        Topology settled() {
+            return (previous == null) ? this : new Topology(ring, nodes, null);
+        }
+
+        KeyValueStore nodeFor(String key) {
+            return nodes.get(ring.nodeFor(key));
+        }
+
+        Map<KeyValueStore, List<String>> splitKeys(Collection<String> keys) {
+            Map<KeyValueStore, List<String>> batches = new LinkedHashMap<>();
+            for (String key : keys) {
+                batches.computeIfAbsent(nodeFor(key), node -> new ArrayList<>()).add(key);
+            }
+            return batches;
+        }
+
+        Map<KeyValueStore, Map<String, String>> splitEntries(Map<String, String> entries) {
+            Map<KeyValueStore, Map<String, String>> batches = new LinkedHashMap<>();
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                batches.computeIfAbsent(nodeFor(e.getKey()), node -> new HashMap<>()).put(e.getKey(), e.getValue());
+            }
+            return batches;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.adi.kvstore.collection;
+
+import com.adi.kvstore.core.CollectionValue;
+import com.adi.kvstore.core.ValueType;
+import com.adi.kvstore.eviction.EntrySizeEstimator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Field-value map stored under one key (Redis hash).
+ *
+ * Backed by a ConcurrentHashMap: reads (get, snapshot) never block and
+ * may run during a mutation. Mutations are serialized by the owning
+ * store (one key, one atomic section), which keeps the size estimate
+ * exact.
+ */
+public final class HashValue implements CollectionValue {
+
+    // ConcurrentHashMap node (header + hash + 3 references) + table slot
+    private static final long FIELD_OVERHEAD = 32 + 8;
+
+    private final ConcurrentHashMap<String, String> fields = new ConcurrentHashMap<>();
+    private volatile long estimatedBytes;
+
+    @Override
+    public ValueType type() {
+        return ValueType.HASH;
+    }
+
+    /**
+     * @return the value of the field, or null if absent
+     */
+    public String get(String field) {
+        return fields.get(field);
+    }
+
+    /**
+     * Sets the field; called by the owning store only.
+     *
+     * @return the previous value, or null if the field is new
+     */
+    public String put(String field, String value) {
+        if (field == null || value == null) {
+            throw new IllegalArgumentException("Field and value must not be null");
+        }
+
+        String previous = fields.put(field, value);
+        if (previous == null) {
+            estimatedBytes += FIELD_OVERHEAD + EntrySizeEstimator.estimate(field) + EntrySizeEstimator.estimate(value);
+        } else {
+            estimatedBytes += EntrySizeEstimator.estimate(value) - EntrySizeEstimator.estimate(previous);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the field; called by the owning store only.
+     *
+     * @return the removed value, or null if the field was absent
+     */
+    public String remove(String field) {
+        String previous = fields.remove(field);
+        if (previous != null) {
+            estimatedBytes -= FIELD_OVERHEAD + EntrySizeEstimator.estimate(field) + EntrySizeEstimator.estimate(previous);
+        }
+        return previous;
+    }
+
+    /**
+     * @return a copy of all fields (weakly consistent with concurrent writes)
+     */
+    public Map<String, String> snapshot() {
+        return new HashMap<>(fields);
+    }
+
+    @Override
+    public int size() {
+        return fields.size();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.adi.kvstore.collection;
+
+import com.adi.kvstore.core.CollectionValue;
+import com.adi.kvstore.core.ValueType;
+import com.adi.kvstore.eviction.EntrySizeEstimator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Deque of strings stored under one key (Redis list).
+ *
+ * Pushes and pops at both ends are O(1). Every method holds the list's
+ * monitor, so a range read sees a consistent list; the critical
+ * sections are short except for large ranges.
+ */
+public final class ListValue implements CollectionValue {
+
+    // ArrayDeque slot, amortized over its growth by doubling
+    private static final long ITEM_OVERHEAD = 6;
+
+    private final ArrayDeque<String> items = new ArrayDeque<>();
+    private long estimatedBytes;
+
+    @Override
+    public ValueType type() {
+        return ValueType.LIST;
+    }
+
+    public synchronized void pushFirst(String value) {
+        items.addFirst(checkValue(value));
+        estimatedBytes += ITEM_OVERHEAD + EntrySizeEstimator.estimate(value);
+    }
+
+    public synchronized void pushLast(String value) {
+        items.addLast(checkValue(value));
+        estimatedBytes += ITEM_OVERHEAD + EntrySizeEstimator.estimate(value);
+    }
+
+    /**
+     * @return the removed head, or null if the list is empty
+     */
+    public synchronized String popFirst() {
+        return removed(items.pollFirst());
+    }
+
+    /**
+     * @return the removed tail, or null if the list is empty
+     */
+    public synchronized String popLast() {
+        return removed(items.pollLast());
+    }
+
+    /**
+     * Items from start to stop, both inclusive. Negative indexes count
+     * from the tail (-1 is the last item), as in Redis LRANGE.
+     */
+    public synchronized List<String> range(long start, long stop) {
+        int size = items.size();
+        long from = (start < 0) ? Math.max(0, size + start) : start;
+        long to = (stop < 0) ? size + stop : Math.min(stop, size - 1);
+        if (from > to || from >= size) {
+            return new ArrayList<>();
+        }
+
+        List<String> result = new ArrayList<>((int) (to - from + 1));
+        Iterator<String> it = items.iterator();
+        for (long i = 0; i <= to; i++) {
+            String item = it.next();
+            if (i >= from) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int size() {
+        return items.size();
+    }
+
+    @Override
+    public synchronized long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private String removed(String value) {
+        if (value != null) {
+            estimatedBytes -= ITEM_OVERHEAD + EntrySizeEstimator.estimate(value);
+        }
+        return value;
+    }
+
+    private static String checkValue(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        return value;
+    }
+}
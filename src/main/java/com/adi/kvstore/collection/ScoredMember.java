@@ -0,0 +1,50 @@
+package com.adi.kvstore.collection;
+
+/**
+ * Member of a sorted set with its score.
+ *
+ * Ordered by score, then by member, as in Redis.
+ */
+public final class ScoredMember implements Comparable<ScoredMember> {
+
+    private final double score;
+    private final String member;
+
+    public ScoredMember(double score, String member) {
+        this.score = score;
+        this.member = member;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getMember() {
+        return member;
+    }
+
+    @Override
+    public int compareTo(ScoredMember other) {
+        int byScore = Double.compare(score, other.score);
+        return (byScore != 0) ? byScore : member.compareTo(other.member);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ScoredMember)) {
+            return false;
+        }
+        ScoredMember other = (ScoredMember) o;
+        return Double.compare(score, other.score) == 0 && member.equals(other.member);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(score) + member.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return member + "=" + score;
+    }
+}
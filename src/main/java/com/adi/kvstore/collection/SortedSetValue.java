@@ -0,0 +1,120 @@
+package com.adi.kvstore.collection;
+
+import com.adi.kvstore.core.CollectionValue;
+import com.adi.kvstore.core.ValueType;
+import com.adi.kvstore.eviction.EntrySizeEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Set of members ordered by score, stored under one key (Redis zset).
+ *
+ * A hash map gives each member's score in O(1); a skip list of
+ * (score, member) pairs serves score-range queries in O(log n + k).
+ * Both are concurrent, so reads never block. Mutations are serialized
+ * by the owning store.
+ *
+ * Trade-off:
+ * - A range read running during a score update may see the member at
+ *   its old score, its new score, or (briefly) both
+ * - Two structures per member: more memory than a plain set
+ */
+public final class SortedSetValue implements CollectionValue {
+
+    // Map node + table slot + boxed Double + skip list node (and its
+    // share of index nodes) + ScoredMember
+    private static final long MEMBER_OVERHEAD = 40 + 16 + 32 + 24;
+
+    private final ConcurrentHashMap<String, Double> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ScoredMember> ordered = new ConcurrentSkipListSet<>();
+    private volatile long estimatedBytes;
+
+    @Override
+    public ValueType type() {
+        return ValueType.SORTED_SET;
+    }
+
+    /**
+     * Adds the member or updates its score; called by the owning store only.
+     *
+     * @return true if the member is new
+     * @throws IllegalArgumentException if the score is NaN
+     */
+    public boolean add(double score, String member) {
+        if (member == null) {
+            throw new IllegalArgumentException("Member must not be null");
+        }
+        if (Double.isNaN(score)) {
+            throw new IllegalArgumentException("Score must not be NaN");
+        }
+        // -0.0 and 0.0 are the same score
+        double normalized = score + 0.0;
+
+        Double previous = scores.put(member, normalized);
+        if (previous == null) {
+            ordered.add(new ScoredMember(normalized, member));
+            estimatedBytes += MEMBER_OVERHEAD + EntrySizeEstimator.estimate(member);
+            return true;
+        }
+        if (previous != normalized) {
+            // Insert first: a concurrent range read never misses the member
+            ordered.add(new ScoredMember(normalized, member));
+            ordered.remove(new ScoredMember(previous, member));
+        }
+        return false;
+    }
+
+    /**
+     * Removes the member; called by the owning store only.
+     *
+     * @return true if the member was present
+     */
+    public boolean remove(String member) {
+        Double previous = scores.remove(member);
+        if (previous == null) {
+            return false;
+        }
+        ordered.remove(new ScoredMember(previous, member));
+        estimatedBytes -= MEMBER_OVERHEAD + EntrySizeEstimator.estimate(member);
+        return true;
+    }
+
+    /**
+     * @return the member's score, or null if absent
+     */
+    public Double score(String member) {
+        return scores.get(member);
+    }
+
+    /**
+     * Members with min <= score <= max in ascending order, at most limit.
+     */
+    public List<ScoredMember> rangeByScore(double min, double max, int limit) {
+        List<ScoredMember> result = new ArrayList<>();
+        if (limit <= 0 || min > max) {
+            return result;
+        }
+
+        // "" sorts before any member with the same score
+        for (ScoredMember scored : ordered.tailSet(new ScoredMember(min + 0.0, ""), true)) {
+            if (scored.getScore() > max || result.size() == limit) {
+                break;
+            }
+            result.add(scored);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return scores.size();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,419 @@
+package com.adi.kvstore.compact;
+
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.core.LinearProbingTable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe storage engine with a flattened, low-overhead layout.
+ *
+ * ConcurrentStorageEngine pays for a map node, an Entry and two Strings
+ * per key, and holds the key twice (map key and Entry key). Here each
+ * key is one slot in parallel primitive arrays plus a single packed
+ * record:
+ *
+ *   record = [key UTF-8][value UTF-8, or compressed value]
+ *
+ * The index is split into segments. Each segment is an open-addressing
+ * table (key hash, key length + flags, expiry time, record) guarded by
+ * its own read-write lock. The key is stored once, inside the record.
+ *
+ * Values of at least compressionThreshold bytes are deflated when that
+ * makes them smaller (see ValueCompressor).
+ *
+ * Trade-off:
+ * - get() materializes a fresh Entry on every call
+ * - Conditional removal compares entries by content (value and expiry),
+ *   because materialized entries are never the same instance
+ * - Compressed values cost CPU on every read
+ *
+ * This class is policy-free and TTL-agnostic.
+ */
+public class CompactStorageEngine implements ConcurrentStorage {
+
+    /**
+     * Threshold that disables compression.
+     */
+    public static final int NO_COMPRESSION = Integer.MAX_VALUE;
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    // High bit of the key length marks a compressed value
+    private static final int COMPRESSED = 0x80000000;
+
+    private final int compressionThreshold;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public CompactStorageEngine() {
+        this(DEFAULT_SEGMENTS, NO_COMPRESSION);
+    }
+
+    /**
+     * @param compressionThreshold minimum value size in bytes (UTF-8)
+     *        worth compressing, or NO_COMPRESSION
+     */
+    public CompactStorageEngine(int segmentCount, int compressionThreshold) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a positive power of two");
+        }
+        if (compressionThreshold <= 0) {
+            throw new IllegalArgumentException("compressionThreshold must be positive");
+        }
+
+        this.compressionThreshold = compressionThreshold;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    // Records hold a UTF-8 string value
+    @Override
+    public boolean supportsCollections() {
+        return false;
+    }
+
+    @Override
+    public Entry put(String key, Entry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        // Encoding and compression happen outside the lock
+        int[] keyLength = new int[1];
+        byte[] record = encode(keyBytes, entry.getValue(), keyLength);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot >= 0) {
+                Entry previous = segment.readEntry(key, slot);
+                segment.set(slot, keyLength[0], entry.getExpiryTime(), record);
+                return previous;
+            }
+
+            segment.insert(hash, keyLength[0], entry.getExpiryTime(), record);
+            return null;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Entry get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            return (slot < 0) ? null : segment.readEntry(key, slot);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot >= 0) {
+                segment.delete(slot);
+            }
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String key, Entry expectedEntry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot < 0) {
+                return false;
+            }
+
+            if (segment.expiryTimes[slot] != expectedEntry.getExpiryTime()
+                    || !segment.readValue(slot).equals(expectedEntry.getValue())) {
+                // A newer entry was written; never delete it
+                return false;
+            }
+
+            segment.delete(slot);
+            return true;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atomic update under the segment's write lock.
+     * The current entry is materialized from its record first.
+     */
+    @Override
+    public Entry compute(String key, BiFunction<String, Entry, Entry> remappingFunction) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            Entry current = (slot < 0) ? null : segment.readEntry(key, slot);
+            Entry updated = remappingFunction.apply(key, current);
+
+            if (updated == current) {
+                return current;
+            }
+
+            if (updated == null) {
+                segment.delete(slot);
+                return null;
+            }
+
+            int[] keyLength = new int[1];
+            byte[] record = encode(keyBytes, updated.getValue(), keyLength);
+            if (slot >= 0) {
+                segment.set(slot, keyLength[0], updated.getExpiryTime(), record);
+            } else {
+                segment.insert(hash, keyLength[0], updated.getExpiryTime(), record);
+            }
+            return updated;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent view of entries.
+     * Entries are materialized one segment at a time while iterating.
+     */
+    @Override
+    public Set<Map.Entry<String, Entry>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Entry>> iterator() {
+                return new SegmentIterator();
+            }
+
+            @Override
+            public int size() {
+                long total = 0;
+                for (Segment segment : segments) {
+                    segment.lock.readLock().lock();
+                    try {
+                        total += segment.size();
+                    } finally {
+                        segment.lock.readLock().unlock();
+                    }
+                }
+                return (int) Math.min(total, Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    /**
+     * Packs the key and the (possibly compressed) value into one array.
+     *
+     * @param keyLength receives the key length, flagged if compressed
+     */
+    private byte[] encode(byte[] keyBytes, String value, int[] keyLength) {
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        keyLength[0] = keyBytes.length;
+
+        if (valueBytes.length >= compressionThreshold) {
+            byte[] compressed = ValueCompressor.compress(valueBytes);
+            if (compressed != null) {
+                valueBytes = compressed;
+                keyLength[0] |= COMPRESSED;
+            }
+        }
+
+        byte[] record = Arrays.copyOf(keyBytes, keyBytes.length + valueBytes.length);
+        System.arraycopy(valueBytes, 0, record, keyBytes.length, valueBytes.length);
+        return record;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Open-addressing (linear probing) table of parallel arrays.
+     * An empty slot has a null record. All access is guarded by the
+     * segment's lock.
+     */
+    private final class Segment extends LinearProbingTable {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        int[] hashes = new int[INITIAL_TABLE_SIZE];
+        int[] keyLengths = new int[INITIAL_TABLE_SIZE];
+        long[] expiryTimes = new long[INITIAL_TABLE_SIZE];
+        byte[][] records = new byte[INITIAL_TABLE_SIZE][];
+
+        Segment() {
+            super(INITIAL_TABLE_SIZE);
+        }
+
+        /**
+         * @return slot holding the key, or -1 if absent
+         */
+        int find(int hash, byte[] keyBytes) {
+            for (int slot = firstSlot(hash); !isEmpty(slot); slot = nextSlot(slot)) {
+                if (hashes[slot] == hash
+                        && (keyLengths[slot] & ~COMPRESSED) == keyBytes.length
+                        && Arrays.equals(records[slot], 0, keyBytes.length, keyBytes, 0, keyBytes.length)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        Entry readEntry(String key, int slot) {
+            return new Entry(key, readValue(slot), expiryTimes[slot]);
+        }
+
+        String readValue(int slot) {
+            byte[] record = records[slot];
+            int keyLength = keyLengths[slot] & ~COMPRESSED;
+
+            if ((keyLengths[slot] & COMPRESSED) != 0) {
+                byte[] valueBytes = ValueCompressor.decompress(record, keyLength, record.length - keyLength);
+                return new String(valueBytes, StandardCharsets.UTF_8);
+            }
+            return new String(record, keyLength, record.length - keyLength, StandardCharsets.UTF_8);
+        }
+
+        String readKey(int slot) {
+            return new String(records[slot], 0, keyLengths[slot] & ~COMPRESSED, StandardCharsets.UTF_8);
+        }
+
+        void set(int slot, int keyLength, long expiryTime, byte[] record) {
+            keyLengths[slot] = keyLength;
+            expiryTimes[slot] = expiryTime;
+            records[slot] = record;
+        }
+
+        void insert(int hash, int keyLength, long expiryTime, byte[] record) {
+            ensureCapacityForOneMore(3, 4);
+            int slot = freeSlot(hash);
+            hashes[slot] = hash;
+            set(slot, keyLength, expiryTime, record);
+            size++;
+        }
+
+        @Override
+        protected boolean isEmpty(int slot) {
+            return records[slot] == null;
+        }
+
+        @Override
+        protected int hashAt(int slot) {
+            return hashes[slot];
+        }
+
+        @Override
+        protected void moveSlot(int from, int to) {
+            hashes[to] = hashes[from];
+            set(to, keyLengths[from], expiryTimes[from], records[from]);
+        }
+
+        @Override
+        protected void clearSlot(int slot) {
+            hashes[slot] = 0;
+            records[slot] = null;
+        }
+
+        @Override
+        protected void rehash(int newCapacity) {
+            int[] oldHashes = hashes;
+            int[] oldKeyLengths = keyLengths;
+            long[] oldExpiryTimes = expiryTimes;
+            byte[][] oldRecords = records;
+
+            hashes = new int[newCapacity];
+            keyLengths = new int[newCapacity];
+            expiryTimes = new long[newCapacity];
+            records = new byte[newCapacity][];
+            for (int i = 0; i < oldRecords.length; i++) {
+                if (oldRecords[i] != null) {
+                    int slot = freeSlot(oldHashes[i]);
+                    hashes[slot] = oldHashes[i];
+                    set(slot, oldKeyLengths[i], oldExpiryTimes[i], oldRecords[i]);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Entry>> snapshot() {
+            lock.readLock().lock();
+            try {
+                List<Map.Entry<String, Entry>> copy = new ArrayList<>(size());
+                for (int slot = 0; slot < records.length; slot++) {
+                    if (!isEmpty(slot)) {
+                        String key = readKey(slot);
+                        copy.add(new AbstractMap.SimpleImmutableEntry<>(key, readEntry(key, slot)));
+                    }
+                }
+                return copy;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Iterates segment by segment, copying one segment at a time.
+     */
+    private final class SegmentIterator implements Iterator<Map.Entry<String, Entry>> {
+        private int nextSegment;
+        private Iterator<Map.Entry<String, Entry>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextSegment < segments.length) {
+                current = segments[nextSegment++].snapshot().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Entry> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.adi.kvstore.compact;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate-based compression for large values.
+ *
+ * A compressed value is stored as:
+ *
+ *   [int originalLength][raw deflate stream]
+ *
+ * Deflater and Inflater hold native memory, so each thread reuses
+ * one of each instead of allocating them per call.
+ */
+final class ValueCompressor {
+
+    private static final int LENGTH_PREFIX = 4;
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATER =
+            ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private ValueCompressor() {
+    }
+
+    /**
+     * @return the compressed form, or null if it would not be smaller
+     */
+    static byte[] compress(byte[] value) {
+        if (value.length <= LENGTH_PREFIX) {
+            return null;
+        }
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(value);
+        deflater.finish();
+
+        // Output larger than the input is useless; stop there
+        byte[] buffer = new byte[value.length];
+        ByteBuffer.wrap(buffer).putInt(value.length);
+        int length = LENGTH_PREFIX;
+        while (!deflater.finished() && length < buffer.length) {
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+
+        if (!deflater.finished()) {
+            return null;
+        }
+        byte[] compressed = new byte[length];
+        System.arraycopy(buffer, 0, compressed, 0, length);
+        return compressed;
+    }
+
+    static byte[] decompress(byte[] source, int offset, int length) {
+        int originalLength = ByteBuffer.wrap(source, offset, LENGTH_PREFIX).getInt();
+        byte[] value = new byte[originalLength];
+
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(source, offset + LENGTH_PREFIX, length - LENGTH_PREFIX);
+        try {
+            int read = 0;
+            while (read < originalLength) {
+                int n = inflater.inflate(value, read, originalLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Truncated compressed value");
+                }
+                read += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed value", e);
+        }
+        return value;
+    }
+}
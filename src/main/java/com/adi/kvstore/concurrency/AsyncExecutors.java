@@ -0,0 +1,55 @@
+package com.adi.kvstore.concurrency;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default executors for asynchronous store operations.
+ *
+ * Virtual threads (JDK 21+) are used when the runtime has them: a
+ * blocked operation (loader call, fsync wait) then parks a virtual
+ * thread instead of holding a platform thread. The project compiles
+ * for Java 17, so they are looked up reflectively; on older runtimes
+ * a cached pool of daemon platform threads is used instead.
+ */
+public final class AsyncExecutors {
+
+    private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * @return true if newDefaultExecutor() creates virtual threads
+     */
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * @param name prefix of the platform thread names (fallback only)
+     * @return a thread-per-task executor on virtual threads, or a cached
+     *         daemon thread pool; the caller must shut it down
+     */
+    public static ExecutorService newDefaultExecutor(String name) {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to platform threads
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreads(name));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
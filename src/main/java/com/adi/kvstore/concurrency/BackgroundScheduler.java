@@ -1,8 +1,9 @@
 package com.adi.kvstore.concurrency;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /*
 * Manages bcakground task scheduling for the key-value store.
@@ -10,19 +11,68 @@ import java.util.concurrent.TimeUnit;
 
 public class BackgroundScheduler {
 
-    private final ScheduledExecutorService scheduler;
+    private final ScheduledThreadPoolExecutor scheduler;
     private final long intervalMillis;
 
     public BackgroundScheduler(long intervalMillis) {
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.scheduler = new ScheduledThreadPoolExecutor(1);
+        // stop() must not wait for the next periodic or adaptive run
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
         this.intervalMillis = intervalMillis;
     }
 
     /*
     * Starts scheduling the given task at a fixed interval.
+    * A failing run is reported to the thread's uncaught exception
+    * handler and does not stop later runs.
     */
     public void start(Runnable task){
-        scheduler.scheduleAtFixedRate(task, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> runReporting(task), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    * Starts running the given task with a delay chosen after each run.
+    * The first run happens after the configured interval; a failing
+    * run does not stop later runs.
+    */
+    public void startAdaptive(Runnable task, LongSupplier nextDelayMillis){
+        scheduler.schedule(() -> runAndReschedule(task, nextDelayMillis), intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    * Runs the task once, as soon as the scheduler thread is free
+    * (e.g. when a buffer fills up between two scheduled runs).
+    *
+    * @return false if the scheduler was stopped and the task will not run
+    */
+    public boolean trigger(Runnable task){
+        try {
+            scheduler.execute(() -> runReporting(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void runAndReschedule(Runnable task, LongSupplier nextDelayMillis){
+        try {
+            runReporting(task);
+        } finally {
+            if (!scheduler.isShutdown()) {
+                long delay = Math.max(1, nextDelayMillis.getAsLong());
+                scheduler.schedule(() -> runAndReschedule(task, nextDelayMillis), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // An exception escaping a scheduled task would cancel it silently
+    private static void runReporting(Runnable task){
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
     }
 
     /*
@@ -1,39 +1,84 @@
 package com.adi.kvstore.concurrency;
 
 import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationIndex;
 import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.metrics.StatsCounter;
 import com.adi.kvstore.time.Clock;
 
 import java.util.Map;
+import java.util.function.BiPredicate;
 
 /*
 * Background task that removes expired entries from the store.
 * This task is best-effort and non-blocking.
+*
+* Without an ExpirationIndex it scans every entry (O(total keys)).
+* With an index it only touches entries that are due.
 */
 
 public class CleanerTask implements Runnable {
 
-    private final ConcurrentStorageEngine storageEngine;
+    private final ConcurrentStorage storageEngine;
     private final ExpirationPolicy expirationPolicy;
     private final Clock clock;
 
-    public CleanerTask(ConcurrentStorageEngine storageEngine, ExpirationPolicy expirationPolicy, Clock clock){
+    private final ExpirationIndex expirationIndex;
+    private final BiPredicate<String, Entry> expiredEntryRemover;
+    private volatile StatsCounter statsCounter = StatsCounter.disabled();
+
+    public CleanerTask(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock){
+        this(storageEngine, expirationPolicy, clock, null);
+    }
+
+    public CleanerTask(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock, ExpirationIndex expirationIndex){
+        this(storageEngine, expirationPolicy, clock, expirationIndex, storageEngine::remove);
+    }
+
+    /*
+    * @param expiredEntryRemover removes one expired entry unless it was
+    *        replaced meanwhile (default: storageEngine.remove(key, entry));
+    *        stores use it to report expirations to their listeners
+    */
+    public CleanerTask(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock, ExpirationIndex expirationIndex, BiPredicate<String, Entry> expiredEntryRemover){
         this.storageEngine = storageEngine;
         this.expirationPolicy = expirationPolicy;
         this.clock = clock;
+        this.expirationIndex = expirationIndex;
+        this.expiredEntryRemover = expiredEntryRemover;
+    }
+
+    /*
+    * Reports every run and the number of entries it reclaimed.
+    */
+    public void setStatsCounter(StatsCounter statsCounter){
+        this.statsCounter = statsCounter;
     }
 
     @Override
     public void run(){
-        long now = clock.now();
+        statsCounter.recordCleanerRun(expireEntries(clock.now()));
+    }
+
+    /*
+    * @return number of expired entries removed
+    */
+    private int expireEntries(long now){
+        if (expirationIndex != null) {
+            // Safe conditional removal of due entries only
+            return expirationIndex.expire(now, (key, entry) ->
+                    expirationPolicy.isExpired(entry, now) && expiredEntryRemover.test(key, entry));
+        }
 
+        int removed = 0;
         for(Map.Entry<String, Entry> mapEntry : storageEngine.entrySet()){
             Entry entry = mapEntry.getValue();
 
-            if (expirationPolicy.isExpired(entry, now)) {
-                //Safe conditional removal
-                storageEngine.remove(mapEntry.getKey(), entry);
+            //Safe conditional removal
+            if (expirationPolicy.isExpired(entry, now) && expiredEntryRemover.test(mapEntry.getKey(), entry)) {
+                removed++;
             }
         }
+        return removed;
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.adi.kvstore.concurrency;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/*
+* Thread-safe storage abstraction for key-value entries.
+* Implementations are policy-free and TTL-agnostic, like StorageEngine,
+* but every operation must be safe under concurrent access.
+*/
+
+public interface ConcurrentStorage {
+
+    /*
+    * Stores or replaces an entry for the given key.
+    *
+    * @return the replaced entry, or null if the key was absent
+    */
+    Entry put(String key, Entry entry);
+
+    /*
+    * Retrieves the entry for the given key.
+    */
+    Entry get(String key);
+
+    /*
+    * Removes the entry for the given key unconditionally.
+    */
+    void remove(String key);
+
+    /*
+    * Removes the entry only if it matches the expected value.
+    * This is critical for safe concurrent expiration.
+    *
+    * @return true if the entry was removed, false otherwise
+    */
+    boolean remove(String key, Entry expectedEntry);
+
+    /*
+    * Atomically computes a new entry from the current one (null if absent).
+    * Returning null removes the key; returning the current entry keeps it.
+    * The function runs exactly once, inside the key's atomic section,
+    * so it must be short and must not access this storage.
+    *
+    * @return the entry stored after the call, or null
+    */
+    Entry compute(String key, BiFunction<String, Entry, Entry> remappingFunction);
+
+    /*
+    * Return a weakly consistent view of entries for iteration.
+    */
+    Set<Map.Entry<String, Entry>> entrySet();
+
+    /*
+    * Whether entries holding a collection value can be stored.
+    * Engines that serialize every value keep strings only.
+    */
+    default boolean supportsCollections(){
+        return true;
+    }
+}
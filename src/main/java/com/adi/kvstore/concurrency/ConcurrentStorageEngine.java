@@ -5,26 +5,31 @@ import com.adi.kvstore.core.Entry;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /*
 * Thread-safe storage engine using ConcurrentHashMap.
 * This class is policy-free and TTL-agnostic.
 */
 
-public class ConcurrentStorageEngine {
+public class ConcurrentStorageEngine implements ConcurrentStorage {
 
-    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> store = new ConcurrentHashMap<>();
 
     /*
     * Stores or replaces an entry for the given key.
+    *
+    * @return the replaced entry, or null if the key was absent
     */
-    public void put(String key, Entry entry){
-        store.put(key, entry);
+    @Override
+    public Entry put(String key, Entry entry){
+        return store.put(key, entry);
     }
 
     /*
     * Retrieves the entry for the given key.
     */
+    @Override
     public Entry get(String key){
         return store.get(key);
     }
@@ -32,6 +37,7 @@ public class ConcurrentStorageEngine {
     /*
     * Removes the entry for the given key unconditionally.
     */
+    @Override
     public void remove(String key){
         store.remove(key);
     }
@@ -42,13 +48,23 @@ public class ConcurrentStorageEngine {
     * 
     * @return true if the entry was removed, false otherwise
     */
+    @Override
     public boolean remove(String key, Entry expectedEntry){
         return store.remove(key, expectedEntry);
     }
 
+    /*
+    * Single-lookup atomic update backed by ConcurrentHashMap.compute.
+    */
+    @Override
+    public Entry compute(String key, BiFunction<String, Entry, Entry> remappingFunction){
+        return store.compute(key, remappingFunction);
+    }
+
     /*
     * Return a snapshot view of keys for iteration.
     */
+    @Override
     public Set<Map.Entry<String, Entry>> entrySet(){
         return store.entrySet();
     }
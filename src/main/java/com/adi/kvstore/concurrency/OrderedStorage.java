@@ -0,0 +1,27 @@
+package com.adi.kvstore.concurrency;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * ConcurrentStorage that can also iterate its keys in sorted order.
+ *
+ * Like ConcurrentStorage it is policy-free and TTL-agnostic: iteration
+ * returns expired entries too, the caller decides what to skip.
+ */
+public interface OrderedStorage extends ConcurrentStorage {
+
+    /**
+     * Iterates entries in ascending key order, starting at fromKey.
+     *
+     * The iterator is weakly consistent: it never throws
+     * ConcurrentModificationException, never blocks writers, and may or
+     * may not reflect writes made after it was created. Each entry is
+     * read when the iterator reaches it.
+     *
+     * @param inclusive whether an entry for fromKey itself is returned
+     */
+    Iterator<Map.Entry<String, Entry>> ascendingFrom(String fromKey, boolean inclusive);
+}
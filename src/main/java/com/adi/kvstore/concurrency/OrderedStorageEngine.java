@@ -0,0 +1,139 @@
+package com.adi.kvstore.concurrency;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe storage engine with a sorted key index.
+ *
+ * Entries live in a ConcurrentHashMap, exactly like
+ * ConcurrentStorageEngine, so point reads stay O(1). A
+ * ConcurrentSkipListSet of the keys serves ordered iteration.
+ *
+ * The index is updated inside the key's atomic section (map.compute):
+ * - A key is added when it first appears and removed with its entry
+ * - The index therefore never keeps a key the map has lost
+ * - Iteration looks each key up in the map and skips keys removed since
+ *
+ * Trade-off:
+ * - Every put of a new key and every removal pays an O(log n) skip list
+ *   update, and every write goes through compute instead of put
+ * - About one skip list node (plus index levels) per key on top of the
+ *   hash map (see EngineFootprint)
+ * - Scans are lock-free and never block writers
+ */
+public class OrderedStorageEngine implements OrderedStorage {
+
+    private final ConcurrentHashMap<String, Entry> store = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+
+    @Override
+    public Entry put(String key, Entry entry) {
+        Entry[] previous = new Entry[1];
+        store.compute(key, (k, current) -> {
+            if (current == null) {
+                keys.add(k);
+            }
+            previous[0] = current;
+            return entry;
+        });
+        return previous[0];
+    }
+
+    @Override
+    public Entry get(String key) {
+        return store.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        store.computeIfPresent(key, (k, current) -> {
+            keys.remove(k);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean remove(String key, Entry expectedEntry) {
+        boolean[] removed = new boolean[1];
+        store.computeIfPresent(key, (k, current) -> {
+            if (!current.equals(expectedEntry)) {
+                return current;
+            }
+            keys.remove(k);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Single-lookup atomic update; the index follows the outcome.
+     */
+    @Override
+    public Entry compute(String key, BiFunction<String, Entry, Entry> remappingFunction) {
+        return store.compute(key, (k, current) -> {
+            Entry updated = remappingFunction.apply(k, current);
+            if (current == null && updated != null) {
+                keys.add(k);
+            } else if (current != null && updated == null) {
+                keys.remove(k);
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public Set<Map.Entry<String, Entry>> entrySet() {
+        return store.entrySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, Entry>> ascendingFrom(String fromKey, boolean inclusive) {
+        return new EntryIterator(keys.tailSet(fromKey, inclusive).iterator());
+    }
+
+    /**
+     * Pairs index keys with their current entries, skipping keys whose
+     * entry was removed after the index was read.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Entry>> {
+
+        private final Iterator<String> keyIterator;
+        private Map.Entry<String, Entry> next;
+
+        EntryIterator(Iterator<String> keyIterator) {
+            this.keyIterator = keyIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && keyIterator.hasNext()) {
+                String key = keyIterator.next();
+                Entry entry = store.get(key);
+                if (entry != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, entry);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Entry> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Entry> result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.adi.kvstore.core;
+
+/**
+ * A mutable value held by an Entry (hash, list or sorted set).
+ *
+ * Unlike string values, collections are updated in place: a store
+ * mutates them inside the key's atomic section, so mutations of one
+ * key are serialized. Reads may run concurrently with a mutation;
+ * implementations must be safe for that.
+ *
+ * estimatedBytes() is maintained on every mutation, so weighing an
+ * entry stays O(1) whatever the collection size.
+ */
+public interface CollectionValue {
+
+    ValueType type();
+
+    /**
+     * @return number of elements (fields, list items or members)
+     */
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return estimated bytes retained by the elements
+     */
+    long estimatedBytes();
+}
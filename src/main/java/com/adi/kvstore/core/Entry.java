@@ -2,13 +2,15 @@ package com.adi.kvstore.core;
 
 /*
 *  Represents a single key-value entry in the store.
-* Immutable by design.
+* Immutable by design; only a collection value (hash, list, sorted set)
+* is mutated in place, inside the key's atomic section.
 */
 
 public final class Entry{
 
     private final String key;
-    private final String value;
+    private final String value; // null for collection values
+    private final CollectionValue collection; // null for string values
     private final long expiryTime; // -1 mean no expiration
 
     public Entry(String key, String value, long expiryTime){
@@ -21,6 +23,21 @@ public final class Entry{
 
         this.key = key;
         this.value = value;
+        this.collection = null;
+        this.expiryTime = expiryTime;
+    }
+
+    public Entry(String key, CollectionValue collection, long expiryTime){
+        if(key == null || key.isBlank()){
+            throw new IllegalArgumentException("Key must not be null or empty");
+        }
+        if(collection == null){
+            throw new IllegalArgumentException("Value must not be null");
+        }
+
+        this.key = key;
+        this.value = null;
+        this.collection = collection;
         this.expiryTime = expiryTime;
     }
 
@@ -28,10 +45,32 @@ public final class Entry{
         return key;
     }
 
+    /*
+    * @return the string value
+    * @throws WrongTypeException if the entry holds a collection
+    */
     public String getValue(){
+        if(collection != null){
+            throw new WrongTypeException();
+        }
         return value;
     }
 
+    /*
+    * @return the collection value, or null for a string value
+    */
+    public CollectionValue getCollection(){
+        return collection;
+    }
+
+    public ValueType getType(){
+        return (collection == null) ? ValueType.STRING : collection.type();
+    }
+
+    public boolean isCollection(){
+        return collection != null;
+    }
+
     public long getExpiryTime(){
         return expiryTime;
     }
@@ -43,4 +82,4 @@ public final class Entry{
     public boolean hasExpiry(){
         return expiryTime >= 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.adi.kvstore.core;
+
+/**
+ * Skeleton of an open-addressing (linear probing) hash table laid out
+ * as parallel arrays.
+ *
+ * Subclasses own the arrays (keys, values, metadata) and say how to
+ * test, move and clear one slot. This class owns the probe sequence,
+ * growth and the backward-shift delete, so every table drops keys the
+ * same way and lookups never need tombstones.
+ *
+ * Not thread-safe: callers guard each table with their own lock.
+ */
+public abstract class LinearProbingTable {
+
+    protected int size;
+    private int mask;
+
+    /**
+     * @param initialCapacity length of the subclass arrays, a power of two
+     */
+    protected LinearProbingTable(int initialCapacity) {
+        if (initialCapacity <= 0 || Integer.bitCount(initialCapacity) != 1) {
+            throw new IllegalArgumentException("initialCapacity must be a positive power of two");
+        }
+        this.mask = initialCapacity - 1;
+    }
+
+    /**
+     * @return true if the slot holds no entry
+     */
+    protected abstract boolean isEmpty(int slot);
+
+    /**
+     * @return hash of the key held in an occupied slot
+     */
+    protected abstract int hashAt(int slot);
+
+    /**
+     * Copies the entry in slot from into slot to (overwriting it).
+     */
+    protected abstract void moveSlot(int from, int to);
+
+    /**
+     * Marks the slot empty and drops its references.
+     */
+    protected abstract void clearSlot(int slot);
+
+    /**
+     * Replaces the arrays with empty ones of the new capacity and puts
+     * every old entry back at freeSlot(hash).
+     */
+    protected abstract void rehash(int newCapacity);
+
+    public final int size() {
+        return size;
+    }
+
+    public final int capacity() {
+        return mask + 1;
+    }
+
+    protected final int firstSlot(int hash) {
+        return hash & mask;
+    }
+
+    protected final int nextSlot(int slot) {
+        return (slot + 1) & mask;
+    }
+
+    /**
+     * @return first empty slot on the probe sequence of the hash
+     */
+    protected final int freeSlot(int hash) {
+        int slot = hash & mask;
+        while (!isEmpty(slot)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity once size + 1 entries would exceed the
+     * given fraction of the table.
+     */
+    protected final void ensureCapacityForOneMore(int loadNumerator, int loadDenominator) {
+        if ((long) (size + 1) * loadDenominator > (long) capacity() * loadNumerator) {
+            int newCapacity = capacity() * 2;
+            mask = newCapacity - 1;
+            rehash(newCapacity);
+        }
+    }
+
+    /**
+     * Deletes the slot and shifts later probes back: an entry moves
+     * into the hole unless its home slot lies cyclically in (hole, next].
+     */
+    public final void delete(int slot) {
+        int hole = slot;
+        int next = slot;
+
+        while (true) {
+            next = (next + 1) & mask;
+            if (isEmpty(next)) {
+                break;
+            }
+
+            int home = hashAt(next) & mask;
+            boolean movable = (hole <= next)
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                moveSlot(next, hole);
+                hole = next;
+            }
+        }
+
+        clearSlot(hole);
+        size--;
+    }
+}
@@ -0,0 +1,11 @@
+package com.adi.kvstore.core;
+
+/**
+ * Kind of value held by an Entry.
+ */
+public enum ValueType {
+    STRING,
+    HASH,
+    LIST,
+    SORTED_SET
+}
@@ -0,0 +1,16 @@
+package com.adi.kvstore.core;
+
+/**
+ * Thrown when an operation for one kind of value (e.g. a hash command)
+ * is applied to a key holding another kind (e.g. a string).
+ *
+ * The message follows the Redis WRONGTYPE error.
+ */
+public class WrongTypeException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public WrongTypeException() {
+        super("WRONGTYPE Operation against a key holding the wrong kind of value");
+    }
+}
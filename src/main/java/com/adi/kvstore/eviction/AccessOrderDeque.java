@@ -0,0 +1,110 @@
+package com.adi.kvstore.eviction;
+
+/**
+ * Intrusive doubly-linked list of keys ordered by recency.
+ *
+ * The head holds the most-recently-used key and the tail the
+ * least-recently-used one. Every operation is O(1) because callers
+ * keep a reference to the node of each key.
+ *
+ * This class is NOT thread-safe; owners guard it with their own lock.
+ */
+final class AccessOrderDeque {
+
+    /**
+     * A single key in the deque.
+     * The queue field is free for owners that track several deques.
+     */
+    static final class Node {
+        final String key;
+        Node prev;
+        Node next;
+        int queue;
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
+
+    private Node head;
+    private Node tail;
+    private int size;
+
+    /**
+     * Links the node at the head (most-recently-used end).
+     */
+    void addFirst(Node node) {
+        node.prev = null;
+        node.next = head;
+        if (head == null) {
+            tail = node;
+        } else {
+            head.prev = node;
+        }
+        head = node;
+        size++;
+    }
+
+    /**
+     * Moves an already linked node to the head.
+     */
+    void moveToFront(Node node) {
+        if (node == head) {
+            return;
+        }
+        unlink(node);
+        addFirst(node);
+    }
+
+    /**
+     * Unlinks the node from the deque.
+     */
+    void unlink(Node node) {
+        Node prev = node.prev;
+        Node next = node.next;
+
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+
+        node.prev = null;
+        node.next = null;
+        size--;
+    }
+
+    /**
+     * Unlinks and returns the least-recently-used node.
+     *
+     * @return the tail node, or null if the deque is empty
+     */
+    Node pollLast() {
+        Node last = tail;
+        if (last != null) {
+            unlink(last);
+        }
+        return last;
+    }
+
+    /**
+     * @return the least-recently-used node without unlinking it, or null
+     */
+    Node peekLast() {
+        return tail;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.adi.kvstore.eviction;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU eviction policy with O(1) amortized access recording.
+ *
+ * Unlike LRUEvictionPolicy, recording an access never scans a deque:
+ * - Each key maps to exactly one node of an intrusive doubly-linked list
+ * - Reads of known keys are appended to a striped, lossy access buffer
+ * - The buffer is drained into the list under a lock, in batches
+ * - New keys are linked immediately so they are never lost
+ *
+ * Trade-off:
+ * - Recency of reads is applied lazily (on drain) and may be dropped
+ *   when a buffer stripe is full
+ * - The list never holds duplicate keys
+ * - Storage is still the source of the truth, not this structure
+ */
+public class BufferedLRUEvictionPolicy implements EvictionPolicy {
+
+    private final Map<String, AccessOrderDeque.Node> nodes = new ConcurrentHashMap<>();
+    private final AccessOrderDeque accessOrder = new AccessOrderDeque();
+    private final StripedAccessBuffer readBuffer = new StripedAccessBuffer();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @Override
+    public void onAccess(String key) {
+        if (key == null) {
+            return;
+        }
+
+        if (!nodes.containsKey(key)) {
+            addNewKey(key);
+            return;
+        }
+
+        // Known key: record lazily, drain only when the stripe is full
+        if (!readBuffer.offer(key)) {
+            tryDrain();
+        }
+    }
+
+    /**
+     * Applies a whole batch under one lock acquisition when the lock is
+     * free; otherwise falls back to buffering each key.
+     */
+    @Override
+    public void onAccessAll(Collection<String> keys) {
+        if (!evictionLock.tryLock()) {
+            for (String key : keys) {
+                onAccess(key);
+            }
+            return;
+        }
+
+        try {
+            drainReadBuffer();
+            for (String key : keys) {
+                AccessOrderDeque.Node node = nodes.get(key);
+                if (node == null) {
+                    node = new AccessOrderDeque.Node(key);
+                    nodes.put(key, node);
+                    accessOrder.addFirst(node);
+                } else {
+                    accessOrder.moveToFront(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public String selectEvictionCandidate() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+
+            AccessOrderDeque.Node victim = accessOrder.pollLast();
+            if (victim == null) {
+                return null;
+            }
+            nodes.remove(victim.key);
+            return victim.key;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(String key) {
+        if (key == null) {
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            AccessOrderDeque.Node node = nodes.remove(key);
+            if (node != null) {
+                accessOrder.unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void addNewKey(String key) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+
+            AccessOrderDeque.Node node = nodes.get(key);
+            if (node != null) {
+                // Another thread linked it first
+                accessOrder.moveToFront(node);
+                return;
+            }
+
+            node = new AccessOrderDeque.Node(key);
+            nodes.put(key, node);
+            accessOrder.addFirst(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void tryDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // Must be called while holding evictionLock
+    private void drainReadBuffer() {
+        readBuffer.drainTo(key -> {
+            AccessOrderDeque.Node node = nodes.get(key);
+            if (node != null) {
+                accessOrder.moveToFront(node);
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.adi.kvstore.eviction;
+
+import com.adi.kvstore.core.Entry;
+
+/**
+ * Estimates the retained heap size of a stored entry.
+ * 
+ * Assumes a 64-bit JVM with compressed oops (12-byte object headers,
+ * 4-byte references, 8-byte alignment) and compact strings.
+ * 
+ * An entry retains:
+ * - The ConcurrentHashMap node and its share of the table
+ * - The Entry object itself
+ * - The key String (shared by the node and the Entry)
+ * - The value String, or the elements of a collection value
+ *   (CollectionValue.estimatedBytes, kept up to date on each mutation)
+ * 
+ * A string's backing array is weighed at one byte per char when every
+ * char is Latin-1 (at most 0xFF) and two bytes per char otherwise,
+ * matching what compact strings store.
+ */
+public final class EntrySizeEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    // header + hash + key/value/next references
+    private static final long MAP_NODE = align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+    // table slot, amortized over a load factor between 0.5 and 0.75
+    private static final long MAP_TABLE_SLOT = 2L * REFERENCE;
+    // header + key/value/collection references + expiryTime
+    private static final long ENTRY = align(OBJECT_HEADER + 3 * REFERENCE + 8);
+    // header + its structure's references and counters
+    private static final long COLLECTION = 64;
+    // header + value reference + hash + coder + hashIsZero
+    private static final long STRING = align(OBJECT_HEADER + REFERENCE + 4 + 1 + 1);
+
+    private EntrySizeEstimator() {
+    }
+
+    /**
+     * @return estimated bytes retained by the entry while it is stored
+     */
+    public static long estimate(Entry entry) {
+        long base = MAP_NODE + MAP_TABLE_SLOT + ENTRY + estimate(entry.getKey());
+        if (entry.isCollection()) {
+            return base + COLLECTION + entry.getCollection().estimatedBytes();
+        }
+        return base + estimate(entry.getValue());
+    }
+
+    /**
+     * @return estimated bytes retained by the string and its backing array
+     */
+    public static long estimate(String value) {
+        long bytesPerChar = isLatin1(value) ? 1 : 2;
+        return STRING + align(ARRAY_HEADER + bytesPerChar * value.length());
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -1,5 +1,7 @@
 package com.adi.kvstore.eviction;
 
+import java.util.Collection;
+
 /**
  * EvictionPolicy decides which key should be evicted
  * when the memory limit is exceeded
@@ -17,6 +19,37 @@ public interface EvictionPolicy {
      */
     void onAccess(String key);
 
+    /**
+     * Records access to several keys at once (batch GET).
+     * Policies may override this to amortize locking.
+     */
+    default void onAccessAll(Collection<String> keys) {
+        for (String key : keys) {
+            onAccess(key);
+        }
+    }
+
+    /**
+     * Records the first write of a key and decides whether to keep it.
+     * Admission-aware policies may reject a newcomer that is less
+     * valuable than the entries it would displace.
+     * 
+     * Default: every new key is admitted and recorded as an access.
+     * 
+     * @return true if the key should be stored, false to reject it
+     */
+    default boolean onAdmit(String key) {
+        onAccess(key);
+        return true;
+    }
+
+    /**
+     * Records that a key left the store outside of eviction
+     * (for example on expiration). Default: ignored.
+     */
+    default void onRemove(String key) {
+    }
+
     /**
      * Selects a candidate key for eviction
      * 
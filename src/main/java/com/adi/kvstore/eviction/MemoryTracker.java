@@ -1,25 +1,36 @@
 package com.adi.kvstore.eviction;
 
+import com.adi.kvstore.core.Entry;
+
 /**
  * MemoryTracker is responsible for tracking memory usage
  * and determining whether eviction is required
  * 
- * In v3, memory is tracked as number of entries.
+ * Usage is tracked as a sum of entry weights. What a weight means
+ * is up to the tracker: an entry count (SimpleMemoryTracker) or an
+ * estimated size in bytes (WeightedMemoryTracker).
  */
 public interface MemoryTracker {
 
     /**
-     * Called when a new entry is added
+     * @return how much the given entry counts against the limit
+     */
+    long weigh(Entry entry);
+
+    /**
+     * Called when a new entry is added, or when an overwrite
+     * makes an entry heavier.
      */
-    void increment();
+    void increment(long weight);
 
     /**
-     * Called when an entry is removed.
+     * Called when an entry is removed, or when an overwrite
+     * makes an entry lighter.
      */
-    void decrement();
+    void decrement(long weight);
 
     /**
      * @return true if memory limit is exceeded
      */
     boolean isLimitExceeded();
-}
\ No newline at end of file
+}
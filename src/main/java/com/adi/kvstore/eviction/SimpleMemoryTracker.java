@@ -1,17 +1,20 @@
 package com.adi.kvstore.eviction;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import com.adi.kvstore.core.Entry;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Simple entry-count based memory tracker.
  * 
- * In v3, "memory" is defined as number of entries stored.
+ * In v3, "memory" is defined as number of entries stored:
+ * every entry weighs exactly 1, so overwrites never change usage.
  * This tracker is thread-safe and intentionally simple.
  */
 public class SimpleMemoryTracker implements MemoryTracker {
 
     private final int maxEntries;
-    private final AtomicInteger currentEntries = new AtomicInteger(0);
+    private final AtomicLong currentEntries = new AtomicLong(0);
 
     public SimpleMemoryTracker(int maxEntries){
         if (maxEntries <= 0) {
@@ -21,13 +24,18 @@ public class SimpleMemoryTracker implements MemoryTracker {
     }
 
     @Override
-    public void increment(){
-        currentEntries.incrementAndGet();
+    public long weigh(Entry entry) {
+        return 1;
+    }
+
+    @Override
+    public void increment(long weight){
+        currentEntries.addAndGet(weight);
     }
 
     @Override
-    public void decrement() {
-        currentEntries.decrementAndGet();
+    public void decrement(long weight) {
+        currentEntries.addAndGet(-weight);
     }
 
     @Override
@@ -39,6 +47,6 @@ public class SimpleMemoryTracker implements MemoryTracker {
      * Exposed for observability/debugging only.
      */
     public int getCurrentEntries(){
-        return currentEntries.get();
+        return (int) currentEntries.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.adi.kvstore.eviction;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, bounded and lossy buffer of key accesses.
+ *
+ * Readers record accesses here instead of touching the eviction
+ * structure directly. Each thread hashes to one stripe, so concurrent
+ * readers rarely contend on the same ring.
+ *
+ * Trade-off:
+ * - When a stripe is full the access is dropped (recency is a hint)
+ * - Draining must be done by a single thread at a time (owner's lock)
+ */
+public final class StripedAccessBuffer {
+
+    private static final int STRIPE_CAPACITY = 32;
+    private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public StripedAccessBuffer() {
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripes = new Stripe[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripes.length - 1;
+    }
+
+    /**
+     * Records an access to the calling thread's stripe.
+     *
+     * @return false if the stripe is full and the owner should drain
+     */
+    public boolean offer(String key) {
+        return stripeForCurrentThread().offer(key);
+    }
+
+    /**
+     * Hands every buffered key to the consumer.
+     * Must only be called while holding the owner's lock.
+     */
+    public void drainTo(Consumer<String> consumer) {
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private Stripe stripeForCurrentThread() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    /**
+     * Multi-producer, single-consumer ring of fixed capacity.
+     */
+    private static final class Stripe {
+        private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(String key) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if (tail - head >= STRIPE_CAPACITY) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & STRIPE_MASK), key);
+            }
+            // Losing the CAS drops the access; recency is best-effort
+            return true;
+        }
+
+        void drainTo(Consumer<String> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+
+            while (head < tail) {
+                int index = (int) (head & STRIPE_MASK);
+                String key = slots.get(index);
+                if (key == null) {
+                    // Producer claimed the slot but has not published yet
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(key);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.adi.kvstore.eviction;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-based memory tracker.
+ * 
+ * Each entry weighs its estimated retained heap size
+ * (see EntrySizeEstimator), so the limit is a byte budget
+ * instead of an entry count.
+ * 
+ * Trade-off:
+ * - Sizes are estimates of the JVM layout, not measurements
+ * - The budget is enforced eventually, like the entry-count tracker
+ */
+public class WeightedMemoryTracker implements MemoryTracker {
+
+    private final long maxBytes;
+    private final AtomicLong currentBytes = new AtomicLong(0);
+
+    public WeightedMemoryTracker(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public long weigh(Entry entry) {
+        return EntrySizeEstimator.estimate(entry);
+    }
+
+    @Override
+    public void increment(long weight) {
+        currentBytes.addAndGet(weight);
+    }
+
+    @Override
+    public void decrement(long weight) {
+        currentBytes.addAndGet(-weight);
+    }
+
+    @Override
+    public boolean isLimitExceeded() {
+        return currentBytes.get() > maxBytes;
+    }
+
+    /**
+     * Exposed for observability/debugging only.
+     */
+    public long getCurrentBytes() {
+        return currentBytes.get();
+    }
+}
@@ -0,0 +1,308 @@
+package com.adi.kvstore.eviction;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Frequency-aware eviction policy (W-TinyLFU).
+ *
+ * Keys live in one of three LRU queues:
+ * - Window: every new key enters here (about 1% of the capacity)
+ * - Probation: main-space keys that were not re-used yet
+ * - Protected: main-space keys that were accessed again (80% of main)
+ *
+ * When the window overflows, its LRU key becomes a candidate for the
+ * main space. It is admitted only if the frequency sketch says it is
+ * more popular than the main-space victim; the loser is queued for
+ * eviction. A scan of one-hit keys therefore only churns the window.
+ *
+ * With a window fraction of 0 the policy is plain TinyLFU: a new key
+ * duels the victim directly and onAdmit() may reject it.
+ *
+ * The policy is sized in entries. Storage is still the source of the
+ * truth: a key that loses a duel stays in the store until the next
+ * eviction picks it up. The loser queue holds each key once and drops
+ * keys that are removed or written again, so it never grows past the
+ * number of keys in the store.
+ *
+ * With a byte-based tracker (WeightedMemoryTracker) size maximumSize
+ * to the number of entries the byte budget holds, i.e. the budget
+ * divided by the average entry weight. Smaller values push live keys
+ * out of the queues early (they are evicted first while the store has
+ * room for them); much larger ones make the window and the sketch too
+ * coarse for the keys that actually fit.
+ */
+public class WindowTinyLfuEvictionPolicy implements EvictionPolicy {
+
+    private static final double DEFAULT_WINDOW_FRACTION = 0.01;
+    private static final double PROTECTED_FRACTION = 0.80;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+
+    private final Map<String, AccessOrderDeque.Node> nodes = new HashMap<>();
+    private final AccessOrderDeque window = new AccessOrderDeque();
+    private final AccessOrderDeque probation = new AccessOrderDeque();
+    private final AccessOrderDeque protectedQueue = new AccessOrderDeque();
+    private final LinkedHashSet<String> pendingEvictions = new LinkedHashSet<>();
+
+    private final FrequencySketch sketch;
+    private final StripedAccessBuffer readBuffer = new StripedAccessBuffer();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public WindowTinyLfuEvictionPolicy(long maximumSize) {
+        this(maximumSize, DEFAULT_WINDOW_FRACTION);
+    }
+
+    public WindowTinyLfuEvictionPolicy(long maximumSize, double windowFraction) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (windowFraction < 0 || windowFraction >= 1) {
+            throw new IllegalArgumentException("windowFraction must be in [0, 1)");
+        }
+
+        long windowSize = (windowFraction == 0)
+                ? 0
+                : Math.max(1, Math.round(maximumSize * windowFraction));
+
+        this.windowMaximum = Math.min(windowSize, maximumSize - 1);
+        this.mainMaximum = maximumSize - windowMaximum;
+        this.protectedMaximum = (long) (mainMaximum * PROTECTED_FRACTION);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public void onAccess(String key) {
+        if (key == null) {
+            return;
+        }
+        if (!readBuffer.offer(key)) {
+            tryDrain();
+        }
+    }
+
+    /**
+     * Applies a whole batch under one lock acquisition when the lock is
+     * free; otherwise falls back to buffering each key.
+     */
+    @Override
+    public void onAccessAll(Collection<String> keys) {
+        if (!evictionLock.tryLock()) {
+            for (String key : keys) {
+                onAccess(key);
+            }
+            return;
+        }
+
+        try {
+            drainReadBuffer();
+            for (String key : keys) {
+                recordAccess(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean onAdmit(String key) {
+        if (key == null) {
+            return false;
+        }
+
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            sketch.increment(key);
+            // Written again after losing a duel: it competes afresh
+            pendingEvictions.remove(key);
+
+            AccessOrderDeque.Node node = nodes.get(key);
+            if (node != null) {
+                onHit(node);
+                return true;
+            }
+
+            node = new AccessOrderDeque.Node(key);
+
+            if (windowMaximum == 0) {
+                // Plain TinyLFU: the newcomer itself must win the duel
+                if (!admitToMain(node)) {
+                    return false;
+                }
+                nodes.put(key, node);
+                return true;
+            }
+
+            node.queue = WINDOW;
+            window.addFirst(node);
+            nodes.put(key, node);
+
+            if (window.size() > windowMaximum) {
+                AccessOrderDeque.Node candidate = window.pollLast();
+                if (!admitToMain(candidate)) {
+                    nodes.remove(candidate.key);
+                    pendingEvictions.add(candidate.key);
+                }
+            }
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(String key) {
+        if (key == null) {
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            pendingEvictions.remove(key);
+            AccessOrderDeque.Node node = nodes.remove(key);
+            if (node != null) {
+                queueOf(node).unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public String selectEvictionCandidate() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+
+            // Losers of admission duels go first
+            Iterator<String> pending = pendingEvictions.iterator();
+            if (pending.hasNext()) {
+                String key = pending.next();
+                pending.remove();
+                return key;
+            }
+
+            AccessOrderDeque.Node victim = probation.peekLast();
+            if (victim == null) {
+                victim = protectedQueue.peekLast();
+            }
+            if (victim == null) {
+                victim = window.peekLast();
+            }
+            if (victim == null) {
+                return null;
+            }
+
+            queueOf(victim).unlink(victim);
+            nodes.remove(victim.key);
+            return victim.key;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Moves the candidate into probation if there is room, or if it is
+     * more popular than the main-space victim (which is then queued for
+     * eviction).
+     *
+     * @return true if the candidate was admitted
+     */
+    private boolean admitToMain(AccessOrderDeque.Node candidate) {
+        if (probation.size() + protectedQueue.size() < mainMaximum) {
+            candidate.queue = PROBATION;
+            probation.addFirst(candidate);
+            return true;
+        }
+
+        AccessOrderDeque.Node victim = probation.peekLast();
+        if (victim == null) {
+            victim = protectedQueue.peekLast();
+        }
+        if (victim == null) {
+            return false;
+        }
+
+        if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            return false;
+        }
+
+        queueOf(victim).unlink(victim);
+        nodes.remove(victim.key);
+        pendingEvictions.add(victim.key);
+
+        candidate.queue = PROBATION;
+        probation.addFirst(candidate);
+        return true;
+    }
+
+    private void onHit(AccessOrderDeque.Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToFront(node);
+                break;
+
+            case PROBATION:
+                // Re-used key graduates to the protected segment
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedQueue.addFirst(node);
+
+                if (protectedQueue.size() > protectedMaximum) {
+                    AccessOrderDeque.Node demoted = protectedQueue.pollLast();
+                    demoted.queue = PROBATION;
+                    probation.addFirst(demoted);
+                }
+                break;
+
+            default:
+                protectedQueue.moveToFront(node);
+        }
+    }
+
+    private AccessOrderDeque queueOf(AccessOrderDeque.Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedQueue;
+        }
+    }
+
+    private void tryDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // Must be called while holding evictionLock
+    private void drainReadBuffer() {
+        readBuffer.drainTo(this::recordAccess);
+    }
+
+    // Must be called while holding evictionLock
+    private void recordAccess(String key) {
+        sketch.increment(key);
+        AccessOrderDeque.Node node = nodes.get(key);
+        if (node != null) {
+            onHit(node);
+        }
+    }
+}
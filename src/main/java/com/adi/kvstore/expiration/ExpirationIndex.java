@@ -0,0 +1,51 @@
+package com.adi.kvstore.expiration;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.function.BiPredicate;
+
+/*
+* Index of entries that carry a TTL, so cleanup only touches
+* entries that are actually due instead of scanning the whole store.
+*
+* The index is a hint, not the source of truth:
+* - Stores report writes and removals inside the key's atomic
+*   section, so the index sees a key's writes in map order
+* - Expired entries removed by reads or the cleaner are forgotten
+*   afterwards; the index may lag behind there
+* - Due entries are removed through a conditional remover, so a
+*   stale index entry can never delete a newer value
+*/
+
+public interface ExpirationIndex {
+
+    /*
+    * Records the entry just written for the key.
+    * Replaces any previous schedule of the key; entries without
+    * expiry are simply unscheduled.
+    */
+    void onPut(String key, Entry entry);
+
+    /*
+    * Forgets the key if it is still scheduled for the given entry.
+    */
+    void onRemove(String key, Entry entry);
+
+    /*
+    * Hands every entry due at the given time to the remover.
+    * @param now current time in milliseconds
+    * @param remover conditional removal, returns true if the entry was removed
+    * @return number of entries removed
+    */
+    int expire(long now, BiPredicate<String, Entry> remover);
+
+    /*
+    * Delay before the next cleanup run, so adaptive indexes can run
+    * more often while many entries expire and back off otherwise.
+    * @param configuredMillis the interval the store was configured with
+    * @return delay in milliseconds (default: the configured interval)
+    */
+    default long nextCleanupDelayMillis(long configuredMillis) {
+        return configuredMillis;
+    }
+}
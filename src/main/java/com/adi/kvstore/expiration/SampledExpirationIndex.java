@@ -0,0 +1,219 @@
+package com.adi.kvstore.expiration;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiPredicate;
+
+/*
+* Redis-style probabilistic expiration index.
+*
+* Only keys with a TTL are tracked, in a dense array that supports O(1)
+* random sampling, so sampling never hits immortal keys. Each cleanup
+* cycle:
+* - Samples a fixed number of tracked keys and removes the expired ones
+* - Repeats immediately while the expired ratio stays above a threshold
+* - Stops when the per-cycle time budget is spent
+*
+* The interval between cycles adapts: it halves while cycles keep
+* finding many expired entries and doubles while they find none.
+*
+* Trade-off:
+* - Expired entries are reclaimed statistically, not exactly on time
+* - Memory held by expired entries is bounded by the threshold on average
+*
+* Thread safety: all bookkeeping synchronizes on the index. Removals
+* from the store happen outside the lock.
+*/
+
+public class SampledExpirationIndex implements ExpirationIndex {
+
+    private static final int DEFAULT_SAMPLE_SIZE = 20;
+    private static final double DEFAULT_EXPIRED_RATIO = 0.10;
+    private static final long DEFAULT_CYCLE_BUDGET_MILLIS = 5;
+    private static final long DEFAULT_MIN_INTERVAL_MILLIS = 10;
+    private static final long DEFAULT_MAX_INTERVAL_MILLIS = 1000;
+
+    private final int sampleSize;
+    private final double expiredRatioThreshold;
+    private final long cycleBudgetNanos;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+
+    private final Map<String, Integer> positions = new HashMap<>();
+    private String[] keys = new String[64];
+    private Entry[] entries = new Entry[64];
+    private int size;
+
+    private volatile long intervalMillis;
+
+    public SampledExpirationIndex() {
+        this(DEFAULT_SAMPLE_SIZE, DEFAULT_EXPIRED_RATIO, DEFAULT_CYCLE_BUDGET_MILLIS,
+                DEFAULT_MIN_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS);
+    }
+
+    /*
+    * @param sampleSize keys sampled per round
+    * @param expiredRatioThreshold repeat a round while this ratio of samples is expired
+    * @param cycleBudgetMillis maximum time spent in one cleanup cycle
+    * @param minIntervalMillis shortest delay between cycles
+    * @param maxIntervalMillis longest delay between cycles
+    */
+    public SampledExpirationIndex(int sampleSize, double expiredRatioThreshold, long cycleBudgetMillis,
+                                  long minIntervalMillis, long maxIntervalMillis) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive");
+        }
+        if (expiredRatioThreshold <= 0 || expiredRatioThreshold > 1) {
+            throw new IllegalArgumentException("expiredRatioThreshold must be in (0, 1]");
+        }
+        if (cycleBudgetMillis <= 0 || minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("Invalid cycle budget or interval bounds");
+        }
+
+        this.sampleSize = sampleSize;
+        this.expiredRatioThreshold = expiredRatioThreshold;
+        this.cycleBudgetNanos = cycleBudgetMillis * 1_000_000;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.intervalMillis = minIntervalMillis;
+    }
+
+    @Override
+    public synchronized void onPut(String key, Entry entry) {
+        Integer position = positions.get(key);
+
+        if (!entry.hasExpiry()) {
+            // Overwrite removed the TTL
+            if (position != null) {
+                removeAt(position);
+            }
+            return;
+        }
+
+        if (position != null) {
+            entries[position] = entry;
+            return;
+        }
+
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size] = key;
+        entries[size] = entry;
+        positions.put(key, size);
+        size++;
+    }
+
+    @Override
+    public synchronized void onRemove(String key, Entry entry) {
+        Integer position = positions.get(key);
+        if (position != null && entries[position] == entry) {
+            removeAt(position);
+        }
+    }
+
+    @Override
+    public int expire(long now, BiPredicate<String, Entry> remover) {
+        long deadline = System.nanoTime() + cycleBudgetNanos;
+        String[] sampledKeys = new String[sampleSize];
+        Entry[] sampledEntries = new Entry[sampleSize];
+        int removed = 0;
+        double expiredRatio;
+        boolean budgetExhausted;
+
+        do {
+            int sampled = sample(sampledKeys, sampledEntries);
+            if (sampled == 0) {
+                expiredRatio = 0;
+                budgetExhausted = false;
+                break;
+            }
+
+            int expired = 0;
+            for (int i = 0; i < sampled; i++) {
+                Entry entry = sampledEntries[i];
+                if (entry.getExpiryTime() > now) {
+                    continue;
+                }
+                expired++;
+                if (remover.test(sampledKeys[i], entry)) {
+                    removed++;
+                }
+                // Expired either way: removed now, or already replaced
+                onRemove(sampledKeys[i], entry);
+            }
+
+            expiredRatio = (double) expired / sampled;
+            budgetExhausted = System.nanoTime() >= deadline;
+        } while (expiredRatio > expiredRatioThreshold && !budgetExhausted);
+
+        adapt(expiredRatio, budgetExhausted);
+        return removed;
+    }
+
+    @Override
+    public long nextCleanupDelayMillis(long configuredMillis) {
+        return intervalMillis;
+    }
+
+    /*
+    * @return number of tracked keys with a TTL
+    */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int sample(String[] sampledKeys, Entry[] sampledEntries) {
+        if (size == 0) {
+            return 0;
+        }
+
+        int count = Math.min(sampleSize, size);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(size);
+            sampledKeys[i] = keys[index];
+            sampledEntries[i] = entries[index];
+        }
+        return count;
+    }
+
+    // Runs more often while expired memory piles up, backs off otherwise
+    private void adapt(double expiredRatio, boolean budgetExhausted) {
+        long interval = intervalMillis;
+        if (budgetExhausted || expiredRatio > expiredRatioThreshold) {
+            interval = Math.max(minIntervalMillis, interval / 2);
+        } else if (expiredRatio == 0) {
+            interval = Math.min(maxIntervalMillis, interval * 2);
+        }
+        intervalMillis = interval;
+    }
+
+    // Swap-remove keeps the arrays dense for O(1) sampling
+    private void removeAt(int position) {
+        int last = size - 1;
+        positions.remove(keys[position]);
+
+        if (position != last) {
+            keys[position] = keys[last];
+            entries[position] = entries[last];
+            positions.put(keys[position], position);
+        }
+
+        keys[last] = null;
+        entries[last] = null;
+        size--;
+    }
+
+    private void grow() {
+        String[] grownKeys = new String[keys.length * 2];
+        Entry[] grownEntries = new Entry[entries.length * 2];
+        System.arraycopy(keys, 0, grownKeys, 0, size);
+        System.arraycopy(entries, 0, grownEntries, 0, size);
+        keys = grownKeys;
+        entries = grownEntries;
+    }
+}
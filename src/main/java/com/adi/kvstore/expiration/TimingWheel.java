@@ -0,0 +1,231 @@
+package com.adi.kvstore.expiration;
+
+import com.adi.kvstore.core.Entry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/*
+* Hierarchical timing wheel keyed on Entry.getExpiryTime().
+*
+* Time is divided into ticks. Level 0 has one bucket per tick; each
+* higher level has buckets 64 times wider. An entry is placed at the
+* lowest level whose bucket it shares with no earlier tick, and moves
+* down a level each time its bucket comes up (cascading). Advancing
+* the wheel therefore only touches entries that are due or about to be.
+*
+* With 5 levels of 64 buckets the wheel spans 64^5 ticks; anything
+* further away waits in an overflow list that is re-checked once per
+* top-level rotation.
+*
+* Thread safety: all methods synchronize on the wheel. Due entries are
+* removed from the store outside the lock.
+*/
+
+public class TimingWheel implements ExpirationIndex {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Bucket overflow = new Bucket();
+    private final Bucket due = new Bucket();
+    private final Map<String, TimerNode> nodes = new HashMap<>();
+    private long currentTick;
+
+    /*
+    * @param tickMillis resolution of the wheel
+    * @param startTime current time in milliseconds
+    */
+    public TimingWheel(long tickMillis, long startTime) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startTime / tickMillis;
+
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onPut(String key, Entry entry) {
+        TimerNode previous = nodes.remove(key);
+        if (previous != null) {
+            previous.unlink();
+        }
+
+        if (!entry.hasExpiry()) {
+            // Overwrite removed the TTL
+            return;
+        }
+
+        // Round up so an entry never fires before its expiry time
+        long expiryTick = (entry.getExpiryTime() + tickMillis - 1) / tickMillis;
+        TimerNode node = new TimerNode(key, entry, expiryTick);
+        nodes.put(key, node);
+        schedule(node);
+    }
+
+    @Override
+    public synchronized void onRemove(String key, Entry entry) {
+        TimerNode node = nodes.get(key);
+        if (node != null && isSameEntry(node.entry, entry)) {
+            nodes.remove(key);
+            node.unlink();
+        }
+    }
+
+    @Override
+    public int expire(long now, BiPredicate<String, Entry> remover) {
+        List<TimerNode> expired = new ArrayList<>();
+
+        synchronized (this) {
+            long targetTick = now / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade(currentTick);
+                wheels[0][(int) (currentTick & WHEEL_MASK)].drainTo(expired);
+            }
+            due.drainTo(expired);
+
+            for (TimerNode node : expired) {
+                nodes.remove(node.key, node);
+            }
+        }
+
+        int removed = 0;
+        for (TimerNode node : expired) {
+            // Conditional removal: a newer value for the key is never deleted
+            if (remover.test(node.key, node.entry)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /*
+    * @return number of scheduled entries
+    */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    // Moves entries of higher-level buckets that start at this tick down a level
+    private void cascade(long tick) {
+        if ((tick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0) {
+            reschedule(overflow);
+        }
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = WHEEL_BITS * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                reschedule(wheels[level][(int) ((tick >>> shift) & WHEEL_MASK)]);
+            }
+        }
+    }
+
+    private void reschedule(Bucket bucket) {
+        List<TimerNode> moved = new ArrayList<>();
+        bucket.drainTo(moved);
+        for (TimerNode node : moved) {
+            schedule(node);
+        }
+    }
+
+    private void schedule(TimerNode node) {
+        if (node.expiryTick <= currentTick) {
+            due.add(node);
+            return;
+        }
+
+        // Highest 6-bit group in which the expiry differs from now
+        long diff = node.expiryTick ^ currentTick;
+        int level = (63 - Long.numberOfLeadingZeros(diff)) / WHEEL_BITS;
+
+        if (level >= LEVELS) {
+            overflow.add(node);
+        } else {
+            int index = (int) ((node.expiryTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            wheels[level][index].add(node);
+        }
+    }
+
+    private static boolean isSameEntry(Entry scheduled, Entry removed) {
+        if (scheduled == removed) {
+            return true;
+        }
+        // Materializing storage engines return copies; compare by content
+        // (collection values are never copied)
+        return !scheduled.isCollection() && !removed.isCollection()
+                && scheduled.getExpiryTime() == removed.getExpiryTime()
+                && scheduled.getValue().equals(removed.getValue());
+    }
+
+    /*
+    * Entry scheduled in the wheel, linked into exactly one bucket.
+    */
+    private static final class TimerNode {
+        final String key;
+        final Entry entry;
+        final long expiryTick;
+        TimerNode prev;
+        TimerNode next;
+
+        TimerNode(String key, Entry entry, long expiryTick) {
+            this.key = key;
+            this.entry = entry;
+            this.expiryTick = expiryTick;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+
+    /*
+    * Circular doubly-linked list of timer nodes with a sentinel.
+    */
+    private static final class Bucket {
+        private final TimerNode sentinel = new TimerNode(null, null, 0);
+
+        Bucket() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        void add(TimerNode node) {
+            node.prev = sentinel.prev;
+            node.next = sentinel;
+            sentinel.prev.next = node;
+            sentinel.prev = node;
+        }
+
+        void drainTo(List<TimerNode> target) {
+            TimerNode node = sentinel.next;
+            while (node != sentinel) {
+                TimerNode next = node.next;
+                node.prev = null;
+                node.next = null;
+                target.add(node);
+                node = next;
+            }
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.AsyncKeyValueStore;
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.concurrency.AsyncExecutors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * AsyncKeyValueStore over any KeyValueStore.
+ *
+ * Each operation runs on the executor, so the caller never blocks,
+ * whatever the wrapped store does: a read-through load (LoadingKVStore),
+ * an fsync wait (WriteAheadLog with FsyncPolicy.always()), or eviction.
+ * For an EvictingKVStore, also construct it with a BackgroundScheduler
+ * (maintenance mode) or give it a maintenance executor
+ * (EvictingKVStore.setMaintenanceExecutor) so the operation threads
+ * only do the map operation.
+ *
+ * The default executor runs each operation on its own virtual thread
+ * when the runtime supports them (see AsyncExecutors).
+ *
+ * Trade-off:
+ * - Every operation pays a hand-off to another thread, so for an
+ *   in-memory store that never blocks the sync API is faster
+ *   (see AsyncStoreBenchmark)
+ * - Operations on the same key submitted concurrently may be applied
+ *   in any order; chain the futures to order them
+ */
+public class AsyncKVStore implements AsyncKeyValueStore, AutoCloseable {
+
+    private final KeyValueStore delegate;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Uses the default executor, shut down by close().
+     */
+    public AsyncKVStore(KeyValueStore delegate) {
+        this.delegate = delegate;
+        this.ownedExecutor = AsyncExecutors.newDefaultExecutor("kv-async");
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * @param executor runs every operation; owned by the caller
+     */
+    public AsyncKVStore(KeyValueStore delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) {
+        return CompletableFuture.supplyAsync(() -> delegate.get(key), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getAllAsync(Collection<String> keys) {
+        // Copy: the caller may reuse the collection once we return
+        Collection<String> batch = new ArrayList<>(keys);
+        return CompletableFuture.supplyAsync(() -> delegate.getAll(batch), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) {
+        return CompletableFuture.runAsync(() -> delegate.put(key, value), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value, long ttlMillis) {
+        return CompletableFuture.runAsync(() -> delegate.put(key, value, ttlMillis), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeAsync(String key) {
+        return CompletableFuture.supplyAsync(() -> delegate.remove(key), executor);
+    }
+
+    /**
+     * @return the wrapped synchronous store
+     */
+    public KeyValueStore sync() {
+        return delegate;
+    }
+
+    /**
+     * Shuts down the default executor, letting submitted operations finish.
+     * A caller-supplied executor is left alone.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationPolicy;
+
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Atomic KeyValueStore operations expressed on top of a single
+ * primitive: an atomic update of the live entry of a key.
+ * 
+ * Each store provides the primitive (with its own TTL, accounting
+ * and locking rules); the operations themselves are shared.
+ */
+final class AtomicOperations {
+
+    /**
+     * Atomically replaces the live entry of a key.
+     * The update receives the live entry (null if absent or expired)
+     * and returns the new entry, the same entry (no change) or null (remove).
+     */
+    interface EntryUpdater {
+        /**
+         * @return the entry stored after the update, or null
+         */
+        Entry update(String key, UnaryOperator<Entry> update);
+    }
+
+    private AtomicOperations() {
+    }
+
+    static boolean remove(EntryUpdater updater, String key) {
+        boolean[] removed = new boolean[1];
+        updater.update(key, live -> {
+            removed[0] = (live != null);
+            return null;
+        });
+        return removed[0];
+    }
+
+    static boolean remove(EntryUpdater updater, String key, String expectedValue) {
+        boolean[] removed = new boolean[1];
+        updater.update(key, live -> {
+            removed[0] = (live != null && live.getValue().equals(expectedValue));
+            // Returning the live entry is no change: nothing is reported
+            return removed[0] ? null : live;
+        });
+        return removed[0];
+    }
+
+    static String putIfAbsent(EntryUpdater updater, String key, String value, long expiryTime) {
+        Entry created = new Entry(key, value, expiryTime);
+        String[] existing = new String[1];
+        updater.update(key, live -> {
+            if (live != null) {
+                existing[0] = live.getValue();
+                return live;
+            }
+            existing[0] = null;
+            return created;
+        });
+        return existing[0];
+    }
+
+    static boolean replace(EntryUpdater updater, String key, String expectedValue, String newValue) {
+        boolean[] replaced = new boolean[1];
+        updater.update(key, live -> {
+            replaced[0] = (live != null && live.getValue().equals(expectedValue));
+            return replaced[0] ? withValue(live, newValue) : live;
+        });
+        return replaced[0];
+    }
+
+    static boolean replace(EntryUpdater updater, String key, String expectedValue, String newValue, long expiryTime) {
+        Entry replacement = new Entry(key, newValue, expiryTime);
+        boolean[] replaced = new boolean[1];
+        updater.update(key, live -> {
+            replaced[0] = (live != null && live.getValue().equals(expectedValue));
+            return replaced[0] ? replacement : live;
+        });
+        return replaced[0];
+    }
+
+    static String compute(EntryUpdater updater, String key, BiFunction<String, String, String> remappingFunction) {
+        String[] result = new String[1];
+        updater.update(key, live -> {
+            result[0] = remappingFunction.apply(key, (live == null) ? null : live.getValue());
+            return toEntry(key, live, result[0]);
+        });
+        return result[0];
+    }
+
+    static String merge(EntryUpdater updater, String key, String value, BiFunction<String, String, String> remappingFunction) {
+        String[] result = new String[1];
+        updater.update(key, live -> {
+            result[0] = (live == null) ? value : remappingFunction.apply(live.getValue(), value);
+            return toEntry(key, live, result[0]);
+        });
+        return result[0];
+    }
+
+    static long incrementBy(EntryUpdater updater, String key, long delta) {
+        long[] result = new long[1];
+        updater.update(key, live -> {
+            long current = (live == null) ? 0 : parseNumber(live.getValue());
+            try {
+                result[0] = Math.addExact(current, delta);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Increment would overflow");
+            }
+            return toEntry(key, live, Long.toString(result[0]));
+        });
+        return result[0];
+    }
+
+    static boolean expire(EntryUpdater updater, String key, long expiryTime) {
+        boolean[] updated = new boolean[1];
+        updater.update(key, live -> {
+            updated[0] = (live != null);
+            if (live == null) {
+                return null;
+            }
+            // TTL applies to a whole collection value too
+            return live.isCollection()
+                    ? new Entry(key, live.getCollection(), expiryTime)
+                    : new Entry(key, live.getValue(), expiryTime);
+        });
+        return updated[0];
+    }
+
+    /**
+     * Read-only: computed from a plain lookup of the entry, without the
+     * update primitive (no lock, no accounting, no listener call).
+     *
+     * @param entry the stored entry, or null
+     */
+    static long ttl(Entry entry, ExpirationPolicy expirationPolicy, long now) {
+        if (entry == null || expirationPolicy.isExpired(entry, now)) {
+            return -2;
+        }
+        return entry.hasExpiry() ? Math.max(0, entry.getExpiryTime() - now) : -1;
+    }
+
+    // New value keeps the TTL of the live entry; new keys get none
+    private static Entry toEntry(String key, Entry live, String value) {
+        if (value == null) {
+            return null;
+        }
+        return (live == null) ? new Entry(key, value, -1) : withValue(live, value);
+    }
+
+    private static Entry withValue(Entry live, String value) {
+        return new Entry(live.getKey(), value, live.getExpiryTime());
+    }
+
+    private static long parseNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value is not a number");
+        }
+    }
+}
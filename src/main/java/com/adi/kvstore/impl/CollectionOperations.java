@@ -0,0 +1,176 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.collection.HashValue;
+import com.adi.kvstore.collection.ListValue;
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.collection.SortedSetValue;
+import com.adi.kvstore.core.CollectionValue;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.core.WrongTypeException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CollectionKeyValueStore commands expressed on top of two primitives,
+ * like AtomicOperations:
+ * - A lock-free read of the live entry (collections are safe to read
+ *   during a mutation)
+ * - An in-place mutation of the live collection inside the key's
+ *   atomic section
+ *
+ * Each store provides the primitives with its own TTL and accounting
+ * rules; the commands themselves are shared.
+ */
+final class CollectionOperations {
+
+    /**
+     * Reads the live (present and not expired) entry of a key.
+     */
+    interface EntryReader {
+        /**
+         * @return the live entry, or null
+         */
+        Entry read(String key);
+    }
+
+    /**
+     * Mutates the live collection of a key in its atomic section.
+     */
+    interface CollectionUpdater {
+        /**
+         * Applies the mutation to the live collection, first creating it
+         * with the factory when the key is absent (no factory: the
+         * mutation is skipped and null returned). A collection left
+         * empty removes the key.
+         *
+         * @return the mutation's result
+         * @throws WrongTypeException if the key holds another kind of value
+         */
+        <C extends CollectionValue, R> R update(String key, Class<C> type, Supplier<C> factory, Function<C, R> mutation);
+    }
+
+    private CollectionOperations() {
+    }
+
+    /**
+     * @return the live collection of the given kind, or null if the key is absent
+     * @throws WrongTypeException if the key holds another kind of value
+     */
+    static <C extends CollectionValue> C collection(Entry live, Class<C> type) {
+        if (live == null) {
+            return null;
+        }
+        CollectionValue collection = live.getCollection();
+        if (!type.isInstance(collection)) {
+            throw new WrongTypeException();
+        }
+        return type.cast(collection);
+    }
+
+    static boolean hset(CollectionUpdater updater, String key, String field, String value) {
+        return updater.update(key, HashValue.class, HashValue::new, hash -> hash.put(field, value) == null);
+    }
+
+    static String hget(EntryReader reader, String key, String field) {
+        HashValue hash = collection(reader.read(key), HashValue.class);
+        return (hash == null) ? null : hash.get(field);
+    }
+
+    static boolean hdel(CollectionUpdater updater, String key, String field) {
+        Boolean removed = updater.update(key, HashValue.class, null, hash -> hash.remove(field) != null);
+        return Boolean.TRUE.equals(removed);
+    }
+
+    static Map<String, String> hgetAll(EntryReader reader, String key) {
+        HashValue hash = collection(reader.read(key), HashValue.class);
+        return (hash == null) ? Collections.emptyMap() : hash.snapshot();
+    }
+
+    static int hlen(EntryReader reader, String key) {
+        HashValue hash = collection(reader.read(key), HashValue.class);
+        return (hash == null) ? 0 : hash.size();
+    }
+
+    static int lpush(CollectionUpdater updater, String key, String[] values) {
+        checkNotEmpty(values);
+        return updater.update(key, ListValue.class, ListValue::new, list -> {
+            for (String value : values) {
+                list.pushFirst(value);
+            }
+            return list.size();
+        });
+    }
+
+    static int rpush(CollectionUpdater updater, String key, String[] values) {
+        checkNotEmpty(values);
+        return updater.update(key, ListValue.class, ListValue::new, list -> {
+            for (String value : values) {
+                list.pushLast(value);
+            }
+            return list.size();
+        });
+    }
+
+    static String lpop(CollectionUpdater updater, String key) {
+        return updater.update(key, ListValue.class, null, ListValue::popFirst);
+    }
+
+    static String rpop(CollectionUpdater updater, String key) {
+        return updater.update(key, ListValue.class, null, ListValue::popLast);
+    }
+
+    static List<String> lrange(EntryReader reader, String key, long start, long stop) {
+        ListValue list = collection(reader.read(key), ListValue.class);
+        return (list == null) ? new ArrayList<>() : list.range(start, stop);
+    }
+
+    static int llen(EntryReader reader, String key) {
+        ListValue list = collection(reader.read(key), ListValue.class);
+        return (list == null) ? 0 : list.size();
+    }
+
+    static boolean zadd(CollectionUpdater updater, String key, double score, String member) {
+        if (Double.isNaN(score)) {
+            // Checked before a new key is created
+            throw new IllegalArgumentException("Score must not be NaN");
+        }
+        return updater.update(key, SortedSetValue.class, SortedSetValue::new, zset -> zset.add(score, member));
+    }
+
+    static Double zscore(EntryReader reader, String key, String member) {
+        SortedSetValue zset = collection(reader.read(key), SortedSetValue.class);
+        return (zset == null) ? null : zset.score(member);
+    }
+
+    static boolean zrem(CollectionUpdater updater, String key, String member) {
+        Boolean removed = updater.update(key, SortedSetValue.class, null, zset -> zset.remove(member));
+        return Boolean.TRUE.equals(removed);
+    }
+
+    static List<ScoredMember> zrangeByScore(EntryReader reader, String key, double min, double max, int limit) {
+        SortedSetValue zset = collection(reader.read(key), SortedSetValue.class);
+        return (zset == null) ? new ArrayList<>() : zset.rangeByScore(min, max, limit);
+    }
+
+    static int zcard(EntryReader reader, String key) {
+        SortedSetValue zset = collection(reader.read(key), SortedSetValue.class);
+        return (zset == null) ? 0 : zset.size();
+    }
+
+    // Validated up front: a push must not fail half-way through
+    private static void checkNotEmpty(String[] values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        for (String value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value must not be null");
+            }
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.adi.kvstore.impl;
 
 import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.api.MutationListener;
 import com.adi.kvstore.concurrency.BackgroundScheduler;
 import com.adi.kvstore.concurrency.CleanerTask;
-import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
 import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationIndex;
 import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.metrics.EvictionCause;
+import com.adi.kvstore.metrics.StatsCounter;
 import com.adi.kvstore.time.Clock;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
 /*
 * Thread-safe key-value store implementation with background expiration cleanup.
 */
@@ -16,30 +26,78 @@ public class ConcurrentKVStore implements KeyValueStore{
 
     private static final long CLEANUP_INTERVAL_MILLIS = 5000; // 5 seconds (v2 default)
 
-    private final ConcurrentStorageEngine storageEngine;
+    private final ConcurrentStorage storageEngine;
     private final ExpirationPolicy expirationPolicy;
     private final Clock clock;
     private final BackgroundScheduler scheduler;
+    private final CleanerTask cleanerTask;
+    private final ExpirationIndex expirationIndex;
+    private final MutationListeners listeners = new MutationListeners();
+    private volatile StatsCounter statsCounter = StatsCounter.disabled();
+
+    public ConcurrentKVStore(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock){
+        this(storageEngine, expirationPolicy, clock, null, CLEANUP_INTERVAL_MILLIS);
+    }
 
-    public ConcurrentKVStore(ConcurrentStorageEngine storageEngine, ExpirationPolicy expirationPolicy, Clock clock){
+    /*
+    * Creates a store whose cleanup only visits entries with a TTL.
+    * With an index (e.g. TimingWheel or SampledExpirationIndex) a short
+    * interval is cheap, so expired entries are reclaimed close to their
+    * expiry time.
+    */
+    public ConcurrentKVStore(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock, ExpirationIndex expirationIndex, long cleanupIntervalMillis){
         this.storageEngine = storageEngine;
         this.expirationPolicy = expirationPolicy;
         this.clock = clock;
+        this.expirationIndex = expirationIndex;
 
         // Setup background expiration cleanup
-        CleanerTask cleanerTask = new CleanerTask(storageEngine, expirationPolicy, clock);
-        this.scheduler = new BackgroundScheduler(CLEANUP_INTERVAL_MILLIS);
-        this.scheduler.start(cleanerTask);
+        this.cleanerTask = new CleanerTask(storageEngine, expirationPolicy, clock, expirationIndex,
+                (key, entry) -> removeExpired(key, entry, clock.now()) != null);
+        this.scheduler = new BackgroundScheduler(cleanupIntervalMillis);
+        if (expirationIndex == null) {
+            this.scheduler.start(cleanerTask);
+        } else {
+            // The index may adapt the interval to how much is expiring
+            this.scheduler.startAdaptive(cleanerTask, () -> expirationIndex.nextCleanupDelayMillis(cleanupIntervalMillis));
+        }
+    }
+
+    /*
+    * Registers a listener for every write applied from now on
+    * (e.g. a WriteAheadLog).
+    */
+    public void addMutationListener(MutationListener listener){
+        listeners.add(listener);
+    }
+
+    /*
+    * Starts reporting hits, misses, writes, expirations and cleaner
+    * runs to the given counter (StatsCounter.disabled() turns it off).
+    */
+    public void recordStats(StatsCounter statsCounter){
+        this.statsCounter = statsCounter;
+        cleanerTask.setStatsCounter(statsCounter);
     }
 
     @Override
     public void put(String key, String value){
+        StatsCounter stats = statsCounter;
+        long start = stats.startTimer();
+
         Entry entry = new Entry(key, value, -1);
-        storageEngine.put(key, entry);  
+        try {
+            store(key, entry);
+        } finally {
+            listeners.commit();
+        }
+        stats.recordPuts(1, start);
     }
 
     @Override
     public void put(String key, String value, long ttlMillis){
+        StatsCounter stats = statsCounter;
+        long start = stats.startTimer();
         long expiryTime;
 
         if (ttlMillis <= 0) {
@@ -49,27 +107,247 @@ public class ConcurrentKVStore implements KeyValueStore{
         }
 
         Entry entry = new Entry(key, value, expiryTime);
-        storageEngine.put(key, entry);
+        try {
+            store(key, entry);
+        } finally {
+            listeners.commit();
+        }
+        stats.recordPuts(1, start);
     }
 
     @Override
     public String get(String key){
+        StatsCounter stats = statsCounter;
+        long start = stats.startTimer();
         Entry entry = storageEngine.get(key);
 
         if (entry == null) {
+            stats.recordGet(false, start);
             return null;
         }
 
         long now = clock.now();
         if (expirationPolicy.isExpired(entry, now)) {
             // Safe conditional removal to avoid deleting newer entry
-            storageEngine.remove(key, entry);
+            Entry removed = removeExpired(key, entry, now);
+            if (removed != null) {
+                onExpired(key, removed);
+            }
+            stats.recordGet(false, start);
             return null;
         }
 
+        stats.recordGet(true, start);
         return entry.getValue();
     }
 
+    @Override
+    public Map<String, String> getAll(Collection<String> keys){
+        Map<String, String> result = new HashMap<>();
+        long now = clock.now();
+
+        for (String key : keys) {
+            Entry entry = storageEngine.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (expirationPolicy.isExpired(entry, now)) {
+                // Safe conditional removal to avoid deleting newer entry
+                Entry removed = removeExpired(key, entry, now);
+                if (removed != null) {
+                    onExpired(key, removed);
+                }
+                continue;
+            }
+            result.put(key, entry.getValue());
+        }
+
+        statsCounter.recordGets(result.size(), keys.size() - result.size());
+        return result;
+    }
+
+    /*
+    * Removes the expired entry found by a read or by the cleaner, never a
+    * newer one. With listeners, the removal is reported inside the key's
+    * atomic section (any expired entry there may go, it is absent anyway).
+    *
+    * @return the removed entry, or null if nothing expired was removed
+    */
+    private Entry removeExpired(String key, Entry entry, long now){
+        if (listeners.isEmpty()) {
+            return storageEngine.remove(key, entry) ? entry : null;
+        }
+
+        Entry[] removed = new Entry[1];
+        try {
+            storageEngine.compute(key, (k, current) -> {
+                if (current == null || !expirationPolicy.isExpired(current, now)) {
+                    return current;
+                }
+                removed[0] = current;
+                listeners.fireExpire(current);
+                return null;
+            });
+        } finally {
+            listeners.commit();
+        }
+        return removed[0];
+    }
+
+    private void onExpired(String key, Entry entry){
+        if (expirationIndex != null) {
+            expirationIndex.onRemove(key, entry);
+        }
+        statsCounter.recordEviction(EvictionCause.EXPIRED);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries){
+        putAllInternal(entries, -1);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis){
+        long now = clock.now();
+        putAllInternal(entries, (ttlMillis <= 0) ? now : now + ttlMillis);
+    }
+
+    private void putAllInternal(Map<String, String> entries, long expiryTime){
+        try {
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                store(e.getKey(), new Entry(e.getKey(), e.getValue(), expiryTime));
+            }
+        } finally {
+            // One commit for the whole batch, also releasing events held by a failed write
+            listeners.commit();
+        }
+        statsCounter.recordPuts(entries.size(), 0);
+    }
+
+    private void store(String key, Entry entry){
+        if (listeners.isEmpty() && expirationIndex == null) {
+            storageEngine.put(key, entry);
+            return;
+        }
+
+        // Notify and index inside the key's atomic section to keep per-key order
+        long now = clock.now();
+        storageEngine.compute(key, (k, current) -> {
+            if (current != null && expirationPolicy.isExpired(current, now)) {
+                // The overwritten entry had expired: report it like updateEntry
+                listeners.fireExpire(current);
+            }
+            listeners.firePut(entry);
+            // Overwrite may remove a previous TTL
+            indexPut(key, entry);
+            return entry;
+        });
+    }
+
+    @Override
+    public boolean remove(String key){
+        return AtomicOperations.remove(this::updateEntry, key);
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue){
+        return AtomicOperations.remove(this::updateEntry, key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value){
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, -1);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, expiryTime);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue){
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue, expiryTime);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction){
+        return AtomicOperations.compute(this::updateEntry, key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction){
+        return AtomicOperations.merge(this::updateEntry, key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta){
+        return AtomicOperations.incrementBy(this::updateEntry, key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.expire(this::updateEntry, key, expiryTime);
+    }
+
+    @Override
+    public long ttl(String key){
+        return AtomicOperations.ttl(storageEngine.get(key), expirationPolicy, clock.now());
+    }
+
+    /*
+    * Single-lookup atomic read-modify-write of the live entry.
+    * An expired entry is treated as absent and dropped by the update.
+    */
+    private Entry updateEntry(String key, UnaryOperator<Entry> update){
+        long now = clock.now();
+
+        Entry result;
+        try {
+            result = storageEngine.compute(key, (k, current) -> {
+                Entry live = (current == null || expirationPolicy.isExpired(current, now)) ? null : current;
+                // An expired entry the update leaves alone is dropped (live is null)
+                Entry updated = update.apply(live);
+
+                if (live == null && current != null) {
+                    // The update dropped an expired entry, whatever it stores instead
+                    listeners.fireExpire(current);
+                }
+                if (updated != null && updated != live) {
+                    listeners.firePut(updated);
+                } else if (updated == null && live != null) {
+                    listeners.fireRemove(key);
+                }
+
+                // Index in the atomic section too, so racing writes cannot reorder it
+                if (updated != current) {
+                    if (updated != null) {
+                        indexPut(key, updated);
+                    } else if (expirationIndex != null) {
+                        expirationIndex.onRemove(key, current);
+                    }
+                }
+                return updated;
+            });
+        } finally {
+            listeners.commit();
+        }
+        return result;
+    }
+
+    private void indexPut(String key, Entry entry){
+        if (expirationIndex != null) {
+            expirationIndex.onPut(key, entry);
+        }
+    }
+
     /*
     * Gracefully stop background cleanup.
     * Should be called during application shutdown.
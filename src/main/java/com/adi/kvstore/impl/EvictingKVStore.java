@@ -1,13 +1,35 @@
 package com.adi.kvstore.impl;
 
-import com.adi.kvstore.api.KeyValueStore;
-import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.api.CollectionKeyValueStore;
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.CollectionValue;
 import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.core.ValueType;
 import com.adi.kvstore.eviction.EvictionPolicy;
 import com.adi.kvstore.eviction.MemoryTracker;
+import com.adi.kvstore.eviction.StripedAccessBuffer;
 import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.metrics.EvictionCause;
+import com.adi.kvstore.metrics.StatsCounter;
 import com.adi.kvstore.time.Clock;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
 /**
  * v3 KeyValueStore implementation that adds memory-bounded eviction
  * on top of concurrency-safe storage and TTL handling.
@@ -16,21 +38,110 @@ import com.adi.kvstore.time.Clock;
  * - It does NOT implement eviction policy logic
  * - It does NOT manage background threads
  * - It doed NOT store data directly
+ * 
+ * A write of a new key may be dropped if the eviction policy
+ * rejects its admission (see EvictionPolicy.onAdmit).
+ * 
+ * By default policy bookkeeping and eviction run on the calling thread.
+ * In maintenance mode (constructed with a BackgroundScheduler) callers
+ * only update the map and offer the key to a buffer:
+ * - Reads and overwrites go to a lossy StripedAccessBuffer
+ * - New and removed keys go to a bounded KeyEventBuffer that never
+ *   drops; a writer finding it full drains it itself
+ * - A single maintainer drains both into the EvictionPolicy and
+ *   evicts until the MemoryTracker is under its limit
+ * - Maintenance runs on the scheduler's timer, and is triggered early
+ *   when a buffer fills up or the limit is exceeded
+ * 
+ * Triggered runs go to the scheduler's thread unless a maintenance
+ * executor is set (setMaintenanceExecutor); without a scheduler, the
+ * executor takes the eviction passes off the writing threads.
+ * 
+ * Buffered keys are hints: the maintainer checks the map for each one,
+ * so events of the same key may be drained in any order. Admission
+ * (EvictionPolicy.onAdmit) is decided on drain; a rejected key is
+ * evicted then. The limit may be exceeded until the next drain.
  */
-public class EvictingKVStore implements KeyValueStore {
+public class EvictingKVStore implements CollectionKeyValueStore {
 
-    private final ConcurrentStorageEngine storageEngine;
+    private final ConcurrentStorage storageEngine;
     private final ExpirationPolicy expirationPolicy;
     private final EvictionPolicy evictionPolicy;
     private final MemoryTracker memoryTracker;
     private final Clock clock;
+    private final MutationListeners listeners = new MutationListeners();
+    private volatile StatsCounter statsCounter = StatsCounter.disabled();
+
+    // Maintenance mode only (scheduler != null)
+    private static final int KEY_EVENT_BUFFER_SIZE = 1024;
+    private final BackgroundScheduler scheduler;
+    private final StripedAccessBuffer accessBuffer;
+    private final KeyEventBuffer keyEventBuffer;
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private volatile Executor maintenanceExecutor;
+
+    public EvictingKVStore(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, EvictionPolicy evictionPolicy, MemoryTracker memoryTracker, Clock clock){
+        this(storageEngine, expirationPolicy, evictionPolicy, memoryTracker, clock, null);
+    }
 
-    public EvictingKVStore(ConcurrentStorageEngine storageEngine, ExpirationPolicy expirationPolicy, EvictionPolicy evictionPolicy, MemoryTracker memoryTracker, Clock clock){
+    /**
+     * Creates a store in maintenance mode: policy bookkeeping and
+     * eviction run on the scheduler's thread, at its interval and
+     * whenever a buffer fills up. The scheduler may be shared (e.g. by
+     * the segments of a SegmentedKVStore); the caller stops it.
+     */
+    public EvictingKVStore(ConcurrentStorage storageEngine, ExpirationPolicy expirationPolicy, EvictionPolicy evictionPolicy,
+                           MemoryTracker memoryTracker, Clock clock, BackgroundScheduler scheduler) {
         this.storageEngine = storageEngine;
         this.expirationPolicy = expirationPolicy;
         this.evictionPolicy = evictionPolicy;
         this.memoryTracker = memoryTracker;
         this.clock = clock;
+        this.scheduler = scheduler;
+
+        if (scheduler != null) {
+            this.accessBuffer = new StripedAccessBuffer();
+            this.keyEventBuffer = new KeyEventBuffer(KEY_EVENT_BUFFER_SIZE);
+            scheduler.start(this::maintain);
+        } else {
+            this.accessBuffer = null;
+            this.keyEventBuffer = null;
+        }
+    }
+
+    /**
+     * Registers a listener for every write applied from now on
+     * (e.g. a WriteAheadLog) and for evictions of live entries.
+     * 
+     * Listeners only see string values: once one is registered,
+     * collection writes (hset, lpush, zadd...) are rejected, so a key
+     * is never stored without being logged or replicated. Register
+     * listeners before the store holds any collection.
+     */
+    public void addMutationListener(MutationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs triggered maintenance on the executor, so writers only do the
+     * map update (the limit may then be exceeded until it catches up).
+     * AsyncExecutors.newDefaultExecutor gives virtual threads when the
+     * runtime has them. At most one run is pending at a time. The
+     * executor is owned by the caller; null restores the default
+     * (the scheduler's thread, or inline eviction without a scheduler).
+     */
+    public void setMaintenanceExecutor(Executor executor) {
+        this.maintenanceExecutor = executor;
+    }
+
+    /**
+     * Starts reporting hits, misses, writes and evictions (by cause) to
+     * the given counter (StatsCounter.disabled() turns it off). Segments
+     * of a SegmentedKVStore may share one counter.
+     */
+    public void recordStats(StatsCounter statsCounter) {
+        this.statsCounter = statsCounter;
     }
 
     @Override
@@ -48,45 +159,577 @@ public class EvictingKVStore implements KeyValueStore {
     }
 
     private void putInternal(String key, String value, long expiryTime) {
-        Entry newEntry = new Entry(key, value, expiryTime);
+        StatsCounter stats = statsCounter;
+        long start = stats.startTimer();
 
-        Entry existing = storageEngine.get(key);
-        storageEngine.put(key, newEntry);
-
-        // Update memory tracking only on new keys
-        if (existing == null) {
-            memoryTracker.increment();
-        }
-
-        // Mark as recently used
-        evictionPolicy.onAccess(key);
-
-        // Enforce memory limits
-        evictIfNeeded();
+        Entry newEntry = new Entry(key, value, expiryTime);
+        updateEntry(key, live -> newEntry);
+        stats.recordPuts(1, start);
     }
 
     @Override
     public String get(String key) {
+        StatsCounter stats = statsCounter;
+        long start = stats.startTimer();
+
         Entry entry = storageEngine.get(key);
         if (entry == null) {
+            stats.recordGet(false, start);
             return null;
         }
 
         long now = clock.now();
         if (expirationPolicy.isExpired(entry, now)) {
             // Expiration always wins over eviciton
-            boolean removed = storageEngine.remove(key, entry);
-            if (removed) {
-                memoryTracker.decrement();
+            Entry removed = removeExpired(key, entry, now);
+            if (removed != null) {
+                memoryTracker.decrement(memoryTracker.weigh(removed));
+                recordRemoval(key);
+                stats.recordEviction(EvictionCause.EXPIRED);
             }
+            stats.recordGet(false, start);
             return null;
         }
 
         // Update LRU metadata on successfull accesss
-        evictionPolicy.onAccess(key);
+        recordAccess(key);
+        stats.recordGet(true, start);
         return entry.getValue();
     }
 
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        List<String> hits = new ArrayList<>(keys.size());
+        long now = clock.now();
+
+        for (String key : keys) {
+            Entry entry = storageEngine.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (expirationPolicy.isExpired(entry, now)) {
+                // Expiration always wins over eviciton
+                Entry removed = removeExpired(key, entry, now);
+                if (removed != null) {
+                    memoryTracker.decrement(memoryTracker.weigh(removed));
+                    recordRemoval(key);
+                    statsCounter.recordEviction(EvictionCause.EXPIRED);
+                }
+                continue;
+            }
+            result.put(key, entry.getValue());
+            hits.add(key);
+        }
+
+        // Record recency for the whole batch at once
+        if (scheduler == null) {
+            evictionPolicy.onAccessAll(hits);
+        } else {
+            hits.forEach(this::recordAccess);
+        }
+        statsCounter.recordGets(hits.size(), keys.size() - hits.size());
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        putAllInternal(entries, -1, clock.now());
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        long now = clock.now();
+        putAllInternal(entries, (ttlMillis <= 0) ? now : now + ttlMillis, now);
+    }
+
+    private void putAllInternal(Map<String, String> entries, long expiryTime, long now) {
+        try {
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                Entry newEntry = new Entry(e.getKey(), e.getValue(), expiryTime);
+                applyUpdate(e.getKey(), live -> newEntry, now);
+            }
+
+            // Enforce memory limits once for the whole batch
+            enforceLimit();
+        } finally {
+            // Also releases keyspace events held by a write that failed
+            listeners.commit();
+        }
+        statsCounter.recordPuts(entries.size(), 0);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return AtomicOperations.remove(this::updateEntry, key);
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        return AtomicOperations.remove(this::updateEntry, key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, -1);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, expiryTime);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue, expiryTime);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        return AtomicOperations.compute(this::updateEntry, key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        return AtomicOperations.merge(this::updateEntry, key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        return AtomicOperations.incrementBy(this::updateEntry, key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.expire(this::updateEntry, key, expiryTime);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return AtomicOperations.ttl(storageEngine.get(key), expirationPolicy, clock.now());
+    }
+
+    /**
+     * Single-lookup atomic read-modify-write of the live entry.
+     * 
+     * Inside the key's atomic section:
+     * - An expired entry is treated as absent (expiration wins)
+     * - New keys go through policy admission and may be rejected
+     * - Listeners are notified of the write
+     * 
+     * Memory tracking, recency and eviction run after the atomic
+     * section, never inside it, so a failed write is not accounted.
+     * In maintenance mode, admission is decided later by the maintainer.
+     */
+    private Entry updateEntry(String key, UnaryOperator<Entry> update) {
+        try {
+            Entry result = applyUpdate(key, update, clock.now());
+
+            // Enforce memory limits
+            enforceLimit();
+            return result;
+        } finally {
+            listeners.commit();
+        }
+    }
+
+    /**
+     * @return false if the storage engine holds string values only
+     *         (collection writes then fail before anything is stored)
+     */
+    @Override
+    public boolean supportsCollections() {
+        return storageEngine.supportsCollections();
+    }
+
+    @Override
+    public ValueType type(String key) {
+        Entry live = readLive(key);
+        return (live == null) ? null : live.getType();
+    }
+
+    @Override
+    public boolean hset(String key, String field, String value) {
+        return CollectionOperations.hset(this::updateCollection, key, field, value);
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        return CollectionOperations.hget(this::readLive, key, field);
+    }
+
+    @Override
+    public boolean hdel(String key, String field) {
+        return CollectionOperations.hdel(this::updateCollection, key, field);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return CollectionOperations.hgetAll(this::readLive, key);
+    }
+
+    @Override
+    public int hlen(String key) {
+        return CollectionOperations.hlen(this::readLive, key);
+    }
+
+    @Override
+    public int lpush(String key, String... values) {
+        return CollectionOperations.lpush(this::updateCollection, key, values);
+    }
+
+    @Override
+    public int rpush(String key, String... values) {
+        return CollectionOperations.rpush(this::updateCollection, key, values);
+    }
+
+    @Override
+    public String lpop(String key) {
+        return CollectionOperations.lpop(this::updateCollection, key);
+    }
+
+    @Override
+    public String rpop(String key) {
+        return CollectionOperations.rpop(this::updateCollection, key);
+    }
+
+    @Override
+    public List<String> lrange(String key, long start, long stop) {
+        return CollectionOperations.lrange(this::readLive, key, start, stop);
+    }
+
+    @Override
+    public int llen(String key) {
+        return CollectionOperations.llen(this::readLive, key);
+    }
+
+    @Override
+    public boolean zadd(String key, double score, String member) {
+        return CollectionOperations.zadd(this::updateCollection, key, score, member);
+    }
+
+    @Override
+    public Double zscore(String key, String member) {
+        return CollectionOperations.zscore(this::readLive, key, member);
+    }
+
+    @Override
+    public boolean zrem(String key, String member) {
+        return CollectionOperations.zrem(this::updateCollection, key, member);
+    }
+
+    @Override
+    public List<ScoredMember> zrangeByScore(String key, double min, double max, int limit) {
+        return CollectionOperations.zrangeByScore(this::readLive, key, min, max, limit);
+    }
+
+    @Override
+    public int zcard(String key) {
+        return CollectionOperations.zcard(this::readLive, key);
+    }
+
+    /**
+     * Live entry for a collection read; expired entries are left to the
+     * next write or to eviction.
+     */
+    private Entry readLive(String key) {
+        Entry entry = storageEngine.get(key);
+        if (entry == null || expirationPolicy.isExpired(entry, clock.now())) {
+            statsCounter.recordGets(0, 1);
+            return null;
+        }
+        recordAccess(key);
+        statsCounter.recordGets(1, 0);
+        return entry;
+    }
+
+    /**
+     * In-place collection update on top of applyUpdate. The mutation
+     * runs in the key's atomic section and the live entry is returned
+     * unchanged (an access), so applyUpdate only handles creation and
+     * removal of the key. The weight change of an in-place mutation is
+     * tracked once the atomic section completed.
+     */
+    private <C extends CollectionValue, R> R updateCollection(String key, Class<C> type, Supplier<C> factory, Function<C, R> mutation) {
+        if (!storageEngine.supportsCollections()) {
+            throw new UnsupportedOperationException("Collection values are not supported by "
+                    + storageEngine.getClass().getSimpleName());
+        }
+        if (!listeners.isEmpty()) {
+            throw new IllegalStateException("Collection values are not supported with mutation listeners"
+                    + " (write-ahead log, replication, keyspace events)");
+        }
+        Object[] result = new Object[1];
+        long[] delta = new long[1];
+
+        applyUpdate(key, live -> {
+            result[0] = null;
+            delta[0] = 0;
+            C collection = CollectionOperations.collection(live, type);
+
+            if (collection == null) {
+                if (factory == null) {
+                    return null;
+                }
+                // New key: applyUpdate weighs the filled collection
+                C created = factory.get();
+                result[0] = mutation.apply(created);
+                return created.isEmpty() ? null : new Entry(key, created, -1);
+            }
+
+            long before = memoryTracker.weigh(live);
+            result[0] = mutation.apply(collection);
+            delta[0] = memoryTracker.weigh(live) - before;
+            // The last element is gone: remove the key
+            return collection.isEmpty() ? null : live;
+        }, clock.now());
+
+        if (delta[0] > 0) {
+            memoryTracker.increment(delta[0]);
+        } else if (delta[0] < 0) {
+            memoryTracker.decrement(-delta[0]);
+        }
+        try {
+            enforceLimit();
+        } finally {
+            listeners.commit();
+        }
+
+        @SuppressWarnings("unchecked")
+        R typed = (R) result[0];
+        return typed;
+    }
+
+    /**
+     * Applies one write in the key's atomic section.
+     *
+     * Listeners are fired before any bookkeeping: a listener (e.g. a
+     * WriteAheadLog) or the engine may throw, and the write must then
+     * leave no trace. Inside the atomic section only the decisions that
+     * have to be ordered with the write are made (admission of a new
+     * key, removal from the policy); weights and accesses are recorded
+     * once compute returned.
+     */
+    private Entry applyUpdate(String key, UnaryOperator<Entry> update, long now) {
+        Entry[] previous = new Entry[1];
+        Entry[] stored = new Entry[1];
+        boolean[] admitted = new boolean[1];
+
+        Entry result;
+        try {
+            result = storageEngine.compute(key, (k, current) -> {
+                previous[0] = current;
+                stored[0] = current;
+                admitted[0] = false;
+                Entry live = (current == null || expirationPolicy.isExpired(current, now)) ? null : current;
+                Entry updated = update.apply(live);
+
+                if (updated == live && live != null) {
+                    // Read-only outcome (e.g. putIfAbsent hit)
+                    return live;
+                }
+
+                if (updated != null && live == null && scheduler == null) {
+                    // Admission-aware policies may reject a new key under pressure
+                    // (in maintenance mode it is decided when the key is drained)
+                    admitted[0] = evictionPolicy.onAdmit(key);
+                    if (!admitted[0]) {
+                        updated = null;
+                    }
+                }
+
+                if (updated == null) {
+                    if (live != null) {
+                        listeners.fireRemove(key);
+                    } else if (current != null) {
+                        listeners.fireExpire(current);
+                    }
+                    if (current != null && scheduler == null) {
+                        evictionPolicy.onRemove(key);
+                    }
+                    stored[0] = null;
+                    return null;
+                }
+
+                if (live == null && current != null) {
+                    // Overwrites an expired entry: report its expiry first
+                    listeners.fireExpire(current);
+                }
+                listeners.firePut(updated);
+                stored[0] = updated;
+                return updated;
+            });
+        } catch (RuntimeException | Error e) {
+            if (admitted[0] && previous[0] == null) {
+                forgetIfAbsent(key);
+            }
+            throw e;
+        }
+
+        recordOutcome(key, previous[0], stored[0], now);
+        return result;
+    }
+
+    /**
+     * Tracks the weight of a write that was applied, and records the
+     * access or key event. Runs outside the atomic section: a full
+     * buffer may make us drain.
+     */
+    private void recordOutcome(String key, Entry previous, Entry stored, long now) {
+        if (stored == previous) {
+            if (stored != null) {
+                recordAccess(key);
+            }
+            return;
+        }
+
+        if (stored == null) {
+            memoryTracker.decrement(memoryTracker.weigh(previous));
+            if (scheduler != null) {
+                recordKeyEvent(key);
+            }
+            return;
+        }
+
+        // Track the full weight of new keys, only the difference on overwrite
+        if (previous == null) {
+            memoryTracker.increment(memoryTracker.weigh(stored));
+        } else {
+            adjustMemory(previous, stored);
+        }
+
+        boolean newKey = previous == null || expirationPolicy.isExpired(previous, now);
+        if (!newKey) {
+            // Mark as recently used (new keys were recorded by onAdmit)
+            recordAccess(key);
+        } else if (scheduler != null) {
+            recordKeyEvent(key);
+        }
+    }
+
+    // A failed write of a new key: undo its admission, ordered with later writes
+    private void forgetIfAbsent(String key) {
+        storageEngine.compute(key, (k, current) -> {
+            if (current == null) {
+                evictionPolicy.onRemove(key);
+            }
+            return current;
+        });
+    }
+
+    private void recordAccess(String key) {
+        if (scheduler == null) {
+            evictionPolicy.onAccess(key);
+        } else if (!accessBuffer.offer(key)) {
+            // Lossy: the access is dropped, the maintainer catches up
+            requestDrain();
+        }
+    }
+
+    private void recordRemoval(String key) {
+        if (scheduler == null) {
+            evictionPolicy.onRemove(key);
+        } else {
+            recordKeyEvent(key);
+        }
+    }
+
+    // Never called inside an atomic section: it may drain
+    private void recordKeyEvent(String key) {
+        while (!keyEventBuffer.offer(key)) {
+            // Key events must not be lost; help the maintainer
+            maintain();
+        }
+        if (keyEventBuffer.size() >= keyEventBuffer.capacity() / 2) {
+            requestDrain();
+        }
+    }
+
+    private void enforceLimit() {
+        if (scheduler == null && maintenanceExecutor == null) {
+            evictIfNeeded();
+        } else if (memoryTracker.isLimitExceeded() && !requestDrain()) {
+            // Scheduler or executor stopped: never leave the limit unenforced
+            maintain();
+        }
+    }
+
+    /**
+     * Asks for a maintenance run on the maintenance executor, or else on
+     * the scheduler (at most one pending).
+     *
+     * @return false if the run was rejected (stopped scheduler or executor)
+     */
+    private boolean requestDrain() {
+        if (!drainRequested.compareAndSet(false, true)) {
+            return true;
+        }
+
+        Executor executor = maintenanceExecutor;
+        boolean accepted;
+        if (executor != null) {
+            try {
+                executor.execute(this::maintain);
+                accepted = true;
+            } catch (RejectedExecutionException e) {
+                accepted = false;
+            }
+        } else {
+            accepted = scheduler != null && scheduler.trigger(this::maintain);
+        }
+
+        if (!accepted) {
+            drainRequested.set(false);
+        }
+        return accepted;
+    }
+
+    /**
+     * Drains both buffers into the policy (maintenance mode), then evicts
+     * down to the limit. One maintainer at a time; callers block only
+     * when the key event buffer is full.
+     */
+    private void maintain() {
+        maintenanceLock.lock();
+        try {
+            drainRequested.set(false);
+            if (scheduler != null) {
+                accessBuffer.drainTo(evictionPolicy::onAccess);
+                keyEventBuffer.drainTo(this::applyKeyEvent);
+            }
+            evictIfNeeded();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Brings the policy in line with the map for one key: present keys
+     * go through admission, absent keys are forgotten.
+     */
+    private void applyKeyEvent(String key) {
+        Entry entry = storageEngine.get(key);
+        while (entry != null) {
+            if (evictionPolicy.onAdmit(key)) {
+                return;
+            }
+            // Rejected by admission: evict, unless a newer write replaced it
+            if (evictEntry(key, entry)) {
+                return;
+            }
+            entry = storageEngine.get(key);
+        }
+        evictionPolicy.onRemove(key);
+    }
+
     private void evictIfNeeded(){
         while (memoryTracker.isLimitExceeded()){
             String candidateKey = evictionPolicy.selectEvictionCandidate();
@@ -95,15 +738,97 @@ public class EvictingKVStore implements KeyValueStore {
             }
 
             Entry candidate = storageEngine.get(candidateKey);
-            if (candidate == null) {
-                continue;
+            if (candidate != null) {
+                evictEntry(candidateKey, candidate);
             }
+        }
+    }
 
-            // Do not evict expired entries here; expiration handles them
-            boolean removed = storageEngine.remove(candidateKey, candidate);
-            if(removed) {
-                memoryTracker.decrement();
-            }
+    /**
+     * Removes the entry unless it was replaced meanwhile.
+     *
+     * @return true if it was removed
+     */
+    private boolean evictEntry(String key, Entry candidate) {
+        boolean removed = listeners.isEmpty()
+                ? storageEngine.remove(key, candidate)
+                : evictAndNotify(key, candidate);
+        if (removed) {
+            memoryTracker.decrement(memoryTracker.weigh(candidate));
+            statsCounter.recordEviction(expirationPolicy.isExpired(candidate, clock.now())
+                    ? EvictionCause.EXPIRED
+                    : EvictionCause.CAPACITY);
+        }
+        return removed;
+    }
+
+    // Same as remove(key, candidate), reporting live entries inside the atomic section
+    private boolean evictAndNotify(String key, Entry candidate) {
+        long now = clock.now();
+        boolean[] removed = new boolean[1];
+
+        try {
+            storageEngine.compute(key, (k, current) -> {
+                if (!sameEntry(current, candidate)) {
+                    return current;
+                }
+                removed[0] = true;
+                // Expired entries are not evictions
+                if (expirationPolicy.isExpired(current, now)) {
+                    listeners.fireExpire(current);
+                } else {
+                    listeners.fireEvict(current);
+                }
+                return null;
+            });
+        } finally {
+            listeners.commit();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Removes the expired entry found by a read, never a newer one. With
+     * listeners, the removal is reported inside the key's atomic section.
+     *
+     * @return the removed entry, or null if nothing expired was removed
+     */
+    private Entry removeExpired(String key, Entry entry, long now) {
+        if (listeners.isEmpty()) {
+            return storageEngine.remove(key, entry) ? entry : null;
+        }
+
+        Entry[] removed = new Entry[1];
+        try {
+            storageEngine.compute(key, (k, current) -> {
+                if (current == null || !expirationPolicy.isExpired(current, now)) {
+                    return current;
+                }
+                removed[0] = current;
+                listeners.fireExpire(current);
+                return null;
+            });
+        } finally {
+            listeners.commit();
+        }
+        return removed[0];
+    }
+
+    // Storage engines may materialize entries (off-heap), so compare content
+    private static boolean sameEntry(Entry current, Entry expected) {
+        return current == expected
+                || (current != null
+                && !current.isCollection() && !expected.isCollection()
+                && current.getExpiryTime() == expected.getExpiryTime()
+                && current.getValue().equals(expected.getValue()));
+    }
+
+    private void adjustMemory(Entry oldEntry, Entry newEntry) {
+        long delta = memoryTracker.weigh(newEntry) - memoryTracker.weigh(oldEntry);
+        if (delta > 0) {
+            memoryTracker.increment(delta);
+        } else if (delta < 0) {
+            memoryTracker.decrement(-delta);
         }
     }
 }
\ No newline at end of file
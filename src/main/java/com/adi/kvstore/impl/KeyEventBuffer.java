@@ -0,0 +1,77 @@
+package com.adi.kvstore.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of keys.
+ *
+ * Unlike StripedAccessBuffer it never drops a key: a full buffer makes
+ * offer() fail, and the producer must drain (or wait for a drain)
+ * before retrying.
+ */
+final class KeyEventBuffer {
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final AtomicLong writeCounter = new AtomicLong();
+    private volatile long readCounter;
+
+    KeyEventBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(String key) {
+        while (true) {
+            long tail = writeCounter.get();
+            if (tail - readCounter > mask) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & mask), key);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return approximate number of buffered keys
+     */
+    int size() {
+        return (int) (writeCounter.get() - readCounter);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Hands every published key to the consumer, in offer order.
+     * Must only be called by one thread at a time.
+     */
+    void drainTo(Consumer<String> consumer) {
+        long head = readCounter;
+        long tail = writeCounter.get();
+
+        while (head < tail) {
+            int index = (int) (head & mask);
+            String key = slots.get(index);
+            if (key == null) {
+                // Producer claimed the slot but has not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            // Free the slot before handling the key, so producers can proceed
+            readCounter = ++head;
+            consumer.accept(key);
+        }
+    }
+}
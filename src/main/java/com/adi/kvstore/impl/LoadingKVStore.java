@@ -0,0 +1,295 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.api.ValueLoader;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+
+/**
+ * KeyValueStore that fills misses from a ValueLoader (read-through).
+ *
+ * Request coalescing: concurrent misses on the same key share one
+ * in-flight CompletableFuture. The first thread loads on its own
+ * thread; the others wait for its result, so a hot key that expires
+ * costs one load instead of one per caller.
+ *
+ * Refresh-ahead: when a hit finds less than refreshAheadMillis of TTL
+ * left, the key is reloaded on the refresh executor while the current
+ * value keeps being served. A miss during the refresh joins it.
+ *
+ * Loaded values never overwrite newer writes: a load is stored with
+ * putIfAbsent, a refresh only replaces the value it started from.
+ *
+ * Trade-off:
+ * - With refresh-ahead enabled every hit also reads the key's TTL
+ *   (a second lookup, lock-free: ttl() is a read)
+ * - A failed refresh is dropped; the old value is served until it
+ *   expires and the next miss retries the load
+ * - A loader returning null is not cached (every miss calls it)
+ */
+public class LoadingKVStore implements KeyValueStore {
+
+    private final KeyValueStore delegate;
+    private final ValueLoader loader;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loaded values never expire; refresh() runs on the given executor.
+     */
+    public LoadingKVStore(KeyValueStore delegate, ValueLoader loader, Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.loader = loader;
+        this.ttlMillis = -1;
+        this.refreshAheadMillis = 0;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @param ttlMillis TTL of loaded values
+     * @param refreshAheadMillis reload a hit when at most this much TTL
+     *        is left (0 disables refresh-ahead)
+     * @param refreshExecutor runs background reloads (loaders usually
+     *        block, so not the common fork-join pool)
+     */
+    public LoadingKVStore(KeyValueStore delegate, ValueLoader loader, long ttlMillis,
+                          long refreshAheadMillis, Executor refreshExecutor) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive");
+        }
+        if (refreshAheadMillis < 0 || refreshAheadMillis >= ttlMillis) {
+            throw new IllegalArgumentException("refreshAheadMillis must be in [0, ttlMillis)");
+        }
+
+        this.delegate = delegate;
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return the stored value, or the loaded one on a miss (null if
+     *         the loader has none)
+     * @throws IllegalStateException if the loader failed
+     */
+    @Override
+    public String get(String key) {
+        String value = delegate.get(key);
+        if (value == null) {
+            return load(key);
+        }
+
+        if (refreshAheadMillis > 0) {
+            long remaining = delegate.ttl(key);
+            if (remaining >= 0 && remaining <= refreshAheadMillis) {
+                refreshAsync(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Hits are served in one batch; each miss is loaded (coalesced) in turn.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = delegate.getAll(keys);
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                String value = load(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reloads the key in the background, whether or not it is present.
+     *
+     * @return the reload in flight for the key (possibly started earlier)
+     */
+    public CompletableFuture<String> refresh(String key) {
+        return refreshAsync(key, delegate.get(key));
+    }
+
+    /**
+     * Loads on the calling thread, or waits for the load already in flight.
+     */
+    private String load(String key) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            // A load may have completed between our miss and putIfAbsent
+            String value = delegate.get(key);
+            if (value == null) {
+                value = loadAndStore(key, null);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CompletableFuture<String> refreshAsync(String key, String staleValue) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    future.complete(loadAndStore(key, staleValue));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Calls the loader and stores its value without clobbering writes
+     * that happened meanwhile.
+     *
+     * @param staleValue value being refreshed, or null for a miss
+     * @return the value now visible for the key
+     */
+    private String loadAndStore(String key, String staleValue) {
+        String loaded;
+        try {
+            loaded = loader.load(key);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load key " + key, e);
+        }
+        if (loaded == null) {
+            return null;
+        }
+
+        // The fresh value gets a full TTL in the same atomic step
+        boolean replaced = staleValue != null && ((ttlMillis > 0)
+                ? delegate.replace(key, staleValue, loaded, ttlMillis)
+                : delegate.replace(key, staleValue, loaded));
+        if (replaced) {
+            return loaded;
+        }
+
+        String current = (ttlMillis > 0)
+                ? delegate.putIfAbsent(key, loaded, ttlMillis)
+                : delegate.putIfAbsent(key, loaded);
+        return (current != null) ? current : loaded;
+    }
+
+    private static String await(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Load failed", cause);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        delegate.put(key, value, ttlMillis);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        delegate.putAll(entries);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        delegate.putAll(entries, ttlMillis);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return delegate.remove(key);
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        return delegate.remove(key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        return delegate.putIfAbsent(key, value, ttlMillis);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        return delegate.replace(key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        return delegate.replace(key, expectedValue, newValue, ttlMillis);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        return delegate.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        return delegate.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        return delegate.incrementBy(key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        return delegate.expire(key, ttlMillis);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return delegate.ttl(key);
+    }
+}
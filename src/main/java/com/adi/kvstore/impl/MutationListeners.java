@@ -0,0 +1,96 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.core.Entry;
+
+/**
+ * Copy-on-write set of listeners shared by the store implementations.
+ * Registration is rare; firing reads one volatile array and costs
+ * nothing when no listener is registered.
+ */
+final class MutationListeners {
+
+    private static final MutationListener[] NONE = new MutationListener[0];
+
+    private volatile MutationListener[] listeners = NONE;
+
+    synchronized void add(MutationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+
+        MutationListener[] current = listeners;
+        MutationListener[] grown = new MutationListener[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = listener;
+        listeners = grown;
+    }
+
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * Collection values are mutated in place and cannot be reported:
+     * stores reject their writes once a listener is registered.
+     */
+    void firePut(Entry entry) {
+        MutationListener[] current = listeners;
+        if (entry.isCollection()) {
+            if (current.length > 0) {
+                throw new IllegalStateException("Collection values are not reported to mutation listeners");
+            }
+            return;
+        }
+        for (MutationListener listener : current) {
+            listener.onPut(entry);
+        }
+    }
+
+    void fireRemove(String key) {
+        for (MutationListener listener : listeners) {
+            listener.onRemove(key);
+        }
+    }
+
+    void fireEvict(Entry entry) {
+        if (entry.isCollection()) {
+            return;
+        }
+        for (MutationListener listener : listeners) {
+            listener.onEvict(entry);
+        }
+    }
+
+    void fireExpire(Entry entry) {
+        if (entry.isCollection()) {
+            return;
+        }
+        for (MutationListener listener : listeners) {
+            listener.onExpire(entry);
+        }
+    }
+
+    /**
+     * Every listener gets its onCommit even if an earlier one throws
+     * (a listener may hold events back until then); the first failure
+     * is rethrown.
+     */
+    void commit() {
+        RuntimeException failure = null;
+        for (MutationListener listener : listeners) {
+            try {
+                listener.onCommit();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.OrderedKeyValueStore;
+import com.adi.kvstore.api.ScanPage;
+import com.adi.kvstore.concurrency.OrderedStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationIndex;
+import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.time.Clock;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * ConcurrentKVStore over an OrderedStorage, adding prefix and range scans.
+ *
+ * A page walks the sorted index from the cursor and stops after limit
+ * live entries, or after examining SCAN_WORK_FACTOR * limit keys, so a
+ * run of expired keys cannot make one call scan the whole keyspace.
+ * Expired entries are skipped, not removed: the cleaner reclaims them.
+ *
+ * The cursor is the last key examined, so a scan resumes correctly even
+ * if that key was removed in between.
+ */
+public class OrderedKVStore extends ConcurrentKVStore implements OrderedKeyValueStore {
+
+    private static final int SCAN_WORK_FACTOR = 10;
+
+    private final OrderedStorage storageEngine;
+    private final ExpirationPolicy expirationPolicy;
+    private final Clock clock;
+
+    public OrderedKVStore(OrderedStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock) {
+        super(storageEngine, expirationPolicy, clock);
+        this.storageEngine = storageEngine;
+        this.expirationPolicy = expirationPolicy;
+        this.clock = clock;
+    }
+
+    public OrderedKVStore(OrderedStorage storageEngine, ExpirationPolicy expirationPolicy, Clock clock,
+                          ExpirationIndex expirationIndex, long cleanupIntervalMillis) {
+        super(storageEngine, expirationPolicy, clock, expirationIndex, cleanupIntervalMillis);
+        this.storageEngine = storageEngine;
+        this.expirationPolicy = expirationPolicy;
+        this.clock = clock;
+    }
+
+    @Override
+    public ScanPage scan(String prefix, String cursor, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("prefix must not be null");
+        }
+        // A cursor before the prefix restarts at it, and the prefix itself is a key to return
+        boolean fromPrefix = cursor == null || cursor.compareTo(prefix) < 0;
+        return page(fromPrefix ? prefix : cursor, fromPrefix, key -> key.startsWith(prefix), limit);
+    }
+
+    @Override
+    public ScanPage range(String fromKey, String toKey, String cursor, int limit) {
+        if (fromKey == null) {
+            throw new IllegalArgumentException("fromKey must not be null");
+        }
+        boolean fromStart = cursor == null || cursor.compareTo(fromKey) < 0;
+        return page(fromStart ? fromKey : cursor, fromStart, key -> toKey == null || key.compareTo(toKey) < 0, limit);
+    }
+
+    /**
+     * Collects one page from start; inBounds must hold for a prefix of
+     * the keys from start on, and the page ends at the first key outside.
+     */
+    private ScanPage page(String start, boolean inclusive, Predicate<String> inBounds, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        long now = clock.now();
+        long budget = (long) limit * SCAN_WORK_FACTOR;
+        String lastKey = null;
+
+        Iterator<Map.Entry<String, Entry>> it = storageEngine.ascendingFrom(start, inclusive);
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!inBounds.test(e.getKey())) {
+                return new ScanPage(entries, null);
+            }
+
+            lastKey = e.getKey();
+            if (!expirationPolicy.isExpired(e.getValue(), now)) {
+                entries.put(lastKey, e.getValue().getValue());
+            }
+            if (entries.size() == limit || --budget == 0) {
+                // Cheap completion check, so a full last page ends the scan
+                return new ScanPage(entries, hasMore(lastKey, inBounds) ? lastKey : null);
+            }
+        }
+        return new ScanPage(entries, null);
+    }
+
+    private boolean hasMore(String lastKey, Predicate<String> inBounds) {
+        Iterator<Map.Entry<String, Entry>> it = storageEngine.ascendingFrom(lastKey, false);
+        return it.hasNext() && inBounds.test(it.next().getKey());
+    }
+}
@@ -0,0 +1,313 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.CollectionKeyValueStore;
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.core.ValueType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * KeyValueStore that spreads keys over N independent segments.
+ * 
+ * Each segment is a complete store with its own map, eviction policy
+ * and memory tracker (typically an EvictingKVStore), so writers on
+ * different segments never touch the same counter, deque or lock.
+ * This mirrors the segmented design of Guava and early Caffeine caches.
+ * 
+ * Trade-off:
+ * - Each segment enforces its own budget, so eviction is per segment,
+ *   not global (a hot segment may evict while a cold one has room)
+ * - The total budget is the sum of the segment budgets
+ * 
+ * Example (64 MB split over 16 segments):
+ * 
+ *   new SegmentedKVStore(16, () -> new EvictingKVStore(
+ *           new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+ *           new BufferedLRUEvictionPolicy(), new WeightedMemoryTracker(4 << 20),
+ *           clock));
+ *
+ * Collection commands (hset, lpush, zadd...) require segments that
+ * support them, such as EvictingKVStore over a ConcurrentStorageEngine;
+ * otherwise supportsCollections() is false and they throw
+ * UnsupportedOperationException.
+ */
+public class SegmentedKVStore implements CollectionKeyValueStore {
+
+    private final KeyValueStore[] segments;
+    private final int segmentShift;
+    private final boolean collections;
+
+    /**
+     * @param segmentCount number of segments, a power of two
+     * @param segmentFactory creates one independent store per segment
+     */
+    public SegmentedKVStore(int segmentCount, Supplier<? extends KeyValueStore> segmentFactory) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a positive power of two");
+        }
+
+        this.segments = new KeyValueStore[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = segmentFactory.get();
+        }
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.collections = allSupportCollections(segments);
+    }
+
+    private static boolean allSupportCollections(KeyValueStore[] segments) {
+        for (KeyValueStore segment : segments) {
+            if (!(segment instanceof CollectionKeyValueStore)
+                    || !((CollectionKeyValueStore) segment).supportsCollections()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supportsCollections() {
+        return collections;
+    }
+
+    @Override
+    public void put(String key, String value) {
+        segmentFor(key).put(key, value);
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        segmentFor(key).put(key, value, ttlMillis);
+    }
+
+    @Override
+    public String get(String key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Splits the batch per segment so each segment amortizes its own work.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        List<List<String>> batches = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (String key : keys) {
+            batches.get(segmentIndex(key)).add(key);
+        }
+
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+            if (!batches.get(i).isEmpty()) {
+                result.putAll(segments[i].getAll(batches.get(i)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        List<Map<String, String>> batches = splitBySegment(entries);
+        for (int i = 0; i < segments.length; i++) {
+            if (!batches.get(i).isEmpty()) {
+                segments[i].putAll(batches.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        List<Map<String, String>> batches = splitBySegment(entries);
+        for (int i = 0; i < segments.length; i++) {
+            if (!batches.get(i).isEmpty()) {
+                segments[i].putAll(batches.get(i), ttlMillis);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return segmentFor(key).remove(key);
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        return segmentFor(key).remove(key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        return segmentFor(key).putIfAbsent(key, value);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        return segmentFor(key).putIfAbsent(key, value, ttlMillis);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        return segmentFor(key).replace(key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        return segmentFor(key).replace(key, expectedValue, newValue, ttlMillis);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        return segmentFor(key).compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        return segmentFor(key).merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        return segmentFor(key).incrementBy(key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        return segmentFor(key).expire(key, ttlMillis);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return segmentFor(key).ttl(key);
+    }
+
+    @Override
+    public ValueType type(String key) {
+        return collectionsFor(key).type(key);
+    }
+
+    @Override
+    public boolean hset(String key, String field, String value) {
+        return collectionsFor(key).hset(key, field, value);
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        return collectionsFor(key).hget(key, field);
+    }
+
+    @Override
+    public boolean hdel(String key, String field) {
+        return collectionsFor(key).hdel(key, field);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return collectionsFor(key).hgetAll(key);
+    }
+
+    @Override
+    public int hlen(String key) {
+        return collectionsFor(key).hlen(key);
+    }
+
+    @Override
+    public int lpush(String key, String... values) {
+        return collectionsFor(key).lpush(key, values);
+    }
+
+    @Override
+    public int rpush(String key, String... values) {
+        return collectionsFor(key).rpush(key, values);
+    }
+
+    @Override
+    public String lpop(String key) {
+        return collectionsFor(key).lpop(key);
+    }
+
+    @Override
+    public String rpop(String key) {
+        return collectionsFor(key).rpop(key);
+    }
+
+    @Override
+    public List<String> lrange(String key, long start, long stop) {
+        return collectionsFor(key).lrange(key, start, stop);
+    }
+
+    @Override
+    public int llen(String key) {
+        return collectionsFor(key).llen(key);
+    }
+
+    @Override
+    public boolean zadd(String key, double score, String member) {
+        return collectionsFor(key).zadd(key, score, member);
+    }
+
+    @Override
+    public Double zscore(String key, String member) {
+        return collectionsFor(key).zscore(key, member);
+    }
+
+    @Override
+    public boolean zrem(String key, String member) {
+        return collectionsFor(key).zrem(key, member);
+    }
+
+    @Override
+    public List<ScoredMember> zrangeByScore(String key, double min, double max, int limit) {
+        return collectionsFor(key).zrangeByScore(key, min, max, limit);
+    }
+
+    @Override
+    public int zcard(String key) {
+        return collectionsFor(key).zcard(key);
+    }
+
+    /**
+     * @return number of segments
+     */
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    private KeyValueStore segmentFor(String key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private CollectionKeyValueStore collectionsFor(String key) {
+        if (!collections) {
+            throw new UnsupportedOperationException("Segments do not support collection values");
+        }
+        return (CollectionKeyValueStore) segmentFor(key);
+    }
+
+    private int segmentIndex(String key) {
+        if (segments.length == 1) {
+            return 0;
+        }
+        // Use the high bits of a mixed hash: the segment maps use the low bits
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash >>> segmentShift;
+    }
+
+    private List<Map<String, String>> splitBySegment(Map<String, String> entries) {
+        List<Map<String, String>> batches = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            batches.add(new HashMap<>());
+        }
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            batches.get(segmentIndex(e.getKey())).put(e.getKey(), e.getValue());
+        }
+        return batches;
+    }
+}
@@ -6,6 +6,12 @@ import com.adi.kvstore.core.StorageEngine;
 import com.adi.kvstore.expiration.ExpirationPolicy;
 import com.adi.kvstore.time.Clock;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
 /*
 * Single-threaded key-value store implementation
 */
@@ -59,4 +65,117 @@ public class SimpleKVStore implements KeyValueStore {
         
         return entry.getValue();
     }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys){
+        Map<String, String> result = new HashMap<>();
+        long now = clock.now();
+
+        for (String key : keys) {
+            Entry entry = storageEngine.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (expirationPolicy.isExpired(entry, now)) {
+                storageEngine.remove(key); // lazy cleanup
+                continue;
+            }
+            result.put(key, entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries){
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            storageEngine.put(e.getKey(), new Entry(e.getKey(), e.getValue(), -1));
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis){
+        long now = clock.now();
+        long expiryTime = (ttlMillis <= 0) ? now : now + ttlMillis;
+
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            storageEngine.put(e.getKey(), new Entry(e.getKey(), e.getValue(), expiryTime));
+        }
+    }
+
+    @Override
+    public boolean remove(String key){
+        return AtomicOperations.remove(this::updateEntry, key);
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue){
+        return AtomicOperations.remove(this::updateEntry, key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value){
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, -1);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.putIfAbsent(this::updateEntry, key, value, expiryTime);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue){
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.replace(this::updateEntry, key, expectedValue, newValue, expiryTime);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction){
+        return AtomicOperations.compute(this::updateEntry, key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction){
+        return AtomicOperations.merge(this::updateEntry, key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta){
+        return AtomicOperations.incrementBy(this::updateEntry, key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis){
+        long expiryTime = (ttlMillis <= 0) ? clock.now() : clock.now() + ttlMillis;
+        return AtomicOperations.expire(this::updateEntry, key, expiryTime);
+    }
+
+    @Override
+    public long ttl(String key){
+        return AtomicOperations.ttl(storageEngine.get(key), expirationPolicy, clock.now());
+    }
+
+    /*
+    * Read-modify-write of the live entry.
+    * Single-threaded, so plain get/put is already atomic.
+    */
+    private Entry updateEntry(String key, UnaryOperator<Entry> update){
+        Entry current = storageEngine.get(key);
+        Entry live = (current == null || expirationPolicy.isExpired(current, clock.now())) ? null : current;
+        Entry updated = update.apply(live);
+
+        if (updated == null) {
+            if (current != null) {
+                storageEngine.remove(key);
+            }
+        } else if (updated != current) {
+            storageEngine.put(key, updated);
+        }
+        return updated;
+    }
 }
\ No newline at end of file
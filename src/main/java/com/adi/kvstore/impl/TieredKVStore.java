@@ -0,0 +1,229 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.tier.DiskTier;
+import com.adi.kvstore.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Two-tier KeyValueStore: an EvictingKVStore in memory, backed by a
+ * DiskTier that receives the entries evicted for capacity.
+ *
+ * - Eviction of a live entry demotes it to disk (expired entries are
+ *   simply dropped)
+ * - A memory miss checks the disk tier and promotes the entry back,
+ *   keeping its absolute expiry time
+ * - A key lives in at most one tier: every write or removal in memory
+ *   discards the disk copy
+ *
+ * Promotions and removals of the same key are serialized by striped
+ * locks, so a removed key cannot be resurrected by a concurrent
+ * promotion. Memory hits never take these locks.
+ *
+ * Trade-off:
+ * - A promotion is an ordinary insert, so an admission policy
+ *   (W-TinyLFU) may reject it; the entry is then dropped like any
+ *   rejected write
+ * - The disk tier is shared by all keys behind a single lock
+ */
+public class TieredKVStore implements KeyValueStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final EvictingKVStore memory;
+    private final DiskTier disk;
+    private final Clock clock;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public TieredKVStore(EvictingKVStore memory, DiskTier disk, Clock clock) {
+        this.memory = memory;
+        this.disk = disk;
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        memory.addMutationListener(new MutationListener() {
+            @Override
+            public void onPut(Entry entry) {
+                disk.remove(entry.getKey());
+            }
+
+            @Override
+            public void onRemove(String key) {
+                disk.remove(key);
+            }
+
+            @Override
+            public void onEvict(Entry entry) {
+                disk.put(entry);
+            }
+        });
+    }
+
+    @Override
+    public void put(String key, String value) {
+        memory.put(key, value);
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        memory.put(key, value, ttlMillis);
+    }
+
+    @Override
+    public String get(String key) {
+        String value = memory.get(key);
+        if (value != null || disk.isEmpty()) {
+            return value;
+        }
+        return promote(key);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = memory.getAll(keys);
+        if (result.size() == keys.size() || disk.isEmpty()) {
+            return result;
+        }
+
+        List<String> misses = new ArrayList<>();
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                misses.add(key);
+            }
+        }
+        for (String key : misses) {
+            String value = promote(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        memory.putAll(entries);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        memory.putAll(entries, ttlMillis);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        synchronized (lockFor(key)) {
+            boolean removedFromMemory = memory.remove(key);
+            boolean removedFromDisk = disk.remove(key);
+            return removedFromMemory || removedFromDisk;
+        }
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        promoteIfOnDisk(key);
+        return memory.remove(key, expectedValue);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        promoteIfOnDisk(key);
+        return memory.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        promoteIfOnDisk(key);
+        return memory.putIfAbsent(key, value, ttlMillis);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        promoteIfOnDisk(key);
+        return memory.replace(key, expectedValue, newValue);
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        promoteIfOnDisk(key);
+        return memory.replace(key, expectedValue, newValue, ttlMillis);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        promoteIfOnDisk(key);
+        return memory.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        promoteIfOnDisk(key);
+        return memory.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        promoteIfOnDisk(key);
+        return memory.incrementBy(key, delta);
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        promoteIfOnDisk(key);
+        return memory.expire(key, ttlMillis);
+    }
+
+    @Override
+    public long ttl(String key) {
+        promoteIfOnDisk(key);
+        return memory.ttl(key);
+    }
+
+    private void promoteIfOnDisk(String key) {
+        if (disk.contains(key)) {
+            promote(key);
+        }
+    }
+
+    /**
+     * Moves the disk copy of a key back to memory.
+     *
+     * @return the live value of the key, or null
+     */
+    private String promote(String key) {
+        synchronized (lockFor(key)) {
+            Entry entry = disk.take(key);
+            if (entry == null) {
+                // Another thread may have promoted it meanwhile
+                return memory.get(key);
+            }
+
+            String current;
+            if (entry.hasExpiry()) {
+                long remaining = entry.getExpiryTime() - clock.now();
+                if (remaining <= 0) {
+                    return memory.get(key);
+                }
+                current = memory.putIfAbsent(key, entry.getValue(), remaining);
+            } else {
+                current = memory.putIfAbsent(key, entry.getValue());
+            }
+            // A concurrent write in memory is newer than the disk copy
+            return (current != null) ? current : entry.getValue();
+        }
+    }
+
+    private Object lockFor(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return locks[(h >>> 16) & (LOCK_STRIPES - 1)];
+    }
+}
@@ -0,0 +1,249 @@
+package com.adi.kvstore.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe StatsCounter for hot paths.
+ *
+ * Counters are LongAdders (striped, so concurrent writers do not share
+ * one contended cache line); latencies go to LatencyHistograms.
+ *
+ * Recording can be switched off at runtime (setEnabled), and latency
+ * timing separately (setLatencyEnabled), e.g. from a JMX console.
+ * A disabled counter costs one volatile read per event.
+ *
+ * Latency is sampled: one operation in LATENCY_SAMPLE_RATE is timed,
+ * chosen at random, so percentiles stay unbiased while the cost of the
+ * two System.nanoTime() calls is paid on a fraction of operations.
+ *
+ * Trade-off:
+ * - Reads of the counters are not an atomic snapshot across counters
+ * - Latency histogram counts are sample counts, not operation counts
+ */
+public class ConcurrentStatsCounter implements StatsCounter, StoreStatsMXBean {
+
+    /**
+     * One operation in this many is timed (a power of two).
+     */
+    public static final int LATENCY_SAMPLE_RATE = 16;
+
+    private static final String OBJECT_NAME = "com.adi.kvstore:type=StoreStats,name=";
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder cleanerRuns = new LongAdder();
+    private final LongAdder cleanerReclaimed = new LongAdder();
+    private final LatencyHistogram getLatency = new LatencyHistogram();
+    private final LatencyHistogram putLatency = new LatencyHistogram();
+
+    private volatile boolean enabled = true;
+    private volatile boolean latencyEnabled;
+
+    /**
+     * Creates an enabled counter; latency timing starts disabled.
+     */
+    public ConcurrentStatsCounter() {
+    }
+
+    public ConcurrentStatsCounter(boolean latencyEnabled) {
+        this.latencyEnabled = latencyEnabled;
+    }
+
+    @Override
+    public long startTimer() {
+        if (!latencyEnabled || (ThreadLocalRandom.current().nextInt() & (LATENCY_SAMPLE_RATE - 1)) != 0) {
+            return 0;
+        }
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void recordGet(boolean hit, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        (hit ? hits : misses).increment();
+        if (startNanos != 0) {
+            getLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void recordGets(int hitCount, int missCount) {
+        if (!enabled) {
+            return;
+        }
+        if (hitCount > 0) {
+            hits.add(hitCount);
+        }
+        if (missCount > 0) {
+            misses.add(missCount);
+        }
+    }
+
+    @Override
+    public void recordPuts(int count, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        puts.add(count);
+        if (startNanos != 0) {
+            putLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void recordEviction(EvictionCause cause) {
+        if (!enabled) {
+            return;
+        }
+        (cause == EvictionCause.CAPACITY ? capacityEvictions : expirations).increment();
+    }
+
+    @Override
+    public void recordCleanerRun(int reclaimed) {
+        if (!enabled) {
+            return;
+        }
+        cleanerRuns.increment();
+        if (reclaimed > 0) {
+            cleanerReclaimed.add(reclaimed);
+            expirations.add(reclaimed);
+        }
+    }
+
+    @Override
+    public StatsSnapshot snapshot() {
+        return new StatsSnapshot(hits.sum(), misses.sum(), puts.sum(),
+                capacityEvictions.sum(), expirations.sum(), cleanerRuns.sum(), cleanerReclaimed.sum(),
+                getLatency.snapshot(), putLatency.snapshot());
+    }
+
+    /**
+     * Registers this counter with the platform MBean server.
+     *
+     * @param name store name, unique per JVM
+     * @return the registered object name
+     * @throws IllegalStateException if registration fails (e.g. the name is taken)
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register stats MBean " + name, e);
+        }
+    }
+
+    public void unregisterMBean(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister stats MBean " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return (requests == 0) ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    @Override
+    public long getCapacityEvictionCount() {
+        return capacityEvictions.sum();
+    }
+
+    @Override
+    public long getExpiredEvictionCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long getCleanerRunCount() {
+        return cleanerRuns.sum();
+    }
+
+    @Override
+    public long getCleanerReclaimedCount() {
+        return cleanerReclaimed.sum();
+    }
+
+    @Override
+    public double getGetLatencyP50Micros() {
+        return getLatency.snapshot().getP50() / 1000.0;
+    }
+
+    @Override
+    public double getGetLatencyP99Micros() {
+        return getLatency.snapshot().getP99() / 1000.0;
+    }
+
+    @Override
+    public double getGetLatencyP999Micros() {
+        return getLatency.snapshot().getP999() / 1000.0;
+    }
+
+    @Override
+    public double getPutLatencyP50Micros() {
+        return putLatency.snapshot().getP50() / 1000.0;
+    }
+
+    @Override
+    public double getPutLatencyP99Micros() {
+        return putLatency.snapshot().getP99() / 1000.0;
+    }
+
+    @Override
+    public double getPutLatencyP999Micros() {
+        return putLatency.snapshot().getP999() / 1000.0;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isLatencyEnabled() {
+        return latencyEnabled;
+    }
+
+    @Override
+    public void setLatencyEnabled(boolean latencyEnabled) {
+        this.latencyEnabled = latencyEnabled;
+    }
+}
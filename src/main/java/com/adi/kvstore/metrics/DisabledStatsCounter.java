@@ -0,0 +1,39 @@
+package com.adi.kvstore.metrics;
+
+/**
+ * StatsCounter that records nothing. Default for every store.
+ */
+enum DisabledStatsCounter implements StatsCounter {
+
+    INSTANCE;
+
+    @Override
+    public long startTimer() {
+        return 0;
+    }
+
+    @Override
+    public void recordGet(boolean hit, long startNanos) {
+    }
+
+    @Override
+    public void recordGets(int hits, int misses) {
+    }
+
+    @Override
+    public void recordPuts(int count, long startNanos) {
+    }
+
+    @Override
+    public void recordEviction(EvictionCause cause) {
+    }
+
+    @Override
+    public void recordCleanerRun(int reclaimed) {
+    }
+
+    @Override
+    public StatsSnapshot snapshot() {
+        return StatsSnapshot.EMPTY;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adi.kvstore.metrics;
+
+/**
+ * Why an entry left the store without being removed by a caller.
+ */
+public enum EvictionCause {
+
+    /**
+     * Removed to bring the store back under its memory limit.
+     */
+    CAPACITY,
+
+    /**
+     * Reclaimed after its TTL elapsed (on read, by the cleaner or by
+     * an eviction pass that found it already expired).
+     */
+    EXPIRED
+}
@@ -0,0 +1,156 @@
+package com.adi.kvstore.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent latency histogram with HdrHistogram-style buckets.
+ *
+ * Values (nanoseconds) are bucketed log-linearly: each power of two is
+ * split into 32 equal sub-buckets, so any recorded value is reported
+ * within about 3% of its true value, from 1 ns up to about 68 seconds
+ * (larger values are clamped). Recording is one atomic increment.
+ *
+ * Counts are striped per thread, so threads recording the same latency
+ * do not fight over one counter; reads sum the stripes.
+ *
+ * Trade-off:
+ * - Fixed memory (a few KB per stripe) regardless of the sample count
+ * - Percentiles are approximate and the histogram is never reset
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_BIT = 36;
+    private static final long MAX_VALUE = (1L << MAX_BIT) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+    private static final int MAX_STRIPES = 16;
+
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+        this.stripeMask = stripes - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(stripe() * BUCKET_COUNT + indexOf(value));
+    }
+
+    /**
+     * @return a point-in-time summary (stripes are read one by one, so
+     *         concurrent recordings may be partially included)
+     */
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * BUCKET_COUNT;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long count = counts.get(base + i);
+                merged[i] += count;
+                total += count;
+            }
+        }
+
+        return new Snapshot(total,
+                percentile(merged, total, 50.0),
+                percentile(merged, total, 90.0),
+                percentile(merged, total, 99.0),
+                percentile(merged, total, 99.9),
+                percentile(merged, total, 100.0));
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    private static long percentile(long[] merged, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < merged.length; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    // Values below SUB_BUCKET_COUNT are exact; above, keep the top bits
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS + 1;
+        int mantissa = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKET_HALF + (mantissa - SUB_BUCKET_HALF);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long mantissa = SUB_BUCKET_HALF + index % SUB_BUCKET_HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Percentiles in nanoseconds.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+
+        private final long count;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Snapshot(long count, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.adi.kvstore.metrics;
+
+/**
+ * Receives statistics events from a store's hot paths.
+ *
+ * Stores start with disabled(), whose methods are empty: with no other
+ * implementation loaded, the JIT inlines the calls away. Latency is
+ * measured between startTimer() and the matching record call, so a
+ * counter that does not time anything never calls System.nanoTime().
+ *
+ * Implementations must be thread-safe and must never block.
+ */
+public interface StatsCounter {
+
+    /**
+     * @return a start timestamp for a latency measurement, or 0 if
+     *         latency is not being recorded
+     */
+    long startTimer();
+
+    /**
+     * Records a single-key read.
+     *
+     * @param startNanos value returned by startTimer()
+     */
+    void recordGet(boolean hit, long startNanos);
+
+    /**
+     * Records the outcome of a batch read (not timed).
+     */
+    void recordGets(int hits, int misses);
+
+    /**
+     * Records a write of the given number of entries.
+     *
+     * @param startNanos value returned by startTimer()
+     */
+    void recordPuts(int count, long startNanos);
+
+    void recordEviction(EvictionCause cause);
+
+    /**
+     * Records one background cleanup run.
+     *
+     * @param reclaimed expired entries the run removed
+     */
+    void recordCleanerRun(int reclaimed);
+
+    StatsSnapshot snapshot();
+
+    /**
+     * @return the shared counter that records nothing
+     */
+    static StatsCounter disabled() {
+        return DisabledStatsCounter.INSTANCE;
+    }
+}
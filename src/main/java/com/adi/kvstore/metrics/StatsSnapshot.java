@@ -0,0 +1,105 @@
+package com.adi.kvstore.metrics;
+
+import java.util.Locale;
+
+/**
+ * Immutable point-in-time view of a store's statistics.
+ */
+public final class StatsSnapshot {
+
+    static final StatsSnapshot EMPTY = new StatsSnapshot(0, 0, 0, 0, 0, 0, 0,
+            LatencyHistogram.Snapshot.EMPTY, LatencyHistogram.Snapshot.EMPTY);
+
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long capacityEvictions;
+    private final long expirations;
+    private final long cleanerRuns;
+    private final long cleanerReclaimed;
+    private final LatencyHistogram.Snapshot getLatency;
+    private final LatencyHistogram.Snapshot putLatency;
+
+    StatsSnapshot(long hits, long misses, long puts, long capacityEvictions, long expirations,
+                  long cleanerRuns, long cleanerReclaimed,
+                  LatencyHistogram.Snapshot getLatency, LatencyHistogram.Snapshot putLatency) {
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.capacityEvictions = capacityEvictions;
+        this.expirations = expirations;
+        this.cleanerRuns = cleanerRuns;
+        this.cleanerReclaimed = cleanerReclaimed;
+        this.getLatency = getLatency;
+        this.putLatency = putLatency;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return hits / (hits + misses), or 1.0 before the first read
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return (requests == 0) ? 1.0 : (double) hits / requests;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getEvictions(EvictionCause cause) {
+        return (cause == EvictionCause.CAPACITY) ? capacityEvictions : expirations;
+    }
+
+    public long getCleanerRuns() {
+        return cleanerRuns;
+    }
+
+    /**
+     * @return expired entries removed by background cleanup
+     *         (included in getEvictions(EXPIRED))
+     */
+    public long getCleanerReclaimed() {
+        return cleanerReclaimed;
+    }
+
+    public LatencyHistogram.Snapshot getGetLatency() {
+        return getLatency;
+    }
+
+    public LatencyHistogram.Snapshot getPutLatency() {
+        return putLatency;
+    }
+
+    /**
+     * Multi-line, human-readable form (used by the STATS command).
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "hits: %d%n", hits));
+        out.append(String.format(Locale.ROOT, "misses: %d%n", misses));
+        out.append(String.format(Locale.ROOT, "hit_rate: %.4f%n", getHitRate()));
+        out.append(String.format(Locale.ROOT, "puts: %d%n", puts));
+        out.append(String.format(Locale.ROOT, "evictions_capacity: %d%n", capacityEvictions));
+        out.append(String.format(Locale.ROOT, "evictions_expired: %d%n", expirations));
+        out.append(String.format(Locale.ROOT, "cleaner_runs: %d%n", cleanerRuns));
+        out.append(String.format(Locale.ROOT, "cleaner_reclaimed: %d%n", cleanerReclaimed));
+        appendLatency(out, "get", getLatency);
+        appendLatency(out, "put", putLatency);
+        return out.toString().trim();
+    }
+
+    private static void appendLatency(StringBuilder out, String name, LatencyHistogram.Snapshot latency) {
+        out.append(String.format(Locale.ROOT, "%s_latency_us: samples=%d p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                name, latency.getCount(), latency.getP50() / 1000.0, latency.getP90() / 1000.0,
+                latency.getP99() / 1000.0, latency.getP999() / 1000.0, latency.getMax() / 1000.0));
+    }
+}
@@ -0,0 +1,45 @@
+package com.adi.kvstore.metrics;
+
+/**
+ * JMX view of a ConcurrentStatsCounter (latencies in microseconds).
+ *
+ * Registered under com.adi.kvstore:type=StoreStats,name=...
+ */
+public interface StoreStatsMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getPutCount();
+
+    long getCapacityEvictionCount();
+
+    long getExpiredEvictionCount();
+
+    long getCleanerRunCount();
+
+    long getCleanerReclaimedCount();
+
+    double getGetLatencyP50Micros();
+
+    double getGetLatencyP99Micros();
+
+    double getGetLatencyP999Micros();
+
+    double getPutLatencyP50Micros();
+
+    double getPutLatencyP99Micros();
+
+    double getPutLatencyP999Micros();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    boolean isLatencyEnabled();
+
+    void setLatencyEnabled(boolean latencyEnabled);
+}
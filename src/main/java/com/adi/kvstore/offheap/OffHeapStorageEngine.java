@@ -0,0 +1,435 @@
+package com.adi.kvstore.offheap;
+
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.core.LinearProbingTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe storage engine that keeps keys and values off-heap.
+ *
+ * Each record is serialized into a slab chunk (see SlabAllocator):
+ *
+ *   [int keyLength][int valueLength][long expiryTime][key UTF-8][value UTF-8]
+ *
+ * The on-heap index is split into segments. Each segment is an
+ * open-addressing table of primitive arrays (key hash + record address),
+ * guarded by its own read-write lock. No Entry or String is retained
+ * on heap per key, so heap size and GC work stay flat as the dataset grows.
+ *
+ * Trade-off:
+ * - get() materializes a fresh Entry from off-heap bytes on every call
+ * - Conditional removal compares entries by content (value and expiry),
+ *   because materialized entries are never the same instance
+ * - Freed chunks are reused but slabs are never returned to the OS
+ *
+ * This class is policy-free and TTL-agnostic.
+ */
+public class OffHeapStorageEngine implements ConcurrentStorage {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final int HEADER_SIZE = 16;
+    private static final long EMPTY = 0;
+
+    private final SlabAllocator allocator;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    /**
+     * @param capacityBytes maximum off-heap bytes reserved for slabs
+     */
+    public OffHeapStorageEngine(long capacityBytes) {
+        this(capacityBytes, DEFAULT_SLAB_SIZE, DEFAULT_SEGMENTS);
+    }
+
+    public OffHeapStorageEngine(long capacityBytes, int slabSize, int segmentCount) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a positive power of two");
+        }
+
+        this.allocator = new SlabAllocator(slabSize, capacityBytes);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    // Records hold a UTF-8 string value
+    @Override
+    public boolean supportsCollections() {
+        return false;
+    }
+
+    @Override
+    public Entry put(String key, Entry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            long address = writeRecord(keyBytes, valueBytes, entry.getExpiryTime());
+
+            int slot = segment.find(hash, keyBytes);
+            if (slot >= 0) {
+                long previousAddress = segment.addresses[slot];
+                Entry previous = readEntry(key, previousAddress);
+                segment.addresses[slot] = address;
+                freeRecord(previousAddress);
+                return previous;
+            }
+
+            segment.insert(hash, address);
+            return null;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Entry get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            return (slot < 0) ? null : readEntry(key, segment.addresses[slot]);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot >= 0) {
+                long address = segment.addresses[slot];
+                segment.delete(slot);
+                freeRecord(address);
+            }
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String key, Entry expectedEntry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] expectedValue = expectedEntry.getValue().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot < 0) {
+                return false;
+            }
+
+            long address = segment.addresses[slot];
+            if (!matches(address, expectedValue, expectedEntry.getExpiryTime())) {
+                // A newer entry was written; never delete it
+                return false;
+            }
+
+            segment.delete(slot);
+            freeRecord(address);
+            return true;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atomic update under the segment's write lock.
+     * The current entry is materialized from off-heap bytes first.
+     */
+    @Override
+    public Entry compute(String key, BiFunction<String, Entry, Entry> remappingFunction) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            Entry current = (slot < 0) ? null : readEntry(key, segment.addresses[slot]);
+            Entry updated = remappingFunction.apply(key, current);
+
+            if (updated == current) {
+                return current;
+            }
+
+            if (updated == null) {
+                long address = segment.addresses[slot];
+                segment.delete(slot);
+                freeRecord(address);
+                return null;
+            }
+
+            byte[] valueBytes = updated.getValue().getBytes(StandardCharsets.UTF_8);
+            long address = writeRecord(keyBytes, valueBytes, updated.getExpiryTime());
+            if (slot >= 0) {
+                long previousAddress = segment.addresses[slot];
+                segment.addresses[slot] = address;
+                freeRecord(previousAddress);
+            } else {
+                segment.insert(hash, address);
+            }
+            return updated;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent view of entries.
+     * Entries are copied on heap one segment at a time while iterating.
+     */
+    @Override
+    public Set<Map.Entry<String, Entry>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Entry>> iterator() {
+                return new SegmentIterator();
+            }
+
+            @Override
+            public int size() {
+                long total = 0;
+                for (Segment segment : segments) {
+                    segment.lock.readLock().lock();
+                    try {
+                        total += segment.size();
+                    } finally {
+                        segment.lock.readLock().unlock();
+                    }
+                }
+                return (int) Math.min(total, Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    /**
+     * Exposed for observability/debugging only.
+     *
+     * @return off-heap bytes reserved for slabs
+     */
+    public long getReservedBytes() {
+        return allocator.reservedBytes();
+    }
+
+    private long writeRecord(byte[] keyBytes, byte[] valueBytes, long expiryTime) {
+        int size = HEADER_SIZE + keyBytes.length + valueBytes.length;
+        long address = allocator.allocate(size);
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+
+        slab.putInt(offset, keyBytes.length);
+        slab.putInt(offset + 4, valueBytes.length);
+        slab.putLong(offset + 8, expiryTime);
+        slab.put(offset + HEADER_SIZE, keyBytes);
+        slab.put(offset + HEADER_SIZE + keyBytes.length, valueBytes);
+        return address;
+    }
+
+    private void freeRecord(long address) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        int size = HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + 4);
+        allocator.free(address, size);
+    }
+
+    private Entry readEntry(String key, long address) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        int keyLength = slab.getInt(offset);
+        int valueLength = slab.getInt(offset + 4);
+        long expiryTime = slab.getLong(offset + 8);
+
+        byte[] valueBytes = new byte[valueLength];
+        slab.get(offset + HEADER_SIZE + keyLength, valueBytes);
+        return new Entry(key, new String(valueBytes, StandardCharsets.UTF_8), expiryTime);
+    }
+
+    private String readKey(long address) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        byte[] keyBytes = new byte[slab.getInt(offset)];
+        slab.get(offset + HEADER_SIZE, keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        if (slab.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        return regionEquals(slab, offset + HEADER_SIZE, keyBytes);
+    }
+
+    private boolean matches(long address, byte[] valueBytes, long expiryTime) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        if (slab.getLong(offset + 8) != expiryTime || slab.getInt(offset + 4) != valueBytes.length) {
+            return false;
+        }
+        return regionEquals(slab, offset + HEADER_SIZE + slab.getInt(offset), valueBytes);
+    }
+
+    private static boolean regionEquals(ByteBuffer slab, int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (slab.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Open-addressing (linear probing) table of key hashes and record
+     * addresses. All access is guarded by the segment's lock.
+     */
+    private final class Segment extends LinearProbingTable {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        int[] hashes = new int[INITIAL_TABLE_SIZE];
+        long[] addresses = new long[INITIAL_TABLE_SIZE];
+
+        Segment() {
+            super(INITIAL_TABLE_SIZE);
+        }
+
+        /**
+         * @return slot holding the key, or -1 if absent
+         */
+        int find(int hash, byte[] keyBytes) {
+            for (int slot = firstSlot(hash); !isEmpty(slot); slot = nextSlot(slot)) {
+                if (hashes[slot] == hash && keyEquals(addresses[slot], keyBytes)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void insert(int hash, long address) {
+            ensureCapacityForOneMore(3, 4);
+            int slot = freeSlot(hash);
+            hashes[slot] = hash;
+            addresses[slot] = address;
+            size++;
+        }
+
+        @Override
+        protected boolean isEmpty(int slot) {
+            return addresses[slot] == EMPTY;
+        }
+
+        @Override
+        protected int hashAt(int slot) {
+            return hashes[slot];
+        }
+
+        @Override
+        protected void moveSlot(int from, int to) {
+            hashes[to] = hashes[from];
+            addresses[to] = addresses[from];
+        }
+
+        @Override
+        protected void clearSlot(int slot) {
+            hashes[slot] = 0;
+            addresses[slot] = EMPTY;
+        }
+
+        @Override
+        protected void rehash(int newCapacity) {
+            int[] oldHashes = hashes;
+            long[] oldAddresses = addresses;
+
+            hashes = new int[newCapacity];
+            addresses = new long[newCapacity];
+            for (int i = 0; i < oldAddresses.length; i++) {
+                if (oldAddresses[i] != EMPTY) {
+                    int slot = freeSlot(oldHashes[i]);
+                    hashes[slot] = oldHashes[i];
+                    addresses[slot] = oldAddresses[i];
+                }
+            }
+        }
+
+        List<Map.Entry<String, Entry>> snapshot() {
+            lock.readLock().lock();
+            try {
+                List<Map.Entry<String, Entry>> copy = new ArrayList<>(size());
+                for (long address : addresses) {
+                    if (address != EMPTY) {
+                        String key = readKey(address);
+                        copy.add(new AbstractMap.SimpleImmutableEntry<>(key, readEntry(key, address)));
+                    }
+                }
+                return copy;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Iterates segment by segment, copying one segment at a time.
+     */
+    private final class SegmentIterator implements Iterator<Map.Entry<String, Entry>> {
+        private int nextSegment;
+        private Iterator<Map.Entry<String, Entry>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextSegment < segments.length) {
+                current = segments[nextSegment++].snapshot().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Entry> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.adi.kvstore.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slab allocator for off-heap records.
+ *
+ * Memory is reserved in fixed-size direct slabs. Each slab is carved
+ * into equal chunks of one size class (sizes grow by a factor of 1.25,
+ * like memcached). Freed chunks go back to their class's free list and
+ * are reused before a new slab is reserved.
+ *
+ * An address packs the slab index (high 32 bits) and the offset inside
+ * the slab (low 32 bits). Address 0 is never handed out, so it can be
+ * used as an "empty" marker.
+ *
+ * Thread safety:
+ * - Allocation and free lock only the size class involved
+ * - Reading slabs is lock-free (the slab table is republished on growth)
+ */
+final class SlabAllocator {
+
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final int slabSize;
+    private final long maxSlabs;
+    private final SizeClass[] classes;
+
+    private final Object growLock = new Object();
+    private volatile ByteBuffer[] slabs = new ByteBuffer[16];
+    private int slabCount = 1; // slab 0 is never used, so address 0 stays free
+
+    SlabAllocator(int slabSize, long capacityBytes) {
+        if (slabSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("slabSize must be at least " + MIN_CHUNK_SIZE);
+        }
+        if (capacityBytes < slabSize) {
+            throw new IllegalArgumentException("capacityBytes must hold at least one slab");
+        }
+
+        this.slabSize = slabSize;
+        this.maxSlabs = capacityBytes / slabSize;
+        this.classes = buildSizeClasses(slabSize);
+    }
+
+    /**
+     * Reserves a chunk large enough for the given number of bytes.
+     *
+     * @return address of the chunk
+     * @throws IllegalArgumentException if size exceeds the slab size
+     * @throws IllegalStateException if the capacity is exhausted
+     */
+    long allocate(int size) {
+        SizeClass sizeClass = classFor(size);
+
+        synchronized (sizeClass) {
+            if (sizeClass.freeCount > 0) {
+                return sizeClass.freeChunks[--sizeClass.freeCount];
+            }
+
+            if (sizeClass.currentSlab == 0 || sizeClass.nextOffset + sizeClass.chunkSize > slabSize) {
+                sizeClass.currentSlab = reserveSlab();
+                sizeClass.nextOffset = 0;
+            }
+
+            long address = ((long) sizeClass.currentSlab << 32) | sizeClass.nextOffset;
+            sizeClass.nextOffset += sizeClass.chunkSize;
+            return address;
+        }
+    }
+
+    /**
+     * Returns a chunk previously allocated for the given size.
+     */
+    void free(long address, int size) {
+        SizeClass sizeClass = classFor(size);
+
+        synchronized (sizeClass) {
+            if (sizeClass.freeCount == sizeClass.freeChunks.length) {
+                long[] grown = new long[sizeClass.freeChunks.length * 2];
+                System.arraycopy(sizeClass.freeChunks, 0, grown, 0, sizeClass.freeCount);
+                sizeClass.freeChunks = grown;
+            }
+            sizeClass.freeChunks[sizeClass.freeCount++] = address;
+        }
+    }
+
+    /**
+     * @return the slab holding the address
+     */
+    ByteBuffer slab(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * @return bytes reserved from the operating system so far
+     */
+    long reservedBytes() {
+        synchronized (growLock) {
+            return (long) (slabCount - 1) * slabSize;
+        }
+    }
+
+    private int reserveSlab() {
+        synchronized (growLock) {
+            if (slabCount - 1 >= maxSlabs) {
+                throw new IllegalStateException("Off-heap capacity exhausted");
+            }
+
+            ByteBuffer[] table = slabs;
+            if (slabCount == table.length) {
+                ByteBuffer[] grown = new ByteBuffer[table.length * 2];
+                System.arraycopy(table, 0, grown, 0, slabCount);
+                table = grown;
+            }
+
+            int index = slabCount++;
+            table[index] = ByteBuffer.allocateDirect(slabSize);
+            // Volatile write publishes the new slab to lock-free readers
+            slabs = table;
+            return index;
+        }
+    }
+
+    private SizeClass classFor(int size) {
+        if (size > slabSize) {
+            throw new IllegalArgumentException("Record of " + size + " bytes exceeds slab size " + slabSize);
+        }
+
+        int low = 0;
+        int high = classes.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (classes[mid].chunkSize < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return classes[low];
+    }
+
+    private static SizeClass[] buildSizeClasses(int slabSize) {
+        List<SizeClass> sizes = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size < slabSize) {
+            sizes.add(new SizeClass(size));
+            size = (int) Math.min(slabSize, ((long) (size * GROWTH_FACTOR) + 7) & ~7L);
+        }
+        sizes.add(new SizeClass(slabSize));
+        return sizes.toArray(new SizeClass[0]);
+    }
+
+    /**
+     * Chunks of one size: a bump pointer into the current slab
+     * plus a stack of freed chunks.
+     */
+    private static final class SizeClass {
+        final int chunkSize;
+        int currentSlab;
+        int nextOffset;
+        long[] freeChunks = new long[64];
+        int freeCount;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+}
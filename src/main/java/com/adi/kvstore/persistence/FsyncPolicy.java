@@ -0,0 +1,57 @@
+package com.adi.kvstore.persistence;
+
+/**
+ * When the write-ahead log forces written records to disk.
+ *
+ * - always(): every write waits until its record is on disk. Concurrent
+ *   writers share one fsync (group commit).
+ * - everyMillis(n): at most n ms of acknowledged writes can be lost.
+ * - never(): the operating system decides; a crash of the machine (not
+ *   only of the process) may lose recent writes.
+ */
+public final class FsyncPolicy {
+
+    private static final FsyncPolicy ALWAYS = new FsyncPolicy(0);
+    private static final FsyncPolicy NEVER = new FsyncPolicy(-1);
+
+    private final long intervalMillis; // 0 = always, -1 = never
+
+    private FsyncPolicy(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public static FsyncPolicy always() {
+        return ALWAYS;
+    }
+
+    public static FsyncPolicy everyMillis(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("intervalMillis must be positive");
+        }
+        return new FsyncPolicy(intervalMillis);
+    }
+
+    public static FsyncPolicy never() {
+        return NEVER;
+    }
+
+    boolean isAlways() {
+        return intervalMillis == 0;
+    }
+
+    boolean isNever() {
+        return intervalMillis < 0;
+    }
+
+    long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public String toString() {
+        if (isAlways()) {
+            return "always";
+        }
+        return isNever() ? "never" : "every " + intervalMillis + " ms";
+    }
+}
@@ -0,0 +1,366 @@
+package com.adi.kvstore.persistence;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.time.Clock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Point-in-time snapshots of a storage engine.
+ *
+ * Writing iterates the storage's weakly consistent entrySet(), so
+ * writers are never stopped: a snapshot holds every entry that was
+ * live for the whole dump, plus some of the writes made meanwhile.
+ * Expired entries are skipped. The file is written next to the target
+ * and renamed into place, so a crash never leaves a half snapshot.
+ *
+ * File layout (big-endian):
+ *   [int magic][int version]
+ *   blocks:  [int payloadLength][int recordCount][int crc32c][payload]
+ *   payload: records of [int keyLength][int valueLength][long expiryTime][key][value]
+ *   index:   [long blockOffset] * blockCount
+ *   footer:  [long indexOffset][int blockCount][int magic]
+ *
+ * Blocks are independent and checksummed, so a restore maps each
+ * block (MappedByteBuffer) and parses them on several threads.
+ *
+ * Trade-off:
+ * - Not an atomic cut across keys (use the write-ahead log on top
+ *   for an exact recovery point)
+ * - Restore goes through KeyValueStore.put, so eviction, admission
+ *   and expiration indexes see every restored key
+ */
+public final class Snapshot {
+
+    private static final int MAGIC = 0x4B565331; // "KVS1"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int FOOTER_SIZE = 16;
+    private static final int BLOCK_SIZE = 1024 * 1024;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Dumps the live entries of the storage to the given file.
+     *
+     * @return number of entries written
+     * @throws IllegalStateException if the storage holds a collection
+     *         value (not persisted), leaving any previous file in place
+     */
+    public static long write(ConcurrentStorage storage, ExpirationPolicy expirationPolicy, Clock clock, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long now = clock.now();
+        long entries = 0;
+        List<Long> blockOffsets = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            writeFully(channel, header);
+
+            BlockWriter block = new BlockWriter(channel, blockOffsets);
+            for (Map.Entry<String, Entry> e : storage.entrySet()) {
+                Entry entry = e.getValue();
+                if (expirationPolicy.isExpired(entry, now)) {
+                    continue;
+                }
+                if (entry.isCollection()) {
+                    // Never drop a value silently: the file would restore without it
+                    throw new IllegalStateException("Collection values cannot be snapshotted: " + entry.getKey());
+                }
+                block.add(entry);
+                entries++;
+            }
+            block.finish();
+
+            long indexOffset = channel.position();
+            ByteBuffer index = ByteBuffer.allocate(blockOffsets.size() * 8 + FOOTER_SIZE);
+            for (long offset : blockOffsets) {
+                index.putLong(offset);
+            }
+            index.putLong(indexOffset).putInt(blockOffsets.size()).putInt(MAGIC);
+            index.flip();
+            writeFully(channel, index);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries;
+    }
+
+    /**
+     * Writes a snapshot on a background thread.
+     *
+     * @return future completed with the number of entries written
+     */
+    public static CompletableFuture<Long> writeAsync(ConcurrentStorage storage, ExpirationPolicy expirationPolicy, Clock clock, Path file) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(write(storage, expirationPolicy, clock, file));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "kv-snapshot-writer");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    /**
+     * Loads a snapshot into the store using one thread per processor.
+     *
+     * @return number of entries restored (expired ones are skipped)
+     */
+    public static long restore(Path file, KeyValueStore target, Clock clock) throws IOException {
+        return restore(file, target, clock, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads a snapshot into the store, parsing blocks on the given
+     * number of threads. The target must be thread-safe when threads
+     * is greater than 1.
+     *
+     * @return number of entries restored (expired ones are skipped)
+     * @throws IOException if the file is not a snapshot or a block is corrupt
+     */
+    public static long restore(Path file, KeyValueStore target, Clock clock, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] blockOffsets = readIndex(channel);
+            long now = clock.now();
+            AtomicInteger nextBlock = new AtomicInteger();
+            AtomicLong restored = new AtomicLong();
+
+            Runnable worker = () -> {
+                int block;
+                while ((block = nextBlock.getAndIncrement()) < blockOffsets.length) {
+                    restored.addAndGet(restoreBlock(channel, blockOffsets[block], block, target, now));
+                }
+            };
+
+            int workers = Math.min(threads, Math.max(1, blockOffsets.length));
+            if (workers == 1) {
+                runUnchecked(worker);
+                return restored.get();
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+                Thread thread = new Thread(r, "kv-snapshot-restore");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<?>> futures = new ArrayList<>(workers);
+                for (int i = 0; i < workers; i++) {
+                    futures.add(executor.submit(worker));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Restore interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+                throw new IOException("Restore failed", cause);
+            } finally {
+                executor.shutdownNow();
+            }
+            return restored.get();
+        }
+    }
+
+    private static void runUnchecked(Runnable worker) throws IOException {
+        try {
+            worker.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long[] readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER_SIZE + FOOTER_SIZE) {
+            throw new IOException("Not a snapshot: file too short");
+        }
+
+        ByteBuffer header = readAt(channel, 0, FILE_HEADER_SIZE);
+        ByteBuffer footer = readAt(channel, size - FOOTER_SIZE, FOOTER_SIZE);
+        if (header.getInt() != MAGIC || footer.getInt(12) != MAGIC) {
+            throw new IOException("Not a snapshot: bad magic");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported snapshot version");
+        }
+
+        long indexOffset = footer.getLong(0);
+        int blockCount = footer.getInt(8);
+        if (blockCount < 0 || indexOffset < FILE_HEADER_SIZE || indexOffset + blockCount * 8L != size - FOOTER_SIZE) {
+            throw new IOException("Corrupt snapshot index");
+        }
+
+        ByteBuffer index = readAt(channel, indexOffset, blockCount * 8);
+        long[] offsets = new long[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            offsets[i] = index.getLong();
+        }
+        return offsets;
+    }
+
+    private static long restoreBlock(FileChannel channel, long offset, int blockNumber, KeyValueStore target, long now) {
+        try {
+            ByteBuffer header = readAt(channel, offset, BLOCK_HEADER_SIZE);
+            int payloadLength = header.getInt();
+            int recordCount = header.getInt();
+            int checksum = header.getInt();
+            if (payloadLength < 0 || recordCount < 0 || offset + BLOCK_HEADER_SIZE + payloadLength > channel.size()) {
+                throw new IOException("Corrupt snapshot block " + blockNumber);
+            }
+
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, offset + BLOCK_HEADER_SIZE, payloadLength);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Corrupt snapshot block " + blockNumber);
+            }
+
+            long restored = 0;
+            for (int i = 0; i < recordCount; i++) {
+                int keyLength = payload.getInt();
+                int valueLength = payload.getInt();
+                long expiryTime = payload.getLong();
+                String key = readString(payload, keyLength);
+                String value = readString(payload, valueLength);
+
+                if (expiryTime < 0) {
+                    target.put(key, value);
+                } else if (expiryTime > now) {
+                    target.put(key, value, expiryTime - now);
+                } else {
+                    continue; // expired since the snapshot was taken
+                }
+                restored++;
+            }
+            return restored;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Packs records into checksummed blocks of about BLOCK_SIZE bytes.
+     */
+    private static final class BlockWriter {
+        private final FileChannel channel;
+        private final List<Long> blockOffsets;
+        private ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + BLOCK_SIZE);
+        private int recordCount;
+
+        BlockWriter(FileChannel channel, List<Long> blockOffsets) {
+            this.channel = channel;
+            this.blockOffsets = blockOffsets;
+            buffer.position(BLOCK_HEADER_SIZE);
+        }
+
+        void add(Entry entry) throws IOException {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            int recordSize = RECORD_HEADER_SIZE + key.length + value.length;
+
+            if (recordCount > 0 && buffer.remaining() < recordSize) {
+                finish();
+            }
+            if (buffer.remaining() < recordSize) {
+                // A single record larger than a block gets a block of its own
+                buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + recordSize);
+                buffer.position(BLOCK_HEADER_SIZE);
+            }
+
+            buffer.putInt(key.length).putInt(value.length).putLong(entry.getExpiryTime());
+            buffer.put(key).put(value);
+            recordCount++;
+        }
+
+        void finish() throws IOException {
+            if (recordCount == 0) {
+                return;
+            }
+
+            int payloadLength = buffer.position() - BLOCK_HEADER_SIZE;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.array(), BLOCK_HEADER_SIZE, payloadLength);
+            buffer.putInt(0, payloadLength).putInt(4, recordCount).putInt(8, (int) crc.getValue());
+
+            blockOffsets.add(channel.position());
+            buffer.flip();
+            writeFully(channel, buffer);
+
+            if (buffer.capacity() != BLOCK_HEADER_SIZE + BLOCK_SIZE) {
+                buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + BLOCK_SIZE);
+            }
+            buffer.clear();
+            buffer.position(BLOCK_HEADER_SIZE);
+            recordCount = 0;
+        }
+    }
+}
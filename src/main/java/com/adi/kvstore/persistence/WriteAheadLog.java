@@ -0,0 +1,423 @@
+package com.adi.kvstore.persistence;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.time.Clock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every put, TTL put and removal applied to a store.
+ *
+ * Writers never touch the file: a write enqueues a record on a
+ * lock-free queue and a dedicated writer thread drains the queue,
+ * writes whole batches through a FileChannel and forces them to disk
+ * according to the FsyncPolicy. Everything that queued up during one
+ * fsync is written by the next one (group commit).
+ *
+ * Usage:
+ *   WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.everyMillis(100));
+ *   log.replay(store, clock);         // restore the previous run
+ *   store.addMutationListener(log);   // record from now on
+ *   ...
+ *   log.close();
+ *
+ * Record layout (big-endian):
+ *   [int bodyLength][int crc32c][byte type][long expiryTime][int keyLength][key][value]
+ *
+ * Expiry times are absolute, so a replay drops entries that expired
+ * while the process was down. A torn or corrupt tail (crash during a
+ * write) ends the replay and is truncated.
+ *
+ * Trade-off:
+ * - The log only grows; snapshots are the way to compact it
+ * - With FsyncPolicy.always() a write returns after the fsync, which
+ *   is the price of never losing an acknowledged write
+ */
+public class WriteAheadLog implements MutationListener, Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_BODY_SIZE = 1 + 8 + 4;
+    private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+    private static final int BATCH_BYTES = 256 * 1024;
+    private static final long IDLE_PARK_MILLIS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+
+    private final ConcurrentLinkedQueue<Record> queue = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Record> lastAppended = new ThreadLocal<>();
+    private final Object durabilityMonitor = new Object();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean appended;
+    private volatile IOException failure;
+
+    public WriteAheadLog(Path path, FsyncPolicy fsyncPolicy) throws IOException {
+        if (path == null || fsyncPolicy == null) {
+            throw new IllegalArgumentException("path and fsyncPolicy must not be null");
+        }
+
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+
+        this.writer = new Thread(this::runWriter, "kv-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Re-applies the log to the given store, in write order.
+     * Must run before the log is attached to the store and before the
+     * first append; expired entries are removed instead of restored.
+     *
+     * @return number of records applied
+     */
+    public long replay(KeyValueStore target, Clock clock) throws IOException {
+        if (appended) {
+            throw new IllegalStateException("replay must run before the first append");
+        }
+
+        long position = 0;
+        long records = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            int bodyLength = header.getInt(0);
+            int checksum = header.getInt(4);
+
+            if (bodyLength < FIXED_BODY_SIZE || bodyLength > MAX_BODY_SIZE
+                    || position + HEADER_SIZE + bodyLength > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(body, position + HEADER_SIZE);
+            if (checksum(body) != checksum) {
+                break;
+            }
+
+            if (!apply(body, target, clock)) {
+                break;
+            }
+            position += HEADER_SIZE + bodyLength;
+            records++;
+        }
+
+        if (position < size) {
+            // Drop the torn tail so new records follow the last valid one
+            channel.truncate(position);
+        }
+        channel.position(position);
+        return records;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the record exceeds 64 MB
+     */
+    @Override
+    public void onPut(Entry entry) {
+        append(new Record(PUT, entry.getKey(), entry.getValue(), entry.getExpiryTime()));
+    }
+
+    @Override
+    public void onRemove(String key) {
+        append(new Record(REMOVE, key, "", -1));
+    }
+
+    /**
+     * With FsyncPolicy.always(), waits until the calling thread's last
+     * record is on disk.
+     *
+     * @throws UncheckedIOException if the log can no longer be written
+     */
+    @Override
+    public void onCommit() {
+        if (!fsyncPolicy.isAlways()) {
+            return;
+        }
+
+        Record last = lastAppended.get();
+        if (last == null) {
+            return;
+        }
+        lastAppended.remove();
+
+        boolean interrupted = false;
+        synchronized (durabilityMonitor) {
+            // Timed wait: a writer stopped by close() may never get to this record
+            while (!last.durable && failure == null && writer.isAlive()) {
+                try {
+                    durabilityMonitor.wait(IDLE_PARK_MILLIS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+        if (!last.durable) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return current size of the log file in bytes
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Writes and forces every queued record, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void append(Record record) {
+        checkFailure();
+        if (!running) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+
+        appended = true;
+        queue.offer(record);
+        if (fsyncPolicy.isAlways()) {
+            lastAppended.set(record);
+        }
+        LockSupport.unpark(writer);
+    }
+
+    private void checkFailure() {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("Write-ahead log failed", e);
+        }
+    }
+
+    private void runWriter() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_BYTES);
+        List<Record> batch = new ArrayList<>();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncPolicy.intervalMillis());
+        long nextForce = System.nanoTime() + intervalNanos;
+        boolean dirty = false;
+
+        try {
+            while (running || !queue.isEmpty()) {
+                Record first = queue.poll();
+
+                if (first == null) {
+                    if (dirty && System.nanoTime() - nextForce >= 0) {
+                        channel.force(false);
+                        dirty = false;
+                        nextForce = System.nanoTime() + intervalNanos;
+                    }
+                    long park = dirty ? Math.max(0, nextForce - System.nanoTime()) : IDLE_PARK_NANOS;
+                    LockSupport.parkNanos(this, park);
+                    continue;
+                }
+
+                // Group commit: one write and one fsync for everything queued so far
+                for (Record record = first; record != null; record = queue.poll()) {
+                    buffer = encode(record, buffer);
+                    batch.add(record);
+                }
+                flush(buffer);
+                // never() leaves forcing to the OS: nothing is ever pending
+                dirty = !fsyncPolicy.isNever();
+
+                if (fsyncPolicy.isAlways()) {
+                    channel.force(false);
+                    dirty = false;
+                    markDurable(batch);
+                } else if (!fsyncPolicy.isNever() && System.nanoTime() - nextForce >= 0) {
+                    channel.force(false);
+                    dirty = false;
+                    nextForce = System.nanoTime() + intervalNanos;
+                }
+                batch.clear();
+            }
+
+            if (dirty) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            synchronized (durabilityMonitor) {
+                durabilityMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void markDurable(List<Record> batch) {
+        synchronized (durabilityMonitor) {
+            for (Record record : batch) {
+                record.durable = true;
+            }
+            durabilityMonitor.notifyAll();
+        }
+    }
+
+    private ByteBuffer encode(Record record, ByteBuffer buffer) throws IOException {
+        int bodyLength = record.bodyLength();
+        if (buffer.remaining() < HEADER_SIZE + bodyLength) {
+            flush(buffer);
+            if (buffer.capacity() < HEADER_SIZE + bodyLength) {
+                buffer = ByteBuffer.allocateDirect(HEADER_SIZE + bodyLength);
+            }
+        }
+
+        int start = buffer.position();
+        buffer.putInt(bodyLength);
+        buffer.putInt(0); // checksum, filled in below
+        buffer.put(record.type);
+        buffer.putLong(record.expiryTime);
+        buffer.putInt(record.key.length);
+        buffer.put(record.key);
+        buffer.put(record.value);
+
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + bodyLength);
+        buffer.putInt(start + 4, checksum(body));
+        return buffer;
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static boolean apply(ByteBuffer body, KeyValueStore target, Clock clock) {
+        byte type = body.get();
+        long expiryTime = body.getLong();
+        int keyLength = body.getInt();
+        if (keyLength <= 0 || keyLength > body.remaining()) {
+            return false;
+        }
+
+        byte[] keyBytes = new byte[keyLength];
+        body.get(keyBytes);
+        String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+        if (type == REMOVE) {
+            target.remove(key);
+            return true;
+        }
+        if (type != PUT) {
+            return false;
+        }
+
+        byte[] valueBytes = new byte[body.remaining()];
+        body.get(valueBytes);
+        String value = new String(valueBytes, StandardCharsets.UTF_8);
+
+        if (expiryTime < 0) {
+            target.put(key, value);
+            return true;
+        }
+
+        long remaining = expiryTime - clock.now();
+        if (remaining <= 0) {
+            // Expired while we were down; also hides any older value
+            target.remove(key);
+        } else {
+            target.put(key, value, remaining);
+        }
+        return true;
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A queued write. Strings are encoded by the writing thread so an
+     * oversized record is rejected before the store applies it.
+     */
+    private static final class Record {
+        final byte type;
+        final byte[] key;
+        final byte[] value;
+        final long expiryTime;
+        volatile boolean durable;
+
+        Record(byte type, String key, String value, long expiryTime) {
+            this.type = type;
+            this.key = key.getBytes(StandardCharsets.UTF_8);
+            this.value = value.getBytes(StandardCharsets.UTF_8);
+            this.expiryTime = expiryTime;
+
+            if ((long) FIXED_BODY_SIZE + this.key.length + this.value.length > MAX_BODY_SIZE) {
+                throw new IllegalArgumentException("Record exceeds " + MAX_BODY_SIZE + " bytes");
+            }
+        }
+
+        int bodyLength() {
+            return FIXED_BODY_SIZE + key.length + value.length;
+        }
+    }
+}
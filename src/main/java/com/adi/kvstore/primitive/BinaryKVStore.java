@@ -0,0 +1,281 @@
+package com.adi.kvstore.primitive;
+
+import com.adi.kvstore.api.BinaryKeyValueStore;
+import com.adi.kvstore.core.LinearProbingTable;
+import com.adi.kvstore.time.Clock;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded BinaryKeyValueStore backed by open-addressing tables.
+ *
+ * Keys and values are raw byte arrays, so there is no String (object
+ * header, backing array, cached hash) and no Entry per key. A key is a
+ * slot in parallel arrays: cached hash, key array, value array, expiry
+ * time and reference bit. The only per-entry objects are the two
+ * arrays the caller handed in.
+ *
+ * Segmentation, CLOCK eviction and lazy expiration work exactly like
+ * LongKVStore.
+ *
+ * Trade-off:
+ * - Arrays are stored as given; callers must not mutate them afterwards
+ * - The cached hash costs 4 bytes per slot but keeps probing and
+ *   resizing from rehashing the keys
+ */
+public class BinaryKVStore implements BinaryKeyValueStore {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    private final Clock clock;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public BinaryKVStore(int maxEntries, Clock clock) {
+        this(maxEntries, DEFAULT_SEGMENTS, clock);
+    }
+
+    public BinaryKVStore(int maxEntries, int segmentCount, Clock clock) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a positive power of two");
+        }
+        if (maxEntries < segmentCount) {
+            throw new IllegalArgumentException("maxEntries must be at least segmentCount");
+        }
+
+        this.clock = clock;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxEntries / segmentCount);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        putInternal(key, value, -1);
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value, long ttlMillis) {
+        long expiryTime = (ttlMillis <= 0)
+                ? clock.now()
+                : clock.now() + ttlMillis;
+        putInternal(key, value, expiryTime);
+    }
+
+    private void putInternal(byte[] key, byte[] value, long expiryTime) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value must not be null");
+        }
+
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            segment.put(key, hash, value, expiryTime, clock.now());
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        if (key == null) {
+            return null;
+        }
+
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(key, hash);
+            if (slot < 0 || isExpired(segment.expiryTimes[slot], clock.now())) {
+                return null;
+            }
+            // Racy but benign: every reader writes the same value
+            segment.referenced[slot] = 1;
+            return segment.values[slot];
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(byte[] key) {
+        if (key == null) {
+            return false;
+        }
+
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            boolean live = !isExpired(segment.expiryTimes[slot], clock.now());
+            segment.delete(slot);
+            return live;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                total += segment.size();
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return total;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 24) & segmentMask];
+    }
+
+    private static boolean isExpired(long expiryTime, long now) {
+        return expiryTime >= 0 && now >= expiryTime;
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+
+    /**
+     * Linear-probing table with CLOCK eviction. An empty slot has a
+     * null key. All access is guarded by the segment's lock.
+     */
+    private static final class Segment extends LinearProbingTable {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final int maxEntries;
+
+        int[] hashes = new int[INITIAL_TABLE_SIZE];
+        byte[][] keys = new byte[INITIAL_TABLE_SIZE][];
+        byte[][] values = new byte[INITIAL_TABLE_SIZE][];
+        long[] expiryTimes = new long[INITIAL_TABLE_SIZE];
+        byte[] referenced = new byte[INITIAL_TABLE_SIZE];
+        int hand;
+
+        Segment(int maxEntries) {
+            super(INITIAL_TABLE_SIZE);
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * @return slot holding the key, or -1 if absent
+         */
+        int find(byte[] key, int hash) {
+            for (int slot = firstSlot(hash); !isEmpty(slot); slot = nextSlot(slot)) {
+                if (hashes[slot] == hash && Arrays.equals(keys[slot], key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void put(byte[] key, int hash, byte[] value, long expiryTime, long now) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                values[slot] = value;
+                expiryTimes[slot] = expiryTime;
+                referenced[slot] = 1;
+                return;
+            }
+
+            if (size >= maxEntries) {
+                evictOne(now);
+            }
+            ensureCapacityForOneMore(1, 2);
+
+            slot = freeSlot(hash);
+            hashes[slot] = hash;
+            keys[slot] = key;
+            values[slot] = value;
+            expiryTimes[slot] = expiryTime;
+            referenced[slot] = 0;
+            size++;
+        }
+
+        // CLOCK sweep; terminates within two turns of the hand
+        private void evictOne(long now) {
+            int mask = capacity() - 1;
+            while (true) {
+                hand &= mask;
+                if (isEmpty(hand)) {
+                    hand++;
+                } else if (isExpired(expiryTimes[hand], now) || referenced[hand] == 0) {
+                    // delete() shifts a later entry into this slot; look at it next
+                    delete(hand);
+                    return;
+                } else {
+                    referenced[hand] = 0;
+                    hand++;
+                }
+            }
+        }
+
+        @Override
+        protected boolean isEmpty(int slot) {
+            return keys[slot] == null;
+        }
+
+        @Override
+        protected int hashAt(int slot) {
+            return hashes[slot];
+        }
+
+        @Override
+        protected void moveSlot(int from, int to) {
+            hashes[to] = hashes[from];
+            keys[to] = keys[from];
+            values[to] = values[from];
+            expiryTimes[to] = expiryTimes[from];
+            referenced[to] = referenced[from];
+        }
+
+        @Override
+        protected void clearSlot(int slot) {
+            keys[slot] = null;
+            values[slot] = null;
+        }
+
+        @Override
+        protected void rehash(int newCapacity) {
+            int[] oldHashes = hashes;
+            byte[][] oldKeys = keys;
+            byte[][] oldValues = values;
+            long[] oldExpiryTimes = expiryTimes;
+            byte[] oldReferenced = referenced;
+
+            hashes = new int[newCapacity];
+            keys = new byte[newCapacity][];
+            values = new byte[newCapacity][];
+            expiryTimes = new long[newCapacity];
+            referenced = new byte[newCapacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = freeSlot(oldHashes[i]);
+                    hashes[slot] = oldHashes[i];
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    expiryTimes[slot] = oldExpiryTimes[i];
+                    referenced[slot] = oldReferenced[i];
+                }
+            }
+            hand = 0;
+        }
+    }
+}
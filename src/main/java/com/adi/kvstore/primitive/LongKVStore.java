@@ -0,0 +1,273 @@
+package com.adi.kvstore.primitive;
+
+import com.adi.kvstore.api.LongKeyValueStore;
+import com.adi.kvstore.core.LinearProbingTable;
+import com.adi.kvstore.time.Clock;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded LongKeyValueStore backed by primitive open-addressing tables.
+ *
+ * Per entry there is no Entry, no boxed Long and no map node: a key is
+ * a slot in parallel arrays (long key, value reference, long expiry
+ * time, reference bit). The only per-entry object is the value array.
+ *
+ * Keys are spread over independent segments, each guarded by its own
+ * read-write lock. Each segment holds at most maxEntries / segments
+ * entries and evicts with the CLOCK algorithm (second chance):
+ * - A read sets the slot's reference bit
+ * - On overflow the clock hand sweeps the slots: expired entries go
+ *   first, referenced entries get their bit cleared and are skipped,
+ *   the first unreferenced entry is evicted
+ *
+ * Expiration is lazy: an expired entry is never returned, and it is
+ * reclaimed when overwritten, removed or reached by the clock hand.
+ *
+ * Trade-off:
+ * - CLOCK approximates LRU with one bit per entry and no list
+ * - Eviction is per segment, not global
+ */
+public class LongKVStore implements LongKeyValueStore {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    private final Clock clock;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public LongKVStore(int maxEntries, Clock clock) {
+        this(maxEntries, DEFAULT_SEGMENTS, clock);
+    }
+
+    public LongKVStore(int maxEntries, int segmentCount, Clock clock) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a positive power of two");
+        }
+        if (maxEntries < segmentCount) {
+            throw new IllegalArgumentException("maxEntries must be at least segmentCount");
+        }
+
+        this.clock = clock;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxEntries / segmentCount);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public void put(long key, byte[] value) {
+        putInternal(key, value, -1);
+    }
+
+    @Override
+    public void put(long key, byte[] value, long ttlMillis) {
+        long expiryTime = (ttlMillis <= 0)
+                ? clock.now()
+                : clock.now() + ttlMillis;
+        putInternal(key, value, expiryTime);
+    }
+
+    private void putInternal(long key, byte[] value, long expiryTime) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            segment.put(key, hash, value, expiryTime, clock.now());
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public byte[] get(long key) {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(key, hash);
+            if (slot < 0 || isExpired(segment.expiryTimes[slot], clock.now())) {
+                return null;
+            }
+            // Racy but benign: every reader writes the same value
+            segment.referenced[slot] = 1;
+            return segment.values[slot];
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(long key) {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            boolean live = !isExpired(segment.expiryTimes[slot], clock.now());
+            segment.delete(slot);
+            return live;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                total += segment.size();
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return total;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 24) & segmentMask];
+    }
+
+    private static boolean isExpired(long expiryTime, long now) {
+        return expiryTime >= 0 && now >= expiryTime;
+    }
+
+    // Murmur3 finalizer: sequential ids must not cluster
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Linear-probing table with CLOCK eviction. An empty slot has a
+     * null value. All access is guarded by the segment's lock.
+     */
+    private static final class Segment extends LinearProbingTable {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final int maxEntries;
+
+        long[] keys = new long[INITIAL_TABLE_SIZE];
+        byte[][] values = new byte[INITIAL_TABLE_SIZE][];
+        long[] expiryTimes = new long[INITIAL_TABLE_SIZE];
+        byte[] referenced = new byte[INITIAL_TABLE_SIZE];
+        int hand;
+
+        Segment(int maxEntries) {
+            super(INITIAL_TABLE_SIZE);
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * @return slot holding the key, or -1 if absent
+         */
+        int find(long key, int hash) {
+            for (int slot = firstSlot(hash); !isEmpty(slot); slot = nextSlot(slot)) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int hash, byte[] value, long expiryTime, long now) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                values[slot] = value;
+                expiryTimes[slot] = expiryTime;
+                referenced[slot] = 1;
+                return;
+            }
+
+            if (size >= maxEntries) {
+                evictOne(now);
+            }
+            ensureCapacityForOneMore(1, 2);
+
+            slot = freeSlot(hash);
+            keys[slot] = key;
+            values[slot] = value;
+            expiryTimes[slot] = expiryTime;
+            referenced[slot] = 0;
+            size++;
+        }
+
+        // CLOCK sweep; terminates within two turns of the hand
+        private void evictOne(long now) {
+            int mask = capacity() - 1;
+            while (true) {
+                hand &= mask;
+                if (isEmpty(hand)) {
+                    hand++;
+                } else if (isExpired(expiryTimes[hand], now) || referenced[hand] == 0) {
+                    // delete() shifts a later entry into this slot; look at it next
+                    delete(hand);
+                    return;
+                } else {
+                    referenced[hand] = 0;
+                    hand++;
+                }
+            }
+        }
+
+        @Override
+        protected boolean isEmpty(int slot) {
+            return values[slot] == null;
+        }
+
+        @Override
+        protected int hashAt(int slot) {
+            return hash(keys[slot]);
+        }
+
+        @Override
+        protected void moveSlot(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            expiryTimes[to] = expiryTimes[from];
+            referenced[to] = referenced[from];
+        }
+
+        @Override
+        protected void clearSlot(int slot) {
+            values[slot] = null;
+        }
+
+        @Override
+        protected void rehash(int newCapacity) {
+            long[] oldKeys = keys;
+            byte[][] oldValues = values;
+            long[] oldExpiryTimes = expiryTimes;
+            byte[] oldReferenced = referenced;
+
+            keys = new long[newCapacity];
+            values = new byte[newCapacity][];
+            expiryTimes = new long[newCapacity];
+            referenced = new byte[newCapacity];
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = freeSlot(hash(oldKeys[i]));
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    expiryTimes[slot] = oldExpiryTimes[i];
+                    referenced[slot] = oldReferenced[i];
+                }
+            }
+            hand = 0;
+        }
+    }
+}
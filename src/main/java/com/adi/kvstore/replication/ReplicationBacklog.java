@@ -0,0 +1,70 @@
+package com.adi.kvstore.replication;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring of the most recent replication records.
+ *
+ * Writers claim the next sequence number and publish their record in
+ * its slot; senders read slots in sequence order. A slot overwritten
+ * before a sender read it means that replica fell more than the
+ * backlog size behind and needs a full sync.
+ */
+final class ReplicationBacklog {
+
+    private final AtomicReferenceArray<ReplicationProtocol.Record> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+
+    ReplicationBacklog(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("backlog capacity must be a positive power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Assigns the next sequence number (starting at 1) and publishes the record.
+     */
+    long append(byte type, String key, String value, long expiryTime) {
+        long seq = head.incrementAndGet();
+        slots.set((int) (seq & mask), new ReplicationProtocol.Record(type, seq, key, value, expiryTime));
+        return seq;
+    }
+
+    /**
+     * @return the last sequence number handed out (0 if none)
+     */
+    long head() {
+        return head.get();
+    }
+
+    /**
+     * Copies published records from fromSeq on, in order, stopping at
+     * the first one not yet published or after max records.
+     *
+     * @return false if fromSeq is no longer in the backlog
+     */
+    boolean read(long fromSeq, int max, List<ReplicationProtocol.Record> out) {
+        long last = head.get();
+        if (last - fromSeq >= mask + 1) {
+            return false;
+        }
+
+        for (long seq = fromSeq; seq <= last && out.size() < max; seq++) {
+            ReplicationProtocol.Record record = slots.get((int) (seq & mask));
+            if (record == null || record.seq < seq) {
+                // Claimed but not published yet
+                break;
+            }
+            if (record.seq > seq) {
+                return false;
+            }
+            out.add(record);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package com.adi.kvstore.replication;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.time.Clock;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Primary side of asynchronous primary-replica replication.
+ *
+ * Registered as a MutationListener, it numbers every put, removal and
+ * eviction of the store (inside the key's atomic section, so per-key
+ * order is kept) and publishes it to a lock-free ReplicationBacklog.
+ * Writers never wait for replicas.
+ *
+ * Each connected replica gets a sender thread that:
+ * - Resumes from the replica's last applied sequence number if it is
+ *   still in the backlog and the replication id matches
+ * - Otherwise sends a full sync: the live entries of the storage,
+ *   then every record from the committed low-watermark on (the lowest
+ *   sequence number whose write may not be visible in the storage yet)
+ * - Streams records in batches (one frame per wake-up, at most
+ *   MAX_BATCH_RECORDS), Deflate-compressed when large enough
+ * - Sends a heartbeat when idle, so replicas can measure their lag
+ * - Falls back to a full sync if the replica falls more than the
+ *   backlog size behind
+ *
+ * Usage:
+ *   ReplicationPrimary primary = new ReplicationPrimary(storage, policy, clock, 7400, 1 << 16);
+ *   store.addMutationListener(primary);
+ *   primary.start();
+ *
+ * Trade-off:
+ * - Asynchronous: an acknowledged write may be lost on failover
+ * - Expiry times are absolute, so clocks of the nodes must agree
+ * - Collection values are not replicated: a store with listeners
+ *   rejects their writes, and start() refuses a storage holding one
+ */
+public class ReplicationPrimary implements MutationListener, Closeable {
+
+    static final int MAX_BATCH_RECORDS = 4096;
+    private static final long HEARTBEAT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ConcurrentStorage storage;
+    private final ExpirationPolicy expirationPolicy;
+    private final Clock clock;
+    private final InetSocketAddress address;
+    private final ReplicationBacklog backlog;
+    private final long replicationId = ThreadLocalRandom.current().nextLong();
+
+    private final List<ReplicaConnection> replicas = new CopyOnWriteArrayList<>();
+    // Operations of writer threads that published records not committed yet
+    private final Set<PendingWrite> pendingWrites = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<PendingWrite> currentWrite = new ThreadLocal<>();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running;
+    private Thread acceptor;
+
+    /**
+     * @param storage     storage of the replicated store, read for full syncs
+     * @param backlogSize records kept for replicas that reconnect, a power of two
+     */
+    public ReplicationPrimary(ConcurrentStorage storage, ExpirationPolicy expirationPolicy, Clock clock, int port, int backlogSize) {
+        this(storage, expirationPolicy, clock, new InetSocketAddress(port), backlogSize);
+    }
+
+    public ReplicationPrimary(ConcurrentStorage storage, ExpirationPolicy expirationPolicy, Clock clock,
+                              InetSocketAddress address, int backlogSize) {
+        if (storage == null || expirationPolicy == null || clock == null || address == null) {
+            throw new IllegalArgumentException("storage, expirationPolicy, clock and address must not be null");
+        }
+        this.storage = storage;
+        this.expirationPolicy = expirationPolicy;
+        this.clock = clock;
+        this.address = address;
+        this.backlog = new ReplicationBacklog(backlogSize);
+    }
+
+    /**
+     * Binds the port and starts accepting replicas.
+     *
+     * @throws IllegalStateException if the storage holds a collection
+     *         value, which replicas would never receive
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("Primary already started");
+        }
+        for (Map.Entry<String, Entry> e : storage.entrySet()) {
+            requireString(e.getValue());
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        running = true;
+
+        acceptor = new Thread(this::acceptLoop, "kv-repl-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the bound port (useful when started on port 0)
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void onPut(Entry entry) {
+        publish(ReplicationProtocol.PUT, entry.getKey(), entry.getValue(), entry.getExpiryTime());
+    }
+
+    @Override
+    public void onRemove(String key) {
+        publish(ReplicationProtocol.REMOVE, key, "", -1);
+    }
+
+    /**
+     * Replicas drop what the primary evicts, so they never serve a key
+     * the primary no longer has.
+     */
+    @Override
+    public void onEvict(Entry entry) {
+        publish(ReplicationProtocol.REMOVE, entry.getKey(), "", -1);
+    }
+
+    /**
+     * The operation's records are in the storage now (its atomic
+     * section returned): full syncs may stop streaming them again.
+     */
+    @Override
+    public void onCommit() {
+        PendingWrite write = currentWrite.get();
+        if (write != null) {
+            currentWrite.remove();
+            pendingWrites.remove(write);
+        }
+    }
+
+    /**
+     * @return sequence number of the last replicated write (0 if none)
+     */
+    public long headSequence() {
+        return backlog.head();
+    }
+
+    public long replicationId() {
+        return replicationId;
+    }
+
+    /**
+     * @return one status line per connected replica
+     */
+    public List<ReplicaStatus> replicaStatus() {
+        long head = backlog.head();
+        List<ReplicaStatus> status = new ArrayList<>();
+        for (ReplicaConnection replica : replicas) {
+            status.add(new ReplicaStatus(replica.remote, replica.sentSeq, head - replica.sentSeq,
+                    replica.fullSyncs, replica.writer.bytesSent, replica.writer.rawBytes));
+        }
+        return status;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        serverSocket.close();
+        for (ReplicaConnection replica : replicas) {
+            replica.close();
+        }
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A replica must never miss a key it was told nothing about
+    private static void requireString(Entry entry) {
+        if (entry.isCollection()) {
+            throw new IllegalStateException("Collection values cannot be replicated: " + entry.getKey());
+        }
+    }
+
+    private void publish(byte type, String key, String value, long expiryTime) {
+        if (currentWrite.get() == null) {
+            // Registered before the sequence number is claimed, with a bound
+            // below it, so committedLowWatermark() never misses this write
+            PendingWrite write = new PendingWrite(backlog.head() + 1);
+            pendingWrites.add(write);
+            currentWrite.set(write);
+        }
+        backlog.append(type, key, value, expiryTime);
+        for (ReplicaConnection replica : replicas) {
+            replica.wakeUp();
+        }
+    }
+
+    /**
+     * @return the lowest sequence number whose write may not be visible
+     *         in the storage yet; every record before it is
+     */
+    private long committedLowWatermark() {
+        // Head first: a write claiming a sequence up to it registered before
+        long low = backlog.head() + 1;
+        for (PendingWrite write : pendingWrites) {
+            low = Math.min(low, write.fromSeq);
+        }
+        return low;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ReplicaConnection replica = new ReplicaConnection(socket);
+                replicas.add(replica);
+                replica.start();
+            } catch (IOException e) {
+                if (running) {
+                    // Keep accepting; a failed handshake only loses that replica
+                    continue;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * One store operation in flight; its records start at fromSeq or later.
+     */
+    private static final class PendingWrite {
+        final long fromSeq;
+
+        PendingWrite(long fromSeq) {
+            this.fromSeq = fromSeq;
+        }
+    }
+
+    /**
+     * Status of one replica as seen by the primary.
+     */
+    public static final class ReplicaStatus {
+        private final String address;
+        private final long sentSequence;
+        private final long lagRecords;
+        private final long fullSyncs;
+        private final long bytesSent;
+        private final long uncompressedBytes;
+
+        ReplicaStatus(String address, long sentSequence, long lagRecords, long fullSyncs, long bytesSent, long uncompressedBytes) {
+            this.address = address;
+            this.sentSequence = sentSequence;
+            this.lagRecords = lagRecords;
+            this.fullSyncs = fullSyncs;
+            this.bytesSent = bytesSent;
+            this.uncompressedBytes = uncompressedBytes;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        /**
+         * @return last sequence number sent to the replica
+         */
+        public long getSentSequence() {
+            return sentSequence;
+        }
+
+        /**
+         * @return records written on the primary but not sent yet
+         */
+        public long getLagRecords() {
+            return lagRecords;
+        }
+
+        public long getFullSyncs() {
+            return fullSyncs;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /**
+         * @return bytes the frames would have taken without compression
+         */
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("replica=%s sent=%d lag=%d fullSyncs=%d bytes=%d (uncompressed %d)",
+                    address, sentSequence, lagRecords, fullSyncs, bytesSent, uncompressedBytes);
+        }
+    }
+
+    /**
+     * One replica: handshake, then a sender thread streaming the backlog.
+     */
+    private final class ReplicaConnection {
+        private final Socket socket;
+        private final String remote;
+        private final ReplicationProtocol.FrameWriter writer;
+        private final DataInputStream in;
+        private final Thread sender;
+
+        private volatile long sentSeq;
+        private volatile long fullSyncs;
+
+        ReplicaConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.remote = socket.getRemoteSocketAddress().toString();
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.writer = new ReplicationProtocol.FrameWriter(
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024)));
+            this.sender = new Thread(this::run, "kv-repl-sender-" + remote);
+            this.sender.setDaemon(true);
+        }
+
+        void start() {
+            sender.start();
+        }
+
+        void wakeUp() {
+            LockSupport.unpark(sender);
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+
+        private void run() {
+            try {
+                if (in.readInt() != ReplicationProtocol.MAGIC) {
+                    return;
+                }
+                long knownId = in.readLong();
+                long lastApplied = in.readLong();
+                writer.writeHandshakeReply(replicationId);
+
+                long next = lastApplied + 1;
+                if (knownId != replicationId || !canResumeFrom(next)) {
+                    next = fullSync();
+                }
+                stream(next);
+            } catch (SocketException e) {
+                // Replica went away or primary closed
+            } catch (IOException e) {
+                // Same: the replica reconnects and resumes
+            } finally {
+                replicas.remove(this);
+                writer.close();
+                close();
+            }
+        }
+
+        private boolean canResumeFrom(long next) {
+            return next <= backlog.head() + 1 && backlog.read(next, 0, new ArrayList<>());
+        }
+
+        private void stream(long next) throws IOException {
+            List<ReplicationProtocol.Record> batch = new ArrayList<>();
+            long lastSend = System.nanoTime();
+
+            while (running) {
+                batch.clear();
+                if (!backlog.read(next, MAX_BATCH_RECORDS, batch)) {
+                    // Fell behind the backlog
+                    next = fullSync();
+                    continue;
+                }
+
+                if (!batch.isEmpty()) {
+                    next += batch.size();
+                    sentSeq = next - 1;
+                    writer.write(ReplicationProtocol.BATCH, backlog.head(), clock.now(), batch);
+                    lastSend = System.nanoTime();
+                    continue;
+                }
+
+                if (System.nanoTime() - lastSend >= HEARTBEAT_NANOS) {
+                    writer.write(ReplicationProtocol.HEARTBEAT, backlog.head(), clock.now(), batch);
+                    lastSend = System.nanoTime();
+                }
+                LockSupport.parkNanos(this, HEARTBEAT_NANOS);
+            }
+        }
+
+        /**
+         * Sends every live entry, tagged with the sequence number just
+         * before the committed low-watermark. Every record before the
+         * watermark is visible to the iteration; the stream that
+         * follows resends the rest in order (writes racing with the
+         * iteration included), so the replica converges.
+         *
+         * @return the first sequence number to stream after the sync
+         */
+        private long fullSync() throws IOException {
+            while (true) {
+                long resume = committedLowWatermark();
+                long start = resume - 1;
+                long now = clock.now();
+                fullSyncs++;
+                writer.write(ReplicationProtocol.FULL_SYNC_BEGIN, start, now, List.of());
+
+                List<ReplicationProtocol.Record> batch = new ArrayList<>();
+                for (Map.Entry<String, Entry> e : storage.entrySet()) {
+                    Entry entry = e.getValue();
+                    if (expirationPolicy.isExpired(entry, now)) {
+                        continue;
+                    }
+                    requireString(entry);
+                    batch.add(new ReplicationProtocol.Record(ReplicationProtocol.PUT, start,
+                            entry.getKey(), entry.getValue(), entry.getExpiryTime()));
+                    if (batch.size() == MAX_BATCH_RECORDS) {
+                        writer.write(ReplicationProtocol.FULL_SYNC_BATCH, start, clock.now(), batch);
+                        batch.clear();
+                    }
+                }
+                writer.write(ReplicationProtocol.FULL_SYNC_BATCH, start, clock.now(), batch);
+                writer.write(ReplicationProtocol.FULL_SYNC_END, start, clock.now(), List.of());
+                sentSeq = start;
+
+                // The backlog must still hold everything from the watermark on
+                if (canResumeFrom(resume)) {
+                    return resume;
+                }
+                // A write stalled that far behind, or the sync was too slow: retry
+                LockSupport.parkNanos(this, HEARTBEAT_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.adi.kvstore.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Wire format shared by ReplicationPrimary and ReplicationReplica.
+ *
+ * Handshake (replica to primary, then primary to replica):
+ *   [int magic][long replicationId][long lastAppliedSeq]
+ *   [int magic][long replicationId]
+ *
+ * Frames (primary to replica), big-endian:
+ *   [byte kind][long headSeq][long sentAt][int recordCount]
+ *   [byte compressed][int rawLength][int payloadLength][payload]
+ *
+ * Record (inside a payload):
+ *   [byte type][long seq][long expiryTime][int keyLength][key][int valueLength][value]
+ *
+ * Payloads of COMPRESSION_THRESHOLD bytes or more are Deflate-compressed
+ * when that makes them smaller.
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x4B565250; // "KVRP"
+
+    // Frame kinds
+    static final byte BATCH = 1;
+    static final byte FULL_SYNC_BEGIN = 2;
+    static final byte FULL_SYNC_BATCH = 3;
+    static final byte FULL_SYNC_END = 4;
+    static final byte HEARTBEAT = 5;
+
+    // Record types
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+
+    static final int COMPRESSION_THRESHOLD = 512;
+    static final int MAX_PAYLOAD = 64 * 1024 * 1024;
+    private static final int RECORD_FIXED_SIZE = 1 + 8 + 8 + 4 + 4;
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * One replicated write. Expiry times are absolute, so a put with a
+     * TTL also carries expire operations; replicas derive expirations.
+     */
+    static final class Record {
+        final byte type;
+        final long seq;
+        final String key;
+        final String value;
+        final long expiryTime;
+
+        Record(byte type, long seq, String key, String value, long expiryTime) {
+            this.type = type;
+            this.seq = seq;
+            this.key = key;
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    /**
+     * Encodes and sends frames for one connection; not thread-safe.
+     */
+    static final class FrameWriter {
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private ByteBuffer raw = ByteBuffer.allocate(64 * 1024);
+        private byte[] compressed = new byte[64 * 1024];
+
+        long bytesSent;
+        long rawBytes;
+
+        FrameWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeHandshakeReply(long replicationId) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeLong(replicationId);
+            out.flush();
+        }
+
+        void write(byte kind, long headSeq, long sentAt, List<Record> records) throws IOException {
+            raw.clear();
+            for (Record record : records) {
+                encode(record);
+            }
+            int rawLength = raw.position();
+
+            boolean compress = false;
+            int payloadLength = rawLength;
+            if (rawLength >= COMPRESSION_THRESHOLD) {
+                payloadLength = deflate(rawLength);
+                compress = payloadLength < rawLength;
+            }
+            if (!compress) {
+                payloadLength = rawLength;
+            }
+
+            out.writeByte(kind);
+            out.writeLong(headSeq);
+            out.writeLong(sentAt);
+            out.writeInt(records.size());
+            out.writeBoolean(compress);
+            out.writeInt(rawLength);
+            out.writeInt(payloadLength);
+            out.write(compress ? compressed : raw.array(), 0, payloadLength);
+            out.flush();
+
+            bytesSent += 30 + payloadLength;
+            rawBytes += 30 + rawLength;
+        }
+
+        void close() {
+            deflater.end();
+        }
+
+        private void encode(Record record) {
+            byte[] key = record.key.getBytes(StandardCharsets.UTF_8);
+            byte[] value = record.value.getBytes(StandardCharsets.UTF_8);
+            ensure(RECORD_FIXED_SIZE + key.length + value.length);
+
+            raw.put(record.type);
+            raw.putLong(record.seq);
+            raw.putLong(record.expiryTime);
+            raw.putInt(key.length);
+            raw.put(key);
+            raw.putInt(value.length);
+            raw.put(value);
+        }
+
+        private int deflate(int rawLength) {
+            deflater.reset();
+            deflater.setInput(raw.array(), 0, rawLength);
+            deflater.finish();
+
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    if (length >= rawLength) {
+                        // Not worth it
+                        return Integer.MAX_VALUE;
+                    }
+                    byte[] grown = new byte[compressed.length * 2];
+                    System.arraycopy(compressed, 0, grown, 0, length);
+                    compressed = grown;
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            return length;
+        }
+
+        private void ensure(int bytes) {
+            if (raw.remaining() < bytes) {
+                if ((long) raw.position() + bytes > MAX_PAYLOAD) {
+                    throw new IllegalArgumentException("Replication batch exceeds " + MAX_PAYLOAD + " bytes");
+                }
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(raw.capacity() * 2, raw.position() + bytes));
+                raw.flip();
+                grown.put(raw);
+                raw = grown;
+            }
+        }
+    }
+
+    /**
+     * A frame as received by a replica.
+     */
+    static final class Frame {
+        byte kind;
+        long headSeq;
+        long sentAt;
+        int recordCount;
+        int wireBytes;
+        ByteBuffer payload;
+    }
+
+    /**
+     * Reads and decompresses frames for one connection; not thread-safe.
+     */
+    static final class FrameReader {
+        private final DataInputStream in;
+        private final Inflater inflater = new Inflater();
+        private byte[] wire = new byte[64 * 1024];
+        private byte[] raw = new byte[64 * 1024];
+
+        FrameReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        Frame read(Frame frame) throws IOException {
+            frame.kind = in.readByte();
+            frame.headSeq = in.readLong();
+            frame.sentAt = in.readLong();
+            frame.recordCount = in.readInt();
+            boolean compressed = in.readBoolean();
+            int rawLength = in.readInt();
+            int payloadLength = in.readInt();
+            if (rawLength < 0 || rawLength > MAX_PAYLOAD || payloadLength < 0 || payloadLength > rawLength) {
+                throw new IOException("Corrupt replication frame");
+            }
+
+            if (wire.length < payloadLength) {
+                wire = new byte[payloadLength];
+            }
+            in.readFully(wire, 0, payloadLength);
+            frame.wireBytes = 30 + payloadLength;
+
+            if (!compressed) {
+                frame.payload = ByteBuffer.wrap(wire, 0, payloadLength);
+                return frame;
+            }
+
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            inflater.reset();
+            inflater.setInput(wire, 0, payloadLength);
+            try {
+                int length = 0;
+                while (length < rawLength && !inflater.finished()) {
+                    int n = inflater.inflate(raw, length, rawLength - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += n;
+                }
+                if (length != rawLength) {
+                    throw new IOException("Corrupt compressed replication frame");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt compressed replication frame", e);
+            }
+            frame.payload = ByteBuffer.wrap(raw, 0, rawLength);
+            return frame;
+        }
+
+        void close() {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Decodes the next record of a payload.
+     */
+    static Record decode(ByteBuffer payload) throws IOException {
+        if (payload.remaining() < RECORD_FIXED_SIZE) {
+            throw new IOException("Truncated replication record");
+        }
+        byte type = payload.get();
+        long seq = payload.getLong();
+        long expiryTime = payload.getLong();
+        String key = readString(payload);
+        String value = readString(payload);
+        if (type != PUT && type != REMOVE) {
+            throw new IOException("Unknown replication record type " + type);
+        }
+        return new Record(type, seq, key, value, expiryTime);
+    }
+
+    private static String readString(ByteBuffer payload) throws IOException {
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining()) {
+            throw new IOException("Truncated replication record");
+        }
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+}
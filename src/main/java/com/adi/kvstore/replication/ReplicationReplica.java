@@ -0,0 +1,314 @@
+package com.adi.kvstore.replication;
+
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.concurrency.ConcurrentStorage;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.time.Clock;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replica side of asynchronous primary-replica replication.
+ *
+ * A background thread connects to the primary and applies its stream
+ * to a local store, which then serves reads. On disconnect it
+ * reconnects with backoff and resumes from the last applied sequence
+ * number; the primary decides whether the backlog still covers the gap
+ * or a full sync is needed.
+ *
+ * During a full sync the keys received are collected, and local keys
+ * the primary no longer has are removed at the end of the sync.
+ *
+ * The local store should only be written by the replica: local writes
+ * are overwritten or lost on the next full sync.
+ *
+ * Usage:
+ *   ReplicationReplica replica = new ReplicationReplica(store, storage, clock, "primary", 7400);
+ *   replica.start();
+ *   store.get("k");    // eventually consistent read
+ */
+public class ReplicationReplica implements Closeable {
+
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private final KeyValueStore target;
+    private final ConcurrentStorage targetStorage;
+    private final Clock clock;
+    private final InetSocketAddress primary;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Socket socket;
+    private Thread worker;
+
+    // Written by the worker thread only
+    private volatile long replicationId;
+    private volatile long appliedSeq;
+    private volatile long primaryHeadSeq;
+    private volatile long behindSince = -1;
+    private volatile long lagMillis;
+    private volatile long recordsApplied;
+    private volatile long bytesReceived;
+    private volatile long fullSyncs;
+
+    /**
+     * @param target        store the stream is applied to (and reads are served from)
+     * @param targetStorage storage behind target, used to find stale keys after a full sync
+     */
+    public ReplicationReplica(KeyValueStore target, ConcurrentStorage targetStorage, Clock clock, String host, int port) {
+        if (target == null || targetStorage == null || clock == null || host == null) {
+            throw new IllegalArgumentException("target, targetStorage, clock and host must not be null");
+        }
+        this.target = target;
+        this.targetStorage = targetStorage;
+        this.clock = clock;
+        this.primary = new InetSocketAddress(host, port);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Replica already started");
+        }
+        running = true;
+        worker = new Thread(this::run, "kv-repl-replica");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return sequence number of the last write applied locally
+     */
+    public long lastAppliedSequence() {
+        return appliedSeq;
+    }
+
+    /**
+     * @return writes the primary had made when it sent the last frame,
+     *         but which are not applied here yet
+     */
+    public long lagRecords() {
+        return Math.max(0, primaryHeadSeq - appliedSeq);
+    }
+
+    /**
+     * @return age of the oldest pending write seen from the primary,
+     *         as of the last frame (0 when caught up)
+     */
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    public long recordsApplied() {
+        return recordsApplied;
+    }
+
+    /**
+     * @return bytes received on the wire, after compression
+     */
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    public long fullSyncs() {
+        return fullSyncs;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeSocket();
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                session();
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (IOException e) {
+                // Retry below
+            } finally {
+                connected = false;
+                closeSocket();
+            }
+
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
+    }
+
+    private void session() throws IOException {
+        Socket s = new Socket();
+        socket = s;
+        s.connect(primary, (int) MAX_BACKOFF_MILLIS);
+        s.setTcpNoDelay(true);
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 64 * 1024));
+        out.writeInt(ReplicationProtocol.MAGIC);
+        out.writeLong(replicationId);
+        out.writeLong(appliedSeq);
+        out.flush();
+
+        if (in.readInt() != ReplicationProtocol.MAGIC) {
+            throw new IOException("Not a replication primary: " + primary);
+        }
+        long primaryId = in.readLong();
+        connected = true;
+
+        ReplicationProtocol.FrameReader reader = new ReplicationProtocol.FrameReader(in);
+        ReplicationProtocol.Frame frame = new ReplicationProtocol.Frame();
+        Set<String> syncedKeys = null;
+        try {
+            while (running) {
+                reader.read(frame);
+                bytesReceived += frame.wireBytes;
+
+                switch (frame.kind) {
+                    case ReplicationProtocol.FULL_SYNC_BEGIN:
+                        fullSyncs++;
+                        syncedKeys = new HashSet<>();
+                        break;
+
+                    case ReplicationProtocol.FULL_SYNC_BATCH:
+                        if (syncedKeys == null) {
+                            throw new IOException("Full sync batch outside of a full sync");
+                        }
+                        applyAll(frame, syncedKeys);
+                        break;
+
+                    case ReplicationProtocol.FULL_SYNC_END:
+                        if (syncedKeys == null) {
+                            throw new IOException("Full sync end outside of a full sync");
+                        }
+                        removeStaleKeys(syncedKeys);
+                        syncedKeys = null;
+                        replicationId = primaryId;
+                        appliedSeq = frame.headSeq;
+                        break;
+
+                    case ReplicationProtocol.BATCH:
+                        applyAll(frame, null);
+                        break;
+
+                    case ReplicationProtocol.HEARTBEAT:
+                        break;
+
+                    default:
+                        throw new IOException("Unknown replication frame kind " + frame.kind);
+                }
+                updateLag(frame);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void applyAll(ReplicationProtocol.Frame frame, Set<String> syncedKeys) throws IOException {
+        ByteBuffer payload = frame.payload;
+        for (int i = 0; i < frame.recordCount; i++) {
+            ReplicationProtocol.Record record = ReplicationProtocol.decode(payload);
+            apply(record);
+            if (syncedKeys != null) {
+                syncedKeys.add(record.key);
+            } else if (record.seq > appliedSeq) {
+                appliedSeq = record.seq;
+            }
+        }
+        recordsApplied += frame.recordCount;
+    }
+
+    /**
+     * Same rules as replaying the write-ahead log: expiry times are
+     * absolute, so an entry already expired is removed.
+     */
+    private void apply(ReplicationProtocol.Record record) {
+        if (record.type == ReplicationProtocol.REMOVE) {
+            target.remove(record.key);
+            return;
+        }
+        if (record.expiryTime < 0) {
+            target.put(record.key, record.value);
+            return;
+        }
+
+        long remaining = record.expiryTime - clock.now();
+        if (remaining <= 0) {
+            target.remove(record.key);
+        } else {
+            target.put(record.key, record.value, remaining);
+        }
+    }
+
+    private void removeStaleKeys(Set<String> syncedKeys) {
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : targetStorage.entrySet()) {
+            if (!syncedKeys.contains(e.getKey())) {
+                stale.add(e.getKey());
+            }
+        }
+        for (String key : stale) {
+            target.remove(key);
+        }
+    }
+
+    private void updateLag(ReplicationProtocol.Frame frame) {
+        primaryHeadSeq = frame.headSeq;
+        if (appliedSeq >= frame.headSeq) {
+            behindSince = -1;
+            lagMillis = 0;
+            return;
+        }
+        // Still behind: pending writes are at least as old as the first frame that showed them
+        if (behindSince < 0) {
+            behindSince = frame.sentAt;
+        }
+        lagMillis = Math.max(0, clock.now() - behindSince);
+    }
+
+    private void closeSocket() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+}
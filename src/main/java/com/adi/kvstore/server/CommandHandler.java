@@ -0,0 +1,663 @@
+package com.adi.kvstore.server;
+
+import com.adi.kvstore.api.CollectionKeyValueStore;
+import com.adi.kvstore.api.KeyValueStore;
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.core.ValueType;
+import com.adi.kvstore.core.WrongTypeException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps RESP commands onto a KeyValueStore.
+ *
+ * Supported: PING, GET, SET, DEL, MGET, MSET, EXPIRE, PEXPIRE, TTL,
+ * PTTL, INCR, INCRBY, DECR, DECRBY, DELIFEQ, COMMAND and QUIT. Replies
+ * follow the Redis conventions (e.g. TTL returns -2 for a missing key).
+ *
+ * SET key value [EX seconds | PX milliseconds | KEEPTTL] [NX [GET] | IFEQ expected]
+ * maps onto the atomic store operations:
+ * - NX: putIfAbsent (GET replies with the value already there)
+ * - IFEQ expected: replace, keeping the TTL (KEEPTTL) or setting a new
+ *   one (EX / PX); one of them is required
+ * - KEEPTTL alone: compute, keeping the TTL of the previous value
+ * DELIFEQ key value removes the key only if it holds that value.
+ *
+ * With a CollectionKeyValueStore that supports collections also: TYPE, HSET, HGET, HDEL, HGETALL,
+ * HLEN, LPUSH, RPUSH, LPOP, RPOP, LRANGE, LLEN, ZADD, ZSCORE, ZREM,
+ * ZCARD and ZRANGEBYSCORE [WITHSCORES] [LIMIT offset count].
+ *
+ * The handler is stateless; the store decides thread safety.
+ */
+final class CommandHandler {
+
+    private static final String WRONG_NUMBER = "ERR wrong number of arguments for '%s' command";
+    private static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+    private static final String NOT_FLOAT = "ERR min or max is not a float";
+
+    private final KeyValueStore store;
+    private final CollectionKeyValueStore collections; // null if not supported
+
+    CommandHandler(KeyValueStore store) {
+        this.store = store;
+        this.collections = (store instanceof CollectionKeyValueStore
+                && ((CollectionKeyValueStore) store).supportsCollections()) ? (CollectionKeyValueStore) store : null;
+    }
+
+    /**
+     * Executes one request and writes its reply.
+     *
+     * @return false if the connection should be closed after the reply
+     */
+    boolean execute(List<String> args, RespWriter out) throws IOException {
+        String command = args.get(0).toUpperCase(Locale.ROOT);
+
+        try {
+            switch (command) {
+                case "GET":
+                    if (args.size() != 2) {
+                        return wrongNumber(command, out);
+                    }
+                    out.bulk(store.get(args.get(1)));
+                    return true;
+
+                case "SET":
+                    return set(args, out);
+
+                case "DEL":
+                    return del(args, out);
+
+                case "DELIFEQ":
+                    return delIfEq(args, out);
+
+                case "INCR":
+                case "DECR":
+                case "INCRBY":
+                case "DECRBY":
+                    return increment(command, args, out);
+
+                case "MGET":
+                    return mget(args, out);
+
+                case "MSET":
+                    return mset(args, out);
+
+                case "EXPIRE":
+                case "PEXPIRE":
+                    return expire(command, args, out);
+
+                case "TTL":
+                case "PTTL":
+                    return ttl(command, args, out);
+
+                case "PING":
+                    if (args.size() > 2) {
+                        return wrongNumber(command, out);
+                    }
+                    if (args.size() == 2) {
+                        out.bulk(args.get(1));
+                    } else {
+                        out.simpleString("PONG");
+                    }
+                    return true;
+
+                case "COMMAND":
+                    // redis-cli asks for command docs on connect
+                    out.arrayHeader(0);
+                    return true;
+
+                case "QUIT":
+                    out.simpleString("OK");
+                    return false;
+
+                default:
+                    if (collections != null && executeCollection(command, args, out)) {
+                        return true;
+                    }
+                    out.error("ERR unknown command '" + args.get(0) + "'");
+                    return true;
+            }
+        } catch (WrongTypeException e) {
+            out.error(e.getMessage());
+            return true;
+        } catch (IllegalArgumentException e) {
+            // e.g. a blank key or a non-numeric value
+            out.error("ERR " + e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            // e.g. a closed write-ahead log or an unsupported operation:
+            // answer it, the connection itself is fine
+            out.error("ERR " + ((e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName()));
+            return true;
+        }
+    }
+
+    /**
+     * @return false if the command is not a collection command
+     */
+    private boolean executeCollection(String command, List<String> args, RespWriter out) throws IOException {
+        switch (command) {
+            case "TYPE":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                out.simpleString(typeName(collections.type(args.get(1))));
+                return true;
+
+            case "HSET":
+                if (args.size() < 4 || args.size() % 2 != 0) {
+                    return wrongNumber(command, out);
+                }
+                long added = 0;
+                for (int i = 2; i < args.size(); i += 2) {
+                    if (collections.hset(args.get(1), args.get(i), args.get(i + 1))) {
+                        added++;
+                    }
+                }
+                out.integer(added);
+                return true;
+
+            case "HGET":
+                if (args.size() != 3) {
+                    return wrongNumber(command, out);
+                }
+                out.bulk(collections.hget(args.get(1), args.get(2)));
+                return true;
+
+            case "HDEL":
+                if (args.size() < 3) {
+                    return wrongNumber(command, out);
+                }
+                long removed = 0;
+                for (int i = 2; i < args.size(); i++) {
+                    if (collections.hdel(args.get(1), args.get(i))) {
+                        removed++;
+                    }
+                }
+                out.integer(removed);
+                return true;
+
+            case "HGETALL":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                Map<String, String> hash = collections.hgetAll(args.get(1));
+                out.arrayHeader(hash.size() * 2);
+                for (Map.Entry<String, String> e : hash.entrySet()) {
+                    out.bulk(e.getKey());
+                    out.bulk(e.getValue());
+                }
+                return true;
+
+            case "HLEN":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                out.integer(collections.hlen(args.get(1)));
+                return true;
+
+            case "LPUSH":
+            case "RPUSH":
+                if (args.size() < 3) {
+                    return wrongNumber(command, out);
+                }
+                String[] values = args.subList(2, args.size()).toArray(new String[0]);
+                out.integer(command.equals("LPUSH")
+                        ? collections.lpush(args.get(1), values)
+                        : collections.rpush(args.get(1), values));
+                return true;
+
+            case "LPOP":
+            case "RPOP":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                out.bulk(command.equals("LPOP") ? collections.lpop(args.get(1)) : collections.rpop(args.get(1)));
+                return true;
+
+            case "LRANGE":
+                return lrange(args, out);
+
+            case "LLEN":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                out.integer(collections.llen(args.get(1)));
+                return true;
+
+            case "ZADD":
+                return zadd(args, out);
+
+            case "ZSCORE":
+                if (args.size() != 3) {
+                    return wrongNumber(command, out);
+                }
+                Double score = collections.zscore(args.get(1), args.get(2));
+                out.bulk((score == null) ? null : formatScore(score));
+                return true;
+
+            case "ZREM":
+                if (args.size() < 3) {
+                    return wrongNumber(command, out);
+                }
+                long zremoved = 0;
+                for (int i = 2; i < args.size(); i++) {
+                    if (collections.zrem(args.get(1), args.get(i))) {
+                        zremoved++;
+                    }
+                }
+                out.integer(zremoved);
+                return true;
+
+            case "ZCARD":
+                if (args.size() != 2) {
+                    return wrongNumber(command, out);
+                }
+                out.integer(collections.zcard(args.get(1)));
+                return true;
+
+            case "ZRANGEBYSCORE":
+                return zrangeByScore(args, out);
+
+            default:
+                return false;
+        }
+    }
+
+    private boolean lrange(List<String> args, RespWriter out) throws IOException {
+        if (args.size() != 4) {
+            return wrongNumber("LRANGE", out);
+        }
+
+        Long start = parseLong(args.get(2));
+        Long stop = parseLong(args.get(3));
+        if (start == null || stop == null) {
+            out.error(NOT_INTEGER);
+            return true;
+        }
+
+        List<String> items = collections.lrange(args.get(1), start, stop);
+        out.arrayHeader(items.size());
+        for (String item : items) {
+            out.bulk(item);
+        }
+        return true;
+    }
+
+    private boolean zadd(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 4 || args.size() % 2 != 0) {
+            return wrongNumber("ZADD", out);
+        }
+
+        // Validate every score before applying any
+        double[] scores = new double[(args.size() - 2) / 2];
+        for (int i = 0; i < scores.length; i++) {
+            Double score = parseScore(args.get(2 + 2 * i));
+            if (score == null) {
+                out.error("ERR value is not a valid float");
+                return true;
+            }
+            scores[i] = score;
+        }
+
+        long added = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (collections.zadd(args.get(1), scores[i], args.get(3 + 2 * i))) {
+                added++;
+            }
+        }
+        out.integer(added);
+        return true;
+    }
+
+    private boolean zrangeByScore(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 4) {
+            return wrongNumber("ZRANGEBYSCORE", out);
+        }
+
+        Double min = parseBound(args.get(2), true);
+        Double max = parseBound(args.get(3), false);
+        if (min == null || max == null) {
+            out.error(NOT_FLOAT);
+            return true;
+        }
+
+        boolean withScores = false;
+        long offset = 0;
+        long count = -1;
+        for (int i = 4; i < args.size(); i++) {
+            String option = args.get(i).toUpperCase(Locale.ROOT);
+            if (option.equals("WITHSCORES")) {
+                withScores = true;
+            } else if (option.equals("LIMIT") && i + 2 < args.size()) {
+                Long parsedOffset = parseLong(args.get(i + 1));
+                Long parsedCount = parseLong(args.get(i + 2));
+                if (parsedOffset == null || parsedCount == null) {
+                    out.error(NOT_INTEGER);
+                    return true;
+                }
+                offset = parsedOffset;
+                count = parsedCount;
+                i += 2;
+            } else {
+                out.error("ERR syntax error");
+                return true;
+            }
+        }
+
+        List<ScoredMember> members = List.of();
+        if (offset >= 0 && count != 0) {
+            long wanted = (count < 0) ? Integer.MAX_VALUE : Math.min(Integer.MAX_VALUE, offset + count);
+            members = collections.zrangeByScore(args.get(1), min, max, (int) wanted);
+            members = members.subList((int) Math.min(offset, members.size()), members.size());
+        }
+
+        out.arrayHeader(withScores ? members.size() * 2 : members.size());
+        for (ScoredMember scored : members) {
+            out.bulk(scored.getMember());
+            if (withScores) {
+                out.bulk(formatScore(scored.getScore()));
+            }
+        }
+        return true;
+    }
+
+    private static String typeName(ValueType type) {
+        if (type == null) {
+            return "none";
+        }
+        switch (type) {
+            case HASH:
+                return "hash";
+            case LIST:
+                return "list";
+            case SORTED_SET:
+                return "zset";
+            default:
+                return "string";
+        }
+    }
+
+    private boolean set(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 3) {
+            return wrongNumber("SET", out);
+        }
+
+        Long ttlMillis = null;
+        boolean keepTtl = false;
+        boolean ifAbsent = false;
+        boolean get = false;
+        String expected = null;
+        for (int i = 3; i < args.size(); i++) {
+            String option = args.get(i).toUpperCase(Locale.ROOT);
+            boolean hasArgument = i + 1 < args.size();
+            switch (option) {
+                case "EX":
+                case "PX":
+                    if (ttlMillis != null || keepTtl || !hasArgument) {
+                        return syntaxError(out);
+                    }
+                    Long amount = parseLong(args.get(++i));
+                    if (amount == null) {
+                        out.error(NOT_INTEGER);
+                        return true;
+                    }
+                    ttlMillis = option.equals("EX") ? toMillis(amount) : amount;
+                    if (ttlMillis == null || ttlMillis <= 0) {
+                        out.error("ERR invalid expire time in 'set' command");
+                        return true;
+                    }
+                    break;
+                case "KEEPTTL":
+                    if (ttlMillis != null) {
+                        return syntaxError(out);
+                    }
+                    keepTtl = true;
+                    break;
+                case "NX":
+                    if (expected != null) {
+                        return syntaxError(out);
+                    }
+                    ifAbsent = true;
+                    break;
+                case "IFEQ":
+                    if (ifAbsent || expected != null || !hasArgument) {
+                        return syntaxError(out);
+                    }
+                    expected = args.get(++i);
+                    break;
+                case "GET":
+                    get = true;
+                    break;
+                default:
+                    return syntaxError(out);
+            }
+        }
+
+        String key = args.get(1);
+        String value = args.get(2);
+
+        if (ifAbsent) {
+            // A new key has no TTL to keep
+            String existing = (ttlMillis == null)
+                    ? store.putIfAbsent(key, value)
+                    : store.putIfAbsent(key, value, ttlMillis);
+            if (get) {
+                out.bulk(existing);
+            } else if (existing == null) {
+                out.simpleString("OK");
+            } else {
+                out.bulk(null);
+            }
+            return true;
+        }
+
+        if (get) {
+            // The previous value is only known atomically for NX
+            return syntaxError(out);
+        }
+
+        if (expected != null) {
+            if (!keepTtl && ttlMillis == null) {
+                out.error("ERR IFEQ is only supported with KEEPTTL, EX or PX");
+                return true;
+            }
+            boolean replaced = keepTtl
+                    ? store.replace(key, expected, value)
+                    : store.replace(key, expected, value, ttlMillis);
+            if (replaced) {
+                out.simpleString("OK");
+            } else {
+                out.bulk(null);
+            }
+            return true;
+        }
+
+        if (keepTtl) {
+            store.compute(key, (k, current) -> value);
+        } else if (ttlMillis == null) {
+            store.put(key, value);
+        } else {
+            store.put(key, value, ttlMillis);
+        }
+        out.simpleString("OK");
+        return true;
+    }
+
+    private boolean del(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 2) {
+            return wrongNumber("DEL", out);
+        }
+
+        long removed = 0;
+        for (int i = 1; i < args.size(); i++) {
+            if (store.remove(args.get(i))) {
+                removed++;
+            }
+        }
+        out.integer(removed);
+        return true;
+    }
+
+    private boolean delIfEq(List<String> args, RespWriter out) throws IOException {
+        if (args.size() != 3) {
+            return wrongNumber("DELIFEQ", out);
+        }
+
+        out.integer(store.remove(args.get(1), args.get(2)) ? 1 : 0);
+        return true;
+    }
+
+    private boolean increment(String command, List<String> args, RespWriter out) throws IOException {
+        boolean byAmount = command.endsWith("BY");
+        if (args.size() != (byAmount ? 3 : 2)) {
+            return wrongNumber(command, out);
+        }
+
+        long delta = 1;
+        if (byAmount) {
+            Long amount = parseLong(args.get(2));
+            if (amount == null || (command.equals("DECRBY") && amount == Long.MIN_VALUE)) {
+                out.error(NOT_INTEGER);
+                return true;
+            }
+            delta = amount;
+        }
+        if (command.startsWith("DECR")) {
+            delta = -delta;
+        }
+
+        out.integer(store.incrementBy(args.get(1), delta));
+        return true;
+    }
+
+    private boolean mget(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 2) {
+            return wrongNumber("MGET", out);
+        }
+
+        List<String> keys = args.subList(1, args.size());
+        Map<String, String> values = store.getAll(keys);
+
+        out.arrayHeader(keys.size());
+        for (String key : keys) {
+            out.bulk(values.get(key));
+        }
+        return true;
+    }
+
+    private boolean mset(List<String> args, RespWriter out) throws IOException {
+        if (args.size() < 3 || args.size() % 2 == 0) {
+            return wrongNumber("MSET", out);
+        }
+
+        // A later pair for the same key wins, as in Redis
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 1; i < args.size(); i += 2) {
+            entries.put(args.get(i), args.get(i + 1));
+        }
+        store.putAll(entries);
+        out.simpleString("OK");
+        return true;
+    }
+
+    private boolean expire(String command, List<String> args, RespWriter out) throws IOException {
+        if (args.size() != 3) {
+            return wrongNumber(command, out);
+        }
+
+        Long amount = parseLong(args.get(2));
+        Long ttlMillis = (amount == null || command.equals("PEXPIRE")) ? amount : toMillis(amount);
+        if (ttlMillis == null) {
+            out.error(NOT_INTEGER);
+            return true;
+        }
+
+        out.integer(store.expire(args.get(1), ttlMillis) ? 1 : 0);
+        return true;
+    }
+
+    private boolean ttl(String command, List<String> args, RespWriter out) throws IOException {
+        if (args.size() != 2) {
+            return wrongNumber(command, out);
+        }
+
+        long ttlMillis = store.ttl(args.get(1));
+        if (ttlMillis < 0 || command.equals("PTTL")) {
+            out.integer(ttlMillis);
+        } else {
+            // Rounded to the nearest second, like Redis
+            out.integer((ttlMillis + 500) / 1000);
+        }
+        return true;
+    }
+
+    private static boolean syntaxError(RespWriter out) throws IOException {
+        out.error("ERR syntax error");
+        return true;
+    }
+
+    private static boolean wrongNumber(String command, RespWriter out) throws IOException {
+        out.error(String.format(WRONG_NUMBER, command.toLowerCase(Locale.ROOT)));
+        return true;
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseScore(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                try {
+                    double score = Double.parseDouble(value);
+                    return Double.isNaN(score) ? null : score;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+        }
+    }
+
+    // "(x" is an exclusive bound, as in Redis
+    private static Double parseBound(String value, boolean lower) {
+        if (!value.startsWith("(")) {
+            return parseScore(value);
+        }
+        Double bound = parseScore(value.substring(1));
+        if (bound == null) {
+            return null;
+        }
+        return lower ? Math.nextUp(bound) : Math.nextDown(bound);
+    }
+
+    private static String formatScore(double score) {
+        if (Double.isInfinite(score)) {
+            return (score > 0) ? "inf" : "-inf";
+        }
+        if (score == Math.rint(score) && Math.abs(score) < 1e17) {
+            return Long.toString((long) score);
+        }
+        return Double.toString(score);
+    }
+
+    private static Long toMillis(long seconds) {
+        try {
+            return Math.multiplyExact(seconds, 1000L);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.adi.kvstore.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Per-client state of an event loop.
+ *
+ * Reads and writes go through direct buffers owned by the event loop;
+ * a connection only allocates (heap) buffers for what is left over:
+ * a request split across reads, or output the socket did not accept.
+ */
+final class Connection {
+
+    private static final int MIN_BUFFER = 4096;
+
+    final SocketChannel channel;
+    final SelectionKey key;
+
+    // Both buffers are kept in write mode (position = end of data)
+    private ByteBuffer input;
+    private ByteBuffer pending;
+    private boolean closeAfterWrite;
+
+    Connection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * @return the bytes to parse: the fresh read alone, or appended to
+     *         a previously incomplete request
+     */
+    ByteBuffer inputFor(ByteBuffer freshRead) {
+        if (input == null) {
+            return freshRead;
+        }
+        input = append(input, freshRead);
+        input.flip();
+        return input;
+    }
+
+    /**
+     * Keeps the unparsed tail of the buffer returned by inputFor.
+     */
+    void keepUnparsed(ByteBuffer parsed) {
+        if (!parsed.hasRemaining()) {
+            input = null;
+        } else if (parsed == input) {
+            input.compact();
+        } else {
+            input = append(null, parsed);
+        }
+    }
+
+    /**
+     * Sends the buffer (in write mode) and clears it. Bytes the socket
+     * does not take now are queued and sent on OP_WRITE.
+     */
+    void send(ByteBuffer out) throws IOException {
+        out.flip();
+        if (pending == null) {
+            channel.write(out);
+        }
+        if (out.hasRemaining()) {
+            pending = append(pending, out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Retries queued output.
+     *
+     * @return true if nothing is queued anymore
+     */
+    boolean flushPending() throws IOException {
+        if (pending == null) {
+            return true;
+        }
+        pending.flip();
+        channel.write(pending);
+        if (pending.hasRemaining()) {
+            pending.compact();
+            return false;
+        }
+        pending = null;
+        return true;
+    }
+
+    int pendingBytes() {
+        return (pending == null) ? 0 : pending.position();
+    }
+
+    void closeAfterWrite() {
+        closeAfterWrite = true;
+    }
+
+    boolean isCloseAfterWrite() {
+        return closeAfterWrite;
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to do for this client
+        }
+    }
+
+    // Appends readable bytes of src to dst (write mode), growing dst as needed
+    private static ByteBuffer append(ByteBuffer dst, ByteBuffer src) {
+        int needed = src.remaining();
+        if (dst == null) {
+            dst = ByteBuffer.allocate(Math.max(MIN_BUFFER, needed));
+        } else if (dst.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(dst.capacity() * 2, dst.position() + needed));
+            dst.flip();
+            grown.put(dst);
+            dst = grown;
+        }
+        dst.put(src);
+        return dst;
+    }
+}
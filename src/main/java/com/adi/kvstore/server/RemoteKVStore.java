@@ -0,0 +1,310 @@
+package com.adi.kvstore.server;
+
+import com.adi.kvstore.api.KeyValueStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiFunction;
+
+/**
+ * KeyValueStore backed by a RespServer (or any server speaking the
+ * same RESP subset), so a remote node can be used wherever a local
+ * store is expected, e.g. as a node of a PartitionedKVStore.
+ *
+ * Thread-safe: each call borrows a RespClient from a pool and returns
+ * it afterwards; up to poolSize idle connections are kept.
+ *
+ * Mapping:
+ * - get / put / remove / getAll / putAll: GET, SET (PX), DEL, MGET, MSET
+ * - remove(key, expectedValue): DELIFEQ
+ * - putAll with a TTL: one pipelined SET ... PX per entry
+ * - A TTL <= 0 expires the value at once, as in local stores: DEL
+ * - expire / ttl: PEXPIRE, PTTL
+ * - putIfAbsent: SET ... NX GET; replace: SET ... IFEQ expected KEEPTTL
+ *   (PX ttl instead of KEEPTTL with a TTL)
+ * - incrementBy: INCRBY
+ * - compute / merge: optimistic retry of GET, then a conditional write
+ *   (SET NX, SET IFEQ or DELIFEQ); the function may run more than once
+ *
+ * I/O failures are thrown as UncheckedIOException; error replies as
+ * IllegalStateException (see RespClient).
+ */
+public class RemoteKVStore implements KeyValueStore, Closeable {
+
+    private final String host;
+    private final int port;
+    private final BlockingQueue<RespClient> idle;
+    private volatile boolean closed;
+
+    public RemoteKVStore(String host, int port, int poolSize) {
+        if (host == null) {
+            throw new IllegalArgumentException("host must not be null");
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        this.host = host;
+        this.port = port;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    public void put(String key, String value) {
+        execute("SET", key, value);
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            // Stored already expired: gone for every reader
+            execute("DEL", key);
+            return;
+        }
+        execute("SET", key, value, "PX", Long.toString(ttlMillis));
+    }
+
+    @Override
+    public String get(String key) {
+        return (String) execute("GET", key);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        List<String> ordered = new ArrayList<>(keys);
+        String[] args = new String[ordered.size() + 1];
+        args[0] = "MGET";
+        for (int i = 0; i < ordered.size(); i++) {
+            args[i + 1] = ordered.get(i);
+        }
+
+        List<?> values = (List<?>) execute(args);
+        for (int i = 0; i < ordered.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(ordered.get(i), (String) values.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String[] args = new String[entries.size() * 2 + 1];
+        args[0] = "MSET";
+        int i = 1;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            args[i++] = e.getKey();
+            args[i++] = e.getValue();
+        }
+        execute(args);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, long ttlMillis) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (ttlMillis <= 0) {
+            String[] args = new String[entries.size() + 1];
+            args[0] = "DEL";
+            int i = 1;
+            for (String key : entries.keySet()) {
+                args[i++] = key;
+            }
+            execute(args);
+            return;
+        }
+        String ttl = Long.toString(ttlMillis);
+        List<String[]> requests = new ArrayList<>(entries.size());
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            requests.add(new String[]{"SET", e.getKey(), e.getValue(), "PX", ttl});
+        }
+
+        RespClient client = borrow();
+        boolean healthy = false;
+        try {
+            for (Object reply : client.pipeline(requests)) {
+                if (reply instanceof IllegalStateException) {
+                    healthy = true;
+                    throw (IllegalStateException) reply;
+                }
+            }
+            healthy = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(client, healthy);
+        }
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return (Long) execute("DEL", key) == 1;
+    }
+
+    @Override
+    public boolean remove(String key, String expectedValue) {
+        return (Long) execute("DELIFEQ", key, expectedValue) == 1;
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        return (String) execute("SET", key, value, "NX", "GET");
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            // An already expired value is never visible: only report the live one
+            return get(key);
+        }
+        return (String) execute("SET", key, value, "PX", Long.toString(ttlMillis), "NX", "GET");
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue) {
+        return "OK".equals(execute("SET", key, newValue, "IFEQ", expectedValue, "KEEPTTL"));
+    }
+
+    @Override
+    public boolean replace(String key, String expectedValue, String newValue, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            // The new value would be expired at once: a conditional delete
+            return remove(key, expectedValue);
+        }
+        return "OK".equals(execute("SET", key, newValue, "PX", Long.toString(ttlMillis), "IFEQ", expectedValue));
+    }
+
+    @Override
+    public String compute(String key, BiFunction<String, String, String> remappingFunction) {
+        while (true) {
+            String current = get(key);
+            String updated = remappingFunction.apply(key, current);
+            if (compareAndSet(key, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<String, String, String> remappingFunction) {
+        while (true) {
+            String current = get(key);
+            String updated = (current == null) ? value : remappingFunction.apply(current, value);
+            if (compareAndSet(key, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public long incrementBy(String key, long delta) {
+        try {
+            return (Long) execute("INCRBY", key, Long.toString(delta));
+        } catch (IllegalStateException e) {
+            // Same contract as local stores: not a number, or overflow
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        return (Long) execute("PEXPIRE", key, Long.toString(ttlMillis)) == 1;
+    }
+
+    @Override
+    public long ttl(String key) {
+        return (Long) execute("PTTL", key);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        RespClient client;
+        while ((client = idle.poll()) != null) {
+            closeQuietly(client);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+
+    /**
+     * Writes updated only if the key still holds current (absent if null).
+     *
+     * @return false if another writer changed the key first
+     */
+    private boolean compareAndSet(String key, String current, String updated) {
+        if (current == null) {
+            return updated == null || putIfAbsent(key, updated) == null;
+        }
+        if (updated == null) {
+            return remove(key, current);
+        }
+        return replace(key, current, updated);
+    }
+
+    private Object execute(String... args) {
+        RespClient client = borrow();
+        boolean healthy = false;
+        try {
+            Object reply = client.execute(args);
+            healthy = true;
+            return reply;
+        } catch (IllegalStateException e) {
+            // Error reply: the connection is still in sync
+            healthy = true;
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(client, healthy);
+        }
+    }
+
+    private RespClient borrow() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        RespClient client = idle.poll();
+        if (client != null) {
+            return client;
+        }
+        try {
+            return new RespClient(host, port);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(RespClient client, boolean healthy) {
+        if (!healthy || closed || !idle.offer(client)) {
+            closeQuietly(client);
+        }
+    }
+
+    private static void closeQuietly(RespClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.adi.kvstore.server;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal blocking RESP client, used to exercise RespServer locally
+ * (tests, load generation, debugging).
+ *
+ * Replies are decoded as:
+ * - simple and bulk strings: String (null bulk: null)
+ * - integers: Long
+ * - arrays: List<Object>
+ * - errors: thrown as IllegalStateException with the server message
+ *
+ * Pipelining: send() only buffers a request; flush() writes every
+ * buffered request at once and read() takes the replies in order.
+ *
+ * This class is NOT thread-safe; use one client per thread.
+ */
+public class RespClient implements Closeable {
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+
+    // Unsynchronized read buffer (BufferedInputStream locks on every byte)
+    private final byte[] readBuffer = new byte[64 * 1024];
+    private int readPosition;
+    private int readLimit;
+
+    public RespClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+        this.in = socket.getInputStream();
+    }
+
+    /**
+     * Sends one request and waits for its reply.
+     */
+    public Object execute(String... args) throws IOException {
+        send(args);
+        flush();
+        return read();
+    }
+
+    /**
+     * Sends every request in one write, then reads all replies.
+     * Error replies are returned as IllegalStateException objects
+     * instead of being thrown.
+     */
+    public List<Object> pipeline(List<String[]> requests) throws IOException {
+        for (String[] request : requests) {
+            send(request);
+        }
+        flush();
+
+        List<Object> replies = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                replies.add(read());
+            } catch (IllegalStateException e) {
+                replies.add(e);
+            }
+        }
+        return replies;
+    }
+
+    /**
+     * Buffers a request without sending it.
+     */
+    public void send(String... args) throws IOException {
+        writeHeader('*', args.length);
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            writeHeader('$', bytes.length);
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Reads the next reply.
+     *
+     * @throws IllegalStateException if the reply is an error
+     */
+    public Object read() throws IOException {
+        int type = readByte();
+        switch (type) {
+            case '+':
+                return readLine();
+            case '-':
+                throw new IllegalStateException(readLine());
+            case ':':
+                return Long.parseLong(readLine());
+            case '$': {
+                int length = Integer.parseInt(readLine());
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = readBytes(length);
+                if (readByte() != '\r' || readByte() != '\n') {
+                    throw new IOException("Bulk string not terminated by CRLF");
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                int length = Integer.parseInt(readLine());
+                if (length < 0) {
+                    return null;
+                }
+                List<Object> items = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    items.add(read());
+                }
+                return items;
+            }
+            case -1:
+                throw new EOFException("Connection closed by server");
+            default:
+                throw new IOException("Unexpected reply type '" + (char) type + "'");
+        }
+    }
+
+    public String get(String key) throws IOException {
+        return (String) execute("GET", key);
+    }
+
+    public void set(String key, String value) throws IOException {
+        execute("SET", key, value);
+    }
+
+    public void set(String key, String value, long ttlMillis) throws IOException {
+        execute("SET", key, value, "PX", Long.toString(ttlMillis));
+    }
+
+    public long del(String... keys) throws IOException {
+        String[] args = new String[keys.length + 1];
+        args[0] = "DEL";
+        System.arraycopy(keys, 0, args, 1, keys.length);
+        return (Long) execute(args);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> mget(String... keys) throws IOException {
+        String[] args = new String[keys.length + 1];
+        args[0] = "MGET";
+        System.arraycopy(keys, 0, args, 1, keys.length);
+        return (List<String>) (List<?>) execute(args);
+    }
+
+    public void mset(Map<String, String> entries) throws IOException {
+        String[] args = new String[entries.size() * 2 + 1];
+        args[0] = "MSET";
+        int i = 1;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            args[i++] = e.getKey();
+            args[i++] = e.getValue();
+        }
+        execute(args);
+    }
+
+    public boolean expire(String key, long seconds) throws IOException {
+        return (Long) execute("EXPIRE", key, Long.toString(seconds)) == 1;
+    }
+
+    public long ttl(String key) throws IOException {
+        return (Long) execute("TTL", key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void writeHeader(char type, int value) throws IOException {
+        out.write(type);
+        out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private int readByte() throws IOException {
+        if (readPosition == readLimit && !fill()) {
+            return -1;
+        }
+        return readBuffer[readPosition++] & 0xff;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            if (readPosition == readLimit && !fill()) {
+                throw new EOFException("Truncated bulk string");
+            }
+            int chunk = Math.min(length - copied, readLimit - readPosition);
+            System.arraycopy(readBuffer, readPosition, bytes, copied, chunk);
+            readPosition += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(readBuffer);
+        if (read <= 0) {
+            return false;
+        }
+        readPosition = 0;
+        readLimit = read;
+        return true;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+        int b;
+        while ((b = readByte()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+            line.write(b);
+        }
+        if (readByte() != '\n') {
+            throw new IOException("Reply line not terminated by CRLF");
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
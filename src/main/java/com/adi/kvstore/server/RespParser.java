@@ -0,0 +1,157 @@
+package com.adi.kvstore.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser for RESP requests.
+ *
+ * Accepts arrays of bulk strings (what Redis clients send) and inline
+ * commands (a plain text line, handy with telnet or nc). A request is
+ * consumed from the buffer only once it is complete, so a pipelined
+ * stream can be parsed chunk by chunk as it arrives.
+ *
+ * This class is NOT thread-safe; each event loop owns one.
+ */
+final class RespParser {
+
+    static final int MAX_ARGUMENTS = 1024 * 1024;
+    static final int MAX_BULK_LENGTH = 64 * 1024 * 1024;
+    static final int MAX_INLINE_LENGTH = 64 * 1024;
+
+    private static final long INCOMPLETE = Long.MIN_VALUE;
+
+    private int cursor;
+
+    /**
+     * Parses one request starting at the buffer's position.
+     *
+     * @return the request arguments, or null if the buffer does not
+     *         hold a complete request yet (the position is unchanged)
+     * @throws IllegalArgumentException on a protocol error
+     */
+    List<String> parse(ByteBuffer in) {
+        if (!in.hasRemaining()) {
+            return null;
+        }
+
+        cursor = in.position();
+        List<String> arguments = (in.get(cursor) == '*') ? parseArray(in) : parseInline(in);
+        if (arguments != null) {
+            in.position(cursor);
+        }
+        return arguments;
+    }
+
+    private List<String> parseArray(ByteBuffer in) {
+        cursor++;
+        long count = readNumber(in);
+        if (count == INCOMPLETE) {
+            return null;
+        }
+        if (count < 0 || count > MAX_ARGUMENTS) {
+            throw new IllegalArgumentException("Protocol error: invalid multibulk length");
+        }
+
+        List<String> arguments = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            if (cursor >= in.limit()) {
+                return null;
+            }
+            if (in.get(cursor) != '$') {
+                throw new IllegalArgumentException("Protocol error: expected '$', got '" + (char) in.get(cursor) + "'");
+            }
+            cursor++;
+
+            long length = readNumber(in);
+            if (length == INCOMPLETE) {
+                return null;
+            }
+            if (length < 0 || length > MAX_BULK_LENGTH) {
+                throw new IllegalArgumentException("Protocol error: invalid bulk length");
+            }
+            if (cursor + length + 2 > in.limit()) {
+                return null;
+            }
+
+            arguments.add(readString(in, cursor, (int) length));
+            cursor += (int) length;
+            if (in.get(cursor) != '\r' || in.get(cursor + 1) != '\n') {
+                throw new IllegalArgumentException("Protocol error: bulk string not terminated by CRLF");
+            }
+            cursor += 2;
+        }
+        return arguments;
+    }
+
+    private List<String> parseInline(ByteBuffer in) {
+        int end = indexOfNewline(in, cursor);
+        if (end < 0) {
+            if (in.limit() - cursor > MAX_INLINE_LENGTH) {
+                throw new IllegalArgumentException("Protocol error: too big inline request");
+            }
+            return null;
+        }
+
+        int lineEnd = (end > cursor && in.get(end - 1) == '\r') ? end - 1 : end;
+        String line = readString(in, cursor, lineEnd - cursor).trim();
+        cursor = end + 1;
+
+        List<String> arguments = new ArrayList<>();
+        if (!line.isEmpty()) {
+            for (String token : line.split("\\s+")) {
+                arguments.add(token);
+            }
+        }
+        return arguments;
+    }
+
+    // Reads "<digits>\r\n" at the cursor
+    private long readNumber(ByteBuffer in) {
+        int end = indexOfNewline(in, cursor);
+        if (end < 0) {
+            if (in.limit() - cursor > 32) {
+                throw new IllegalArgumentException("Protocol error: length line too long");
+            }
+            return INCOMPLETE;
+        }
+        if (end == cursor || in.get(end - 1) != '\r') {
+            throw new IllegalArgumentException("Protocol error: length not terminated by CRLF");
+        }
+
+        long value = 0;
+        boolean negative = false;
+        for (int i = cursor; i < end - 1; i++) {
+            byte b = in.get(i);
+            if (i == cursor && b == '-') {
+                negative = true;
+            } else if (b >= '0' && b <= '9' && value < Integer.MAX_VALUE) {
+                value = value * 10 + (b - '0');
+            } else {
+                throw new IllegalArgumentException("Protocol error: invalid length");
+            }
+        }
+        cursor = end + 1;
+        return negative ? -value : value;
+    }
+
+    private static int indexOfNewline(ByteBuffer in, int from) {
+        for (int i = from; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String readString(ByteBuffer in, int offset, int length) {
+        if (in.hasArray()) {
+            return new String(in.array(), in.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        in.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,296 @@
+package com.adi.kvstore.server;
+
+import com.adi.kvstore.api.KeyValueStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Non-blocking TCP server speaking a subset of RESP (the Redis protocol)
+ * on top of any KeyValueStore.
+ *
+ * Threading:
+ * - N event loops, each with its own Selector, thread and direct
+ *   read/write buffers (reused for every connection of the loop)
+ * - Loop 0 also accepts connections and hands them out round-robin
+ * - Commands run on the event loop thread, so the store must be
+ *   thread-safe when more than one loop is used
+ *
+ * Pipelining: every complete request of a read is executed and all
+ * replies are sent with one socket write. A client that stops reading
+ * its replies is not read from until its backlog drains.
+ *
+ * Example:
+ *   try (RespServer server = new RespServer(store, new InetSocketAddress(6379), 4)) {
+ *       server.start();
+ *       ...
+ *   }
+ */
+public class RespServer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_OUTPUT = 4 * 1024 * 1024;
+
+    private final KeyValueStore store;
+    private final InetSocketAddress address;
+    private final EventLoop[] loops;
+
+    private ServerSocketChannel serverChannel;
+    private int nextLoop;
+    private volatile boolean running;
+
+    /**
+     * Listens on the given port of all interfaces, one event loop per processor.
+     */
+    public RespServer(KeyValueStore store, int port) {
+        this(store, new InetSocketAddress(port), Runtime.getRuntime().availableProcessors());
+    }
+
+    public RespServer(KeyValueStore store, InetSocketAddress address, int eventLoops) {
+        if (store == null || address == null) {
+            throw new IllegalArgumentException("store and address must not be null");
+        }
+        if (eventLoops <= 0) {
+            throw new IllegalArgumentException("eventLoops must be positive");
+        }
+
+        this.store = store;
+        this.address = address;
+        this.loops = new EventLoop[eventLoops];
+    }
+
+    /**
+     * Binds the port and starts the event loops.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("Server already started");
+        }
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i, new CommandHandler(store));
+        }
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * @return the bound port (useful when started on port 0)
+     */
+    public int getPort() {
+        if (serverChannel == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting, closes every connection and stops the event loops.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverChannel.close();
+    }
+
+    // Runs on loop 0
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            EventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            loop.register(channel);
+        }
+    }
+
+    /**
+     * One selector thread serving a share of the connections.
+     */
+    private final class EventLoop implements Runnable {
+
+        final Selector selector;
+        final Thread thread;
+
+        private final CommandHandler handler;
+        private final RespParser parser = new RespParser();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final RespWriter writer = new RespWriter(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+
+        EventLoop(int index, CommandHandler handler) throws IOException {
+            this.selector = Selector.open();
+            this.handler = handler;
+            this.thread = new Thread(this, "kv-resp-loop-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        // Selector registration must happen on the loop's own thread
+        void register(SocketChannel channel) {
+            newChannels.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerNewChannels();
+
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isWritable()) {
+                                onWritable(connection);
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                onReadable(connection);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            connection.close();
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                // Loop cannot continue; connections are closed below
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void registerNewChannels() throws IOException {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+            }
+        }
+
+        private void onReadable(Connection connection) throws IOException {
+            readBuffer.clear();
+            int read = connection.channel.read(readBuffer);
+            if (read < 0) {
+                connection.close();
+                return;
+            }
+            readBuffer.flip();
+
+            ByteBuffer input = connection.inputFor(readBuffer);
+            boolean keepOpen = true;
+
+            writer.begin(connection);
+            try {
+                List<String> args;
+                while (keepOpen && (args = parser.parse(input)) != null) {
+                    if (!args.isEmpty()) {
+                        keepOpen = handler.execute(args, writer);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Protocol error: reply, then drop the client like Redis does
+                writer.error("ERR " + e.getMessage());
+                keepOpen = false;
+            }
+            writer.end();
+
+            if (keepOpen) {
+                connection.keepUnparsed(input);
+            } else {
+                connection.closeAfterWrite();
+            }
+            updateInterest(connection);
+        }
+
+        private void onWritable(Connection connection) throws IOException {
+            connection.flushPending();
+            updateInterest(connection);
+        }
+
+        private void updateInterest(Connection connection) {
+            int backlog = connection.pendingBytes();
+            if (backlog == 0 && connection.isCloseAfterWrite()) {
+                connection.close();
+                return;
+            }
+
+            int ops = 0;
+            if (backlog > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            // Stop reading from clients that do not read their replies
+            if (backlog < MAX_PENDING_OUTPUT && !connection.isCloseAfterWrite()) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (connection.key.interestOps() != ops) {
+                connection.key.interestOps(ops);
+            }
+        }
+
+        private void closeAll() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Never registered, nothing else to release
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.adi.kvstore.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes RESP replies into the event loop's direct output buffer.
+ *
+ * Replies of a whole pipelined batch are accumulated and sent with one
+ * socket write; the buffer is only sent early when it fills up, so a
+ * value larger than the buffer is streamed through it in chunks.
+ *
+ * This class is NOT thread-safe; each event loop owns one.
+ */
+final class RespWriter {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] NULL_BULK = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_HEADER = 24; // type byte + long + CRLF
+
+    private final ByteBuffer buffer;
+    private Connection connection;
+
+    RespWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    void begin(Connection connection) {
+        this.connection = connection;
+        buffer.clear();
+    }
+
+    /**
+     * Sends everything encoded since begin().
+     */
+    void end() throws IOException {
+        if (buffer.position() > 0) {
+            connection.send(buffer);
+        }
+        connection = null;
+    }
+
+    void simpleString(String value) throws IOException {
+        ensure(MAX_HEADER);
+        buffer.put((byte) '+');
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        writeBytes(CRLF);
+    }
+
+    /**
+     * Errors often quote client input or exception messages: CR and LF
+     * become spaces, so the reply stays one line and cannot inject frames.
+     */
+    void error(String message) throws IOException {
+        ensure(MAX_HEADER);
+        buffer.put((byte) '-');
+        writeBytes(singleLine(message).getBytes(StandardCharsets.UTF_8));
+        writeBytes(CRLF);
+    }
+
+    void integer(long value) throws IOException {
+        header(':', value);
+    }
+
+    void arrayHeader(int length) throws IOException {
+        header('*', length);
+    }
+
+    /**
+     * Writes a bulk string, or the null bulk string for null.
+     */
+    void bulk(String value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL_BULK);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        header('$', bytes.length);
+        writeBytes(bytes);
+        writeBytes(CRLF);
+    }
+
+    private void header(char type, long value) throws IOException {
+        ensure(MAX_HEADER);
+        buffer.put((byte) type);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        putDigits(value);
+        buffer.put(CRLF);
+    }
+
+    private void putDigits(long value) {
+        if (value >= 10) {
+            putDigits(value / 10);
+        }
+        buffer.put((byte) ('0' + value % 10));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                connection.send(buffer);
+            }
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            connection.send(buffer);
+        }
+    }
+
+    private static String singleLine(String message) {
+        if (message.indexOf('\r') < 0 && message.indexOf('\n') < 0) {
+            return message;
+        }
+        return message.replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,496 @@
+package com.adi.kvstore.tier;
+
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.ExpirationPolicy;
+import com.adi.kvstore.time.Clock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Log-structured overflow tier on local disk.
+ *
+ * Entries are appended to memory-mapped segment files. A compact
+ * in-memory index maps each key to the location of its latest record:
+ * an open-addressing table of key hashes and (segment, offset) pairs,
+ * with the key bytes themselves only stored on disk.
+ *
+ * Space management:
+ * - Overwritten, removed and expired records are dead space
+ * - A background task compacts sealed segments that are mostly dead
+ *   (live records are copied to the active segment, the file deleted)
+ * - If the tier is full, the oldest segment is dropped as a whole
+ * - One segment of the budget is kept free for compaction, so copying
+ *   live records never has to drop a segment
+ *
+ * The tier is a cache, not persistence: segment files left over from
+ * a previous run are deleted on startup.
+ *
+ * Trade-off:
+ * - One lock for the whole tier; lookups share it, writes and the
+ *   compaction of a segment hold it exclusively
+ * - Every lookup reads the key back from disk (page cache) to confirm
+ *   a hash match
+ */
+public class DiskTier implements Closeable {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 1000;
+    private static final double COMPACTION_DEAD_RATIO = 0.5;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long EMPTY = 0;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ExpirationPolicy expirationPolicy;
+    private final Clock clock;
+    private final BackgroundScheduler compactionScheduler;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, LogSegment> segments = new HashMap<>();
+    private final ArrayDeque<LogSegment> segmentOrder = new ArrayDeque<>();
+    private LogSegment active;
+    private int nextSegmentId = 1;
+
+    // Index: key hash + location (segment id << 32 | offset), linear probing
+    private int[] hashes = new int[1024];
+    private long[] locations = new long[1024];
+    private volatile int size;
+
+    /**
+     * @param maxBytes disk space for segment files, the segment kept
+     *                 free for compaction included
+     */
+    public DiskTier(Path directory, long maxBytes, ExpirationPolicy expirationPolicy, Clock clock) throws IOException {
+        this(directory, (int) Math.min(DEFAULT_SEGMENT_SIZE, Math.max(1024, maxBytes / 4)), maxBytes,
+                expirationPolicy, clock, DEFAULT_COMPACTION_INTERVAL_MILLIS);
+    }
+
+    public DiskTier(Path directory, int segmentSize, long maxBytes, ExpirationPolicy expirationPolicy, Clock clock,
+                    long compactionIntervalMillis) throws IOException {
+        if (segmentSize < LogSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize is too small");
+        }
+        if (maxBytes < 3L * segmentSize) {
+            throw new IllegalArgumentException("maxBytes must hold at least three segments");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, maxBytes / segmentSize);
+        this.expirationPolicy = expirationPolicy;
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        deleteOldSegments();
+        this.active = newSegment();
+
+        this.compactionScheduler = new BackgroundScheduler(compactionIntervalMillis);
+        this.compactionScheduler.start(this::compactQuietly);
+    }
+
+    /**
+     * Stores (or replaces) an entry.
+     *
+     * @return false if the entry is too large for a segment
+     * @throws IllegalStateException if the tier is closed
+     */
+    public boolean put(Entry entry) {
+        byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+        byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+        int recordSize = LogSegment.recordSize(key.length, value.length);
+        if (recordSize > segmentSize) {
+            return false;
+        }
+
+        int hash = hash(entry.getKey());
+        lock.writeLock().lock();
+        try {
+            if (active == null) {
+                throw new IllegalStateException("Disk tier is closed");
+            }
+            if (!active.hasRoom(recordSize)) {
+                roll();
+            }
+            long location = location(active, active.append(key, value, entry.getExpiryTime()));
+
+            int slot = find(hash, key);
+            if (slot >= 0) {
+                markDead(locations[slot]);
+                locations[slot] = location;
+            } else {
+                insert(hash, location);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the live entry of a key (used to promote it).
+     *
+     * @return the entry, or null if absent or expired
+     */
+    public Entry take(String key) {
+        // Misses only take the shared lock
+        if (!contains(key)) {
+            return null;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            int slot = find(hash, keyBytes);
+            if (slot < 0) {
+                return null;
+            }
+
+            long location = locations[slot];
+            LogSegment segment = segmentOf(location);
+            int offset = offsetOf(location);
+            Entry entry = new Entry(key, new String(segment.valueAt(offset), StandardCharsets.UTF_8),
+                    segment.expiryTimeAt(offset));
+
+            markDead(location);
+            delete(slot);
+            return expirationPolicy.isExpired(entry, clock.now()) ? null : entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if a live (not expired) entry was removed
+     */
+    public boolean remove(String key) {
+        return take(key) != null;
+    }
+
+    /**
+     * @return true if the tier holds a record for the key (it may be expired)
+     */
+    public boolean contains(String key) {
+        if (size == 0) {
+            return false;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.readLock().lock();
+        try {
+            return find(hash, keyBytes) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of indexed records (expired ones included until reclaimed)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of segment files currently on disk
+     */
+    public long diskBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) segments.size() * segmentSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts every sealed segment whose dead space (overwritten,
+     * removed or expired records) exceeds half of its size.
+     *
+     * @return number of segments reclaimed
+     */
+    public int compact() throws IOException {
+        List<LogSegment> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Long> expired = expiredBytesBySegment();
+            for (LogSegment segment : segmentOrder) {
+                long reclaimable = segment.deadBytes() + expired.getOrDefault(segment.id, 0L);
+                if (segment != active && reclaimable > segment.writeOffset() * COMPACTION_DEAD_RATIO) {
+                    candidates.add(segment);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int reclaimed = 0;
+        for (LogSegment segment : candidates) {
+            lock.writeLock().lock();
+            try {
+                if (segments.containsKey(segment.id)) {
+                    rewriteLiveRecords(segment);
+                    dropSegment(segment);
+                    reclaimed++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Stops compaction and deletes the segment files.
+     */
+    @Override
+    public void close() throws IOException {
+        compactionScheduler.stop();
+        lock.writeLock().lock();
+        try {
+            for (LogSegment segment : segmentOrder) {
+                segment.delete();
+            }
+            segments.clear();
+            segmentOrder.clear();
+            active = null;
+            hashes = new int[16];
+            locations = new long[16];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            // Retried on the next run; the tier stays usable meanwhile
+        }
+    }
+
+    // Indexed records whose TTL has passed, per segment id (read lock held)
+    private Map<Integer, Long> expiredBytesBySegment() {
+        Map<Integer, Long> expired = new HashMap<>();
+        long now = clock.now();
+        for (long location : locations) {
+            if (location == EMPTY) {
+                continue;
+            }
+            LogSegment segment = segmentOf(location);
+            int offset = offsetOf(location);
+            long expiryTime = segment.expiryTimeAt(offset);
+            if (expiryTime >= 0 && now >= expiryTime) {
+                expired.merge(segment.id, (long) segment.recordSizeAt(offset), Long::sum);
+            }
+        }
+        return expired;
+    }
+
+    // Write lock held
+    private void rewriteLiveRecords(LogSegment segment) throws IOException {
+        long now = clock.now();
+        int offset = 0;
+        while (offset < segment.writeOffset()) {
+            int recordSize = segment.recordSizeAt(offset);
+            byte[] key = segment.keyAt(offset);
+            int slot = find(hash(new String(key, StandardCharsets.UTF_8)), key);
+
+            if (slot >= 0 && locations[slot] == location(segment, offset)) {
+                long expiryTime = segment.expiryTimeAt(offset);
+                if (expiryTime >= 0 && now >= expiryTime) {
+                    segment.markDead(offset);
+                    delete(slot);
+                } else {
+                    if (!active.hasRoom(recordSize)) {
+                        // Takes the free segment: the compacted one is dropped right after
+                        active = newSegment();
+                    }
+                    locations[slot] = location(active, active.copyFrom(segment, offset));
+                    segment.markDead(offset);
+                }
+            }
+            offset += recordSize;
+        }
+    }
+
+    // Write lock held
+    private void roll() throws IOException {
+        // Full tier: the oldest segment goes first (its entries are lost).
+        // One segment stays free for compaction.
+        while (segments.size() >= maxSegments - 1) {
+            LogSegment oldest = segmentOrder.peekFirst();
+            if (oldest == null || oldest == active) {
+                break;
+            }
+            unindex(oldest);
+            dropSegment(oldest);
+        }
+        active = newSegment();
+    }
+
+    private LogSegment newSegment() throws IOException {
+        int id = nextSegmentId++;
+        Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        LogSegment segment = new LogSegment(id, path, segmentSize);
+        segments.put(id, segment);
+        segmentOrder.addLast(segment);
+        return segment;
+    }
+
+    // Write lock held
+    private void unindex(LogSegment segment) {
+        int offset = 0;
+        while (offset < segment.writeOffset()) {
+            byte[] key = segment.keyAt(offset);
+            int slot = find(hash(new String(key, StandardCharsets.UTF_8)), key);
+            if (slot >= 0 && locations[slot] == location(segment, offset)) {
+                delete(slot);
+            }
+            offset += segment.recordSizeAt(offset);
+        }
+    }
+
+    private void dropSegment(LogSegment segment) throws IOException {
+        segments.remove(segment.id);
+        segmentOrder.remove(segment);
+        segment.delete();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void markDead(long location) {
+        segmentOf(location).markDead(offsetOf(location));
+    }
+
+    private LogSegment segmentOf(long location) {
+        return segments.get(segmentIdOf(location));
+    }
+
+    private static long location(LogSegment segment, int offset) {
+        return ((long) segment.id << 32) | offset;
+    }
+
+    private static int segmentIdOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return slot holding the key, or -1 if absent
+     */
+    private int find(int hash, byte[] key) {
+        int mask = locations.length - 1;
+        int slot = hash & mask;
+
+        while (locations[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                long location = locations[slot];
+                if (segmentOf(location).keyEquals(offsetOf(location), key)) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int hash, long location) {
+        if (size + 1 > locations.length / 2) {
+            resize();
+        }
+        place(hash, location);
+        size++;
+    }
+
+    /**
+     * Deletes the slot and shifts later probes back, so lookups
+     * never need tombstones.
+     */
+    private void delete(int slot) {
+        int mask = locations.length - 1;
+        int hole = slot;
+        int next = slot;
+
+        while (true) {
+            next = (next + 1) & mask;
+            if (locations[next] == EMPTY) {
+                break;
+            }
+
+            int home = hashes[next] & mask;
+            boolean movable = (hole <= next)
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                hashes[hole] = hashes[next];
+                locations[hole] = locations[next];
+                hole = next;
+            }
+        }
+
+        locations[hole] = EMPTY;
+        hashes[hole] = 0;
+        size--;
+    }
+
+    private void place(int hash, long location) {
+        int mask = locations.length - 1;
+        int slot = hash & mask;
+        while (locations[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        locations[slot] = location;
+    }
+
+    private void resize() {
+        int[] oldHashes = hashes;
+        long[] oldLocations = locations;
+
+        hashes = new int[oldLocations.length * 2];
+        locations = new long[oldLocations.length * 2];
+        for (int i = 0; i < oldLocations.length; i++) {
+            if (oldLocations[i] != EMPTY) {
+                place(oldHashes[i], oldLocations[i]);
+            }
+        }
+    }
+}
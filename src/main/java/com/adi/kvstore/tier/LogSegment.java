@@ -0,0 +1,154 @@
+package com.adi.kvstore.tier;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-size, memory-mapped file of the disk tier.
+ *
+ * Records are only appended; a record that is overwritten, removed or
+ * expired becomes dead space until the segment is compacted.
+ *
+ * Record layout:
+ *   [int keyLength][int valueLength][long expiryTime][key UTF-8][value UTF-8]
+ *
+ * This class is NOT thread-safe; DiskTier guards it with its lock.
+ */
+final class LogSegment {
+
+    static final int HEADER_SIZE = 16;
+
+    final int id;
+    final Path path;
+    final MappedByteBuffer buffer;
+
+    private final FileChannel channel;
+
+    private int writeOffset;
+    private long liveBytes;
+
+    LogSegment(int id, Path path, int size) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    static int recordSize(int keyLength, int valueLength) {
+        return HEADER_SIZE + keyLength + valueLength;
+    }
+
+    boolean hasRoom(int recordSize) {
+        return writeOffset + recordSize <= buffer.capacity();
+    }
+
+    /**
+     * @return offset of the appended record
+     */
+    int append(byte[] key, byte[] value, long expiryTime) {
+        int offset = writeOffset;
+        buffer.putInt(offset, key.length);
+        buffer.putInt(offset + 4, value.length);
+        buffer.putLong(offset + 8, expiryTime);
+        buffer.put(offset + HEADER_SIZE, key);
+        buffer.put(offset + HEADER_SIZE + key.length, value);
+
+        int size = recordSize(key.length, value.length);
+        writeOffset += size;
+        liveBytes += size;
+        return offset;
+    }
+
+    /**
+     * Copies a record of another segment as-is (used by compaction).
+     *
+     * @return offset of the copied record
+     */
+    int copyFrom(LogSegment source, int sourceOffset) {
+        int size = source.recordSizeAt(sourceOffset);
+        int offset = writeOffset;
+        buffer.put(offset, source.buffer, sourceOffset, size);
+        writeOffset += size;
+        liveBytes += size;
+        return offset;
+    }
+
+    void markDead(int offset) {
+        liveBytes -= recordSizeAt(offset);
+    }
+
+    int recordSizeAt(int offset) {
+        return recordSize(buffer.getInt(offset), buffer.getInt(offset + 4));
+    }
+
+    int keyLengthAt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    long expiryTimeAt(int offset) {
+        return buffer.getLong(offset + 8);
+    }
+
+    byte[] keyAt(int offset) {
+        byte[] key = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER_SIZE, key);
+        return key;
+    }
+
+    byte[] valueAt(int offset) {
+        int keyLength = buffer.getInt(offset);
+        byte[] value = new byte[buffer.getInt(offset + 4)];
+        buffer.get(offset + HEADER_SIZE + keyLength, value);
+        return value;
+    }
+
+    boolean keyEquals(int offset, byte[] key) {
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + HEADER_SIZE + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int writeOffset() {
+        return writeOffset;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    long deadBytes() {
+        return writeOffset - liveBytes;
+    }
+
+    /**
+     * Frees the disk blocks and deletes the file. The file is truncated
+     * first: a deleted file keeps its blocks while it is still mapped,
+     * and Java only unmaps the buffer when it is garbage collected.
+     * The segment must not be read afterwards.
+     */
+    void delete() throws IOException {
+        try {
+            channel.truncate(0);
+        } finally {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.adi.kvstore.cdc;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyspaceEventStreamTest {
+
+    private final AtomicLong time = new AtomicLong(1_000);
+    private KeyspaceEventStream stream;
+
+    @AfterEach
+    void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Test
+    void readReportsPublishedAndOverwrittenSlots() {
+        stream = new KeyspaceEventStream(4, time::get);
+        // Publishing is skipped without a subscriber
+        stream.subscribe(e -> { });
+        KeyspaceEvent event = new KeyspaceEvent();
+
+        assertEquals(KeyspaceEventStream.NOT_PUBLISHED, stream.read(0, event));
+
+        stream.onPut(new Entry("k", "v", 5_000));
+        assertEquals(KeyspaceEventStream.READ, stream.read(0, event));
+        assertEquals(0, event.getSequence());
+        assertEquals(KeyspaceEventType.PUT, event.getType());
+        assertEquals("k", event.getKey());
+        assertEquals("v", event.getValue());
+        assertEquals(5_000, event.getExpiryTime());
+        assertEquals(1_000, event.getTimestamp());
+
+        // Four more events wrap the ring over slot 0
+        for (int i = 1; i <= 4; i++) {
+            stream.onRemove("k" + i);
+        }
+        assertEquals(KeyspaceEventStream.OVERWRITTEN, stream.read(0, event));
+        assertEquals(KeyspaceEventStream.READ, stream.read(4, event));
+        assertEquals(KeyspaceEventType.REMOVE, event.getType());
+        assertEquals("k4", event.getKey());
+        assertEquals(KeyspaceEventStream.NOT_PUBLISHED, stream.read(5, event));
+    }
+
+    @Test
+    void concurrentWritersNeverProduceTornEvents() throws InterruptedException {
+        stream = new KeyspaceEventStream(8, time::get);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong outOfOrder = new AtomicLong();
+        long[] last = {-1};
+        // A tiny ring and DROP: slots are rewritten while the subscriber copies them
+        Subscription subscription = stream.subscribe(e -> {
+            if (!e.getValue().startsWith(e.getKey() + ":")) {
+                torn.incrementAndGet();
+            }
+            if (e.getSequence() <= last[0]) {
+                outOfOrder.incrementAndGet();
+            }
+            last[0] = e.getSequence();
+        });
+
+        int writers = 4;
+        int eventsPerWriter = 5_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            String key = "writer-" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < eventsPerWriter; i++) {
+                    stream.onPut(new Entry(key, key + ":" + i, -1));
+                    // As the store does after every operation: flushes deferred events
+                    stream.onCommit();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long published = (long) writers * eventsPerWriter;
+        assertEquals(published, stream.publishedCount());
+        await(() -> subscription.delivered() + subscription.dropped() == published);
+        assertEquals(0, torn.get());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(0, subscription.failures());
+    }
+
+    @Test
+    void blockingSubscriberHoldsEventsUntilCommitAndLosesNone() throws InterruptedException {
+        stream = new KeyspaceEventStream(2, time::get);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong next = new AtomicLong();
+        AtomicLong gaps = new AtomicLong();
+        Subscription subscription = stream.subscribe(e -> {
+            if (e.getSequence() != next.getAndIncrement()) {
+                gaps.incrementAndGet();
+            }
+            awaitQuietly(release);
+        }, "", EnumSet.allOf(KeyspaceEventType.class), OverflowPolicy.BLOCK);
+
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                // Never waits here: the subscriber is stuck on event 0
+                stream.onPut(new Entry("k" + i, "v" + i, -1));
+            }
+            published.countDown();
+            stream.onCommit();
+            committed.countDown();
+        });
+        writer.start();
+
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        assertEquals(5, stream.publishedCount());
+        assertEquals(KeyspaceEventStream.NOT_PUBLISHED, stream.read(4, new KeyspaceEvent()));
+        assertFalse(committed.await(50, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        await(() -> subscription.delivered() == 5);
+        assertEquals(0, gaps.get());
+        assertEquals(0, subscription.dropped());
+    }
+
+    @Test
+    void failingListenerAfterTheStreamStillReleasesHeldEvents() throws InterruptedException {
+        stream = new KeyspaceEventStream(2, time::get);
+        CountDownLatch release = new CountDownLatch(1);
+        Subscription subscription = stream.subscribe(e -> awaitQuietly(release),
+                "", EnumSet.allOf(KeyspaceEventType.class), OverflowPolicy.BLOCK);
+
+        ConcurrentKVStore store = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), time::get);
+        store.addMutationListener(stream);
+        store.addMutationListener(new MutationListener() {
+            @Override
+            public void onPut(Entry entry) {
+                if (entry.getKey().equals("bad")) {
+                    throw new IllegalStateException("listener failed");
+                }
+            }
+
+            @Override
+            public void onRemove(String key) {
+            }
+        });
+
+        AtomicLong failures = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            store.put("k0", "v0");
+            store.put("k1", "v1");
+            try {
+                // The subscriber is stuck on event 0: this event is held until commit
+                store.put("bad", "v2");
+            } catch (IllegalStateException e) {
+                failures.incrementAndGet();
+            }
+        });
+        try {
+            writer.start();
+            await(() -> stream.publishedCount() == 3);
+            release.countDown();
+            writer.join(5_000);
+
+            // The writer never writes again: only its commit can publish the event
+            assertEquals(1, failures.get());
+            await(() -> subscription.delivered() == 3);
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void blockingSubscriberCannotWriteToTheStream() {
+        stream = new KeyspaceEventStream(4, time::get);
+        Subscription subscription = stream.subscribe(e -> {
+            if (e.getKey().equals("trigger")) {
+                stream.onPut(new Entry("echo", "x", -1));
+            }
+        }, "", EnumSet.allOf(KeyspaceEventType.class), OverflowPolicy.BLOCK);
+
+        stream.onPut(new Entry("trigger", "1", -1));
+        await(() -> subscription.failures() == 1);
+
+        // Rejected before a sequence number was claimed
+        assertEquals(1, stream.publishedCount());
+    }
+
+    @Test
+    void subscriptionFiltersByPrefixAndType() {
+        stream = new KeyspaceEventStream(64, time::get);
+        AtomicLong matched = new AtomicLong();
+        Subscription subscription = stream.subscribe(e -> matched.incrementAndGet(),
+                "user:", EnumSet.of(KeyspaceEventType.PUT), OverflowPolicy.DROP);
+
+        stream.onPut(new Entry("user:1", "a", -1));
+        stream.onPut(new Entry("item:1", "b", -1));
+        stream.onRemove("user:1");
+        stream.onExpire(new Entry("user:2", "c", 900));
+        stream.onPut(new Entry("user:3", "d", -1));
+
+        await(() -> subscription.lag() == 0);
+        assertEquals(2, matched.get());
+        assertEquals(2, subscription.delivered());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not reached");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
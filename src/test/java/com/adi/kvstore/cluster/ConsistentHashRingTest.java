@@ -0,0 +1,109 @@
+package com.adi.kvstore.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void addingANodeMovesAboutOneNthOfTheKeysToIt() {
+        ConsistentHashRing ring = ring(4);
+        Map<String, String> before = placement(ring);
+
+        ConsistentHashRing grown = ring.withNode("node-4");
+        int moved = 0;
+        for (Map.Entry<String, String> e : before.entrySet()) {
+            String owner = grown.nodeFor(e.getKey());
+            if (!owner.equals(e.getValue())) {
+                // Keys only ever move to the new node
+                assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+
+        double fraction = (double) moved / KEYS;
+        assertTrue(fraction > 0.15 && fraction < 0.25, "moved " + fraction + ", expected about 1/5");
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsKeys() {
+        ConsistentHashRing ring = ring(5);
+        Map<String, String> before = placement(ring);
+
+        ConsistentHashRing shrunk = ring.withoutNode("node-2");
+        int moved = 0;
+        for (Map.Entry<String, String> e : before.entrySet()) {
+            String owner = shrunk.nodeFor(e.getKey());
+            if (e.getValue().equals("node-2")) {
+                moved++;
+            } else {
+                assertEquals(e.getValue(), owner);
+            }
+        }
+
+        double fraction = (double) moved / KEYS;
+        assertTrue(fraction > 0.15 && fraction < 0.25, "moved " + fraction + ", expected about 1/5");
+    }
+
+    @Test
+    void virtualNodesBalanceOwnership() {
+        ConsistentHashRing ring = ring(8);
+
+        double total = 0;
+        for (double share : ring.ownership().values()) {
+            assertTrue(share > 0.125 * 0.7 && share < 0.125 * 1.3, "share " + share);
+            total += share;
+        }
+        assertEquals(1.0, total, 1e-9);
+
+        Map<String, Integer> counts = new HashMap<>();
+        placement(ring).values().forEach(node -> counts.merge(node, 1, Integer::sum));
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS / 8 * 0.7 && count < KEYS / 8 * 1.3, "count " + count);
+        }
+    }
+
+    @Test
+    void placementIsDeterministic() {
+        ConsistentHashRing a = ring(3);
+        ConsistentHashRing b = new ConsistentHashRing(160).withNode("node-2").withNode("node-0").withNode("node-1");
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(a.nodeFor("user:" + i), b.nodeFor("user:" + i));
+        }
+    }
+
+    @Test
+    void invalidChangesAreRejected() {
+        ConsistentHashRing ring = ring(1);
+
+        assertThrows(IllegalArgumentException.class, () -> ring.withNode("node-0"));
+        assertThrows(IllegalArgumentException.class, () -> ring.withoutNode("node-9"));
+        assertThrows(IllegalStateException.class, () -> new ConsistentHashRing(160).nodeFor("k"));
+    }
+
+    private static ConsistentHashRing ring(int nodes) {
+        ConsistentHashRing ring = new ConsistentHashRing(160);
+        for (int i = 0; i < nodes; i++) {
+            ring = ring.withNode("node-" + i);
+        }
+        return ring;
+    }
+
+    private static Map<String, String> placement(ConsistentHashRing ring) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user:" + i;
+            owners.put(key, ring.nodeFor(key));
+        }
+        return owners;
+    }
+}
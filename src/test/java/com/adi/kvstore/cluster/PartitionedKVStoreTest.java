@@ -0,0 +1,153 @@
+package com.adi.kvstore.cluster;
+
+import com.adi.kvstore.api.ScanPage;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.concurrency.OrderedStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.impl.OrderedKVStore;
+import com.adi.kvstore.time.Clock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedKVStoreTest {
+
+    private static final int KEYS = 2_000;
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final Clock clock = time::get;
+    private final List<ConcurrentKVStore> stores = new ArrayList<>();
+    private final PartitionedKVStore cluster = new PartitionedKVStore();
+
+    @AfterEach
+    void shutdown() {
+        cluster.close();
+        stores.forEach(ConcurrentKVStore::shutdown);
+    }
+
+    @Test
+    void addingANodeMovesItsKeysWithTheirTtl() {
+        Map<String, OrderedKVStore> nodes = new LinkedHashMap<>();
+        nodes.put("a", newNode());
+        nodes.put("b", newNode());
+        cluster.addNodes(nodes);
+        for (int i = 0; i < KEYS; i++) {
+            if (i % 2 == 0) {
+                cluster.put("key-" + i, "v" + i);
+            } else {
+                cluster.put("key-" + i, "v" + i, 60_000);
+            }
+        }
+
+        nodes.put("c", newNode());
+        long moved = cluster.addNode("c", nodes.get("c"));
+
+        assertTrue(moved > 0);
+        assertEquals(moved, count(nodes.get("c")));
+        assertEquals(KEYS, count(nodes.get("a")) + count(nodes.get("b")) + count(nodes.get("c")));
+        for (int i = 0; i < KEYS; i++) {
+            String key = "key-" + i;
+            assertEquals("v" + i, cluster.get(key));
+            assertEquals((i % 2 == 0) ? -1 : 60_000, cluster.ttl(key));
+            // Each key lives on its owner only
+            assertEquals("v" + i, nodes.get(cluster.nodeFor(key)).get(key));
+        }
+    }
+
+    @Test
+    void removingANodeMovesItsKeysToTheRest() {
+        Map<String, OrderedKVStore> nodes = new LinkedHashMap<>();
+        nodes.put("a", newNode());
+        nodes.put("b", newNode());
+        nodes.put("c", newNode());
+        cluster.addNodes(nodes);
+        for (int i = 0; i < KEYS; i++) {
+            cluster.put("key-" + i, "v" + i);
+        }
+        long onB = count(nodes.get("b"));
+
+        assertEquals(onB, cluster.removeNode("b"));
+        assertEquals(0, count(nodes.get("b")));
+        assertEquals(List.of("a", "c"), cluster.nodeIds());
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("v" + i, cluster.get("key-" + i));
+        }
+    }
+
+    @Test
+    void writeReachingTheSourceDuringAMoveIsNotDeleted() {
+        String[] raced = new String[1];
+        // Simulates a thread that still routes with the previous ring: it
+        // writes to the source between the copy's read and its removal
+        OrderedKVStore a = new OrderedKVStore(new OrderedStorageEngine(), new DefaultExpirationPolicy(), clock) {
+            @Override
+            public long ttl(String key) {
+                if (raced[0] == null) {
+                    raced[0] = key;
+                    put(key, "newer");
+                }
+                return super.ttl(key);
+            }
+        };
+        stores.add(a);
+        cluster.addNode("a", a);
+        for (int i = 0; i < KEYS; i++) {
+            cluster.put("key-" + i, "v" + i);
+        }
+
+        cluster.addNode("b", newNode());
+
+        assertEquals("newer", a.get(raced[0]));
+    }
+
+    @Test
+    void conditionalRemoveGoesToTheOwner() {
+        cluster.addNode("a", newNode());
+        cluster.addNode("b", newNode());
+        cluster.put("k", "v");
+
+        assertFalse(cluster.remove("k", "other"));
+        assertEquals("v", cluster.get("k"));
+        assertTrue(cluster.remove("k", "v"));
+        assertNull(cluster.get("k"));
+    }
+
+    @Test
+    void nodesThatCannotBeEnumeratedOnlyJoinAnEmptyCluster() {
+        ConcurrentKVStore plain = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), clock);
+        stores.add(plain);
+        cluster.addNode("plain", plain);
+
+        assertThrows(IllegalStateException.class, () -> cluster.addNode("b", newNode()));
+        assertEquals(List.of("plain"), cluster.nodeIds());
+    }
+
+    private OrderedKVStore newNode() {
+        OrderedKVStore node = new OrderedKVStore(new OrderedStorageEngine(), new DefaultExpirationPolicy(), clock);
+        stores.add(node);
+        return node;
+    }
+
+    private static long count(OrderedKVStore node) {
+        long count = 0;
+        String cursor = null;
+        do {
+            ScanPage page = node.scan("", cursor, 256);
+            count += page.entries().size();
+            cursor = page.cursor();
+        } while (cursor != null);
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.adi.kvstore.compact;
+
+import com.adi.kvstore.core.Entry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactStorageEngineTest {
+
+    @Test
+    void deletesKeepCompressedAndPlainNeighboursReadable() {
+        // One segment, so removes shift slots that hold both value encodings
+        CompactStorageEngine engine = new CompactStorageEngine(1, 16);
+        for (int i = 0; i < 100; i++) {
+            engine.put("k" + i, new Entry("k" + i, value(i), -1));
+        }
+
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(engine.remove("k" + i, new Entry("k" + i, value(i), -1)));
+        }
+
+        assertEquals(50, engine.entrySet().size());
+        for (int i = 1; i < 100; i += 2) {
+            assertEquals(value(i), engine.get("k" + i).getValue(), "k" + i);
+        }
+    }
+
+    @Test
+    void conditionalRemoveLeavesANewerEntry() {
+        CompactStorageEngine engine = new CompactStorageEngine();
+        Entry old = new Entry("k", "old", 100);
+        engine.put("k", old);
+        engine.put("k", new Entry("k", "new", 100));
+
+        assertFalse(engine.remove("k", old));
+        assertEquals("new", engine.get("k").getValue());
+
+        assertTrue(engine.remove("k", new Entry("k", "new", 100)));
+        assertNull(engine.get("k"));
+    }
+
+    @Test
+    void compressedValuesRoundTrip() {
+        CompactStorageEngine engine = new CompactStorageEngine(4, 64);
+        String large = "abc".repeat(1000);
+
+        engine.put("large", new Entry("large", large, 7));
+        engine.put("small", new Entry("small", "abc", -1));
+
+        assertEquals(large, engine.get("large").getValue());
+        assertEquals(7, engine.get("large").getExpiryTime());
+        assertEquals("abc", engine.get("small").getValue());
+        assertTrue(engine.remove("large", new Entry("large", large, 7)));
+    }
+
+    private static String value(int i) {
+        return (i % 3 == 0) ? "abc".repeat(20) + i : "v" + i;
+    }
+}
@@ -0,0 +1,161 @@
+package com.adi.kvstore.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinearProbingTableTest {
+
+    private final IntTable table = new IntTable();
+
+    @Test
+    void deleteShiftsAWrappedChainBack() {
+        // Home slots 6, 6, 6, 0 in a table of 8: the chain wraps past the end
+        table.insert(1, 6);
+        table.insert(2, 6);
+        table.insert(3, 6);
+        table.insert(4, 0);
+        assertEquals(1, table.find(4, 0));
+
+        table.delete(table.find(1, 6));
+
+        assertEquals(6, table.find(2, 6));
+        assertEquals(7, table.find(3, 6));
+        assertEquals(0, table.find(4, 0));
+        assertTrue(table.isEmpty(1));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void deleteNeverMovesAnEntryBeforeItsHomeSlot() {
+        table.insert(1, 2);
+        table.insert(2, 3);
+        table.insert(3, 2);
+
+        // 3 could fill the hole at 2; 2 lives at its home slot 3 and stays
+        table.delete(table.find(1, 2));
+
+        assertEquals(3, table.find(2, 3));
+        assertEquals(2, table.find(3, 2));
+        assertTrue(table.isEmpty(4));
+    }
+
+    @Test
+    void growthKeepsEveryKeyReachable() {
+        for (int key = 0; key < 100; key++) {
+            table.insert(key, key * 7);
+        }
+        assertEquals(256, table.capacity());
+
+        for (int key = 0; key < 100; key += 2) {
+            table.delete(table.find(key, key * 7));
+        }
+        for (int key = 0; key < 100; key++) {
+            assertEquals(key % 2 == 1, table.find(key, key * 7) >= 0, "key " + key);
+        }
+        assertEquals(50, table.size());
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new LinearProbingTable(12) {
+            @Override
+            protected boolean isEmpty(int slot) {
+                return true;
+            }
+
+            @Override
+            protected int hashAt(int slot) {
+                return 0;
+            }
+
+            @Override
+            protected void moveSlot(int from, int to) {
+            }
+
+            @Override
+            protected void clearSlot(int slot) {
+            }
+
+            @Override
+            protected void rehash(int newCapacity) {
+            }
+        });
+        assertFalse(table.capacity() == 0);
+    }
+
+    /**
+     * Int keys with a caller-chosen hash, so tests can place collisions.
+     */
+    private static final class IntTable extends LinearProbingTable {
+        int[] keys = new int[8];
+        int[] hashes = new int[8];
+        boolean[] used = new boolean[8];
+
+        IntTable() {
+            super(8);
+        }
+
+        void insert(int key, int hash) {
+            ensureCapacityForOneMore(3, 4);
+            int slot = freeSlot(hash);
+            keys[slot] = key;
+            hashes[slot] = hash;
+            used[slot] = true;
+            size++;
+        }
+
+        int find(int key, int hash) {
+            for (int slot = firstSlot(hash); !isEmpty(slot); slot = nextSlot(slot)) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        protected boolean isEmpty(int slot) {
+            return !used[slot];
+        }
+
+        @Override
+        protected int hashAt(int slot) {
+            return hashes[slot];
+        }
+
+        @Override
+        protected void moveSlot(int from, int to) {
+            keys[to] = keys[from];
+            hashes[to] = hashes[from];
+            used[to] = true;
+        }
+
+        @Override
+        protected void clearSlot(int slot) {
+            used[slot] = false;
+        }
+
+        @Override
+        protected void rehash(int newCapacity) {
+            int[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            boolean[] oldUsed = used;
+
+            keys = new int[newCapacity];
+            hashes = new int[newCapacity];
+            used = new boolean[newCapacity];
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = freeSlot(oldHashes[i]);
+                    keys[slot] = oldKeys[i];
+                    hashes[slot] = oldHashes[i];
+                    used[slot] = true;
+                }
+            }
+        }
+    }
+}
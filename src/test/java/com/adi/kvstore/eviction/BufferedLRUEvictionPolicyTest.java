@@ -0,0 +1,113 @@
+package com.adi.kvstore.eviction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BufferedLRUEvictionPolicyTest {
+
+    @Test
+    void evictsLeastRecentlyUsedFirst() {
+        BufferedLRUEvictionPolicy policy = new BufferedLRUEvictionPolicy();
+        policy.onAccess("a");
+        policy.onAccess("b");
+        policy.onAccess("c");
+        // Buffered read, applied when a candidate is selected
+        policy.onAccess("a");
+
+        assertEquals(List.of("b", "c", "a"), drain(policy));
+    }
+
+    @Test
+    void batchAccessAppliesInOrder() {
+        BufferedLRUEvictionPolicy policy = new BufferedLRUEvictionPolicy();
+        policy.onAccessAll(List.of("a", "b", "c"));
+        policy.onAccessAll(List.of("b", "a"));
+
+        assertEquals(List.of("c", "b", "a"), drain(policy));
+    }
+
+    @Test
+    void removedKeyIsNeverACandidate() {
+        BufferedLRUEvictionPolicy policy = new BufferedLRUEvictionPolicy();
+        policy.onAccess("a");
+        policy.onAccess("b");
+        policy.onAccess("b");
+        policy.onRemove("b");
+
+        assertEquals(List.of("a"), drain(policy));
+    }
+
+    @Test
+    void concurrentAccessesNeverDuplicateKeys() throws Exception {
+        BufferedLRUEvictionPolicy policy = new BufferedLRUEvictionPolicy();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        String key = "k" + random.nextInt(200);
+                        if (i % 4 == 0) {
+                            policy.onAccessAll(List.of(key, "k" + random.nextInt(200)));
+                        } else {
+                            policy.onAccess(key);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<String> candidates = drain(policy);
+        assertEquals(200, candidates.size());
+        assertEquals(200, new HashSet<>(candidates).size());
+    }
+
+    @Test
+    void plainLruKeepsOneEntryPerKey() {
+        LRUEvictionPolicy policy = new LRUEvictionPolicy();
+        for (int round = 0; round < 3; round++) {
+            for (String key : List.of("a", "b", "c")) {
+                policy.onAccess(key);
+            }
+        }
+        policy.onAccess("a");
+
+        List<String> candidates = drain(policy);
+        assertEquals(List.of("b", "c", "a"), candidates);
+        assertEquals(Set.copyOf(candidates).size(), candidates.size());
+    }
+
+    private static List<String> drain(EvictionPolicy policy) {
+        List<String> candidates = new ArrayList<>();
+        String key;
+        while ((key = policy.selectEvictionCandidate()) != null) {
+            candidates.add(key);
+        }
+        assertNull(policy.selectEvictionCandidate());
+        return candidates;
+    }
+}
@@ -0,0 +1,66 @@
+package com.adi.kvstore.eviction;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedMemoryTrackerTest {
+
+    @Test
+    void stringsAboveLatin1WeighTwoBytesPerChar() {
+        String latin1 = "é".repeat(1000);
+        String cjk = "世".repeat(1000);
+
+        assertEquals(1000, EntrySizeEstimator.estimate(cjk) - EntrySizeEstimator.estimate(latin1));
+        // One char outside Latin-1 inflates the whole backing array
+        assertEquals(EntrySizeEstimator.estimate(cjk),
+                EntrySizeEstimator.estimate("世" + "a".repeat(999)));
+    }
+
+    @Test
+    void overwritesTrackOnlyTheWeightDifference() {
+        WeightedMemoryTracker tracker = new WeightedMemoryTracker(1 << 20);
+        EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new LRUEvictionPolicy(), tracker, () -> 0);
+
+        store.put("k", "small");
+        assertEquals(weight("k", "small"), tracker.getCurrentBytes());
+
+        store.put("k", "世".repeat(500));
+        assertEquals(weight("k", "世".repeat(500)), tracker.getCurrentBytes());
+
+        store.put("k", "tiny");
+        store.put("other", "x");
+        assertEquals(weight("k", "tiny") + weight("other", "x"), tracker.getCurrentBytes());
+
+        store.remove("k");
+        store.remove("other");
+        assertEquals(0, tracker.getCurrentBytes());
+    }
+
+    @Test
+    void byteBudgetEvictsLeastRecentlyUsedEntries() {
+        long perEntry = weight("key-00", "世".repeat(100));
+        WeightedMemoryTracker tracker = new WeightedMemoryTracker(10 * perEntry);
+        EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new LRUEvictionPolicy(), tracker, () -> 0);
+
+        for (int i = 0; i < 20; i++) {
+            store.put(String.format("key-%02d", i), "世".repeat(100));
+        }
+
+        assertTrue(tracker.getCurrentBytes() <= 10 * perEntry);
+        assertNull(store.get("key-00"));
+        assertEquals("世".repeat(100), store.get("key-19"));
+    }
+
+    private static long weight(String key, String value) {
+        return EntrySizeEstimator.estimate(new Entry(key, value, -1));
+    }
+}
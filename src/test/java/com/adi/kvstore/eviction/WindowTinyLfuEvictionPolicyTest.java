@@ -0,0 +1,114 @@
+package com.adi.kvstore.eviction;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowTinyLfuEvictionPolicyTest {
+
+    @Test
+    void frequentKeysSurviveAScanOfOneHitKeys() {
+        SimpleMemoryTracker tracker = new SimpleMemoryTracker(100);
+        EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new WindowTinyLfuEvictionPolicy(100), tracker, () -> 0);
+
+        for (int i = 0; i < 50; i++) {
+            store.put("hot-" + i, "v");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                store.get("hot-" + i);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            store.put("scan-" + i, "v");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("v", store.get("hot-" + i), "hot-" + i);
+        }
+        assertTrue(tracker.getCurrentEntries() <= 100);
+    }
+
+    @Test
+    void plainTinyLfuRejectsAColderNewcomer() {
+        WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(2, 0);
+
+        assertTrue(policy.onAdmit("a"));
+        assertTrue(policy.onAdmit("b"));
+        policy.onAccessAll(List.of("a", "b", "a", "b"));
+
+        assertFalse(policy.onAdmit("c"));
+        assertNotNull(policy.selectEvictionCandidate());
+    }
+
+    @Test
+    void duelLoserIsEvictedFirst() {
+        WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(3);
+        admitHotPair(policy);
+
+        // c passes through the window and loses its duel against a
+        assertTrue(policy.onAdmit("c"));
+        assertTrue(policy.onAdmit("d"));
+
+        assertEquals("c", policy.selectEvictionCandidate());
+        assertEquals(Set.of("a", "b", "d"), new HashSet<>(drain(policy)));
+    }
+
+    @Test
+    void removedLoserIsNotReturnedAsACandidate() {
+        WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(3);
+        admitHotPair(policy);
+        assertTrue(policy.onAdmit("c"));
+        assertTrue(policy.onAdmit("d"));
+
+        policy.onRemove("c");
+
+        assertFalse(drain(policy).contains("c"));
+    }
+
+    @Test
+    void rewrittenLoserIsTrackedAgainAndQueuedOnce() {
+        WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(3);
+        admitHotPair(policy);
+        assertTrue(policy.onAdmit("c"));
+        assertTrue(policy.onAdmit("d"));
+
+        // Removed and written again, then loses the next duel too
+        policy.onRemove("c");
+        assertTrue(policy.onAdmit("c"));
+        assertTrue(policy.onAdmit("e"));
+
+        List<String> candidates = drain(policy);
+        assertEquals(1, candidates.stream().filter("c"::equals).count());
+        assertEquals(Set.of("a", "b", "c", "d", "e"), new HashSet<>(candidates));
+    }
+
+    private static void admitHotPair(WindowTinyLfuEvictionPolicy policy) {
+        assertTrue(policy.onAdmit("a"));
+        assertTrue(policy.onAdmit("b"));
+        policy.onAccessAll(List.of("a", "b", "a", "b", "a", "b"));
+    }
+
+    private static List<String> drain(EvictionPolicy policy) {
+        List<String> candidates = new ArrayList<>();
+        String key;
+        while ((key = policy.selectEvictionCandidate()) != null) {
+            candidates.add(key);
+        }
+        assertNull(policy.selectEvictionCandidate());
+        return candidates;
+    }
+}
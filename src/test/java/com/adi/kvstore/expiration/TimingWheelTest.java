@@ -0,0 +1,98 @@
+package com.adi.kvstore.expiration;
+
+import com.adi.kvstore.core.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void entriesCascadeDownAndFireAtTheirTick() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        // One entry per level: 64, 64^2 and 64^3 ticks wide
+        long[] expiries = {10, 100, 5_000, 300_000};
+        for (long expiry : expiries) {
+            wheel.onPut("k" + expiry, new Entry("k" + expiry, "v", expiry));
+        }
+
+        for (long expiry : expiries) {
+            assertEquals(0, expire(wheel, expiry - 1), "early at " + expiry);
+            assertEquals(1, expire(wheel, expiry), "due at " + expiry);
+            assertEquals(List.of("k" + expiry), fired);
+            fired.clear();
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entryNeverFiresBeforeItsExpiryTime() {
+        TimingWheel wheel = new TimingWheel(10, 0);
+        // Rounded up to the next tick
+        wheel.onPut("k", new Entry("k", "v", 1_234));
+
+        assertEquals(0, expire(wheel, 1_233));
+        assertEquals(1, expire(wheel, 1_240));
+    }
+
+    @Test
+    void entriesSharingABucketAreSplitOnCascade() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        // Both start in the same level-1 bucket (ticks 64..127)
+        wheel.onPut("a", new Entry("a", "v", 70));
+        wheel.onPut("b", new Entry("b", "v", 120));
+
+        assertEquals(0, expire(wheel, 69));
+        assertEquals(1, expire(wheel, 70));
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, expire(wheel, 119));
+        assertEquals(1, expire(wheel, 120));
+        assertEquals(List.of("a", "b"), fired);
+    }
+
+    @Test
+    void overwriteAndRemoveUnschedule() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        Entry first = new Entry("k", "v1", 100);
+        wheel.onPut("k", first);
+        wheel.onPut("k", new Entry("k", "v2", 5_000));
+        wheel.onPut("gone", new Entry("gone", "v", 200));
+        wheel.onRemove("gone", new Entry("gone", "v", 200));
+        wheel.onPut("ttl-removed", new Entry("ttl-removed", "v", 300));
+        wheel.onPut("ttl-removed", new Entry("ttl-removed", "v", -1));
+
+        assertEquals(1, wheel.size());
+        assertEquals(0, expire(wheel, 4_999));
+        assertEquals(1, expire(wheel, 5_000));
+        assertEquals(List.of("k"), fired);
+    }
+
+    @Test
+    void alreadyDueEntryFiresOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(1, 1_000);
+        wheel.onPut("late", new Entry("late", "v", 500));
+
+        assertEquals(1, expire(wheel, 1_000));
+    }
+
+    @Test
+    void refusedRemovalIsNotCounted() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        wheel.onPut("k", new Entry("k", "v", 10));
+
+        // The store found a newer value for the key
+        assertEquals(0, wheel.expire(20, (key, entry) -> false));
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    private int expire(TimingWheel wheel, long now) {
+        return wheel.expire(now, (key, entry) -> fired.add(key));
+    }
+}
@@ -0,0 +1,171 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.collection.ScoredMember;
+import com.adi.kvstore.compact.CompactStorageEngine;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.core.ValueType;
+import com.adi.kvstore.core.WrongTypeException;
+import com.adi.kvstore.eviction.LRUEvictionPolicy;
+import com.adi.kvstore.eviction.SimpleMemoryTracker;
+import com.adi.kvstore.eviction.WeightedMemoryTracker;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectionOperationsTest {
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final WeightedMemoryTracker tracker = new WeightedMemoryTracker(1 << 20);
+    private final EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(),
+            new DefaultExpirationPolicy(), new LRUEvictionPolicy(), tracker, time::get);
+
+    @Test
+    void hashFieldsAreUpdatedInPlace() {
+        assertTrue(store.hset("h", "a", "1"));
+        assertFalse(store.hset("h", "a", "2"));
+        assertTrue(store.hset("h", "b", "3"));
+
+        assertEquals(ValueType.HASH, store.type("h"));
+        assertEquals("2", store.hget("h", "a"));
+        assertEquals(Map.of("a", "2", "b", "3"), store.hgetAll("h"));
+        assertEquals(2, store.hlen("h"));
+
+        assertTrue(store.hdel("h", "a"));
+        assertFalse(store.hdel("h", "a"));
+        assertTrue(store.hdel("h", "b"));
+        // The last field removed the key
+        assertNull(store.type("h"));
+        assertEquals(0, store.hlen("h"));
+    }
+
+    @Test
+    void listsPushAndPopAtBothEnds() {
+        assertEquals(2, store.lpush("l", "b", "a"));
+        assertEquals(4, store.rpush("l", "c", "d"));
+
+        assertEquals(List.of("a", "b", "c", "d"), store.lrange("l", 0, -1));
+        assertEquals(List.of("c", "d"), store.lrange("l", -2, 10));
+        assertEquals(List.of(), store.lrange("l", 3, 1));
+
+        assertEquals("a", store.lpop("l"));
+        assertEquals("d", store.rpop("l"));
+        assertEquals(2, store.llen("l"));
+        store.lpop("l");
+        store.lpop("l");
+        assertNull(store.lpop("l"));
+        assertNull(store.type("l"));
+    }
+
+    @Test
+    void sortedSetOrdersByScore() {
+        assertTrue(store.zadd("z", 3, "c"));
+        assertTrue(store.zadd("z", 1, "a"));
+        assertTrue(store.zadd("z", 2, "b"));
+        assertFalse(store.zadd("z", 5, "a"));
+
+        assertEquals(5.0, store.zscore("z", "a"));
+        assertEquals(List.of(new ScoredMember(2, "b"), new ScoredMember(3, "c")),
+                store.zrangeByScore("z", 0, 10, 2));
+        assertEquals(List.of(new ScoredMember(3, "c"), new ScoredMember(5, "a")),
+                store.zrangeByScore("z", 3, 5, 10));
+        assertThrows(IllegalArgumentException.class, () -> store.zadd("z", Double.NaN, "x"));
+
+        assertTrue(store.zrem("z", "b"));
+        assertEquals(2, store.zcard("z"));
+    }
+
+    @Test
+    void commandsOnAnotherKindOfValueThrowWrongType() {
+        store.put("s", "string");
+        store.hset("h", "f", "v");
+        store.rpush("l", "x");
+
+        assertThrows(WrongTypeException.class, () -> store.hset("s", "f", "v"));
+        assertThrows(WrongTypeException.class, () -> store.lpush("h", "x"));
+        assertThrows(WrongTypeException.class, () -> store.zadd("l", 1, "x"));
+        assertThrows(WrongTypeException.class, () -> store.hget("l", "f"));
+        assertThrows(WrongTypeException.class, () -> store.get("h"));
+        assertThrows(WrongTypeException.class, () -> store.incrementBy("l", 1));
+
+        // Failed commands left every value untouched
+        assertEquals("string", store.get("s"));
+        assertEquals("v", store.hget("h", "f"));
+        assertEquals(List.of("x"), store.lrange("l", 0, -1));
+
+        // Overwriting with a string is allowed
+        store.put("h", "now a string");
+        assertEquals(ValueType.STRING, store.type("h"));
+    }
+
+    @Test
+    void ttlAppliesToTheWholeCollection() {
+        store.hset("h", "f", "v");
+        assertEquals(-1, store.ttl("h"));
+        assertTrue(store.expire("h", 100));
+
+        store.hset("h", "g", "w");
+        assertEquals(100, store.ttl("h"));
+
+        time.addAndGet(100);
+        assertNull(store.type("h"));
+        assertNull(store.hget("h", "f"));
+        // A write after expiry starts a new hash without TTL
+        assertTrue(store.hset("h", "f", "new"));
+        assertEquals(Map.of("f", "new"), store.hgetAll("h"));
+        assertEquals(-1, store.ttl("h"));
+    }
+
+    @Test
+    void inPlaceMutationsAreWeighedAndEvicted() {
+        store.rpush("l", "x");
+        long oneItem = tracker.getCurrentBytes();
+        store.rpush("l", "y".repeat(1000));
+        assertTrue(tracker.getCurrentBytes() > oneItem + 1000);
+        store.rpop("l");
+        assertEquals(oneItem, tracker.getCurrentBytes());
+        store.rpop("l");
+        assertEquals(0, tracker.getCurrentBytes());
+
+        SimpleMemoryTracker entries = new SimpleMemoryTracker(2);
+        EvictingKVStore small = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new LRUEvictionPolicy(), entries, time::get);
+        small.hset("a", "f", "v");
+        small.rpush("b", "x");
+        small.zadd("c", 1, "m");
+
+        assertNull(small.type("a"));
+        assertEquals(2, entries.getCurrentEntries());
+    }
+
+    @Test
+    void unsupportedConfigurationsRejectCollectionWrites() {
+        EvictingKVStore compact = new EvictingKVStore(new CompactStorageEngine(), new DefaultExpirationPolicy(),
+                new LRUEvictionPolicy(), new SimpleMemoryTracker(10), time::get);
+        assertFalse(compact.supportsCollections());
+        assertThrows(UnsupportedOperationException.class, () -> compact.hset("h", "f", "v"));
+        assertNull(compact.type("h"));
+
+        store.addMutationListener(new MutationListener() {
+            @Override
+            public void onPut(Entry entry) {
+            }
+
+            @Override
+            public void onRemove(String key) {
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> store.rpush("l", "x"));
+        assertNull(store.type("l"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.concurrency.BackgroundScheduler;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.eviction.BufferedLRUEvictionPolicy;
+import com.adi.kvstore.eviction.SimpleMemoryTracker;
+import com.adi.kvstore.eviction.WindowTinyLfuEvictionPolicy;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EvictingKVStoreTest {
+
+    // The timer never fires during a test: only triggered runs drain
+    private final BackgroundScheduler scheduler = new BackgroundScheduler(3_600_000);
+    private final Queue<Runnable> maintenance = new ArrayDeque<>();
+    private final SimpleMemoryTracker tracker = new SimpleMemoryTracker(10);
+    private final EvictingKVStore store = new EvictingKVStore(new ConcurrentStorageEngine(),
+            new DefaultExpirationPolicy(), new BufferedLRUEvictionPolicy(), tracker, () -> 0, scheduler);
+
+    @BeforeEach
+    void queueMaintenance() {
+        store.setMaintenanceExecutor(maintenance::add);
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.stop();
+    }
+
+    @Test
+    void writersLeaveEvictionToTheMaintainer() {
+        for (int i = 0; i < 11; i++) {
+            store.put("k" + i, "v");
+        }
+        assertEquals(11, tracker.getCurrentEntries());
+        // At most one run is pending at a time
+        assertEquals(1, maintenance.size());
+
+        runMaintenance();
+        assertEquals(10, tracker.getCurrentEntries());
+        assertNull(store.get("k0"));
+    }
+
+    @Test
+    void bufferedReadsAreAppliedBeforeEvicting() {
+        for (int i = 0; i < 11; i++) {
+            store.put("k" + i, "v");
+        }
+        runMaintenance();
+
+        store.get("k1");
+        store.put("k11", "v");
+        runMaintenance();
+
+        assertEquals("v", store.get("k1"));
+        assertNull(store.get("k2"));
+        assertEquals(10, tracker.getCurrentEntries());
+    }
+
+    @Test
+    void admissionIsDecidedWhenTheKeyIsDrained() {
+        SimpleMemoryTracker small = new SimpleMemoryTracker(2);
+        EvictingKVStore tinyLfu = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new WindowTinyLfuEvictionPolicy(2, 0), small, () -> 0, scheduler);
+        tinyLfu.setMaintenanceExecutor(maintenance::add);
+        tinyLfu.put("a", "v");
+        tinyLfu.put("b", "v");
+        for (int i = 0; i < 5; i++) {
+            tinyLfu.get("a");
+            tinyLfu.get("b");
+        }
+
+        // Stored at once, rejected by TinyLFU on drain
+        tinyLfu.put("cold", "v");
+        assertEquals("v", tinyLfu.get("cold"));
+        runMaintenance();
+
+        assertNull(tinyLfu.get("cold"));
+        assertEquals("v", tinyLfu.get("a"));
+        assertEquals("v", tinyLfu.get("b"));
+        assertEquals(2, small.getCurrentEntries());
+    }
+
+    @Test
+    void rejectedMaintenanceRunsOnTheWriter() {
+        store.setMaintenanceExecutor(task -> {
+            throw new RejectedExecutionException("stopped");
+        });
+
+        for (int i = 0; i < 50; i++) {
+            store.put("k" + i, "v");
+        }
+
+        assertEquals(10, tracker.getCurrentEntries());
+        assertEquals("v", store.get("k49"));
+    }
+
+    private void runMaintenance() {
+        Runnable task;
+        while ((task = maintenance.poll()) != null) {
+            task.run();
+        }
+    }
+}
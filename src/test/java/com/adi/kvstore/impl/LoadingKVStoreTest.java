@@ -0,0 +1,135 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadingKVStoreTest {
+
+    private static final long TTL = 1_000;
+    private static final long REFRESH_AHEAD = 200;
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final ConcurrentKVStore delegate = new ConcurrentKVStore(new ConcurrentStorageEngine(),
+            new DefaultExpirationPolicy(), time::get);
+    // Background reloads run only when the test says so
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+
+    @AfterEach
+    void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingKVStore store = new LoadingKVStore(delegate, key -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "loaded";
+        }, refreshes::add);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> store.get("k")));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Give the other callers time to reach the in-flight load
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("loaded", delegate.get("k"));
+    }
+
+    @Test
+    void hitNearExpiryIsRefreshedInTheBackground() {
+        AtomicInteger version = new AtomicInteger();
+        LoadingKVStore store = new LoadingKVStore(delegate, key -> "v" + version.incrementAndGet(),
+                TTL, REFRESH_AHEAD, refreshes::add);
+
+        assertEquals("v1", store.get("k"));
+        time.addAndGet(TTL - REFRESH_AHEAD - 1);
+        assertEquals("v1", store.get("k"));
+        assertTrue(refreshes.isEmpty());
+
+        time.addAndGet(1);
+        assertEquals("v1", store.get("k"));
+        // One refresh in flight at a time
+        assertEquals("v1", store.get("k"));
+        assertEquals(1, refreshes.size());
+
+        refreshes.poll().run();
+        assertEquals("v2", store.get("k"));
+        // The refreshed value got a full TTL
+        assertEquals(TTL, delegate.ttl("k"));
+    }
+
+    @Test
+    void refreshNeverOverwritesANewerWrite() {
+        LoadingKVStore store = new LoadingKVStore(delegate, key -> "loaded", TTL, REFRESH_AHEAD, refreshes::add);
+
+        store.get("k");
+        time.addAndGet(TTL - REFRESH_AHEAD);
+        store.get("k");
+        store.put("k", "written");
+
+        refreshes.poll().run();
+        assertEquals("written", store.get("k"));
+    }
+
+    @Test
+    void loadNeverOverwritesAWriteThatRacedIt() {
+        LoadingKVStore store = new LoadingKVStore(delegate, key -> {
+            delegate.put(key, "written");
+            return "loaded";
+        }, refreshes::add);
+
+        assertEquals("written", store.get("k"));
+        assertEquals("written", delegate.get("k"));
+    }
+
+    @Test
+    void failedLoadIsReportedAndRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        LoadingKVStore store = new LoadingKVStore(delegate, key -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new Exception("backend down");
+            }
+            return "loaded";
+        }, refreshes::add);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> store.get("k"));
+        assertEquals("backend down", e.getCause().getMessage());
+        assertEquals("loaded", store.get("k"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.adi.kvstore.impl;
+
+import com.adi.kvstore.api.ScanPage;
+import com.adi.kvstore.concurrency.OrderedStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedKVStoreTest {
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final OrderedKVStore store = new OrderedKVStore(new OrderedStorageEngine(),
+            new DefaultExpirationPolicy(), time::get);
+
+    @AfterEach
+    void shutdown() {
+        store.shutdown();
+    }
+
+    @Test
+    void prefixScanPagesThroughMatchingKeysInOrder() {
+        for (int i = 0; i < 25; i++) {
+            store.put(String.format("user:%02d", i), "v" + i);
+        }
+        store.put("user", "exact");
+        store.put("users", "after");
+        store.put("order:1", "before");
+
+        List<String> keys = new ArrayList<>();
+        String cursor = null;
+        do {
+            ScanPage page = store.scan("user:", cursor, 10);
+            assertTrue(page.entries().size() <= 10);
+            keys.addAll(page.entries().keySet());
+            cursor = page.cursor();
+        } while (cursor != null);
+
+        assertEquals(25, keys.size());
+        assertEquals("user:00", keys.get(0));
+        assertEquals("user:24", keys.get(24));
+    }
+
+    @Test
+    void fullLastPageEndsTheScan() {
+        store.put("a:1", "v");
+        store.put("a:2", "v");
+        store.put("b:1", "v");
+
+        ScanPage page = store.scan("a:", null, 2);
+
+        assertEquals(2, page.entries().size());
+        assertTrue(page.isComplete());
+    }
+
+    @Test
+    void cursorBeforeThePrefixRestartsAtThePrefixKey() {
+        store.put("b", "prefix itself");
+        store.put("b1", "v");
+        store.put("a", "v");
+
+        ScanPage page = store.scan("b", "a", 10);
+
+        assertEquals(List.of("b", "b1"), new ArrayList<>(page.entries().keySet()));
+        assertTrue(page.isComplete());
+
+        ScanPage range = store.range("b", null, "a", 10);
+        assertEquals(List.of("b", "b1"), new ArrayList<>(range.entries().keySet()));
+    }
+
+    @Test
+    void cursorResumesAfterARemovedKey() {
+        for (int i = 0; i < 6; i++) {
+            store.put("k" + i, "v");
+        }
+
+        ScanPage first = store.scan("k", null, 3);
+        assertEquals("k2", first.cursor());
+        store.remove("k2");
+
+        ScanPage second = store.scan("k", first.cursor(), 3);
+        assertEquals(List.of("k3", "k4", "k5"), new ArrayList<>(second.entries().keySet()));
+        assertTrue(second.isComplete());
+    }
+
+    @Test
+    void expiredRunIsSkippedWithinABoundedBudget() {
+        for (int i = 0; i < 100; i++) {
+            store.put(String.format("k%03d", i), "v", 10);
+        }
+        store.put("k999", "live");
+        time.addAndGet(10);
+
+        // limit 1 examines at most 10 keys per call
+        ScanPage page = store.scan("k", null, 1);
+        assertTrue(page.entries().isEmpty());
+        assertEquals("k009", page.cursor());
+
+        int calls = 1;
+        String cursor = page.cursor();
+        while (cursor != null) {
+            page = store.scan("k", cursor, 1);
+            cursor = page.cursor();
+            calls++;
+            if (!page.entries().isEmpty()) {
+                assertEquals("live", page.entries().get("k999"));
+            }
+        }
+        assertEquals(11, calls);
+    }
+
+    @Test
+    void rangeExcludesTheUpperBound() {
+        store.put("a", "v");
+        store.put("b", "v");
+        store.put("c", "v");
+
+        ScanPage page = store.range("a", "c", null, 10);
+
+        assertEquals(List.of("a", "b"), new ArrayList<>(page.entries().keySet()));
+        assertTrue(page.isComplete());
+        assertNull(store.range("d", null, null, 10).cursor());
+        assertFalse(store.range("", null, null, 1).isComplete());
+        assertThrows(IllegalArgumentException.class, () -> store.scan("a", null, 0));
+    }
+}
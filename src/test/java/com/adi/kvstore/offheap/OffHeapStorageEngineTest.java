@@ -0,0 +1,63 @@
+package com.adi.kvstore.offheap;
+
+import com.adi.kvstore.core.Entry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapStorageEngineTest {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    @Test
+    void freedChunksAreReusedUnderChurn() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(4L * SLAB_SIZE, SLAB_SIZE, 4);
+
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 100; i++) {
+                String key = "key-" + i;
+                engine.put(key, new Entry(key, "value-" + round, -1));
+            }
+            for (int i = 0; i < 100; i += 2) {
+                engine.remove("key-" + i);
+            }
+        }
+
+        // 20,000 overwrites and 10,000 removes fit in the slabs of one round
+        assertTrue(engine.getReservedBytes() <= 2L * SLAB_SIZE);
+        for (int i = 0; i < 100; i++) {
+            Entry entry = engine.get("key-" + i);
+            if (i % 2 == 0) {
+                assertNull(entry, "key-" + i);
+            } else {
+                assertEquals("value-199", entry.getValue(), "key-" + i);
+            }
+        }
+    }
+
+    @Test
+    void conditionalRemoveComparesValueAndExpiry() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(4L * SLAB_SIZE, SLAB_SIZE, 4);
+        engine.put("k", new Entry("k", "v", 100));
+
+        assertFalse(engine.remove("k", new Entry("k", "v", 200)));
+        assertFalse(engine.remove("k", new Entry("k", "other", 100)));
+        assertTrue(engine.remove("k", new Entry("k", "v", 100)));
+        assertNull(engine.get("k"));
+    }
+
+    @Test
+    void exhaustedCapacityIsReported() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(SLAB_SIZE, SLAB_SIZE, 1);
+
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; ; i++) {
+                engine.put("k" + i, new Entry("k" + i, "x".repeat(100), -1));
+            }
+        });
+    }
+}
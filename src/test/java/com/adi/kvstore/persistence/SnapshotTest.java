@@ -0,0 +1,127 @@
+package com.adi.kvstore.persistence;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.time.Clock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final Clock clock = time::get;
+    private final List<ConcurrentKVStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void shutdownStores() {
+        stores.forEach(ConcurrentKVStore::shutdown);
+    }
+
+    @Test
+    void roundTripRestoresLiveEntriesAcrossBlocks() throws IOException {
+        ConcurrentStorageEngine storage = new ConcurrentStorageEngine();
+        ConcurrentKVStore store = newStore(storage);
+        Map<String, String> expected = new HashMap<>();
+        // Values large enough to span several 1 MB blocks
+        String padding = "x".repeat(1000);
+        for (int i = 0; i < 5_000; i++) {
+            store.put("k" + i, padding + i);
+            expected.put("k" + i, padding + i);
+        }
+        store.put("ttl", "t", 60_000);
+        store.put("unicode", "héllo 世界");
+        expected.put("unicode", "héllo 世界");
+        store.put("gone", "g", 10);
+        time.addAndGet(50);
+
+        Path file = dir.resolve("kv.snapshot");
+        assertEquals(expected.size() + 1, Snapshot.write(storage, new DefaultExpirationPolicy(), clock, file));
+        assertFalse(Files.exists(dir.resolve("kv.snapshot.tmp")));
+
+        for (int threads : new int[] {1, 4}) {
+            ConcurrentKVStore restored = newStore(new ConcurrentStorageEngine());
+            assertEquals(expected.size() + 1, Snapshot.restore(file, restored, clock, threads));
+            for (Map.Entry<String, String> e : expected.entrySet()) {
+                assertEquals(e.getValue(), restored.get(e.getKey()));
+            }
+            assertEquals(60_000 - 50, restored.ttl("ttl"));
+            assertNull(restored.get("gone"));
+        }
+    }
+
+    @Test
+    void restoreSkipsEntriesThatExpiredSinceTheDump() throws IOException {
+        ConcurrentStorageEngine storage = new ConcurrentStorageEngine();
+        ConcurrentKVStore store = newStore(storage);
+        store.put("short", "s", 100);
+        store.put("long", "l", 10_000);
+
+        Path file = dir.resolve("kv.snapshot");
+        Snapshot.write(storage, new DefaultExpirationPolicy(), clock, file);
+        time.addAndGet(1_000);
+
+        ConcurrentKVStore restored = newStore(new ConcurrentStorageEngine());
+        assertEquals(1, Snapshot.restore(file, restored, clock, 1));
+        assertNull(restored.get("short"));
+        assertEquals(9_000, restored.ttl("long"));
+    }
+
+    @Test
+    void corruptBlockFailsTheRestore() throws IOException {
+        ConcurrentStorageEngine storage = new ConcurrentStorageEngine();
+        ConcurrentKVStore store = newStore(storage);
+        for (int i = 0; i < 100; i++) {
+            store.put("k" + i, "v" + i);
+        }
+        Path file = dir.resolve("kv.snapshot");
+        Snapshot.write(storage, new DefaultExpirationPolicy(), clock, file);
+
+        // First record of the first block: past the file and block headers
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long position = 8 + 12 + 16;
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x55));
+            b.rewind();
+            channel.write(b, position);
+        }
+
+        assertThrows(IOException.class, () -> Snapshot.restore(file, newStore(new ConcurrentStorageEngine()), clock, 1));
+    }
+
+    @Test
+    void notASnapshotIsRejected() throws IOException {
+        Path file = dir.resolve("kv.snapshot");
+        Files.write(file, "definitely not a snapshot file".getBytes());
+
+        assertThrows(IOException.class, () -> Snapshot.restore(file, newStore(new ConcurrentStorageEngine()), clock, 1));
+    }
+
+    private ConcurrentKVStore newStore(ConcurrentStorageEngine storage) {
+        ConcurrentKVStore store = new ConcurrentKVStore(storage, new DefaultExpirationPolicy(), clock);
+        stores.add(store);
+        return store;
+    }
+}
@@ -0,0 +1,221 @@
+package com.adi.kvstore.persistence;
+
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.time.Clock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final Clock clock = time::get;
+    private final List<ConcurrentKVStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void shutdownStores() {
+        stores.forEach(ConcurrentKVStore::shutdown);
+    }
+
+    @Test
+    void replayRestoresWritesInOrder() throws IOException {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("a", "1");
+            store.put("b", "2");
+            store.put("a", "3");
+            store.remove("b");
+            store.put("t", "ttl", 5_000);
+            store.incrementBy("n", 7);
+        }
+
+        ConcurrentKVStore restored = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            assertEquals(6, log.replay(restored, clock));
+        }
+        assertEquals("3", restored.get("a"));
+        assertNull(restored.get("b"));
+        assertEquals("ttl", restored.get("t"));
+        assertEquals(5_000, restored.ttl("t"));
+        assertEquals("7", restored.get("n"));
+    }
+
+    @Test
+    void replayDropsEntriesThatExpiredWhileDown() throws IOException {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("short", "x", 100);
+            store.put("long", "y", 10_000);
+        }
+
+        time.addAndGet(1_000);
+        ConcurrentKVStore restored = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            log.replay(restored, clock);
+        }
+        assertNull(restored.get("short"));
+        assertEquals(9_000, restored.ttl("long"));
+    }
+
+    @Test
+    void corruptRecordEndsReplayAndIsTruncated() throws IOException {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("k1", "v1");
+            store.put("k2", "v2");
+            store.put("k3", "v3");
+        }
+        long validSize = recordEnd(file, 2);
+
+        // Flip the last byte of the third record's value: its CRC no longer matches
+        flipByte(file, Files.size(file) - 1);
+
+        ConcurrentKVStore restored = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            assertEquals(2, log.replay(restored, clock));
+            assertEquals(validSize, log.size());
+
+            // New records follow the last valid one
+            restored.addMutationListener(log);
+            restored.put("k4", "v4");
+        }
+        assertEquals("v2", restored.get("k2"));
+        assertNull(restored.get("k3"));
+
+        ConcurrentKVStore again = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            assertEquals(3, log.replay(again, clock));
+        }
+        assertEquals("v4", again.get("k4"));
+        assertNull(again.get("k3"));
+    }
+
+    @Test
+    void tornTailIsTruncated() throws IOException {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("k1", "v1");
+            store.put("k2", "v2");
+        }
+        long validSize = recordEnd(file, 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        ConcurrentKVStore restored = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.always())) {
+            assertEquals(1, log.replay(restored, clock));
+            assertEquals(validSize, log.size());
+        }
+        assertEquals("v1", restored.get("k1"));
+        assertNull(restored.get("k2"));
+    }
+
+    @Test
+    void replayAfterFirstAppendIsRejected() throws IOException {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.never())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("k", "v");
+
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> log.replay(newStore(), clock));
+            assertTrue(e.getMessage().contains("replay"));
+        }
+    }
+
+    @Test
+    void neverPolicyWriterIdlesAfterWritesAndReplays() throws Exception {
+        Path file = dir.resolve("kv.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.never())) {
+            ConcurrentKVStore store = newStore();
+            store.addMutationListener(log);
+            store.put("k1", "v1");
+            store.put("k2", "v2");
+
+            // Let the batch reach the file, then measure the idle writer
+            Thread.sleep(200);
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long writerId = writerThread().getId();
+            long before = threads.getThreadCpuTime(writerId);
+            Thread.sleep(500);
+            long spent = threads.getThreadCpuTime(writerId) - before;
+            assertTrue(spent < TimeUnit.MILLISECONDS.toNanos(100), "idle writer used " + spent + " ns of CPU");
+        }
+
+        ConcurrentKVStore restored = newStore();
+        try (WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.never())) {
+            assertEquals(2, log.replay(restored, clock));
+        }
+        assertEquals("v2", restored.get("k2"));
+    }
+
+    private ConcurrentKVStore newStore() {
+        ConcurrentKVStore store = new ConcurrentKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(), clock);
+        stores.add(store);
+        return store;
+    }
+
+    private static Thread writerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("kv-wal-writer"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Offset just past the given number of records ([int bodyLength][int crc][body])
+    private static long recordEnd(Path file, int records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            ByteBuffer length = ByteBuffer.allocate(4);
+            for (int i = 0; i < records; i++) {
+                length.clear();
+                channel.read(length, position);
+                position += 8 + length.getInt(0);
+            }
+            return position;
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x55));
+            b.rewind();
+            channel.write(b, position);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.adi.kvstore.primitive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryKVStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void deletesKeepTheOtherKeysReachable() {
+        BinaryKVStore store = new BinaryKVStore(1_000, 1, now::get);
+        for (int i = 0; i < 100; i++) {
+            store.put(bytes("k" + i), bytes("v" + i));
+        }
+
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(store.remove(bytes("k" + i)));
+        }
+
+        assertEquals(50, store.size());
+        for (int i = 1; i < 100; i += 2) {
+            assertArrayEquals(bytes("v" + i), store.get(bytes("k" + i)), "k" + i);
+        }
+        assertNull(store.get(bytes("k0")));
+    }
+
+    @Test
+    void keysCompareByContent() {
+        BinaryKVStore store = new BinaryKVStore(16, 1, now::get);
+        store.put(bytes("key"), bytes("value"));
+
+        assertArrayEquals(bytes("value"), store.get(bytes("key")));
+        assertEquals(ByteBuffer.wrap(bytes("value")),
+                store.get(ByteBuffer.wrap(bytes("key"))));
+        assertNull(store.get(bytes("ke")));
+        assertTrue(store.remove(bytes("key")));
+        assertFalse(store.remove(bytes("key")));
+    }
+
+    @Test
+    void clockEvictionSparesReferencedEntries() {
+        BinaryKVStore store = new BinaryKVStore(4, 1, now::get);
+        for (int key = 1; key <= 4; key++) {
+            store.put(bytes("k" + key), bytes("v"));
+        }
+        store.get(bytes("k1"));
+        store.get(bytes("k2"));
+
+        store.put(bytes("k5"), bytes("v"));
+
+        assertEquals(4, store.size());
+        assertNotNull(store.get(bytes("k1")));
+        assertNotNull(store.get(bytes("k2")));
+        assertNotNull(store.get(bytes("k5")));
+        assertTrue(store.get(bytes("k3")) == null ^ store.get(bytes("k4")) == null);
+    }
+
+    @Test
+    void expiredEntriesAreHidden() {
+        BinaryKVStore store = new BinaryKVStore(16, 1, now::get);
+        store.put(bytes("k"), bytes("v"), 10);
+        store.put(bytes("gone"), bytes("v"), 0);
+
+        assertNotNull(store.get(bytes("k")));
+        assertNull(store.get(bytes("gone")));
+
+        now.addAndGet(10);
+        assertNull(store.get(bytes("k")));
+        assertFalse(store.remove(bytes("k")));
+        assertThrows(IllegalArgumentException.class, () -> store.put(null, bytes("v")));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.adi.kvstore.primitive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongKVStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void deletesKeepTheOtherKeysReachable() {
+        LongKVStore store = new LongKVStore(1_000, 1, now::get);
+        for (long key = 0; key < 100; key++) {
+            store.put(key, new byte[]{(byte) key});
+        }
+
+        for (long key = 0; key < 100; key += 2) {
+            assertTrue(store.remove(key));
+        }
+
+        assertEquals(50, store.size());
+        for (long key = 1; key < 100; key += 2) {
+            assertArrayEquals(new byte[]{(byte) key}, store.get(key), "key " + key);
+        }
+        assertNull(store.get(0));
+    }
+
+    @Test
+    void clockEvictionSparesReferencedEntries() {
+        LongKVStore store = new LongKVStore(4, 1, now::get);
+        for (long key = 1; key <= 4; key++) {
+            store.put(key, new byte[]{(byte) key});
+        }
+        store.get(1);
+        store.get(2);
+
+        store.put(5, new byte[]{5});
+
+        assertEquals(4, store.size());
+        assertNotNull(store.get(1));
+        assertNotNull(store.get(2));
+        assertNotNull(store.get(5));
+        assertTrue(store.get(3) == null ^ store.get(4) == null);
+    }
+
+    @Test
+    void expiredEntriesAreHiddenAndReclaimedFirst() {
+        LongKVStore store = new LongKVStore(3, 1, now::get);
+        store.put(1, new byte[]{1}, 10);
+        store.put(2, new byte[]{2});
+        store.put(3, new byte[]{3});
+        store.get(2);
+        store.get(3);
+
+        now.addAndGet(10);
+        assertNull(store.get(1));
+        assertFalse(store.remove(1));
+
+        store.put(1, new byte[]{1}, 10);
+        now.addAndGet(10);
+        store.put(4, new byte[]{4});
+
+        assertEquals(3, store.size());
+        assertNotNull(store.get(2));
+        assertNotNull(store.get(3));
+        assertNotNull(store.get(4));
+    }
+}
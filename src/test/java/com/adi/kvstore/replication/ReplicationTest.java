@@ -0,0 +1,206 @@
+package com.adi.kvstore.replication;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.time.SystemClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicationTest {
+
+    private static final int BACKLOG_SIZE = 64;
+
+    private final SystemClock clock = new SystemClock();
+
+    private ConcurrentStorageEngine primaryStorage;
+    private ConcurrentKVStore primaryStore;
+    private ReplicationPrimary primary;
+
+    private ConcurrentStorageEngine replicaStorage;
+    private ConcurrentKVStore replicaStore;
+    private ReplicationReplica replica;
+
+    @BeforeEach
+    void startPrimary() throws IOException {
+        primaryStorage = new ConcurrentStorageEngine();
+        primaryStore = new ConcurrentKVStore(primaryStorage, new DefaultExpirationPolicy(), clock);
+        primary = new ReplicationPrimary(primaryStorage, new DefaultExpirationPolicy(), clock,
+                new InetSocketAddress("127.0.0.1", 0), BACKLOG_SIZE);
+        primaryStore.addMutationListener(primary);
+        primary.start();
+
+        replicaStorage = new ConcurrentStorageEngine();
+        replicaStore = new ConcurrentKVStore(replicaStorage, new DefaultExpirationPolicy(), clock);
+        replica = new ReplicationReplica(replicaStore, replicaStorage, clock, "127.0.0.1", primary.getPort());
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        replica.close();
+        primary.close();
+        primaryStore.shutdown();
+        replicaStore.shutdown();
+    }
+
+    @Test
+    void firstConnectionIsAFullSyncThatDropsStaleKeys() {
+        for (int i = 0; i < 500; i++) {
+            primaryStore.put("k" + i, "v" + i);
+        }
+        replicaStore.put("stale", "local only");
+
+        replica.start();
+        awaitCaughtUp();
+
+        assertEquals(1, replica.fullSyncs());
+        assertEquals(contents(primaryStorage), contents(replicaStorage));
+    }
+
+    @Test
+    void reconnectWithinTheBacklogResumes() {
+        replica.start();
+        primaryStore.put("a", "1");
+        awaitCaughtUp();
+        assertEquals(1, replica.fullSyncs());
+
+        replica.close();
+        // Fewer writes than the backlog holds
+        for (int i = 0; i < BACKLOG_SIZE / 2; i++) {
+            primaryStore.put("k" + i, "v" + i);
+        }
+        primaryStore.remove("a");
+        primaryStore.put("ttl", "t", 60_000);
+
+        replica.start();
+        awaitCaughtUp();
+
+        assertEquals(1, replica.fullSyncs());
+        assertEquals(contents(primaryStorage), contents(replicaStorage));
+        assertTrue(replicaStore.ttl("ttl") > 0);
+    }
+
+    @Test
+    void reconnectBeyondTheBacklogFallsBackToAFullSync() {
+        replica.start();
+        primaryStore.put("a", "1");
+        awaitCaughtUp();
+
+        replica.close();
+        // Overwrites the part of the backlog the replica needs
+        for (int i = 0; i < BACKLOG_SIZE * 4; i++) {
+            primaryStore.put("k" + i, "v" + i);
+        }
+        primaryStore.remove("a");
+
+        replica.start();
+        awaitCaughtUp();
+
+        assertEquals(2, replica.fullSyncs());
+        assertEquals(contents(primaryStorage), contents(replicaStorage));
+    }
+
+    @Test
+    void fullSyncResendsAWriteStalledInsideItsAtomicSection() throws InterruptedException {
+        List<String> others = keysOutsideTheBinOf("slow", BACKLOG_SIZE * 2);
+        // Sized up front: a resize would wait for the stalled bin
+        others.forEach(key -> primaryStore.put(key, "0"));
+        primaryStore.put("slow", "old");
+        CountDownLatch release = new CountDownLatch(1);
+        // Runs after the primary numbered the write, before the storage shows it
+        primaryStore.addMutationListener(new MutationListener() {
+            @Override
+            public void onPut(Entry entry) {
+                if (entry.getValue().equals("new")) {
+                    awaitQuietly(release);
+                }
+            }
+
+            @Override
+            public void onRemove(String key) {
+            }
+        });
+        long stalled = primary.headSequence() + 1;
+        Thread writer = new Thread(() -> primaryStore.put("slow", "new"));
+        writer.start();
+        await(() -> primary.headSequence() == stalled);
+
+        // Pushes the stalled record out of the backlog
+        others.forEach(key -> primaryStore.put(key, "1"));
+        replica.start();
+        await(() -> replica.fullSyncs() >= 1);
+
+        release.countDown();
+        writer.join();
+        awaitCaughtUp();
+        assertEquals("new", replicaStore.get("slow"));
+    }
+
+    // ConcurrentHashMap locks a whole bin during compute: keys whose spread
+    // hash differs in the lowest bit never share a bin with the key
+    private static List<String> keysOutsideTheBinOf(String key, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String candidate = "k" + i;
+            if (((spread(candidate) ^ spread(key)) & 1) == 1) {
+                keys.add(candidate);
+            }
+        }
+        return keys;
+    }
+
+    private static int spread(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitCaughtUp() {
+        await(() -> replica.isConnected()
+                && replica.lastAppliedSequence() >= primary.headSequence()
+                && contents(primaryStorage).equals(contents(replicaStorage)));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Replica did not catch up");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static Map<String, String> contents(ConcurrentStorageEngine storage) {
+        Map<String, String> contents = new HashMap<>();
+        storage.entrySet().forEach(e -> contents.put(e.getKey(), e.getValue().getValue()));
+        return contents;
+    }
+}
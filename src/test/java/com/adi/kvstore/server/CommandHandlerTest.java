@@ -0,0 +1,97 @@
+package com.adi.kvstore.server;
+
+import com.adi.kvstore.api.MutationListener;
+import com.adi.kvstore.concurrency.ConcurrentStorageEngine;
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.eviction.LRUEvictionPolicy;
+import com.adi.kvstore.eviction.SimpleMemoryTracker;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import com.adi.kvstore.impl.ConcurrentKVStore;
+import com.adi.kvstore.impl.EvictingKVStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CommandHandlerTest {
+
+    private final ConcurrentKVStore store = new ConcurrentKVStore(new ConcurrentStorageEngine(),
+            new DefaultExpirationPolicy(), System::currentTimeMillis);
+    private final CommandHandler handler = new CommandHandler(store);
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final RespWriter out = new RespWriter(buffer);
+
+    @AfterEach
+    void shutdownStore() {
+        store.shutdown();
+    }
+
+    @Test
+    void delIfEqOnlyWritesWhenTheValueMatches() throws IOException {
+        store.put("k", "v1");
+        List<String> events = new ArrayList<>();
+        store.addMutationListener(new MutationListener() {
+            @Override
+            public void onPut(Entry entry) {
+                events.add("put " + entry.getKey());
+            }
+
+            @Override
+            public void onRemove(String key) {
+                events.add("remove " + key);
+            }
+        });
+
+        assertEquals(":0\r\n", execute("DELIFEQ", "k", "other"));
+        assertEquals(":0\r\n", execute("DELIFEQ", "missing", "v1"));
+        // A mismatch is a read: no WAL record, replication or keyspace event
+        assertEquals(List.of(), events);
+        assertEquals("v1", store.get("k"));
+
+        assertEquals(":1\r\n", execute("DELIFEQ", "k", "v1"));
+        assertEquals(List.of("remove k"), events);
+        assertNull(store.get("k"));
+    }
+
+    @Test
+    void errorRepliesNeverSpanLines() throws IOException {
+        // A bulk string may hold CRLF: echoed as-is it would inject a "+OK" reply
+        assertEquals("-ERR unknown command 'NOPE  +OK'\r\n", execute("NOPE\r\n+OK"));
+
+        store.put("n", "x");
+        assertEquals("-ERR value is not an integer or out of range\r\n", execute("INCRBY", "n", "1\r\n:1"));
+    }
+
+    @Test
+    void collectionCommandsOnAStringKeyReplyWrongType() throws IOException {
+        EvictingKVStore collections = new EvictingKVStore(new ConcurrentStorageEngine(), new DefaultExpirationPolicy(),
+                new LRUEvictionPolicy(), new SimpleMemoryTracker(100), System::currentTimeMillis);
+        CommandHandler collectionHandler = new CommandHandler(collections);
+        collections.put("s", "v");
+
+        String wrongType = "-WRONGTYPE Operation against a key holding the wrong kind of value\r\n";
+        assertEquals(wrongType, execute(collectionHandler, "HSET", "s", "f", "v"));
+        assertEquals(wrongType, execute(collectionHandler, "LPUSH", "s", "x"));
+        assertEquals(":1\r\n", execute(collectionHandler, "RPUSH", "l", "x"));
+        assertEquals(wrongType, execute(collectionHandler, "GET", "l"));
+        assertEquals("+list\r\n", execute(collectionHandler, "TYPE", "l"));
+        assertEquals("$1\r\nv\r\n", execute(collectionHandler, "GET", "s"));
+    }
+
+    private String execute(String... args) throws IOException {
+        return execute(handler, args);
+    }
+
+    private String execute(CommandHandler handler, String... args) throws IOException {
+        buffer.clear();
+        handler.execute(List.of(args), out);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+}
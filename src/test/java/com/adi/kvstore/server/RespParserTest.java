@@ -0,0 +1,101 @@
+package com.adi.kvstore.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RespParserTest {
+
+    private final RespParser parser = new RespParser();
+
+    @Test
+    void parsesArrayOfBulkStrings() {
+        ByteBuffer in = buffer("*3\r\n$3\r\nSET\r\n$1\r\nk\r\n$5\r\nvalue\r\n");
+
+        assertEquals(List.of("SET", "k", "value"), parser.parse(in));
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void bulkStringsAreBinarySafe() {
+        ByteBuffer in = buffer("*2\r\n$3\r\nGET\r\n$4\r\na\r\nb\r\n");
+
+        assertEquals(List.of("GET", "a\r\nb"), parser.parse(in));
+    }
+
+    @Test
+    void bulkLengthCountsUtf8Bytes() {
+        ByteBuffer in = buffer("*1\r\n$6\r\nhé世\r\n");
+
+        assertEquals(List.of("hé世"), parser.parse(in));
+    }
+
+    @Test
+    void incompleteRequestIsLeftInTheBuffer() {
+        String request = "*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n";
+
+        // Every split point: nothing is consumed until the request is whole
+        for (int split = 1; split < request.length(); split++) {
+            ByteBuffer in = buffer(request.substring(0, split));
+            assertNull(parser.parse(in), "split at " + split);
+            assertEquals(0, in.position());
+        }
+        assertEquals(List.of("GET", "key"), parser.parse(buffer(request)));
+    }
+
+    @Test
+    void pipelinedRequestsAreParsedOneAtATime() {
+        ByteBuffer in = buffer("*1\r\n$4\r\nPING\r\n*2\r\n$3\r\nGET\r\n$1\r\nk\r\nPING\r\n*1\r\n$4\r\nPI");
+
+        assertEquals(List.of("PING"), parser.parse(in));
+        assertEquals(List.of("GET", "k"), parser.parse(in));
+        assertEquals(List.of("PING"), parser.parse(in));
+        int position = in.position();
+        assertNull(parser.parse(in));
+        assertEquals(position, in.position());
+    }
+
+    @Test
+    void parsesInlineCommands() {
+        ByteBuffer in = buffer("SET  key   value\r\nGET key\n\r\n");
+
+        assertEquals(List.of("SET", "key", "value"), parser.parse(in));
+        assertEquals(List.of("GET", "key"), parser.parse(in));
+        assertEquals(List.of(), parser.parse(in));
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void emptyArrayIsAnEmptyRequest() {
+        assertEquals(List.of(), parser.parse(buffer("*0\r\n")));
+    }
+
+    @Test
+    void protocolErrorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer("*1\r\n+OK\r\n")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer("*-2\r\n")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer("*1\r\n$x\r\n")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer("*1\r\n$3\r\nabcde\r\n")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer("*1\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> parser.parse(buffer("*1\r\n$" + (RespParser.MAX_BULK_LENGTH + 1) + "\r\n")));
+    }
+
+    @Test
+    void oversizedInlineRequestIsRejected() {
+        String line = "x".repeat(RespParser.MAX_INLINE_LENGTH + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(buffer(line)));
+    }
+
+    private static ByteBuffer buffer(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
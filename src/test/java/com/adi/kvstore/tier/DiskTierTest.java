@@ -0,0 +1,119 @@
+package com.adi.kvstore.tier;
+
+import com.adi.kvstore.core.Entry;
+import com.adi.kvstore.expiration.DefaultExpirationPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskTierTest {
+
+    // Records of a 2-byte key and a 10-byte value: 9 fit in a segment
+    private static final int SEGMENT_SIZE = 256;
+    private static final long MAX_BYTES = 3L * SEGMENT_SIZE;
+
+    @TempDir
+    Path dir;
+
+    private DiskTier tier;
+
+    @AfterEach
+    void closeTier() throws IOException {
+        if (tier != null) {
+            tier.close();
+        }
+    }
+
+    @Test
+    void compactionOfAFullTierKeepsEveryLiveRecord() throws IOException {
+        tier = newTier();
+        for (int i = 0; i < 9; i++) {
+            put("k" + i, "first-" + i + "...");
+        }
+        // Second segment: overwrites make the first one mostly dead, then fill it up
+        for (int i = 1; i <= 5; i++) {
+            put("k" + i, "second-" + i + "..");
+        }
+        for (int i = 1; i <= 4; i++) {
+            put("k" + i, "third--" + i + "..");
+        }
+        assertEquals(2 * SEGMENT_SIZE, tier.diskBytes());
+
+        // The active segment is full: the live records need the free segment
+        assertEquals(1, tier.compact());
+
+        assertEquals("first-0...", value("k0"));
+        assertEquals("third--1..", value("k1"));
+        assertEquals("second-5..", value("k5"));
+        assertEquals("first-8...", value("k8"));
+        assertEquals(2 * SEGMENT_SIZE, tier.diskBytes());
+        assertEquals(2, segmentFiles());
+    }
+
+    @Test
+    void writesKeepOneSegmentFreeForCompaction() throws IOException {
+        tier = newTier();
+        for (int i = 0; i < 100; i++) {
+            put("k" + (i % 10), "value-" + (i % 10) + "...");
+            assertTrue(tier.diskBytes() <= MAX_BYTES - SEGMENT_SIZE);
+        }
+        assertEquals(2, segmentFiles());
+    }
+
+    @Test
+    void expiredRecordsAreNotCopied() throws IOException {
+        long[] now = {1_000};
+        tier = new DiskTier(dir, SEGMENT_SIZE, MAX_BYTES, new DefaultExpirationPolicy(), () -> now[0], 60_000);
+        for (int i = 0; i < 9; i++) {
+            tier.put(new Entry("k" + i, "value-" + i + "...", i < 5 ? 2_000 : -1));
+        }
+        put("k9", "value-9...");
+
+        now[0] = 2_000;
+        assertEquals(1, tier.compact());
+        assertEquals(5, tier.size());
+        assertNull(tier.take("k0"));
+        assertEquals("value-8...", value("k8"));
+    }
+
+    @Test
+    void tooSmallBudgetAndClosedTierAreRejected() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new DiskTier(dir, SEGMENT_SIZE, 2L * SEGMENT_SIZE,
+                new DefaultExpirationPolicy(), () -> 0, 60_000));
+
+        tier = newTier();
+        put("k", "v");
+        tier.close();
+        assertEquals(0, segmentFiles());
+        assertThrows(IllegalStateException.class, () -> put("k", "v"));
+    }
+
+    private DiskTier newTier() throws IOException {
+        return new DiskTier(dir, SEGMENT_SIZE, MAX_BYTES, new DefaultExpirationPolicy(), () -> 0, 60_000);
+    }
+
+    private void put(String key, String value) {
+        assertTrue(tier.put(new Entry(key, value, -1)));
+    }
+
+    private String value(String key) {
+        Entry entry = tier.take(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}